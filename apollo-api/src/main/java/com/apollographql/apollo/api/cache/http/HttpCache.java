@@ -35,6 +35,14 @@ public interface HttpCache {
    * Expire cached response flag http header
    */
   String CACHE_EXPIRE_AFTER_READ_HEADER = "X-APOLLO-EXPIRE-AFTER-READ";
+  /**
+   * Cached response max stale timeout http header
+   */
+  String CACHE_MAX_STALE_HEADER = "X-APOLLO-MAX-STALE";
+  /**
+   * Network deadline http header
+   */
+  String CACHE_NETWORK_DEADLINE_HEADER = "X-APOLLO-NETWORK-DEADLINE";
 
   /**
    * Clear cached http responses
@@ -33,6 +33,16 @@ public final class HttpCachePolicy {
    */
   public static final ExpirePolicy NETWORK_FIRST = new ExpirePolicy(FetchStrategy.NETWORK_FIRST);
 
+  /**
+   * Signals the apollo client to fetch the GraphQL query response from the http cache right away, even if it has
+   * expired, and then to refresh the cached response from the network in the background. The expire timeout, see
+   * {@link ExpirePolicy#expireAfter(long, TimeUnit)}, is the soft one: the responses older than that are still served
+   * but refreshed, and every cache hit is refreshed if it's not set. The responses older than the hard limit, see
+   * {@link ExpirePolicy#maxStale(long, TimeUnit)}, are not served and are fetched from the network instead, as well as
+   * the responses missing in the cache.
+   */
+  public static final ExpirePolicy STALE_WHILE_REVALIDATE = new ExpirePolicy(FetchStrategy.STALE_WHILE_REVALIDATE);
+
   private HttpCachePolicy() {
   }
 
@@ -45,13 +55,27 @@ public final class HttpCachePolicy {
     public final long expireTimeout;
     public final TimeUnit expireTimeUnit;
     public final boolean expireAfterRead;
+    public final long maxStale;
+    public final TimeUnit maxStaleTimeUnit;
+    public final long networkDeadline;
+    public final TimeUnit networkDeadlineTimeUnit;
 
     Policy(FetchStrategy fetchStrategy, long expireTimeout, TimeUnit expireTimeUnit,
            boolean expireAfterRead) {
+      this(fetchStrategy, expireTimeout, expireTimeUnit, expireAfterRead, 0, null, 0, null);
+    }
+
+    Policy(FetchStrategy fetchStrategy, long expireTimeout, TimeUnit expireTimeUnit,
+           boolean expireAfterRead, long maxStale, TimeUnit maxStaleTimeUnit, long networkDeadline,
+           TimeUnit networkDeadlineTimeUnit) {
       this.fetchStrategy = fetchStrategy;
       this.expireTimeout = expireTimeout;
       this.expireTimeUnit = expireTimeUnit;
       this.expireAfterRead = expireAfterRead;
+      this.maxStale = maxStale;
+      this.maxStaleTimeUnit = maxStaleTimeUnit;
+      this.networkDeadline = networkDeadline;
+      this.networkDeadlineTimeUnit = networkDeadlineTimeUnit;
     }
 
     public long expireTimeoutMs() {
@@ -60,6 +84,20 @@ public final class HttpCachePolicy {
       }
       return expireTimeUnit.toMillis(expireTimeout);
     }
+
+    public long maxStaleMs() {
+      if (maxStaleTimeUnit == null) {
+        return 0;
+      }
+      return maxStaleTimeUnit.toMillis(maxStale);
+    }
+
+    public long networkDeadlineMs() {
+      if (networkDeadlineTimeUnit == null) {
+        return 0;
+      }
+      return networkDeadlineTimeUnit.toMillis(networkDeadline);
+    }
   }
 
   /**
@@ -72,8 +110,10 @@ public final class HttpCachePolicy {
     }
 
     private ExpirePolicy(FetchStrategy fetchStrategy, long expireTimeout, TimeUnit expireTimeUnit,
-                         boolean expireAfterRead) {
-      super(fetchStrategy, expireTimeout, expireTimeUnit, expireAfterRead);
+                         boolean expireAfterRead, long maxStale, TimeUnit maxStaleTimeUnit, long networkDeadline,
+                         TimeUnit networkDeadlineTimeUnit) {
+      super(fetchStrategy, expireTimeout, expireTimeUnit, expireAfterRead, maxStale, maxStaleTimeUnit, networkDeadline,
+          networkDeadlineTimeUnit);
     }
 
     /**
@@ -85,7 +125,8 @@ public final class HttpCachePolicy {
      * @return new cache policy
      */
     public ExpirePolicy expireAfter(long expireTimeout, @Nonnull TimeUnit expireTimeUnit) {
-      return new ExpirePolicy(fetchStrategy, expireTimeout, checkNotNull(expireTimeUnit), expireAfterRead);
+      return new ExpirePolicy(fetchStrategy, expireTimeout, checkNotNull(expireTimeUnit), expireAfterRead, maxStale,
+          maxStaleTimeUnit, networkDeadline, networkDeadlineTimeUnit);
     }
 
     /**
@@ -93,7 +134,35 @@ public final class HttpCachePolicy {
      * after it's been read.
      */
     public ExpirePolicy expireAfterRead() {
-      return new ExpirePolicy(fetchStrategy, expireTimeout, expireTimeUnit, true);
+      return new ExpirePolicy(fetchStrategy, expireTimeout, expireTimeUnit, true, maxStale, maxStaleTimeUnit,
+          networkDeadline, networkDeadlineTimeUnit);
+    }
+
+    /**
+     * Create new cache policy with the hard max stale limit, used with {@link #STALE_WHILE_REVALIDATE}. Cached response
+     * older than the limit is never served, it's fetched from the network instead.
+     *
+     * @param maxStale         max age of the cached response that can still be served
+     * @param maxStaleTimeUnit time unit
+     * @return new cache policy
+     */
+    public ExpirePolicy maxStale(long maxStale, @Nonnull TimeUnit maxStaleTimeUnit) {
+      return new ExpirePolicy(fetchStrategy, expireTimeout, expireTimeUnit, expireAfterRead, maxStale,
+          checkNotNull(maxStaleTimeUnit), networkDeadline, networkDeadlineTimeUnit);
+    }
+
+    /**
+     * Create new cache policy with the network deadline, used with {@link #NETWORK_FIRST}. If the network hasn't
+     * responded by the deadline, the cached response is returned instead, while the network response is still written
+     * to the cache when it arrives. The network response is awaited without the deadline if there is no cached one.
+     *
+     * @param networkDeadline         max time to wait for the network response before falling back to the cache
+     * @param networkDeadlineTimeUnit time unit
+     * @return new cache policy
+     */
+    public ExpirePolicy networkDeadline(long networkDeadline, @Nonnull TimeUnit networkDeadlineTimeUnit) {
+      return new ExpirePolicy(fetchStrategy, expireTimeout, expireTimeUnit, expireAfterRead, maxStale,
+          maxStaleTimeUnit, networkDeadline, checkNotNull(networkDeadlineTimeUnit));
     }
   }
 
@@ -118,6 +187,11 @@ public final class HttpCachePolicy {
      * Signals the apollo client to first fetch the GraphQL query response from the network. If it fails then fetch the
      * response from the http cache.
      */
-    NETWORK_FIRST
+    NETWORK_FIRST,
+    /**
+     * Signals the apollo client to fetch the GraphQL query response from the http cache even if it has expired, and to
+     * refresh the expired response from the network in the background.
+     */
+    STALE_WHILE_REVALIDATE
   }
 }
@@ -0,0 +1,58 @@
+package com.apollographql.apollo.benchmark;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.internal.cache.normalized.RealApolloStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RealApolloStore} reading and writing the operation data. Reads go either straight through the
+ * {@link com.apollographql.apollo.cache.normalized.OptimisticNormalizedCache} to the
+ * {@link com.apollographql.apollo.cache.normalized.lru.LruNormalizedCache} or, with {@code optimisticUpdates} set,
+ * have to merge every record with the pending optimistic update first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApolloStoreBenchmark {
+  @Param({"HERO_DETAILS", "HERO_DETAILS_LARGE_LIST", "TWO_HEROES_WITH_FRIENDS", "STARSHIPS"})
+  Fixture fixture;
+
+  @Param({"false", "true"})
+  boolean optimisticUpdates;
+
+  private Operation operation;
+  private Operation.Data data;
+  private RealApolloStore apolloStore;
+
+  @SuppressWarnings("unchecked")
+  @Setup public void setUp() throws Exception {
+    operation = fixture.operation();
+    data = fixture.data(operation);
+    apolloStore = Fixture.newApolloStore();
+    apolloStore.write(operation, data).execute();
+    if (optimisticUpdates) {
+      apolloStore.writeOptimisticUpdates(operation, data, UUID.randomUUID()).execute();
+    }
+  }
+
+  @Benchmark public Object read() throws Exception {
+    return apolloStore.read(operation).execute();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark public Set<String> write() throws Exception {
+    return (Set<String>) apolloStore.write(operation, data).execute();
+  }
+}
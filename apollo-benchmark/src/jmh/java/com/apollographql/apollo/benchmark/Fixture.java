@@ -0,0 +1,158 @@
+package com.apollographql.apollo.benchmark;
+
+import com.apollographql.apollo.CustomTypeAdapter;
+import com.apollographql.apollo.Logger;
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.api.ResponseField;
+import com.apollographql.apollo.api.ScalarType;
+import com.apollographql.apollo.api.internal.Optional;
+import com.apollographql.apollo.cache.normalized.CacheKey;
+import com.apollographql.apollo.cache.normalized.CacheKeyResolver;
+import com.apollographql.apollo.cache.normalized.RecordFieldJsonAdapter;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.cache.normalized.RealApolloStore;
+import com.apollographql.apollo.response.OperationResponseParser;
+import com.apollographql.apollo.response.ScalarTypeAdapters;
+import com.example.hero_details.HeroDetails;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Operations generated by the compiler for its test cases, together with the synthetic responses for them, used as the
+ * input for the benchmarks.
+ */
+enum Fixture {
+  HERO_DETAILS {
+    @Override Operation operation() {
+      return new HeroDetails();
+    }
+
+    @Override ByteString response() {
+      return heroResponse(3);
+    }
+  },
+
+  HERO_DETAILS_LARGE_LIST {
+    @Override Operation operation() {
+      return new HeroDetails();
+    }
+
+    @Override ByteString response() {
+      return heroResponse(LARGE_LIST_SIZE);
+    }
+  },
+
+  TWO_HEROES_WITH_FRIENDS {
+    @Override Operation operation() {
+      return new com.example.two_heroes_with_friends.TestQuery();
+    }
+
+    @Override ByteString response() {
+      StringBuilder json = new StringBuilder("{\"data\":{\"r2\":");
+      appendHero(json, null, "R2-D2", 3);
+      json.append(",\"luke\":");
+      appendHero(json, "1000", "Luke Skywalker", 4);
+      return ByteString.encodeUtf8(json.append("}}").toString());
+    }
+  },
+
+  STARSHIPS {
+    @Override Operation operation() {
+      return new com.example.starships.TestQuery("3000");
+    }
+
+    @Override ByteString response() {
+      StringBuilder json = new StringBuilder("{\"data\":{\"starship\":{\"__typename\":\"Starship\",\"id\":\"3000\","
+          + "\"name\":\"Millennium Falcon\",\"coordinates\":[");
+      for (int i = 0; i < 10; i++) {
+        json.append(i > 0 ? "," : "").append('[').append(i * 1.5).append(',').append(i * 2.5).append(']');
+      }
+      return ByteString.encodeUtf8(json.append("]}}}").toString());
+    }
+  };
+
+  static final int LARGE_LIST_SIZE = 1000;
+
+  static final ScalarTypeAdapters SCALAR_TYPE_ADAPTERS =
+      new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap());
+
+  static final CacheKeyResolver CACHE_KEY_RESOLVER = new CacheKeyResolver() {
+    @Nonnull @Override
+    public CacheKey fromFieldRecordSet(@Nonnull ResponseField field, @Nonnull Map<String, Object> recordSet) {
+      return cacheKey((String) recordSet.get("id"));
+    }
+
+    @Nonnull @Override
+    public CacheKey fromFieldArguments(@Nonnull ResponseField field, @Nonnull Operation.Variables variables) {
+      return cacheKey((String) field.resolveArgument("id", variables));
+    }
+
+    private CacheKey cacheKey(String id) {
+      return id == null || id.isEmpty() ? CacheKey.NO_KEY : CacheKey.from(id);
+    }
+  };
+
+  static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  abstract Operation operation();
+
+  abstract ByteString response();
+
+  /**
+   * Parses the response of this fixture, used to prepare the operation data for the cache benchmarks.
+   */
+  @SuppressWarnings("unchecked") Operation.Data data(Operation operation) throws IOException {
+    Response response = new OperationResponseParser(operation, operation.responseFieldMapper(), SCALAR_TYPE_ADAPTERS)
+        .parse(new Buffer().write(response()));
+    Object data = response.data();
+    return (Operation.Data) (data instanceof Optional ? ((Optional) data).get() : data);
+  }
+
+  /**
+   * Creates the store backed by {@link com.apollographql.apollo.cache.normalized.lru.LruNormalizedCache}, the store
+   * always puts {@link com.apollographql.apollo.cache.normalized.OptimisticNormalizedCache} in front of it.
+   */
+  static RealApolloStore newApolloStore() {
+    return new RealApolloStore(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION)
+        .createChain(RecordFieldJsonAdapter.create()), CACHE_KEY_RESOLVER, SCALAR_TYPE_ADAPTERS, DIRECT_EXECUTOR,
+        new ApolloLogger(Optional.<Logger>absent()));
+  }
+
+  static ByteString heroResponse(int friendCount) {
+    StringBuilder json = new StringBuilder("{\"data\":{\"hero\":");
+    appendHero(json, null, "R2-D2", friendCount);
+    return ByteString.encodeUtf8(json.append("}}").toString());
+  }
+
+  static void appendHero(StringBuilder json, String id, String name, int friendCount) {
+    json.append("{\"__typename\":\"Droid\",");
+    if (id != null) {
+      json.append("\"id\":\"").append(id).append("\",");
+    }
+    json.append("\"name\":\"").append(name).append("\",")
+        .append("\"friendsConnection\":{\"__typename\":\"FriendsConnection\",\"totalCount\":").append(friendCount)
+        .append(",\"edges\":[");
+    for (int i = 0; i < friendCount; i++) {
+      json.append(i > 0 ? "," : "")
+          .append("{\"__typename\":\"FriendsEdge\",\"node\":{\"__typename\":\"Human\",\"name\":\"Friend ")
+          .append(i)
+          .append("\"}}");
+    }
+    json.append("]}}");
+  }
+}
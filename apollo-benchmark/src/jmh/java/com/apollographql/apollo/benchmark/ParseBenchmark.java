@@ -0,0 +1,61 @@
+package com.apollographql.apollo.benchmark;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.cache.normalized.Record;
+import com.apollographql.apollo.internal.cache.normalized.RealApolloStore;
+import com.apollographql.apollo.internal.cache.normalized.ResponseNormalizer;
+import com.apollographql.apollo.response.OperationResponseParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Measures {@link OperationResponseParser} parsing the http response body into the operation data, with and without
+ * normalizing the response into the cache records by {@link ResponseNormalizer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+  @Param({"HERO_DETAILS", "HERO_DETAILS_LARGE_LIST", "TWO_HEROES_WITH_FRIENDS", "STARSHIPS"})
+  Fixture fixture;
+
+  private Operation operation;
+  private ByteString response;
+  private RealApolloStore apolloStore;
+
+  @Setup public void setUp() {
+    operation = fixture.operation();
+    response = fixture.response();
+    apolloStore = Fixture.newApolloStore();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark public Response parse() throws IOException {
+    return new OperationResponseParser(operation, operation.responseFieldMapper(), Fixture.SCALAR_TYPE_ADAPTERS)
+        .parse(new Buffer().write(response));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark public Collection<Record> parseAndNormalize() throws IOException {
+    ResponseNormalizer<Map<String, Object>> normalizer = apolloStore.networkResponseNormalizer();
+    new OperationResponseParser(operation, operation.responseFieldMapper(), Fixture.SCALAR_TYPE_ADAPTERS, normalizer)
+        .parse(new Buffer().write(response));
+    return normalizer.records();
+  }
+}
@@ -0,0 +1,81 @@
+package com.apollographql.apollo.benchmark;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.cache.normalized.Record;
+import com.apollographql.apollo.cache.normalized.RecordFieldJsonAdapter;
+import com.apollographql.apollo.internal.cache.normalized.RealApolloStore;
+import com.apollographql.apollo.internal.cache.normalized.ResponseNormalizer;
+import com.apollographql.apollo.response.OperationResponseParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+
+/**
+ * Measures {@link RecordFieldJsonAdapter} serializing the normalized records of the operation response to JSON and
+ * reading them back, as done by the persistent normalized caches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecordFieldJsonAdapterBenchmark {
+  @Param({"HERO_DETAILS", "HERO_DETAILS_LARGE_LIST", "TWO_HEROES_WITH_FRIENDS", "STARSHIPS"})
+  Fixture fixture;
+
+  private final RecordFieldJsonAdapter adapter = RecordFieldJsonAdapter.create();
+  private List<Map<String, Object>> recordFields;
+  private List<String> recordJson;
+
+  @SuppressWarnings("unchecked")
+  @Setup public void setUp() throws IOException {
+    Operation operation = fixture.operation();
+    RealApolloStore apolloStore = Fixture.newApolloStore();
+    ResponseNormalizer<Map<String, Object>> normalizer = apolloStore.networkResponseNormalizer();
+    new OperationResponseParser(operation, operation.responseFieldMapper(), Fixture.SCALAR_TYPE_ADAPTERS, normalizer)
+        .parse(new Buffer().write(fixture.response()));
+
+    recordFields = new ArrayList<>();
+    recordJson = new ArrayList<>();
+    for (Record record : normalizer.records()) {
+      recordFields.add(record.fields());
+      recordJson.add(adapter.toJson(record.fields()));
+    }
+  }
+
+  @Benchmark public List<String> toJson() {
+    List<String> result = new ArrayList<>(recordFields.size());
+    for (Map<String, Object> fields : recordFields) {
+      result.add(adapter.toJson(fields));
+    }
+    return result;
+  }
+
+  @Benchmark public List<Map<String, Object>> fromJson() throws IOException {
+    List<Map<String, Object>> result = new ArrayList<>(recordJson.size());
+    for (String json : recordJson) {
+      result.add(adapter.from(json));
+    }
+    return result;
+  }
+
+  @Benchmark public List<Map<String, Object>> roundTrip() throws IOException {
+    List<Map<String, Object>> result = new ArrayList<>(recordFields.size());
+    for (Map<String, Object> fields : recordFields) {
+      result.add(adapter.from(adapter.toJson(fields)));
+    }
+    return result;
+  }
+}
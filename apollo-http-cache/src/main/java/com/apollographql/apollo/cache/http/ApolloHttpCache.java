@@ -9,6 +9,14 @@ import com.apollographql.apollo.api.internal.Optional;
 import com.apollographql.apollo.internal.ApolloLogger;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -24,17 +32,31 @@ import static com.apollographql.apollo.cache.http.Utils.copyResponseBody;
 
 @SuppressWarnings("WeakerAccess")
 public final class ApolloHttpCache implements HttpCache {
+  private static final int MAX_BACKGROUND_REQUESTS = 4;
+  private static final int MAX_PENDING_BACKGROUND_REQUESTS = 64;
 
   private final HttpCacheStore cacheStore;
   private final ApolloLogger logger;
+  private final HttpCacheCompression compression;
+  private final Set<String> revalidatingKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private Executor backgroundExecutor;
 
   public ApolloHttpCache(@Nonnull final HttpCacheStore cacheStore) {
     this(cacheStore, null);
   }
 
   public ApolloHttpCache(@Nonnull final HttpCacheStore cacheStore, @Nullable final Logger logger) {
+    this(cacheStore, logger, HttpCacheCompression.NONE);
+  }
+
+  /**
+   * @param compression compression of the cached response bodies, see {@link HttpCacheCompression}
+   */
+  public ApolloHttpCache(@Nonnull final HttpCacheStore cacheStore, @Nullable final Logger logger,
+      @Nonnull final HttpCacheCompression compression) {
     this.cacheStore = checkNotNull(cacheStore, "cacheStore == null");
     this.logger = new ApolloLogger(Optional.fromNullable(logger));
+    this.compression = checkNotNull(compression, "compression == null");
   }
 
   @Override public void clear() {
@@ -81,11 +103,15 @@ public final class ApolloHttpCache implements HttpCache {
         }
       };
 
-      Response response = new ResponseHeaderRecord(responseCacheRecord.headerSource()).response();
+      Response response = responseCacheRecord instanceof TwoTierHttpCacheStore.MemoryCacheRecord
+          ? ((TwoTierHttpCacheStore.MemoryCacheRecord) responseCacheRecord).response()
+          : new ResponseHeaderRecord(responseCacheRecord.headerSource()).response();
       String contentType = response.header("Content-Type");
       String contentLength = response.header("Content-Length");
+      Source bodySource = HttpCacheCompression.decompress(response, cacheResponseSource);
       return response.newBuilder()
-          .body(new CacheResponseBody(cacheResponseSource, contentType, contentLength))
+          .removeHeader(HttpCacheCompression.CACHE_COMPRESSION_HEADER)
+          .body(new CacheResponseBody(bodySource, contentType, contentLength))
           .build();
     } catch (Exception e) {
       closeQuietly(responseCacheRecord);
@@ -105,13 +131,13 @@ public final class ApolloHttpCache implements HttpCache {
       if (cacheRecordEditor != null) {
         Sink headerSink = cacheRecordEditor.headerSink();
         try {
-          new ResponseHeaderRecord(response).writeTo(headerSink);
+          new ResponseHeaderRecord(compression.recordOn(response)).writeTo(headerSink);
         } finally {
           closeQuietly(headerSink);
         }
 
         return response.newBuilder()
-            .body(new ResponseBodyProxy(cacheRecordEditor, response, logger))
+            .body(new ResponseBodyProxy(cacheRecordEditor, response, compression, logger))
             .build();
       }
     } catch (Exception e) {
@@ -128,12 +154,12 @@ public final class ApolloHttpCache implements HttpCache {
       if (cacheRecordEditor != null) {
         Sink headerSink = cacheRecordEditor.headerSink();
         try {
-          new ResponseHeaderRecord(response).writeTo(headerSink);
+          new ResponseHeaderRecord(compression.recordOn(response)).writeTo(headerSink);
         } finally {
           closeQuietly(headerSink);
         }
 
-        Sink bodySink = cacheRecordEditor.bodySink();
+        Sink bodySink = compression.compress(cacheRecordEditor.bodySink());
         try {
           copyResponseBody(response, bodySink);
         } finally {
@@ -148,6 +174,42 @@ public final class ApolloHttpCache implements HttpCache {
     }
   }
 
+  /**
+   * Marks the cached response as being refreshed from the network.
+   *
+   * @return {@code false} if the response is being refreshed already
+   */
+  boolean startRevalidation(@Nonnull String cacheKey) {
+    return revalidatingKeys.add(cacheKey);
+  }
+
+  void finishRevalidation(@Nonnull String cacheKey) {
+    revalidatingKeys.remove(cacheKey);
+  }
+
+  /**
+   * Executor of the network requests that outlive the call they were made for: the background revalidations and the
+   * network responses that have missed the deadline. OkHttp's dispatcher doesn't account for these requests once the
+   * call has returned, so the executor is bounded to at most {@value #MAX_BACKGROUND_REQUESTS} concurrent requests and
+   * {@value #MAX_PENDING_BACKGROUND_REQUESTS} pending ones. Tasks beyond that are rejected with
+   * {@link java.util.concurrent.RejectedExecutionException}.
+   */
+  synchronized Executor backgroundExecutor() {
+    if (backgroundExecutor == null) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_BACKGROUND_REQUESTS, MAX_BACKGROUND_REQUESTS, 60,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(MAX_PENDING_BACKGROUND_REQUESTS), new ThreadFactory() {
+            @Override public Thread newThread(@Nonnull Runnable runnable) {
+              Thread thread = new Thread(runnable, "Apollo HttpCache");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      executor.allowCoreThreadTimeOut(true);
+      backgroundExecutor = executor;
+    }
+    return backgroundExecutor;
+  }
+
   void closeQuietly(HttpCacheRecord cacheRecord) {
     try {
       if (cacheRecord != null) {
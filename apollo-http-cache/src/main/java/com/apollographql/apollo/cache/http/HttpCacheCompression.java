@@ -0,0 +1,88 @@
+package com.apollographql.apollo.cache.http;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import okhttp3.Response;
+import okio.DeflaterSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.InflaterSource;
+import okio.Sink;
+import okio.Source;
+
+/**
+ * Compression of the response bodies stored in the http cache. JSON responses usually compress several times, so more
+ * responses fit into the same cache size at the cost of some CPU time spent on every cache write and read.
+ *
+ * <p>The body is compressed as it is streamed into the cache and decompressed as it is read back. The compression is
+ * recorded with each cached response, so the responses stored with a different compression, or before the compression
+ * has been enabled, are still read correctly.</p>
+ */
+public enum HttpCacheCompression {
+  /**
+   * Bodies are stored as they are
+   */
+  NONE(null),
+  /**
+   * Bodies are stored in the gzip format
+   */
+  GZIP("gzip"),
+  /**
+   * Bodies are stored in the zlib (deflate) format, a bit smaller than gzip
+   */
+  DEFLATE("deflate");
+
+  /**
+   * Header of the cached response record the compression of the body is recorded with, never exposed to the callers
+   */
+  static final String CACHE_COMPRESSION_HEADER = "X-APOLLO-CACHE-COMPRESSION";
+
+  private final String encoding;
+
+  HttpCacheCompression(String encoding) {
+    this.encoding = encoding;
+  }
+
+  /**
+   * Returns the response to write the header record of, with the compression of the body recorded.
+   */
+  Response recordOn(Response response) {
+    Response.Builder builder = response.newBuilder().removeHeader(CACHE_COMPRESSION_HEADER);
+    if (encoding != null) {
+      builder.addHeader(CACHE_COMPRESSION_HEADER, encoding);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Wraps the sink the body is written to with the compressing one.
+   */
+  Sink compress(Sink sink) {
+    switch (this) {
+      case GZIP:
+        return new GzipSink(sink);
+      case DEFLATE:
+        return new DeflaterSink(sink, new Deflater());
+      default:
+        return sink;
+    }
+  }
+
+  /**
+   * Wraps the source the body of the cached response is read from with the decompressing one, according to the
+   * compression recorded with the response.
+   */
+  static Source decompress(Response cachedResponse, Source source) throws IOException {
+    String encoding = cachedResponse.header(CACHE_COMPRESSION_HEADER);
+    if (encoding == null) {
+      return source;
+    } else if (GZIP.encoding.equals(encoding)) {
+      return new GzipSource(source);
+    } else if (DEFLATE.encoding.equals(encoding)) {
+      return new InflaterSource(source, new Inflater());
+    }
+    throw new IOException("Unsupported cache compression: " + encoding);
+  }
+}
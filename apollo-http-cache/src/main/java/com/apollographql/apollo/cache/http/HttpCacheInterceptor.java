@@ -3,6 +3,8 @@ package com.apollographql.apollo.cache.http;
 import com.apollographql.apollo.internal.ApolloLogger;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -12,8 +14,12 @@ import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_KEY_HEADER
 import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 import static com.apollographql.apollo.cache.http.Utils.isNetworkFirst;
 import static com.apollographql.apollo.cache.http.Utils.isNetworkOnly;
+import static com.apollographql.apollo.cache.http.Utils.isPastMaxStale;
 import static com.apollographql.apollo.cache.http.Utils.isPrefetchResponse;
 import static com.apollographql.apollo.cache.http.Utils.isStale;
+import static com.apollographql.apollo.cache.http.Utils.isStaleWhileRevalidate;
+import static com.apollographql.apollo.cache.http.Utils.networkDeadlineMs;
+import static com.apollographql.apollo.cache.http.Utils.shouldRevalidate;
 import static com.apollographql.apollo.cache.http.Utils.shouldExpireAfterRead;
 import static com.apollographql.apollo.cache.http.Utils.shouldSkipCache;
 import static com.apollographql.apollo.cache.http.Utils.shouldSkipNetwork;
@@ -21,6 +27,14 @@ import static com.apollographql.apollo.cache.http.Utils.strip;
 import static com.apollographql.apollo.cache.http.Utils.unsatisfiableCacheRequest;
 import static com.apollographql.apollo.cache.http.Utils.withServedDateHeader;
 
+/**
+ * Http cache interceptor, it has to be installed as an application interceptor.
+ *
+ * <p>Background revalidations and network requests made with a deadline call {@link Chain#proceed(Request)} from
+ * {@link ApolloHttpCache#backgroundExecutor()} rather than from the thread of the call. The chain is proceeded at most
+ * once per intercepted request, but possibly after {@link #intercept(Chain)} has returned, so canceling the call
+ * cancels these requests as well, while OkHttp's dispatcher limits no longer apply to them.</p>
+ */
 final class HttpCacheInterceptor implements Interceptor {
   private final ApolloHttpCache cache;
   private final ApolloLogger logger;
@@ -50,6 +64,9 @@ final class HttpCacheInterceptor implements Interceptor {
     if (isNetworkFirst(request)) {
       logger.d("Network first for request: %s", request);
       return networkFirst(request, chain);
+    } else if (isStaleWhileRevalidate(request)) {
+      logger.d("Stale while revalidate for request: %s", request);
+      return staleWhileRevalidate(request, chain);
     } else {
       logger.d("Cache first for request: %s", request);
       return cacheFirst(request, chain);
@@ -83,19 +100,71 @@ final class HttpCacheInterceptor implements Interceptor {
   }
 
   private Response networkFirst(Request request, Chain chain) throws IOException {
-    String cacheKey = request.header(CACHE_KEY_HEADER);
-    IOException rethrowException;
+    long networkDeadlineMs = networkDeadlineMs(request);
+    if (networkDeadlineMs > 0) {
+      return networkFirstWithDeadline(request, chain, networkDeadlineMs);
+    }
+    return networkFirstWithoutDeadline(request, chain);
+  }
+
+  private Response networkFirstWithoutDeadline(Request request, Chain chain) throws IOException {
     Response networkResponse = null;
+    IOException rethrowException = null;
     try {
       networkResponse = withServedDateHeader(chain.proceed(request));
-      if (networkResponse.isSuccessful()) {
-        logger.d("Network success, skip http cache for request: %s, with cache key: %s", request, cacheKey);
-        return cache.cacheProxy(networkResponse, cacheKey);
+    } catch (IOException e) {
+      rethrowException = e;
+    }
+    return networkFirstResponse(request, networkResponse, rethrowException);
+  }
+
+  /**
+   * Network first, but the cached response is returned if the network hasn't responded by the deadline. The network
+   * request keeps going in the background then and its response is written to the cache when it arrives. The thread of
+   * the call waits for the request made on the background executor; if the executor is saturated the request is made
+   * on the thread of the call without the deadline.
+   */
+  private Response networkFirstWithDeadline(Request request, Chain chain, long networkDeadlineMs)
+      throws IOException {
+    DeadlineFetch fetch = new DeadlineFetch(request, chain);
+    try {
+      cache.backgroundExecutor().execute(fetch);
+    } catch (RejectedExecutionException e) {
+      logger.w(e, "Failed to schedule network request with deadline, fetch without it for request: %s", request);
+      return networkFirstWithoutDeadline(request, chain);
+    }
+
+    Response networkResponse = null;
+    IOException rethrowException = null;
+    try {
+      if (!fetch.await(networkDeadlineMs)) {
+        Response cachedResponse = cachedResponse(request);
+        if (cachedResponse != null && fetch.abandon()) {
+          logger.d("Network deadline exceeded, serve http cache for request: %s", request);
+          logCacheHit(request);
+          return cachedResponse.newBuilder()
+              .cacheResponse(strip(cachedResponse))
+              .request(request)
+              .build();
+        }
+        // no cached response to fall back to, or the network has just responded after all
+        Utils.closeQuietly(cachedResponse);
+        fetch.await(0);
       }
-      rethrowException = null;
+      networkResponse = fetch.response();
     } catch (IOException e) {
       rethrowException = e;
     }
+    return networkFirstResponse(request, networkResponse, rethrowException);
+  }
+
+  private Response networkFirstResponse(Request request, Response networkResponse, IOException rethrowException)
+      throws IOException {
+    String cacheKey = request.header(CACHE_KEY_HEADER);
+    if (networkResponse != null && networkResponse.isSuccessful()) {
+      logger.d("Network success, skip http cache for request: %s, with cache key: %s", request, cacheKey);
+      return cache.cacheProxy(networkResponse, cacheKey);
+    }
 
     Response cachedResponse = cachedResponse(request);
     if (cachedResponse == null) {
@@ -125,7 +194,68 @@ final class HttpCacheInterceptor implements Interceptor {
     }
 
     logCacheMiss(request);
+    return networkFetch(request, chain);
+  }
+
+  private Response staleWhileRevalidate(Request request, Chain chain) throws IOException {
+    String cacheKey = request.header(CACHE_KEY_HEADER);
+    Response cachedResponse = cache.read(cacheKey, shouldExpireAfterRead(request));
+    if (cachedResponse != null && isPastMaxStale(request, cachedResponse)) {
+      Utils.closeQuietly(cachedResponse);
+      cachedResponse = null;
+    }
+
+    if (cachedResponse == null) {
+      logCacheMiss(request);
+      return networkFetch(request, chain);
+    }
+
+    logCacheHit(request);
+    if (shouldRevalidate(request, cachedResponse)) {
+      revalidate(request, chain);
+    }
+    return cachedResponse.newBuilder()
+        .cacheResponse(strip(cachedResponse))
+        .request(request)
+        .build();
+  }
+
+  /**
+   * Refreshes the cached response from the network in the background, unless it's being refreshed already. The refresh
+   * goes through the rest of the interceptor chain of the call that has served the stale response, so it's canceled
+   * along with that call. It's skipped if the background executor is saturated.
+   */
+  private void revalidate(final Request request, final Chain chain) {
+    final String cacheKey = request.header(CACHE_KEY_HEADER);
+    if (!cache.startRevalidation(cacheKey)) {
+      logger.d("Http cache revalidation already in progress for cache key: %s", cacheKey);
+      return;
+    }
 
+    try {
+      cache.backgroundExecutor().execute(new Runnable() {
+        @Override public void run() {
+          Response networkResponse = null;
+          try {
+            networkResponse = withServedDateHeader(chain.proceed(request));
+            if (networkResponse.isSuccessful()) {
+              cache.write(networkResponse, cacheKey);
+            }
+          } catch (Exception e) {
+            logger.w(e, "Failed to revalidate http cache for request: %s, with cache key: %s", request, cacheKey);
+          } finally {
+            Utils.closeQuietly(networkResponse);
+            cache.finishRevalidation(cacheKey);
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      cache.finishRevalidation(cacheKey);
+      logger.w(e, "Failed to schedule http cache revalidation for cache key: %s", cacheKey);
+    }
+  }
+
+  private Response networkFetch(Request request, Chain chain) throws IOException {
     String cacheKey = request.header(CACHE_KEY_HEADER);
     Response networkResponse = withServedDateHeader(chain.proceed(request));
     if (isPrefetchResponse(request)) {
@@ -183,4 +313,103 @@ final class HttpCacheInterceptor implements Interceptor {
     String cacheKey = request.header(CACHE_KEY_HEADER);
     logger.d("Cache MISS for request: %s, with cache key: %s", request, cacheKey);
   }
+
+  /**
+   * Network request of {@link #networkFirstWithDeadline(Request, Chain, long)}. Once abandoned, its response is written
+   * to the cache instead of being handed over to the waiting call.
+   */
+  private final class DeadlineFetch implements Runnable {
+    private final Request request;
+    private final Chain chain;
+    // guarded by this
+    private Response response;
+    private IOException failure;
+    private boolean done;
+    private boolean abandoned;
+
+    DeadlineFetch(Request request, Chain chain) {
+      this.request = request;
+      this.chain = chain;
+    }
+
+    @Override public void run() {
+      Response networkResponse = null;
+      IOException networkFailure = null;
+      try {
+        networkResponse = withServedDateHeader(chain.proceed(request));
+      } catch (IOException e) {
+        networkFailure = e;
+      } catch (RuntimeException e) {
+        networkFailure = new IOException(e);
+      }
+
+      synchronized (this) {
+        if (!abandoned) {
+          response = networkResponse;
+          failure = networkFailure;
+          done = true;
+          notifyAll();
+          return;
+        }
+      }
+
+      String cacheKey = request.header(CACHE_KEY_HEADER);
+      if (networkFailure != null) {
+        logger.w(networkFailure, "Failed to fetch late network response for request: %s, with cache key: %s", request,
+            cacheKey);
+      } else {
+        try {
+          if (networkResponse.isSuccessful()) {
+            logger.d("Late network success, update http cache for request: %s, with cache key: %s", request, cacheKey);
+            cache.write(networkResponse, cacheKey);
+          }
+        } finally {
+          Utils.closeQuietly(networkResponse);
+        }
+      }
+    }
+
+    /**
+     * @param timeoutMs max time to wait, 0 to wait until the network responds
+     * @return {@code true} if the network has responded or failed
+     */
+    synchronized boolean await(long timeoutMs) throws IOException {
+      long deadline = System.currentTimeMillis() + timeoutMs;
+      try {
+        while (!done) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (timeoutMs == 0) {
+            wait();
+          } else if (remaining > 0) {
+            wait(remaining);
+          } else {
+            return false;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        abandoned = true;
+        throw new InterruptedIOException("interrupted while waiting for the network response");
+      }
+      return true;
+    }
+
+    /**
+     * @return {@code false} if the network has already responded, it must be consumed with {@link #response()} then
+     */
+    synchronized boolean abandon() {
+      if (done) {
+        return false;
+      }
+      abandoned = true;
+      return true;
+    }
+
+    synchronized Response response() throws IOException {
+      if (failure != null) {
+        throw failure;
+      }
+      return response;
+    }
+  }
 }
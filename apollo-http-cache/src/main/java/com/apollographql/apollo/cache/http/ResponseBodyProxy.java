@@ -14,6 +14,7 @@ import okhttp3.internal.http.HttpCodec;
 import okio.Buffer;
 import okio.BufferedSource;
 import okio.Okio;
+import okio.Sink;
 import okio.Source;
 import okio.Timeout;
 
@@ -28,13 +29,13 @@ final class ResponseBodyProxy extends ResponseBody {
   private final Source responseBodySource;
 
   ResponseBodyProxy(@Nonnull HttpCacheRecordEditor cacheRecordEditor, @Nonnull Response sourceResponse,
-      @Nonnull ApolloLogger logger) {
+      @Nonnull HttpCacheCompression compression, @Nonnull ApolloLogger logger) {
     checkNotNull(cacheRecordEditor, "cacheRecordEditor == null");
     checkNotNull(sourceResponse, "sourceResponse == null");
     checkNotNull(logger, "logger == null");
     this.contentType = sourceResponse.header("Content-Type");
     this.contentLength = sourceResponse.header("Content-Length");
-    this.responseBodySource = new ProxySource(cacheRecordEditor, sourceResponse.body().source(), logger);
+    this.responseBodySource = new ProxySource(cacheRecordEditor, sourceResponse.body().source(), compression, logger);
   }
 
   @Override public MediaType contentType() {
@@ -60,11 +61,14 @@ final class ResponseBodyProxy extends ResponseBody {
     final ApolloLogger logger;
     boolean closed;
 
-    ProxySource(HttpCacheRecordEditor cacheRecordEditor, Source responseBodySource, final ApolloLogger logger) {
+    ProxySource(HttpCacheRecordEditor cacheRecordEditor, Source responseBodySource, HttpCacheCompression compression,
+        final ApolloLogger logger) {
       this.cacheRecordEditor = cacheRecordEditor;
       this.responseBodySource = responseBodySource;
       this.logger = logger;
-      responseBodyCacheSink = new ResponseBodyCacheSink(Okio.buffer(cacheRecordEditor.bodySink())) {
+      // the body is compressed as it is teed into the cache, the compressor is flushed when the sink is closed
+      Sink cacheBodySink = compression.compress(cacheRecordEditor.bodySink());
+      responseBodyCacheSink = new ResponseBodyCacheSink(Okio.buffer(cacheBodySink)) {
         @Override void onException(Exception e) {
           abortCacheQuietly();
           logger.w(e, "Operation failed");
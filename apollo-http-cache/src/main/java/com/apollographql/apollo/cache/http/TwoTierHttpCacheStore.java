@@ -0,0 +1,362 @@
+package com.apollographql.apollo.cache.http;
+
+import com.apollographql.apollo.api.cache.http.HttpCacheRecord;
+import com.apollographql.apollo.api.cache.http.HttpCacheRecordEditor;
+import com.apollographql.apollo.api.cache.http.HttpCacheStore;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.Response;
+import okio.Buffer;
+import okio.ByteString;
+import okio.ForwardingSink;
+import okio.Sink;
+import okio.Source;
+import okio.Timeout;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Http cache store that keeps the recently used small entries, both the headers and the body bytes, in memory in
+ * front of another store, usually {@link DiskLruHttpCacheStore}. The hot entries are served without any file I/O.
+ *
+ * <p>Writes go through to the backing store, and the entry is kept in memory once the backing store has committed it.
+ * Reads fall back to the backing store on a memory miss, and the entries read from it are promoted to memory when they
+ * fit. Entries larger than {@code maxEntrySize} are never kept in memory, and the least recently used entries are
+ * evicted once the entries in memory take more than {@code maxSize} bytes.</p>
+ *
+ * <p>The headers of an entry kept in memory are parsed once, on the first read of the entry, and
+ * {@link ApolloHttpCache} builds the responses of the following reads right from the parsed headers.</p>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TwoTierHttpCacheStore implements HttpCacheStore {
+  private static final long READ_BUFFER_SIZE = 8192;
+
+  private final HttpCacheStore delegate;
+  private final long maxSize;
+  private final long maxEntrySize;
+  // guarded by this
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(0, 0.75f, true);
+  private long size;
+  private long modificationCount;
+  private long memoryHitCount;
+  private long memoryMissCount;
+  private long diskHitCount;
+  private long diskMissCount;
+
+  /**
+   * @param delegate     the backing store the entries are written to and read from on a memory miss
+   * @param maxSize      max number of bytes of the entries kept in memory
+   * @param maxEntrySize max number of bytes of the headers and the body of one entry kept in memory
+   */
+  public TwoTierHttpCacheStore(@Nonnull HttpCacheStore delegate, long maxSize, long maxEntrySize) {
+    this.delegate = checkNotNull(delegate, "delegate == null");
+    if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0");
+    if (maxEntrySize <= 0 || maxEntrySize > maxSize) {
+      throw new IllegalArgumentException("maxEntrySize must be in range (0, maxSize]");
+    }
+    this.maxSize = maxSize;
+    this.maxEntrySize = maxEntrySize;
+  }
+
+  @Override public HttpCacheRecord cacheRecord(@Nonnull String cacheKey) throws IOException {
+    long modificationCount;
+    synchronized (this) {
+      Entry entry = entries.get(cacheKey);
+      if (entry != null) {
+        memoryHitCount++;
+        return entry.cacheRecord();
+      }
+      memoryMissCount++;
+      modificationCount = this.modificationCount;
+    }
+
+    HttpCacheRecord cacheRecord = delegate.cacheRecord(cacheKey);
+    synchronized (this) {
+      if (cacheRecord == null) {
+        diskMissCount++;
+        return null;
+      }
+      diskHitCount++;
+    }
+    return promote(cacheKey, cacheRecord, modificationCount);
+  }
+
+  @Override public HttpCacheRecordEditor cacheRecordEditor(@Nonnull final String cacheKey) throws IOException {
+    final HttpCacheRecordEditor editor = delegate.cacheRecordEditor(cacheKey);
+    if (editor == null) {
+      return null;
+    }
+
+    return new HttpCacheRecordEditor() {
+      final Buffer headers = new Buffer();
+      final Buffer body = new Buffer();
+      boolean tooLarge;
+
+      @Nonnull @Override public Sink headerSink() {
+        return new CaptureSink(editor.headerSink(), headers);
+      }
+
+      @Nonnull @Override public Sink bodySink() {
+        return new CaptureSink(editor.bodySink(), body);
+      }
+
+      @Override public void abort() throws IOException {
+        editor.abort();
+      }
+
+      @Override public void commit() throws IOException {
+        editor.commit();
+        synchronized (TwoTierHttpCacheStore.this) {
+          modificationCount++;
+          removeEntry(cacheKey);
+          if (!tooLarge) {
+            putEntry(cacheKey, new Entry(headers.readByteString(), body.readByteString()));
+          }
+        }
+      }
+
+      final class CaptureSink extends ForwardingSink {
+        private final Buffer capture;
+
+        CaptureSink(Sink delegate, Buffer capture) {
+          super(delegate);
+          this.capture = capture;
+        }
+
+        @Override public void write(Buffer source, long byteCount) throws IOException {
+          if (!tooLarge) {
+            if (headers.size() + body.size() + byteCount > maxEntrySize) {
+              tooLarge = true;
+              headers.clear();
+              body.clear();
+            } else {
+              source.copyTo(capture, 0, byteCount);
+            }
+          }
+          super.write(source, byteCount);
+        }
+      }
+    };
+  }
+
+  @Override public void remove(@Nonnull String cacheKey) throws IOException {
+    synchronized (this) {
+      modificationCount++;
+      removeEntry(cacheKey);
+    }
+    delegate.remove(cacheKey);
+  }
+
+  @Override public void delete() throws IOException {
+    synchronized (this) {
+      modificationCount++;
+      entries.clear();
+      size = 0;
+    }
+    delegate.delete();
+  }
+
+  /**
+   * Returns the number of the reads served from memory.
+   */
+  public synchronized long memoryHitCount() {
+    return memoryHitCount;
+  }
+
+  /**
+   * Returns the number of the reads not found in memory and passed to the backing store.
+   */
+  public synchronized long memoryMissCount() {
+    return memoryMissCount;
+  }
+
+  /**
+   * Returns the number of the reads served from the backing store.
+   */
+  public synchronized long diskHitCount() {
+    return diskHitCount;
+  }
+
+  /**
+   * Returns the number of the reads found neither in memory nor in the backing store.
+   */
+  public synchronized long diskMissCount() {
+    return diskMissCount;
+  }
+
+  /**
+   * Returns the number of bytes of the entries currently kept in memory.
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  private HttpCacheRecord promote(String cacheKey, final HttpCacheRecord cacheRecord, long modificationCount)
+      throws IOException {
+    final Buffer headers = new Buffer();
+    final Buffer bodyPrefix = new Buffer();
+    final Source bodySource;
+    boolean complete = false;
+    try {
+      // the headers are read anyway, the body is read ahead only as long as the entry still fits into memory
+      readAll(cacheRecord.headerSource(), headers);
+      bodySource = cacheRecord.bodySource();
+      if (headers.size() <= maxEntrySize) {
+        long limit = maxEntrySize - headers.size();
+        while (bodyPrefix.size() <= limit) {
+          if (bodySource.read(bodyPrefix, limit + 1 - bodyPrefix.size()) == -1) {
+            complete = true;
+            break;
+          }
+        }
+      }
+    } catch (IOException e) {
+      cacheRecord.close();
+      throw e;
+    }
+
+    if (complete) {
+      cacheRecord.close();
+      Entry entry = new Entry(headers.readByteString(), bodyPrefix.readByteString());
+      synchronized (this) {
+        // the entry read from the backing store may be already outdated by a concurrent write or remove
+        if (this.modificationCount == modificationCount) {
+          putEntry(cacheKey, entry);
+        }
+      }
+      return entry.cacheRecord();
+    }
+
+    return new HttpCacheRecord() {
+      @Nonnull @Override public Source headerSource() {
+        return headers;
+      }
+
+      @Nonnull @Override public Source bodySource() {
+        return new PrefixedSource(bodyPrefix, bodySource);
+      }
+
+      @Override public void close() {
+        cacheRecord.close();
+      }
+    };
+  }
+
+  private void putEntry(String cacheKey, Entry entry) {
+    Entry previousEntry = entries.put(cacheKey, entry);
+    if (previousEntry != null) {
+      size -= previousEntry.size();
+    }
+    size += entry.size();
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      size -= iterator.next().getValue().size();
+      iterator.remove();
+    }
+  }
+
+  private void removeEntry(String cacheKey) {
+    Entry entry = entries.remove(cacheKey);
+    if (entry != null) {
+      size -= entry.size();
+    }
+  }
+
+  private static void readAll(Source source, Buffer sink) throws IOException {
+    try {
+      while (source.read(sink, READ_BUFFER_SIZE) != -1) {
+      }
+    } finally {
+      source.close();
+    }
+  }
+
+  private static final class Entry {
+    final ByteString headers;
+    final ByteString body;
+    volatile Response response;
+
+    Entry(ByteString headers, ByteString body) {
+      this.headers = headers;
+      this.body = body;
+    }
+
+    long size() {
+      return headers.size() + body.size();
+    }
+
+    HttpCacheRecord cacheRecord() {
+      return new MemoryCacheRecord(this);
+    }
+  }
+
+  /**
+   * Record of the entry kept in memory, gives access to the response parsed from the entry headers.
+   */
+  static final class MemoryCacheRecord implements HttpCacheRecord {
+    private final Entry entry;
+
+    MemoryCacheRecord(Entry entry) {
+      this.entry = entry;
+    }
+
+    /**
+     * Returns the response without the body, parsed from the headers on the first read of the entry.
+     */
+    Response response() throws IOException {
+      Response response = entry.response;
+      if (response == null) {
+        response = new ResponseHeaderRecord(headerSource()).response();
+        entry.response = response;
+      }
+      return response;
+    }
+
+    @Nonnull @Override public Source headerSource() {
+      return new Buffer().write(entry.headers);
+    }
+
+    @Nonnull @Override public Source bodySource() {
+      return new Buffer().write(entry.body);
+    }
+
+    @Override public void close() {
+    }
+  }
+
+  /**
+   * Source of the large entry body: the bytes read ahead while checking the size of the entry, then the rest of the
+   * body from the backing store.
+   */
+  private static final class PrefixedSource implements Source {
+    private final Buffer prefix;
+    private final Source source;
+
+    PrefixedSource(Buffer prefix, Source source) {
+      this.prefix = prefix;
+      this.source = source;
+    }
+
+    @Override public long read(@Nonnull Buffer sink, long byteCount) throws IOException {
+      if (prefix.size() > 0) {
+        return prefix.read(sink, byteCount);
+      }
+      return source.read(sink, byteCount);
+    }
+
+    @Override public Timeout timeout() {
+      return source.timeout();
+    }
+
+    @Override public void close() throws IOException {
+      prefix.clear();
+      source.close();
+    }
+  }
+}
@@ -20,6 +20,8 @@ import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_EXPIRE_AFT
 import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_EXPIRE_TIMEOUT_HEADER;
 import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_FETCH_STRATEGY_HEADER;
 import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_KEY_HEADER;
+import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_MAX_STALE_HEADER;
+import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_NETWORK_DEADLINE_HEADER;
 import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_PREFETCH_HEADER;
 import static com.apollographql.apollo.api.cache.http.HttpCache.CACHE_SERVED_DATE_HEADER;
 
@@ -66,6 +68,16 @@ final class Utils {
     return fetchStrategy == HttpCachePolicy.FetchStrategy.NETWORK_FIRST;
   }
 
+  static long networkDeadlineMs(Request request) {
+    String networkDeadlineStr = request.header(CACHE_NETWORK_DEADLINE_HEADER);
+    return networkDeadlineStr != null ? Long.parseLong(networkDeadlineStr) : 0;
+  }
+
+  static boolean isStaleWhileRevalidate(Request request) {
+    HttpCachePolicy.FetchStrategy fetchStrategy = fetchStrategy(request);
+    return fetchStrategy == HttpCachePolicy.FetchStrategy.STALE_WHILE_REVALIDATE;
+  }
+
 //  static boolean shouldReturnStaleCache(Request request) {
 //    String expireTimeoutHeader = request.header(HttpCache.CACHE_EXPIRE_TIMEOUT_HEADER);
 //    return expireTimeoutHeader == null || expireTimeoutHeader.isEmpty();
@@ -132,6 +144,35 @@ final class Utils {
     return servedDate == null || now - servedDate.getTime() > timeout;
   }
 
+  /**
+   * Unlike {@link #isStale(Request, Response)}, the response is treated as stale if no expire timeout is set, so every
+   * stale-while-revalidate cache hit is refreshed then.
+   */
+  static boolean shouldRevalidate(Request request, Response response) {
+    String timeoutStr = request.header(CACHE_EXPIRE_TIMEOUT_HEADER);
+    if (timeoutStr == null || Long.parseLong(timeoutStr) == 0) {
+      return true;
+    }
+    return isStale(request, response);
+  }
+
+  static boolean isPastMaxStale(Request request, Response response) {
+    String maxStaleStr = request.header(CACHE_MAX_STALE_HEADER);
+    if (maxStaleStr == null) {
+      return false;
+    }
+
+    long maxStale = Long.parseLong(maxStaleStr);
+    if (maxStale == 0) {
+      return false;
+    }
+
+    String servedDateStr = response.header(CACHE_SERVED_DATE_HEADER);
+    Date servedDate = servedDateStr != null ? HttpDate.parse(servedDateStr) : null;
+    long now = System.currentTimeMillis();
+    return servedDate == null || now - servedDate.getTime() > maxStale;
+  }
+
   private static HttpCachePolicy.FetchStrategy fetchStrategy(Request request) {
     String fetchStrategyHeader = request.header(CACHE_FETCH_STRATEGY_HEADER);
     if (fetchStrategyHeader == null || fetchStrategyHeader.isEmpty()) {
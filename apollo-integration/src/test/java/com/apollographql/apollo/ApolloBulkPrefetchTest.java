@@ -0,0 +1,114 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.exception.ApolloHttpException;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import io.reactivex.functions.Predicate;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.CACHE_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+
+public class ApolloBulkPrefetchTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .normalizedCache(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION), new IdFieldCacheKeyResolver())
+        .build();
+  }
+
+  @Test public void prefetchWarmsNormalizedCache() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicBoolean success = new AtomicBoolean();
+    apolloClient.bulkPrefetch(Arrays.asList(heroNameQuery(Episode.EMPIRE), heroNameQuery(Episode.EMPIRE),
+        heroNameQuery(Episode.JEDI)))
+        .maxConcurrentCalls(1)
+        .enqueue(new ApolloBulkPrefetch.Callback() {
+          @Override public void onSuccess() {
+            success.set(true);
+            latch.countDown();
+          }
+
+          @Override public void onFailure(@Nonnull Map<Query, ApolloException> failures, int successCount) {
+            latch.countDown();
+          }
+        });
+
+    assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(success.get()).isTrue();
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    Rx2Apollo.from(apolloClient.query(heroNameQuery(Episode.EMPIRE)).responseFetcher(CACHE_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+          @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+            assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+            return true;
+          }
+        });
+  }
+
+  @Test public void prefetchReportsFailuresInAggregate() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Server Error"));
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<Map<Query, ApolloException>> failuresRef = new AtomicReference<>();
+    final AtomicInteger successCountRef = new AtomicInteger();
+    final EpisodeHeroNameQuery jediQuery = heroNameQuery(Episode.JEDI);
+    apolloClient.bulkPrefetch(Arrays.asList(heroNameQuery(Episode.EMPIRE), jediQuery))
+        .maxConcurrentCalls(1)
+        .enqueue(new ApolloBulkPrefetch.Callback() {
+          @Override public void onSuccess() {
+            latch.countDown();
+          }
+
+          @Override public void onFailure(@Nonnull Map<Query, ApolloException> failures, int successCount) {
+            failuresRef.set(failures);
+            successCountRef.set(successCount);
+            latch.countDown();
+          }
+        });
+
+    assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(successCountRef.get()).isEqualTo(1);
+    assertThat(failuresRef.get()).hasSize(1);
+    assertThat(failuresRef.get().get(jediQuery)).isInstanceOf(ApolloHttpException.class);
+  }
+
+  private static EpisodeHeroNameQuery heroNameQuery(Episode episode) {
+    return EpisodeHeroNameQuery.builder().episode(episode).build();
+  }
+}
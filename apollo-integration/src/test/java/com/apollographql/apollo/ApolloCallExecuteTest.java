@@ -0,0 +1,121 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.exception.ApolloCanceledException;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.exception.ApolloHttpException;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.CACHE_ONLY;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class ApolloCallExecuteTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final AtomicInteger dispatchCount = new AtomicInteger();
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .dispatcher(new Executor() {
+          @Override public void execute(Runnable runnable) {
+            dispatchCount.incrementAndGet();
+            new Thread(runnable).start();
+          }
+        })
+        .normalizedCache(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION), new IdFieldCacheKeyResolver())
+        .build();
+  }
+
+  @Test public void executeReturnsNetworkResponse() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+
+    Response<EpisodeHeroNameQuery.Data> response = empireHeroNameQuery().responseFetcher(NETWORK_ONLY).execute();
+
+    assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+    assertThat(dispatchCount.get()).isEqualTo(0);
+  }
+
+  @Test public void executeReadsAndWritesNormalizedCache() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    empireHeroNameQuery().responseFetcher(NETWORK_ONLY).execute();
+
+    Response<EpisodeHeroNameQuery.Data> response = empireHeroNameQuery().responseFetcher(CACHE_ONLY).execute();
+
+    assertThat(response.fromCache()).isTrue();
+    assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(dispatchCount.get()).isEqualTo(0);
+  }
+
+  @Test public void executeThrowsHttpException() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Server Error"));
+
+    try {
+      empireHeroNameQuery().responseFetcher(NETWORK_ONLY).execute();
+      fail("expected ApolloHttpException");
+    } catch (ApolloHttpException e) {
+      assertThat(e.code()).isEqualTo(500);
+    }
+  }
+
+  @Test public void executeThrowsCanceledExceptionWhenCanceled() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME).setBodyDelay(TIME_OUT_SECONDS, TimeUnit.SECONDS));
+
+    final ApolloQueryCall<EpisodeHeroNameQuery.Data> call = empireHeroNameQuery().responseFetcher(NETWORK_ONLY);
+    new Thread(new Runnable() {
+      @Override public void run() {
+        try {
+          Thread.sleep(500);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        call.cancel();
+      }
+    }).start();
+
+    try {
+      call.execute();
+      fail("expected ApolloCanceledException");
+    } catch (ApolloCanceledException expected) {
+    }
+  }
+
+  @Test public void executeTwiceThrowsIllegalStateException() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+
+    ApolloQueryCall<EpisodeHeroNameQuery.Data> call = empireHeroNameQuery().responseFetcher(NETWORK_ONLY);
+    call.execute();
+    try {
+      call.execute();
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    } catch (ApolloException e) {
+      fail("expected IllegalStateException");
+    }
+  }
+
+  private ApolloQueryCall<EpisodeHeroNameQuery.Data> empireHeroNameQuery() {
+    return apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build());
+  }
+}
@@ -0,0 +1,215 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.google.common.truth.Truth.assertThat;
+
+public class ApolloDispatcherTest {
+  private ApolloDispatcher dispatcher;
+
+  @After public void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test public void queuedTasksRunByPriority() throws Exception {
+    dispatcher = new ApolloDispatcher(1, 1, TimeUnit.HOURS);
+    final CountDownLatch blocker = blockDispatcher();
+    final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch latch = new CountDownLatch(4);
+
+    dispatcher.execute(recordingTask("prefetch", executed, latch), ApolloDispatcher.Priority.PREFETCH);
+    dispatcher.execute(recordingTask("background", executed, latch), ApolloDispatcher.Priority.BACKGROUND);
+    dispatcher.executor(ApolloDispatcher.Priority.USER_VISIBLE).execute(recordingTask("user1", executed, latch));
+    dispatcher.execute(recordingTask("user2", executed, latch));
+
+    assertThat(dispatcher.queuedTaskCount()).isEqualTo(4);
+    assertThat(dispatcher.queuedTaskCount(ApolloDispatcher.Priority.USER_VISIBLE)).isEqualTo(2);
+    assertThat(dispatcher.queuedTaskCount(ApolloDispatcher.Priority.BACKGROUND)).isEqualTo(1);
+    assertThat(dispatcher.queuedTaskCount(ApolloDispatcher.Priority.PREFETCH)).isEqualTo(1);
+
+    blocker.countDown();
+    assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(executed).containsExactly("user1", "user2", "background", "prefetch").inOrder();
+    assertThat(dispatcher.queuedTaskCount()).isEqualTo(0);
+    assertThat(dispatcher.dispatchedTaskCount(ApolloDispatcher.Priority.USER_VISIBLE)).isEqualTo(3);
+    assertThat(dispatcher.dispatchedTaskCount(ApolloDispatcher.Priority.PREFETCH)).isEqualTo(1);
+    assertThat(dispatcher.maxWaitTimeNanos(ApolloDispatcher.Priority.PREFETCH)).isGreaterThan(0L);
+    assertThat(dispatcher.totalWaitTimeNanos(ApolloDispatcher.Priority.PREFETCH))
+        .isEqualTo(dispatcher.maxWaitTimeNanos(ApolloDispatcher.Priority.PREFETCH));
+  }
+
+  @Test public void agedTasksRunBeforeHigherPriority() throws Exception {
+    dispatcher = new ApolloDispatcher(1, 0, TimeUnit.MILLISECONDS);
+    final CountDownLatch blocker = blockDispatcher();
+    final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch latch = new CountDownLatch(3);
+
+    dispatcher.execute(recordingTask("prefetch", executed, latch), ApolloDispatcher.Priority.PREFETCH);
+    Thread.sleep(10);
+    dispatcher.execute(recordingTask("background", executed, latch), ApolloDispatcher.Priority.BACKGROUND);
+    Thread.sleep(10);
+    dispatcher.execute(recordingTask("user", executed, latch), ApolloDispatcher.Priority.USER_VISIBLE);
+
+    blocker.countDown();
+    assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(executed).containsExactly("prefetch", "background", "user").inOrder();
+  }
+
+  @Test public void fullQueueRejectsNewCalls() throws Exception {
+    dispatcher = new ApolloDispatcher(1, 1, TimeUnit.HOURS, 1);
+    final CountDownLatch blocker = blockDispatcher();
+    final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch latch = new CountDownLatch(2);
+
+    dispatcher.execute(recordingTask("queued", executed, latch));
+    dispatcher.execute(recordingTask("overflow", executed, latch));
+
+    assertThat(executed).isEmpty();
+    assertThat(dispatcher.queuedTaskCount()).isEqualTo(2);
+
+    ApolloClient apolloClient = ApolloClient.builder()
+        .serverUrl("http://localhost/")
+        .dispatcher(dispatcher)
+        .build();
+    final AtomicReference<ApolloException> failure = new AtomicReference<>();
+    final CountDownLatch failureLatch = new CountDownLatch(1);
+    apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .enqueue(new ApolloCall.Callback<EpisodeHeroNameQuery.Data>() {
+          @Override public void onResponse(@Nonnull Response<EpisodeHeroNameQuery.Data> response) {
+          }
+
+          @Override public void onFailure(@Nonnull ApolloException e) {
+            failure.set(e);
+            failureLatch.countDown();
+          }
+        });
+
+    assertThat(failureLatch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(failure.get().getMessage()).isEqualTo("Dispatcher queue is full");
+    assertThat(dispatcher.rejectedCallCount()).isEqualTo(1L);
+    assertThat(dispatcher.queuedTaskCount()).isEqualTo(2);
+
+    blocker.countDown();
+    assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(executed).containsExactly("queued", "overflow").inOrder();
+    assertThat(dispatcher.tryAdmitCall()).isTrue();
+  }
+
+  @Test public void concurrentCacheTasksAreLimited() throws Exception {
+    dispatcher = new ApolloDispatcher(2, 1, TimeUnit.HOURS, ApolloDispatcher.DEFAULT_MAX_QUEUED_TASKS, 1);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    dispatcher.executeCacheTask(new Runnable() {
+      @Override public void run() {
+        started.countDown();
+        try {
+          blocker.await(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        executed.add("cache1");
+      }
+    }, ApolloDispatcher.Priority.USER_VISIBLE);
+    assertThat(started.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+    dispatcher.cacheExecutor(ApolloDispatcher.Priority.USER_VISIBLE).execute(recordingTask("cache2", executed, latch));
+    assertThat(dispatcher.pendingCacheTaskCount()).isEqualTo(1);
+
+    final CountDownLatch otherLatch = new CountDownLatch(1);
+    dispatcher.execute(recordingTask("other", executed, otherLatch));
+    assertThat(otherLatch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(executed).containsExactly("other");
+    assertThat(dispatcher.pendingCacheTaskCount()).isEqualTo(1);
+
+    blocker.countDown();
+    assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(executed).containsExactly("other", "cache1", "cache2").inOrder();
+    assertThat(dispatcher.pendingCacheTaskCount()).isEqualTo(0);
+    assertThat(dispatcher.queuedTaskCount()).isEqualTo(0);
+  }
+
+  @Test public void callPriorityIsUsedForDispatching() throws Exception {
+    MockWebServer server = new MockWebServer();
+    server.start();
+    try {
+      server.enqueue(mockResponse("EpisodeHeroNameResponse.json"));
+      server.enqueue(mockResponse("EpisodeHeroNameResponse.json"));
+
+      dispatcher = new ApolloDispatcher();
+      ApolloClient apolloClient = ApolloClient.builder()
+          .serverUrl(server.url("/"))
+          .dispatcher(dispatcher)
+          .build();
+
+      final CountDownLatch latch = new CountDownLatch(2);
+      ApolloCall.Callback<EpisodeHeroNameQuery.Data> callback = new ApolloCall.Callback<EpisodeHeroNameQuery.Data>() {
+        @Override public void onResponse(@Nonnull Response<EpisodeHeroNameQuery.Data> response) {
+          latch.countDown();
+        }
+
+        @Override public void onFailure(@Nonnull ApolloException e) {
+        }
+      };
+      EpisodeHeroNameQuery query = EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build();
+      apolloClient.query(query).priority(ApolloDispatcher.Priority.BACKGROUND).enqueue(callback);
+      apolloClient.query(query).enqueue(callback);
+
+      assertThat(latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+      assertThat(dispatcher.dispatchedTaskCount(ApolloDispatcher.Priority.BACKGROUND)).isGreaterThan(0L);
+      assertThat(dispatcher.dispatchedTaskCount(ApolloDispatcher.Priority.USER_VISIBLE)).isGreaterThan(0L);
+      assertThat(dispatcher.dispatchedTaskCount(ApolloDispatcher.Priority.PREFETCH)).isEqualTo(0L);
+    } finally {
+      server.shutdown();
+    }
+  }
+
+  private CountDownLatch blockDispatcher() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    dispatcher.execute(new Runnable() {
+      @Override public void run() {
+        started.countDown();
+        try {
+          blocker.await(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    assertThat(started.await(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    return blocker;
+  }
+
+  private static Runnable recordingTask(final String name, final List<String> executed, final CountDownLatch latch) {
+    return new Runnable() {
+      @Override public void run() {
+        executed.add(name);
+        latch.countDown();
+      }
+    };
+  }
+}
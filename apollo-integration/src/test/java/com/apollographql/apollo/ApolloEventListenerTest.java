@@ -0,0 +1,207 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.exception.ApolloHttpException;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import io.reactivex.functions.Predicate;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.assertResponse;
+import static com.apollographql.apollo.Utils.immediateExecutor;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.CACHE_ONLY;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+
+public class ApolloEventListenerTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final RecordingEventListener eventListener = new RecordingEventListener();
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .dispatcher(immediateExecutor())
+        .normalizedCache(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION), new IdFieldCacheKeyResolver())
+        .eventListener(eventListener)
+        .build();
+  }
+
+  @Test public void networkCallEvents() throws Exception {
+    server.enqueue(mockResponse("EpisodeHeroNameResponseWithId.json"));
+
+    assertResponse(apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(NETWORK_ONLY), heroNamePredicate("R2-D2"));
+
+    assertThat(eventListener.events()).containsExactly(
+        "callStart",
+        "httpRequestStart",
+        "httpResponseHeadersEnd",
+        "parseStart",
+        "parseEnd",
+        "cacheWriteStart",
+        "cacheWriteEnd",
+        "publishStart",
+        "publishEnd",
+        "responseDispatchStart",
+        "responseDispatchEnd",
+        "callEnd"
+    ).inOrder();
+    assertThat(eventListener.parsedByteCount).isGreaterThan(0L);
+    assertThat(eventListener.parsedRecordCount).isEqualTo(2);
+    assertThat(eventListener.writtenRecordCount).isEqualTo(2);
+  }
+
+  @Test public void cacheCallEvents() throws Exception {
+    server.enqueue(mockResponse("EpisodeHeroNameResponseWithId.json"));
+    assertResponse(apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(NETWORK_ONLY), heroNamePredicate("R2-D2"));
+    eventListener.clear();
+
+    assertResponse(apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(CACHE_ONLY), heroNamePredicate("R2-D2"));
+
+    assertThat(eventListener.events()).containsExactly(
+        "callStart",
+        "cacheReadStart",
+        "cacheReadEnd",
+        "responseDispatchStart",
+        "responseDispatchEnd",
+        "callEnd"
+    ).inOrder();
+    assertThat(eventListener.cacheHit).isTrue();
+    assertThat(eventListener.readRecordCount).isEqualTo(2);
+  }
+
+  @Test public void failedCallEvents() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Server Error"));
+
+    Rx2Apollo.from(apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertError(ApolloHttpException.class);
+
+    assertThat(eventListener.events()).containsExactly(
+        "callStart",
+        "httpRequestStart",
+        "httpResponseHeadersEnd",
+        "callFailed"
+    ).inOrder();
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate(final String name) {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        assertThat(response.data().hero().name()).isEqualTo(name);
+        return true;
+      }
+    };
+  }
+
+  private static final class RecordingEventListener extends ApolloEventListener {
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    volatile boolean cacheHit;
+    volatile int readRecordCount;
+    volatile long parsedByteCount;
+    volatile int parsedRecordCount;
+    volatile int writtenRecordCount;
+
+    List<String> events() {
+      synchronized (events) {
+        return new ArrayList<>(events);
+      }
+    }
+
+    void clear() {
+      events.clear();
+    }
+
+    @Override public void callStart(@Nonnull ApolloCall call) {
+      events.add("callStart");
+    }
+
+    @Override public void cacheReadStart(@Nonnull ApolloCall call) {
+      events.add("cacheReadStart");
+    }
+
+    @Override public void cacheReadEnd(@Nonnull ApolloCall call, boolean hit, int recordCount) {
+      events.add("cacheReadEnd");
+      cacheHit = hit;
+      readRecordCount = recordCount;
+    }
+
+    @Override public void httpRequestStart(@Nonnull ApolloCall call, @Nonnull Request request) {
+      events.add("httpRequestStart");
+    }
+
+    @Override public void httpResponseHeadersEnd(@Nonnull ApolloCall call, @Nonnull okhttp3.Response response) {
+      events.add("httpResponseHeadersEnd");
+    }
+
+    @Override public void parseStart(@Nonnull ApolloCall call) {
+      events.add("parseStart");
+    }
+
+    @Override public void parseEnd(@Nonnull ApolloCall call, long byteCount, int recordCount) {
+      events.add("parseEnd");
+      parsedByteCount = byteCount;
+      parsedRecordCount = recordCount;
+    }
+
+    @Override public void cacheWriteStart(@Nonnull ApolloCall call) {
+      events.add("cacheWriteStart");
+    }
+
+    @Override public void cacheWriteEnd(@Nonnull ApolloCall call, int recordCount,
+        @Nonnull Set<String> changedCacheKeys) {
+      events.add("cacheWriteEnd");
+      writtenRecordCount = recordCount;
+    }
+
+    @Override public void publishStart(@Nonnull ApolloCall call, @Nonnull Set<String> changedCacheKeys) {
+      events.add("publishStart");
+    }
+
+    @Override public void publishEnd(@Nonnull ApolloCall call) {
+      events.add("publishEnd");
+    }
+
+    @Override public void responseDispatchStart(@Nonnull ApolloCall call) {
+      events.add("responseDispatchStart");
+    }
+
+    @Override public void responseDispatchEnd(@Nonnull ApolloCall call) {
+      events.add("responseDispatchEnd");
+    }
+
+    @Override public void callEnd(@Nonnull ApolloCall call) {
+      events.add("callEnd");
+    }
+
+    @Override public void callFailed(@Nonnull ApolloCall call, @Nonnull ApolloException e) {
+      events.add("callFailed");
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import io.reactivex.functions.Predicate;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static com.apollographql.apollo.Utils.assertResponse;
+import static com.apollographql.apollo.Utils.immediateExecutor;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.google.common.truth.Truth.assertThat;
+
+public class AutoPersistedQueriesTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private EpisodeHeroNameQuery query;
+
+  @Before public void setUp() {
+    query = EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build();
+  }
+
+  @Test public void sendsQueryHashOnly() throws Exception {
+    ApolloClient apolloClient = createApolloClient(false);
+
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    assertResponse(apolloClient.query(query), heroNamePredicate());
+
+    RecordedRequest request = server.takeRequest();
+    String body = request.getBody().readUtf8();
+    assertThat(request.getMethod()).isEqualTo("POST");
+    assertThat(body).doesNotContain("\"query\":");
+    assertThat(body).contains("\"sha256Hash\":");
+    assertThat(body).contains("\"variables\":{\"episode\":\"EMPIRE\"}");
+  }
+
+  @Test public void retriesWithQueryDocumentWhenPersistedQueryNotFound() throws Exception {
+    ApolloClient apolloClient = createApolloClient(false);
+
+    server.enqueue(persistedQueryErrorResponse("PersistedQueryNotFound"));
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    assertResponse(apolloClient.query(query), heroNamePredicate());
+
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    String hashRequestBody = server.takeRequest().getBody().readUtf8();
+    assertThat(hashRequestBody).doesNotContain("\"query\":");
+    assertThat(hashRequestBody).contains("\"sha256Hash\":");
+    String registerRequestBody = server.takeRequest().getBody().readUtf8();
+    assertThat(registerRequestBody).contains("\"query\":");
+    assertThat(registerRequestBody).contains("\"sha256Hash\":");
+  }
+
+  @Test public void sendsQueryDocumentWhenPersistedQueryNotSupported() throws Exception {
+    ApolloClient apolloClient = createApolloClient(false);
+
+    server.enqueue(persistedQueryErrorResponse("PersistedQueryNotSupported"));
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    assertResponse(apolloClient.query(query), heroNamePredicate());
+
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    assertResponse(apolloClient.query(query), heroNamePredicate());
+
+    assertThat(server.getRequestCount()).isEqualTo(3);
+    server.takeRequest();
+    server.takeRequest();
+    String body = server.takeRequest().getBody().readUtf8();
+    assertThat(body).contains("\"query\":");
+    assertThat(body).doesNotContain("\"sha256Hash\":");
+  }
+
+  @Test public void usesHttpGetMethodForPersistedQueries() throws Exception {
+    ApolloClient apolloClient = createApolloClient(true);
+
+    server.enqueue(persistedQueryErrorResponse("PersistedQueryNotFound"));
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    assertResponse(apolloClient.query(query), heroNamePredicate());
+
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    assertResponse(apolloClient.query(query), heroNamePredicate());
+
+    assertThat(server.takeRequest().getMethod()).isEqualTo("POST");
+    assertThat(server.takeRequest().getMethod()).isEqualTo("POST");
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getMethod()).isEqualTo("GET");
+    assertThat(request.getRequestUrl().queryParameter("query")).isNull();
+    assertThat(request.getRequestUrl().queryParameter("operationName")).isEqualTo("EpisodeHeroName");
+    assertThat(request.getRequestUrl().queryParameter("variables")).isEqualTo("{\"episode\":\"EMPIRE\"}");
+    assertThat(request.getRequestUrl().queryParameter("extensions")).contains("\"sha256Hash\":");
+  }
+
+  private ApolloClient createApolloClient(boolean useHttpGetMethod) {
+    return ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .dispatcher(immediateExecutor())
+        .enableAutoPersistedQueries(true)
+        .useHttpGetMethodForPersistedQueries(useHttpGetMethod)
+        .build();
+  }
+
+  private static MockResponse persistedQueryErrorResponse(String error) {
+    return new MockResponse().setBody("{\"errors\":[{\"message\":\"" + error + "\"}]}");
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate() {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+        return true;
+      }
+    };
+  }
+}
@@ -0,0 +1,157 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.fetcher.ResponseFetcher;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.functions.Predicate;
+import io.reactivex.observers.TestObserver;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_FIRST;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+
+public class ConcurrencyLimitTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final BlockingDispatcher dispatcher = new BlockingDispatcher();
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    server.setDispatcher(dispatcher);
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .normalizedCache(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION), new IdFieldCacheKeyResolver())
+        .enableAdaptiveConcurrencyLimit(ConcurrencyLimitPolicy.builder()
+            .initialLimit(1)
+            .limit(1, 1)
+            .build())
+        .build();
+  }
+
+  @Test public void requestsOverLimitAreQueued() throws Exception {
+    dispatcher.blockNextRequest();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> first = Rx2Apollo.from(empireHeroNameQuery(NETWORK_ONLY))
+        .test();
+    server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> second = Rx2Apollo.from(empireHeroNameQuery(NETWORK_ONLY))
+        .test();
+    awaitQueuedCount(1);
+    dispatcher.unblock();
+
+    first.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    second.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    assertThat(dispatcher.maxConcurrentRequests.get()).isEqualTo(1);
+    assertThat(apolloClient.concurrencyLimitMetrics().rejectedCount()).isEqualTo(0);
+    assertThat(apolloClient.concurrencyLimitMetrics().inFlightCount()).isEqualTo(0);
+  }
+
+  @Test public void requestOverLimitFallsBackToCache() throws Exception {
+    Rx2Apollo.from(empireHeroNameQuery(NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate());
+
+    dispatcher.blockNextRequest();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> blocking = Rx2Apollo.from(empireHeroNameQuery(NETWORK_ONLY))
+        .test();
+    server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+
+    Rx2Apollo.from(empireHeroNameQuery(NETWORK_FIRST))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+          @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+            assertThat(response.fromCache()).isTrue();
+            assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+            return true;
+          }
+        });
+    assertThat(apolloClient.concurrencyLimitMetrics().rejectedCount()).isEqualTo(1);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+
+    dispatcher.unblock();
+    blocking.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+  }
+
+  private ApolloQueryCall<EpisodeHeroNameQuery.Data> empireHeroNameQuery(ResponseFetcher responseFetcher) {
+    return apolloClient
+        .query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(responseFetcher);
+  }
+
+  private void awaitQueuedCount(int queuedCount) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIME_OUT_SECONDS);
+    while (apolloClient.concurrencyLimitMetrics().queuedCount() != queuedCount
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(apolloClient.concurrencyLimitMetrics().queuedCount()).isEqualTo(queuedCount);
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate() {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Holds the response of the request following {@link #blockNextRequest()} until {@link #unblock()} is called and
+   * tracks the max number of the concurrently served requests.
+   */
+  private static final class BlockingDispatcher extends Dispatcher {
+    final AtomicInteger concurrentRequests = new AtomicInteger();
+    final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    final AtomicBoolean blockNext = new AtomicBoolean();
+    final CountDownLatch latch = new CountDownLatch(1);
+
+    void blockNextRequest() {
+      blockNext.set(true);
+    }
+
+    void unblock() {
+      latch.countDown();
+    }
+
+    @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+      int concurrent = concurrentRequests.incrementAndGet();
+      maxConcurrentRequests.set(Math.max(maxConcurrentRequests.get(), concurrent));
+      try {
+        if (blockNext.compareAndSet(true, false)) {
+          latch.await(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+        }
+        return mockResponse(FILE_EPISODE_HERO_NAME);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      } finally {
+        concurrentRequests.decrementAndGet();
+      }
+    }
+  }
+}
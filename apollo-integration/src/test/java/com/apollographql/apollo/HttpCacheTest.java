@@ -2,9 +2,12 @@ package com.apollographql.apollo;
 
 import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.api.cache.http.HttpCache;
+import com.apollographql.apollo.api.cache.http.HttpCacheRecord;
 import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
 import com.apollographql.apollo.cache.http.ApolloHttpCache;
 import com.apollographql.apollo.cache.http.DiskLruHttpCacheStore;
+import com.apollographql.apollo.cache.http.HttpCacheCompression;
+import com.apollographql.apollo.cache.http.TwoTierHttpCacheStore;
 import com.apollographql.apollo.exception.ApolloException;
 import com.apollographql.apollo.exception.ApolloHttpException;
 import com.apollographql.apollo.integration.httpcache.AllFilmsQuery;
@@ -24,6 +27,7 @@ import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
@@ -381,6 +385,132 @@ public class HttpCacheTest {
     checkCachedResponse("/HttpCacheTestAllPlanets2.json");
   }
 
+  @Test public void staleWhileRevalidate() throws Exception {
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery()))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(server.takeRequest()).isNotNull();
+
+    Thread.sleep(TimeUnit.SECONDS.toMillis(2));
+
+    enqueueResponse("/HttpCacheTestAllPlanets2.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.STALE_WHILE_REVALIDATE.expireAfter(1, TimeUnit.SECONDS)))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+          @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+            return !response.hasErrors();
+          }
+        });
+    assertThat(lastHttResponse.networkResponse()).isNull();
+    assertThat(lastHttResponse.cacheResponse()).isNotNull();
+
+    assertThat(server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isNotNull();
+    awaitCachedResponse("/HttpCacheTestAllPlanets2.json");
+  }
+
+  @Test public void staleWhileRevalidateWithoutExpireTimeout() throws Exception {
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery()))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(server.takeRequest()).isNotNull();
+
+    enqueueResponse("/HttpCacheTestAllPlanets2.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.STALE_WHILE_REVALIDATE))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+          @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+            return !response.hasErrors();
+          }
+        });
+    assertThat(lastHttResponse.networkResponse()).isNull();
+    assertThat(lastHttResponse.cacheResponse()).isNotNull();
+
+    assertThat(server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isNotNull();
+    awaitCachedResponse("/HttpCacheTestAllPlanets2.json");
+  }
+
+  @Test public void staleWhileRevalidateMaxStale() throws Exception {
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery()))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+
+    Thread.sleep(TimeUnit.SECONDS.toMillis(2));
+
+    enqueueResponse("/HttpCacheTestAllPlanets2.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.STALE_WHILE_REVALIDATE
+            .expireAfter(500, TimeUnit.MILLISECONDS)
+            .maxStale(1, TimeUnit.SECONDS)))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(lastHttResponse.networkResponse()).isNotNull();
+    assertThat(lastHttResponse.cacheResponse()).isNull();
+    checkCachedResponse("/HttpCacheTestAllPlanets2.json");
+  }
+
+  @Test public void networkFirstWithDeadline() throws Exception {
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery()))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(server.takeRequest()).isNotNull();
+
+    server.enqueue(mockResponse("/HttpCacheTestAllPlanets2.json").setHeadersDelay(1, TimeUnit.SECONDS));
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.NETWORK_FIRST.networkDeadline(200, TimeUnit.MILLISECONDS)))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+          @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+            return !response.hasErrors();
+          }
+        });
+    assertThat(lastHttResponse.networkResponse()).isNull();
+    assertThat(lastHttResponse.cacheResponse()).isNotNull();
+
+    assertThat(server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isNotNull();
+    awaitCachedResponse("/HttpCacheTestAllPlanets2.json");
+  }
+
+  @Test public void networkFirstWithDeadlineInTime() throws Exception {
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery()))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+
+    enqueueResponse("/HttpCacheTestAllPlanets2.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.NETWORK_FIRST.networkDeadline(TIME_OUT_SECONDS, TimeUnit.SECONDS)))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(lastHttResponse.networkResponse()).isNotNull();
+    assertThat(lastHttResponse.cacheResponse()).isNull();
+    checkCachedResponse("/HttpCacheTestAllPlanets2.json");
+  }
+
   @Test public void fileSystemUnavailable() throws IOException, ApolloException {
     cacheStore.delegate = new DiskLruHttpCacheStore(new NoFileSystem(), new File("/cache/"), Integer.MAX_VALUE);
     enqueueResponse("/HttpCacheTestAllPlanets.json");
@@ -658,6 +788,157 @@ public class HttpCacheTest {
         });
   }
 
+  @Test public void twoTierCacheServesHotEntriesFromMemory() throws Exception {
+    TwoTierHttpCacheStore twoTierCacheStore = new TwoTierHttpCacheStore(cacheStore, 1024 * 1024, 1024 * 1024);
+    apolloClient = newApolloClient(new ApolloHttpCache(twoTierCacheStore));
+
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertNoErrors();
+
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.CACHE_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+          @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+            return !response.hasErrors() && response.fromCache();
+          }
+        });
+    assertThat(twoTierCacheStore.memoryHitCount()).isEqualTo(1);
+    assertThat(twoTierCacheStore.diskHitCount()).isEqualTo(0);
+
+    // the headers of the hot entry are parsed once and reused by the following reads
+    String cacheKey = ApolloServerInterceptor.cacheKey(lastHttRequest.body());
+    okhttp3.Response firstRead = apolloClient.cachedHttpResponse(cacheKey);
+    okhttp3.Response secondRead = apolloClient.cachedHttpResponse(cacheKey);
+    assertThat(secondRead.request()).isSameAs(firstRead.request());
+    assertThat(secondRead.body().source().readUtf8()).isEqualTo(firstRead.body().source().readUtf8());
+    firstRead.body().close();
+    secondRead.body().close();
+
+    // entries already on the disk are promoted to memory with the first read
+    twoTierCacheStore = new TwoTierHttpCacheStore(cacheStore, 1024 * 1024, 1024 * 1024);
+    apolloClient = newApolloClient(new ApolloHttpCache(twoTierCacheStore));
+    for (int i = 0; i < 2; i++) {
+      Rx2Apollo.from(apolloClient
+          .query(new AllPlanetsQuery())
+          .httpCachePolicy(HttpCachePolicy.CACHE_ONLY))
+          .test()
+          .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+          .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+            @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+              return !response.hasErrors() && response.fromCache();
+            }
+          });
+    }
+    assertThat(twoTierCacheStore.diskHitCount()).isEqualTo(1);
+    assertThat(twoTierCacheStore.memoryHitCount()).isEqualTo(1);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void twoTierCacheServesLargeEntriesFromDisk() throws Exception {
+    TwoTierHttpCacheStore twoTierCacheStore = new TwoTierHttpCacheStore(cacheStore, 1024 * 1024, 16);
+    apolloClient = newApolloClient(new ApolloHttpCache(twoTierCacheStore));
+
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertNoErrors();
+    assertThat(twoTierCacheStore.size()).isEqualTo(0);
+
+    for (int i = 0; i < 2; i++) {
+      Rx2Apollo.from(apolloClient
+          .query(new AllPlanetsQuery())
+          .httpCachePolicy(HttpCachePolicy.CACHE_ONLY))
+          .test()
+          .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+          .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+            @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+              return !response.hasErrors() && response.fromCache();
+            }
+          });
+    }
+    assertThat(twoTierCacheStore.diskHitCount()).isEqualTo(2);
+    assertThat(twoTierCacheStore.memoryHitCount()).isEqualTo(0);
+  }
+
+  @Test public void cacheCompressed() throws Exception {
+    for (HttpCacheCompression compression : Arrays.asList(HttpCacheCompression.GZIP, HttpCacheCompression.DEFLATE)) {
+      apolloClient = newApolloClient(new ApolloHttpCache(cacheStore, null, compression));
+      enqueueResponse("/HttpCacheTestAllPlanets.json");
+      Rx2Apollo.from(apolloClient
+          .query(new AllPlanetsQuery())
+          .httpCachePolicy(HttpCachePolicy.NETWORK_ONLY))
+          .test()
+          .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+          .assertNoErrors();
+      checkCachedResponse("/HttpCacheTestAllPlanets.json");
+
+      String cacheKey = ApolloServerInterceptor.cacheKey(lastHttRequest.body());
+      HttpCacheRecord cacheRecord = cacheStore.cacheRecord(cacheKey);
+      Buffer storedBody = new Buffer();
+      storedBody.writeAll(cacheRecord.bodySource());
+      cacheRecord.close();
+      assertThat(storedBody.size()).isLessThan(
+          (long) Utils.readFileToString(getClass(), "/HttpCacheTestAllPlanets.json").length() / 2);
+
+      Rx2Apollo.from(apolloClient
+          .query(new AllPlanetsQuery())
+          .httpCachePolicy(HttpCachePolicy.CACHE_ONLY))
+          .test()
+          .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+          .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+            @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+              return !response.hasErrors() && response.fromCache();
+            }
+          });
+    }
+  }
+
+  @Test public void readUncompressedWithCompressionEnabled() throws Exception {
+    enqueueResponse("/HttpCacheTestAllPlanets.json");
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertNoErrors();
+
+    apolloClient = newApolloClient(new ApolloHttpCache(cacheStore, null, HttpCacheCompression.GZIP));
+    Rx2Apollo.from(apolloClient
+        .query(new AllPlanetsQuery())
+        .httpCachePolicy(HttpCachePolicy.CACHE_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(new Predicate<Response<AllPlanetsQuery.Data>>() {
+          @Override public boolean test(Response<AllPlanetsQuery.Data> response) throws Exception {
+            return !response.hasErrors() && response.fromCache();
+          }
+        });
+    checkCachedResponse("/HttpCacheTestAllPlanets.json");
+    assertThat(lastHttResponse.header("X-APOLLO-CACHE-COMPRESSION")).isNull();
+  }
+
+  private ApolloClient newApolloClient(HttpCache cache) {
+    return ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .okHttpClient(new OkHttpClient.Builder()
+            .addInterceptor(new TrackingInterceptor())
+            .addInterceptor(cache.interceptor())
+            .build())
+        .httpCache(cache)
+        .build();
+  }
+
   private void enqueueResponse(String fileName) throws IOException {
     server.enqueue(mockResponse(fileName));
   }
@@ -670,6 +951,25 @@ public class HttpCacheTest {
     response.body().source().close();
   }
 
+  private void awaitCachedResponse(String fileName) throws Exception {
+    String cacheKey = ApolloServerInterceptor.cacheKey(lastHttRequest.body());
+    String expected = Utils.readFileToString(getClass(), fileName);
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIME_OUT_SECONDS);
+    String cached = null;
+    while (System.currentTimeMillis() < deadline) {
+      okhttp3.Response response = apolloClient.cachedHttpResponse(cacheKey);
+      if (response != null) {
+        cached = response.body().source().readUtf8();
+        response.body().source().close();
+        if (expected.equals(cached)) {
+          return;
+        }
+      }
+      Thread.sleep(50);
+    }
+    assertThat(cached).isEqualTo(expected);
+  }
+
   private void checkNoCachedResponse() throws IOException {
     String cacheKey = lastHttRequest.header(HttpCache.CACHE_KEY_HEADER);
     okhttp3.Response cachedResponse = apolloClient.cachedHttpResponse(cacheKey);
@@ -0,0 +1,89 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.functions.Predicate;
+import io.reactivex.observers.TestObserver;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.immediateExecutor;
+import static com.apollographql.apollo.Utils.readFileToString;
+import static com.google.common.truth.Truth.assertThat;
+
+public class QueryBatchingTest {
+  private static final String FILE_EPISODE_HERO_NAME = "/EpisodeHeroNameResponse.json";
+  private static final String FILE_EPISODE_HERO_NAME_CHANGE = "/EpisodeHeroNameResponseNameChange.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .dispatcher(immediateExecutor())
+        .enableQueryBatching(1, TimeUnit.SECONDS, 2)
+        .build();
+  }
+
+  @Test public void sendsQueriesAsSingleBatch() throws Exception {
+    server.enqueue(new MockResponse().setBody("[" + readFileToString(getClass(), FILE_EPISODE_HERO_NAME) + ","
+        + readFileToString(getClass(), FILE_EPISODE_HERO_NAME_CHANGE) + "]"));
+
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> empireObserver = Rx2Apollo.from(apolloClient.query(
+        EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())).test();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> jediObserver = Rx2Apollo.from(apolloClient.query(
+        EpisodeHeroNameQuery.builder().episode(Episode.JEDI).build())).test();
+
+    empireObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate("R2-D2"));
+    jediObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate("Artoo"));
+
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    String body = server.takeRequest().getBody().readUtf8();
+    assertThat(body).startsWith("[");
+    assertThat(body).contains("\"variables\":{\"episode\":\"EMPIRE\"}");
+    assertThat(body).contains("\"variables\":{\"episode\":\"JEDI\"}");
+  }
+
+  @Test public void flushesBatchAfterInterval() throws Exception {
+    server.enqueue(new MockResponse().setBody("[" + readFileToString(getClass(), FILE_EPISODE_HERO_NAME) + "]"));
+
+    Rx2Apollo.from(apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build()))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate("R2-D2"));
+
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void failsAllBatchedQueriesOnResponseSizeMismatch() throws Exception {
+    server.enqueue(new MockResponse().setBody("[" + readFileToString(getClass(), FILE_EPISODE_HERO_NAME) + "]"));
+
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> empireObserver = Rx2Apollo.from(apolloClient.query(
+        EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())).test();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> jediObserver = Rx2Apollo.from(apolloClient.query(
+        EpisodeHeroNameQuery.builder().episode(Episode.JEDI).build())).test();
+
+    empireObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertNoValues().assertError(Exception.class);
+    jediObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertNoValues().assertError(Exception.class);
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate(final String name) {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        assertThat(response.data().hero().name()).isEqualTo(name);
+        return true;
+      }
+    };
+  }
+}
@@ -0,0 +1,89 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.functions.Predicate;
+import io.reactivex.observers.TestObserver;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.immediateExecutor;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+
+public class QueryDeduplicationTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .dispatcher(immediateExecutor())
+        .enableQueryDeduplication(true)
+        .build();
+  }
+
+  @Test public void identicalQueriesShareNetworkFetch() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME).setBodyDelay(1, TimeUnit.SECONDS));
+
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> firstObserver = Rx2Apollo.from(empireHeroNameQuery()).test();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> secondObserver = Rx2Apollo.from(empireHeroNameQuery()).test();
+
+    firstObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    secondObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void queriesWithDifferentVariablesAreNotDeduplicated() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME).setBodyDelay(1, TimeUnit.SECONDS));
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME).setBodyDelay(1, TimeUnit.SECONDS));
+
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> empireObserver = Rx2Apollo.from(empireHeroNameQuery()).test();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> jediObserver = Rx2Apollo.from(apolloClient
+        .query(EpisodeHeroNameQuery.builder().episode(Episode.JEDI).build())
+        .responseFetcher(NETWORK_ONLY)).test();
+
+    empireObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    jediObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void canceledCallDoesNotCancelSharedNetworkFetch() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME).setBodyDelay(1, TimeUnit.SECONDS));
+
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> firstObserver = Rx2Apollo.from(empireHeroNameQuery()).test();
+    TestObserver<Response<EpisodeHeroNameQuery.Data>> secondObserver = Rx2Apollo.from(empireHeroNameQuery()).test();
+    firstObserver.dispose();
+
+    secondObserver.awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS).assertValue(heroNamePredicate());
+    firstObserver.assertNoValues();
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  private ApolloQueryCall<EpisodeHeroNameQuery.Data> empireHeroNameQuery() {
+    return apolloClient
+        .query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(NETWORK_ONLY);
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate() {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+        return true;
+      }
+    };
+  }
+}
@@ -0,0 +1,148 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.exception.ApolloHttpException;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import io.reactivex.functions.Predicate;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+
+public class RequestHedgingTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+  private static final long SLOW_RESPONSE_DELAY_MS = 1000;
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final AtomicInteger hedgeCount = new AtomicInteger();
+  private final AtomicInteger hedgeWinCount = new AtomicInteger();
+
+  @Test public void slowRequestIsHedged() throws Exception {
+    server.setDispatcher(new SlowFirstResponseDispatcher());
+    ApolloClient apolloClient = apolloClient(1.0);
+
+    long startMs = System.currentTimeMillis();
+    Rx2Apollo.from(empireHeroNameQuery(apolloClient))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate());
+
+    assertThat(System.currentTimeMillis() - startMs).isLessThan(SLOW_RESPONSE_DELAY_MS);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(hedgeCount.get()).isEqualTo(1);
+    assertThat(hedgeWinCount.get()).isEqualTo(1);
+  }
+
+  @Test public void hedgesAreCappedByRatio() throws Exception {
+    server.setDispatcher(new SlowFirstResponseDispatcher());
+    ApolloClient apolloClient = apolloClient(0);
+
+    Rx2Apollo.from(empireHeroNameQuery(apolloClient))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate());
+
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(hedgeCount.get()).isEqualTo(0);
+    assertThat(hedgeWinCount.get()).isEqualTo(0);
+  }
+
+  @Test public void httpErrorIsDeliveredWhenHedgeFails() throws Exception {
+    server.setDispatcher(new Dispatcher() {
+      private final AtomicInteger requestCount = new AtomicInteger();
+
+      @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        if (requestCount.getAndIncrement() == 0) {
+          Thread.sleep(200);
+          return new MockResponse().setResponseCode(500);
+        }
+        // the hedge fails after the original call has got the http error
+        Thread.sleep(300);
+        return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+      }
+    });
+    ApolloClient apolloClient = apolloClient(1.0);
+
+    Rx2Apollo.from(empireHeroNameQuery(apolloClient))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertError(new Predicate<Throwable>() {
+          @Override public boolean test(Throwable throwable) throws Exception {
+            return throwable instanceof ApolloHttpException && ((ApolloHttpException) throwable).code() == 500;
+          }
+        });
+
+    assertThat(hedgeCount.get()).isEqualTo(1);
+  }
+
+  private ApolloClient apolloClient(double maxHedgeRatio) {
+    return ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .enableRequestHedging(HedgingPolicy.builder()
+            .delay(50, 50, TimeUnit.MILLISECONDS)
+            .maxHedgeRatio(maxHedgeRatio)
+            .build())
+        .eventListener(new ApolloEventListener() {
+          @Override public void httpRequestHedged(@Nonnull ApolloCall call, @Nonnull Request request) {
+            hedgeCount.incrementAndGet();
+          }
+
+          @Override public void httpHedgeWon(@Nonnull ApolloCall call) {
+            hedgeWinCount.incrementAndGet();
+          }
+        })
+        .build();
+  }
+
+  private static ApolloQueryCall<EpisodeHeroNameQuery.Data> empireHeroNameQuery(ApolloClient apolloClient) {
+    return apolloClient
+        .query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build())
+        .responseFetcher(NETWORK_ONLY);
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate() {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        assertThat(response.data().hero().name()).isEqualTo("R2-D2");
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Delays the response headers of the first request only.
+   */
+  private static final class SlowFirstResponseDispatcher extends Dispatcher {
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+      if (requestCount.getAndIncrement() == 0) {
+        Thread.sleep(SLOW_RESPONSE_DELAY_MS);
+      }
+      try {
+        return mockResponse(FILE_EPISODE_HERO_NAME);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
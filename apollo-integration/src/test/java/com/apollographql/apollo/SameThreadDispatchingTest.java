@@ -0,0 +1,121 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.rx2.Rx2Apollo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.functions.Predicate;
+import io.reactivex.observers.TestObserver;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static com.apollographql.apollo.Utils.TIME_OUT_SECONDS;
+import static com.apollographql.apollo.Utils.mockResponse;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.CACHE_FIRST;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.google.common.truth.Truth.assertThat;
+
+public class SameThreadDispatchingTest {
+  private static final String FILE_EPISODE_HERO_NAME = "EpisodeHeroNameResponse.json";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final AtomicInteger dispatchCount = new AtomicInteger();
+  private ExecutorService executorService;
+  private ApolloClient apolloClient;
+
+  @Before public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+    apolloClient = ApolloClient.builder()
+        .serverUrl(server.url("/"))
+        .dispatcher(new Executor() {
+          @Override public void execute(Runnable runnable) {
+            dispatchCount.incrementAndGet();
+            executorService.execute(runnable);
+          }
+        })
+        .normalizedCache(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION), new IdFieldCacheKeyResolver())
+        .enableSameThreadDispatching(true)
+        .build();
+  }
+
+  @After public void tearDown() {
+    executorService.shutdown();
+  }
+
+  @Test public void networkCallIsDispatchedOnce() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+
+    Rx2Apollo.from(empireHeroNameQuery().responseFetcher(NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate());
+    assertThat(dispatchCount.get()).isEqualTo(1);
+  }
+
+  @Test public void cacheHitIsDispatchedOnce() throws Exception {
+    server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME));
+    Rx2Apollo.from(empireHeroNameQuery().responseFetcher(NETWORK_ONLY))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate());
+    dispatchCount.set(0);
+
+    Rx2Apollo.from(empireHeroNameQuery().responseFetcher(CACHE_FIRST))
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+        .assertValue(heroNamePredicate());
+    assertThat(dispatchCount.get()).isEqualTo(1);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void networkCallDoesNotBlockDefaultDispatcher() throws Exception {
+    ApolloDispatcher dispatcher = new ApolloDispatcher(1, ApolloDispatcher.DEFAULT_AGING_INTERVAL_MS,
+        TimeUnit.MILLISECONDS);
+    try {
+      apolloClient = ApolloClient.builder()
+          .serverUrl(server.url("/"))
+          .dispatcher(dispatcher)
+          .enableSameThreadDispatching(true)
+          .build();
+      server.enqueue(mockResponse(FILE_EPISODE_HERO_NAME).setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+      TestObserver<Response<EpisodeHeroNameQuery.Data>> observer =
+          Rx2Apollo.from(empireHeroNameQuery().responseFetcher(NETWORK_ONLY)).test();
+      assertThat(server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isNotNull();
+      // the response is delayed, so the only dispatcher thread would be still busy if the http call blocked it
+      Thread.sleep(100);
+      assertThat(dispatcher.runningTaskCount()).isEqualTo(0);
+
+      observer
+          .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS)
+          .assertValue(heroNamePredicate());
+    } finally {
+      dispatcher.shutdown();
+    }
+  }
+
+  private ApolloQueryCall<EpisodeHeroNameQuery.Data> empireHeroNameQuery() {
+    return apolloClient.query(EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build());
+  }
+
+  private static Predicate<Response<EpisodeHeroNameQuery.Data>> heroNamePredicate() {
+    return new Predicate<Response<EpisodeHeroNameQuery.Data>>() {
+      @Override public boolean test(Response<EpisodeHeroNameQuery.Data> response) throws Exception {
+        return response.data().hero().name().equals("R2-D2");
+      }
+    };
+  }
+}
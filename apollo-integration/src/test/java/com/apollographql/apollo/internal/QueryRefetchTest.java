@@ -162,6 +162,76 @@ public class QueryRefetchTest {
     );
   }
 
+  @Test public void refetchDeduplicatesQueries() throws Exception {
+    CreateReviewMutation mutation = new CreateReviewMutation(
+        Episode.EMPIRE,
+        ReviewInput.builder().stars(5).commentary("Awesome").favoriteColor(ColorInput.builder().build()).build()
+    );
+
+    server.enqueue(mockResponse("CreateReviewResponse.json"));
+    server.enqueue(mockResponse("ReviewsEmpireEpisodeResponse.json"));
+
+    final NamedCountDownLatch completionCountDownLatch = new NamedCountDownLatch("refetchDeduplicatesQueries", 1);
+    RealApolloCall call = (RealApolloCall) apolloClient.mutate(mutation)
+        .refetchQueries(new ReviewsByEpisodeQuery(Episode.EMPIRE), new ReviewsByEpisodeQuery(Episode.EMPIRE));
+    ((QueryReFetcher) call.queryReFetcher.get()).onCompleteCallback = new QueryReFetcher.OnCompleteCallback() {
+      @Override public void onFetchComplete() {
+        completionCountDownLatch.countDown();
+      }
+    };
+
+    Rx2Apollo
+        .from(call)
+        .test()
+        .awaitDone(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+
+    completionCountDownLatch.awaitOrThrowWithTimeout(TIME_OUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertResponse(
+        apolloClient.query(new ReviewsByEpisodeQuery(Episode.EMPIRE)).responseFetcher(CACHE_ONLY),
+        new Predicate<Response<ReviewsByEpisodeQuery.Data>>() {
+          @Override public boolean test(Response<ReviewsByEpisodeQuery.Data> response) throws Exception {
+            assertThat(response.data().reviews()).hasSize(3);
+            return true;
+          }
+        }
+    );
+  }
+
+  @Test public void canceledRefetchDoesNotWriteToCache() throws Exception {
+    CreateReviewMutation mutation = new CreateReviewMutation(
+        Episode.EMPIRE,
+        ReviewInput.builder().stars(5).commentary("Awesome").favoriteColor(ColorInput.builder().build()).build()
+    );
+
+    server.enqueue(mockResponse("ReviewsEmpireEpisodeResponse.json").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    final NamedCountDownLatch completionCountDownLatch = new NamedCountDownLatch("canceledRefetch", 1);
+    RealApolloCall call = (RealApolloCall) apolloClient.mutate(mutation)
+        .refetchQueries(new ReviewsByEpisodeQuery(Episode.EMPIRE));
+    QueryReFetcher queryReFetcher = (QueryReFetcher) call.queryReFetcher.get();
+    queryReFetcher.onCompleteCallback = new QueryReFetcher.OnCompleteCallback() {
+      @Override public void onFetchComplete() {
+        completionCountDownLatch.countDown();
+      }
+    };
+
+    queryReFetcher.refetch();
+    assertThat(server.takeRequest(TIME_OUT_SECONDS, TimeUnit.SECONDS)).isNotNull();
+    queryReFetcher.cancel();
+
+    assertThat(completionCountDownLatch.await(1, TimeUnit.SECONDS)).isFalse();
+    assertResponse(
+        apolloClient.query(new ReviewsByEpisodeQuery(Episode.EMPIRE)).responseFetcher(CACHE_ONLY),
+        new Predicate<Response<ReviewsByEpisodeQuery.Data>>() {
+          @Override public boolean test(Response<ReviewsByEpisodeQuery.Data> response) throws Exception {
+            assertThat(response.data()).isNull();
+            return true;
+          }
+        }
+    );
+  }
+
   @Test public void refetchWatchers() throws Exception {
     server.enqueue(mockResponse("ReviewsEmpireEpisodeResponse.json"));
     server.enqueue(mockResponse("CreateReviewResponse.json"));
@@ -0,0 +1,110 @@
+package com.apollographql.apollo.internal.fetcher;
+
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.mockwebserver.MockResponse;
+
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.CACHE_ONLY;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.NETWORK_ONLY;
+import static com.apollographql.apollo.fetcher.ApolloResponseFetchers.networkFirstWithDeadline;
+import static com.google.common.truth.Truth.assertThat;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+
+public class NetworkFirstWithDeadlineFetcherTest extends BaseFetcherTest {
+  private final EpisodeHeroNameQuery query = EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build();
+
+  @Test public void networkInTime() throws IOException, ApolloException, TimeoutException, InterruptedException {
+    server.enqueue(mockResponse("HeroNameResponse.json"));
+    TrackingCallback trackingCallback = new TrackingCallback();
+    apolloClient.query(query)
+        .responseFetcher(networkFirstWithDeadline(TIMEOUT_SECONDS, TimeUnit.SECONDS, true))
+        .enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.exceptions).isEmpty();
+    assertThat(trackingCallback.responseList.size()).isEqualTo(1);
+    assertThat(trackingCallback.responseList.get(0).fromCache()).isFalse();
+    assertThat(trackingCallback.responseList.get(0).data().hero().name()).isEqualTo("R2-D2");
+  }
+
+  @Test public void cacheAfterDeadline() throws IOException, ApolloException, TimeoutException, InterruptedException {
+    populateCache();
+
+    server.enqueue(mockResponse("EpisodeHeroNameResponseNameChange.json").setBodyDelay(1, TimeUnit.SECONDS));
+    TrackingCallback trackingCallback = new TrackingCallback();
+    apolloClient.query(query)
+        .responseFetcher(networkFirstWithDeadline(200, TimeUnit.MILLISECONDS, false))
+        .enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.exceptions).isEmpty();
+    assertThat(trackingCallback.responseList.size()).isEqualTo(1);
+    assertThat(trackingCallback.responseList.get(0).fromCache()).isTrue();
+    assertThat(trackingCallback.responseList.get(0).data().hero().name()).isEqualTo("R2-D2");
+
+    // the late network response still updates the cache
+    Thread.sleep(TimeUnit.SECONDS.toMillis(2));
+    trackingCallback = new TrackingCallback();
+    apolloClient.query(query).responseFetcher(CACHE_ONLY).enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.responseList.size()).isEqualTo(1);
+    assertThat(trackingCallback.responseList.get(0).data().hero().name()).isEqualTo("Artoo");
+  }
+
+  @Test public void cacheAfterDeadlineThenLateNetwork() throws IOException, ApolloException, TimeoutException,
+      InterruptedException {
+    populateCache();
+
+    server.enqueue(mockResponse("EpisodeHeroNameResponseNameChange.json").setBodyDelay(1, TimeUnit.SECONDS));
+    TrackingCallback trackingCallback = new TrackingCallback();
+    apolloClient.query(query)
+        .responseFetcher(networkFirstWithDeadline(200, TimeUnit.MILLISECONDS, true))
+        .enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.exceptions).isEmpty();
+    assertThat(trackingCallback.responseList.size()).isEqualTo(2);
+    assertThat(trackingCallback.responseList.get(0).fromCache()).isTrue();
+    assertThat(trackingCallback.responseList.get(0).data().hero().name()).isEqualTo("R2-D2");
+    assertThat(trackingCallback.responseList.get(1).fromCache()).isFalse();
+    assertThat(trackingCallback.responseList.get(1).data().hero().name()).isEqualTo("Artoo");
+  }
+
+  @Test public void networkAfterDeadlineWhenCacheEmpty() throws IOException, ApolloException, TimeoutException,
+      InterruptedException {
+    server.enqueue(mockResponse("HeroNameResponse.json").setBodyDelay(1, TimeUnit.SECONDS));
+    TrackingCallback trackingCallback = new TrackingCallback();
+    apolloClient.query(query)
+        .responseFetcher(networkFirstWithDeadline(200, TimeUnit.MILLISECONDS, false))
+        .enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.exceptions).isEmpty();
+    assertThat(trackingCallback.responseList.size()).isEqualTo(1);
+    assertThat(trackingCallback.responseList.get(0).fromCache()).isFalse();
+    assertThat(trackingCallback.responseList.get(0).data().hero().name()).isEqualTo("R2-D2");
+  }
+
+  @Test public void networkErrorWhenCacheEmpty() throws IOException, ApolloException, TimeoutException,
+      InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(HTTP_INTERNAL_ERROR).setBody("Server Error"));
+    TrackingCallback trackingCallback = new TrackingCallback();
+    apolloClient.query(query)
+        .responseFetcher(networkFirstWithDeadline(TIMEOUT_SECONDS, TimeUnit.SECONDS, false))
+        .enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.exceptions.size()).isEqualTo(1);
+  }
+
+  private void populateCache() throws IOException, ApolloException, TimeoutException, InterruptedException {
+    server.enqueue(mockResponse("HeroNameResponse.json"));
+    TrackingCallback trackingCallback = new TrackingCallback();
+    apolloClient.query(query).responseFetcher(NETWORK_ONLY).enqueue(trackingCallback);
+    trackingCallback.completedOrErrorLatch.awaitOrThrowWithTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(trackingCallback.exceptions).isEmpty();
+  }
+}
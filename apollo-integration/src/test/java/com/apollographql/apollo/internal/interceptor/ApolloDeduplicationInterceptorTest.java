@@ -0,0 +1,101 @@
+package com.apollographql.apollo.internal.interceptor;
+
+import com.apollographql.apollo.CustomTypeAdapter;
+import com.apollographql.apollo.Logger;
+import com.apollographql.apollo.api.ScalarType;
+import com.apollographql.apollo.api.internal.Optional;
+import com.apollographql.apollo.cache.normalized.Record;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.integration.normalizer.EpisodeHeroNameQuery;
+import com.apollographql.apollo.integration.normalizer.type.Episode;
+import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.response.ScalarTypeAdapters;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.Utils.immediateExecutor;
+import static com.google.common.truth.Truth.assertThat;
+
+public class ApolloDeduplicationInterceptorTest {
+  private final ApolloDeduplicationInterceptor.Registry registry = new ApolloDeduplicationInterceptor.Registry();
+  private final NetworkInterceptor networkInterceptor = new NetworkInterceptor();
+  private final ApolloInterceptor.InterceptorRequest request = ApolloInterceptor.InterceptorRequest.builder(
+      EpisodeHeroNameQuery.builder().episode(Episode.EMPIRE).build()).build();
+
+  @Test public void onlyFirstSubscriberGetsCacheRecords() {
+    RecordingCallBack owner = intercept();
+    RecordingCallBack joiner = intercept();
+    assertThat(networkInterceptor.callBacks).hasSize(1);
+
+    Record record = Record.builder("QUERY_ROOT").addField("hero", "R2-D2").build();
+    networkInterceptor.callBacks.get(0).onResponse(new ApolloInterceptor.InterceptorResponse(null, null,
+        Collections.singletonList(record)));
+
+    assertThat(owner.responses).hasSize(1);
+    assertThat(owner.responses.get(0).cacheRecords.get()).containsExactly(record);
+    assertThat(joiner.responses).hasSize(1);
+    assertThat(joiner.responses.get(0).cacheRecords.isPresent()).isFalse();
+  }
+
+  @Test public void fetchIsReportedOncePerSubscriber() {
+    RecordingCallBack owner = intercept();
+    RecordingCallBack earlyJoiner = intercept();
+    networkInterceptor.callBacks.get(0).onFetch(ApolloInterceptor.FetchSourceType.NETWORK);
+    RecordingCallBack lateJoiner = intercept();
+
+    assertThat(owner.fetches).containsExactly(ApolloInterceptor.FetchSourceType.NETWORK);
+    assertThat(earlyJoiner.fetches).containsExactly(ApolloInterceptor.FetchSourceType.NETWORK);
+    assertThat(lateJoiner.fetches).containsExactly(ApolloInterceptor.FetchSourceType.NETWORK);
+  }
+
+  private RecordingCallBack intercept() {
+    ApolloDeduplicationInterceptor interceptor = new ApolloDeduplicationInterceptor(registry,
+        Collections.<ApolloInterceptor>singletonList(networkInterceptor), null,
+        new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap()),
+        new ApolloLogger(Optional.<Logger>absent()));
+    RecordingCallBack callBack = new RecordingCallBack();
+    interceptor.interceptAsync(request, new RealApolloInterceptorChain(Collections.<ApolloInterceptor>emptyList()),
+        immediateExecutor(), callBack);
+    return callBack;
+  }
+
+  private static final class NetworkInterceptor implements ApolloInterceptor {
+    final List<CallBack> callBacks = new ArrayList<>();
+
+    @Override public void interceptAsync(@Nonnull InterceptorRequest request, @Nonnull ApolloInterceptorChain chain,
+        @Nonnull Executor dispatcher, @Nonnull CallBack callBack) {
+      callBacks.add(callBack);
+    }
+
+    @Override public void dispose() {
+    }
+  }
+
+  private static final class RecordingCallBack implements ApolloInterceptor.CallBack {
+    final List<ApolloInterceptor.InterceptorResponse> responses = new ArrayList<>();
+    final List<ApolloInterceptor.FetchSourceType> fetches = new ArrayList<>();
+
+    @Override public void onResponse(@Nonnull ApolloInterceptor.InterceptorResponse response) {
+      responses.add(response);
+    }
+
+    @Override public void onFetch(ApolloInterceptor.FetchSourceType sourceType) {
+      fetches.add(sourceType);
+    }
+
+    @Override public void onFailure(@Nonnull ApolloException e) {
+    }
+
+    @Override public void onCompleted() {
+    }
+  }
+}
@@ -11,6 +11,7 @@ import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
 import com.apollographql.apollo.api.internal.Optional;
 import com.apollographql.apollo.integration.interceptor.AllFilmsQuery;
 import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.CallEventListener;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 
 import org.junit.Test;
@@ -63,9 +64,9 @@ public class ApolloServerInterceptorTest {
     ApolloServerInterceptor interceptor = new ApolloServerInterceptor(serverUrl,
         new AssertHttpCallFactory(requestAssertPredicate), null, false,
         new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap()),
-        new ApolloLogger(Optional.<Logger>absent()), false);
+        new ApolloLogger(Optional.<Logger>absent()), false, CallEventListener.NONE, null);
 
-    interceptor.httpCall(query);
+    interceptor.httpPostCall(query, true, false);
   }
 
   @Test public void testCachedHttpCall() throws Exception {
@@ -87,9 +88,9 @@ public class ApolloServerInterceptorTest {
         new AssertHttpCallFactory(requestAssertPredicate),
         HttpCachePolicy.NETWORK_FIRST.expireAfter(10, TimeUnit.SECONDS),
         false, new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap()),
-        new ApolloLogger(Optional.<Logger>absent()), false);
+        new ApolloLogger(Optional.<Logger>absent()), false, CallEventListener.NONE, null);
 
-    interceptor.httpCall(query);
+    interceptor.httpPostCall(query, true, false);
   }
 
   private void assertDefaultRequestHeaders(Request request) {
@@ -0,0 +1,108 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.internal.util.Cancelable;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>ApolloBulkPrefetch is an abstraction for a set of {@link Query} operations that have been prepared to be fetched
+ * in order to warm up the normalized cache. Each query is fetched from the network, parsed and written to the
+ * normalized cache the same way as by {@link ApolloCall}, but the parsed models are not delivered to the callback.
+ * Instead the {@link Callback} is notified once when all the queries complete.</p>
+ *
+ * <p>Identical queries are fetched once and at most {@link #maxConcurrentCalls(int)} queries are fetched at a time.
+ * Use this object to warm up the cache e.g. on the application start or when an unmetered network becomes
+ * available.</p>
+ *
+ * <p>Note: In order to execute the prefetch again, call the {@link ApolloBulkPrefetch#clone()} method which creates a
+ * new {@link ApolloBulkPrefetch} object.</p>
+ */
+public interface ApolloBulkPrefetch extends Cancelable {
+  int DEFAULT_MAX_CONCURRENT_CALLS = 4;
+
+  /**
+   * Schedules the queries to be fetched at some point in the future.
+   *
+   * @param callback Callback which will be notified once all the queries complete
+   * @throws IllegalStateException when the prefetch has already been executed
+   */
+  void enqueue(@Nullable Callback callback);
+
+  /**
+   * Creates a new, identical ApolloBulkPrefetch to this one which can be enqueued even if this one has already been
+   * executed.
+   *
+   * @return The cloned ApolloBulkPrefetch object
+   */
+  ApolloBulkPrefetch clone();
+
+  /**
+   * Sets the {@link ApolloDispatcher.Priority} of the queries, {@link ApolloDispatcher.Priority#PREFETCH} by default.
+   * The priority is a hint for the {@link ApolloDispatcher} about the order to run the queued calls in, and is ignored
+   * when {@link ApolloClient} is configured with any other dispatcher.
+   *
+   * @param priority the {@link ApolloDispatcher.Priority} to fetch the queries with
+   * @return The ApolloBulkPrefetch object with the provided {@link ApolloDispatcher.Priority}
+   */
+  @Nonnull ApolloBulkPrefetch priority(@Nonnull ApolloDispatcher.Priority priority);
+
+  /**
+   * Sets the max number of the queries fetched at a time, {@link #DEFAULT_MAX_CONCURRENT_CALLS} by default.
+   *
+   * @param maxConcurrentCalls max number of the queries fetched at a time
+   * @return The ApolloBulkPrefetch object with the provided limit
+   */
+  @Nonnull ApolloBulkPrefetch maxConcurrentCalls(int maxConcurrentCalls);
+
+  /**
+   * Returns the GraphQL queries this prefetch fetches
+   *
+   * @return list of {@link Query}
+   */
+  @Nonnull List<Query> queries();
+
+  /**
+   * Cancels this {@link ApolloBulkPrefetch}. The queries that are being fetched are canceled, the pending ones are not
+   * fetched and the {@link Callback} will receive no more events.
+   */
+  @Override void cancel();
+
+  /**
+   * Communicates the aggregated result of the prefetch.
+   */
+  abstract class Callback {
+
+    /**
+     * Gets called when all the queries have been fetched and written to the normalized cache.
+     */
+    public abstract void onSuccess();
+
+    /**
+     * Gets called when all the queries complete and at least one of them has failed.
+     *
+     * @param failures failed queries mapped to the exceptions they have failed with
+     * @param successCount number of the queries that have been fetched and written to the normalized cache
+     */
+    public abstract void onFailure(@Nonnull Map<Query, ApolloException> failures, int successCount);
+  }
+
+  /**
+   * Factory for creating ApolloBulkPrefetch object.
+   */
+  interface Factory {
+
+    /**
+     * Creates the ApolloBulkPrefetch for the provided queries.
+     *
+     * @param queries the queries to fetch
+     * @return The ApolloBulkPrefetch object with the wrapped queries
+     */
+    ApolloBulkPrefetch bulkPrefetch(@Nonnull List<? extends Query> queries);
+  }
+}
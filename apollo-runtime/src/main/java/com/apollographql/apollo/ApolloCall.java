@@ -31,6 +31,19 @@ public interface ApolloCall<T> extends Cancelable {
    */
   void enqueue(@Nullable Callback<T> callback);
 
+  /**
+   * Executes the request immediately, blocking until the response is received or the call fails. The interceptor
+   * chain and the http request are run on the calling thread, with the same caching, parsing and cancellation
+   * semantics as {@link #enqueue(Callback)}. If the {@link ResponseFetcher} used for this call delivers multiple
+   * responses, the last one is returned.
+   *
+   * @return the response of the call
+   * @throws ApolloCanceledException when the call has been canceled or the calling thread has been interrupted
+   * @throws ApolloException         when the call has failed
+   * @throws IllegalStateException   when the call has already been executed
+   */
+  @Nonnull Response<T> execute() throws ApolloException;
+
   /**
    * Sets the {@link CacheHeaders} to use for this call. {@link com.apollographql.apollo.interceptor.FetchOptions} will
    * be configured with this headers, and will be accessible from the {@link ResponseFetcher} used for this call.
@@ -42,6 +55,16 @@ public interface ApolloCall<T> extends Cancelable {
    */
   @Nonnull ApolloCall<T> cacheHeaders(@Nonnull CacheHeaders cacheHeaders);
 
+  /**
+   * Sets the {@link ApolloDispatcher.Priority} of this call, {@link ApolloDispatcher.Priority#USER_VISIBLE} by
+   * default. The priority is a hint for the {@link ApolloDispatcher} about the order to run the queued calls in, and is
+   * ignored when {@link ApolloClient} is configured with any other dispatcher.
+   *
+   * @param priority the {@link ApolloDispatcher.Priority} to run this call with
+   * @return The ApolloCall object with the provided {@link ApolloDispatcher.Priority}.
+   */
+  @Nonnull ApolloCall<T> priority(@Nonnull ApolloDispatcher.Priority priority);
+
   /**
    * Creates a new, identical call to this one which can be enqueued or executed even if this call has already been.
    *
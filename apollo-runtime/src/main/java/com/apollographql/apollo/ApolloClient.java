@@ -21,14 +21,25 @@ import com.apollographql.apollo.fetcher.ResponseFetcher;
 import com.apollographql.apollo.interceptor.ApolloInterceptor;
 import com.apollographql.apollo.internal.ApolloCallTracker;
 import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.RealApolloBulkPrefetch;
 import com.apollographql.apollo.internal.RealApolloCall;
 import com.apollographql.apollo.internal.RealApolloPrefetch;
 import com.apollographql.apollo.internal.RealApolloSubscriptionCall;
 import com.apollographql.apollo.internal.ResponseFieldMapperFactory;
+import com.apollographql.apollo.internal.batch.QueryBatcher;
 import com.apollographql.apollo.internal.cache.normalized.RealApolloStore;
+import com.apollographql.apollo.internal.interceptor.ApolloAutoPersistedQueryInterceptor;
+import com.apollographql.apollo.internal.interceptor.ApolloDeduplicationInterceptor;
+import com.apollographql.apollo.internal.interceptor.ApolloConcurrencyLimitInterceptor;
+import com.apollographql.apollo.internal.interceptor.RequestHedger;
 import com.apollographql.apollo.internal.subscription.NoOpSubscriptionManager;
 import com.apollographql.apollo.internal.subscription.RealSubscriptionManager;
+import com.apollographql.apollo.internal.subscription.ShardedSubscriptionManager;
 import com.apollographql.apollo.internal.subscription.SubscriptionManager;
+import com.apollographql.apollo.subscription.SubscriptionConnectionPolicy;
+import com.apollographql.apollo.subscription.SubscriptionEventListener;
+import com.apollographql.apollo.subscription.SubscriptionShardingPolicies;
+import com.apollographql.apollo.subscription.SubscriptionShardingPolicy;
 import com.apollographql.apollo.subscription.SubscriptionTransport;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 
@@ -39,9 +50,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
@@ -69,7 +77,7 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
  * <p>See the {@link ApolloClient.Builder} class for configuring the ApolloClient.
  */
 public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutationCall.Factory, ApolloPrefetch.Factory,
-    ApolloSubscriptionCall.Factory {
+    ApolloBulkPrefetch.Factory, ApolloSubscriptionCall.Factory {
 
   public static Builder builder() {
     return new Builder();
@@ -90,6 +98,14 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
   private final List<ApolloInterceptor> applicationInterceptors;
   private final boolean sendOperationIdentifiers;
   private final SubscriptionManager subscriptionManager;
+  private final Optional<ApolloAutoPersistedQueryInterceptor.Registry> persistedQueryRegistry;
+  private final boolean useHttpGetMethodForPersistedQueries;
+  private final Optional<QueryBatcher> queryBatcher;
+  private final Optional<ApolloDeduplicationInterceptor.Registry> deduplicationRegistry;
+  private final ApolloEventListener.Factory eventListenerFactory;
+  private final boolean sameThreadDispatching;
+  private final Optional<RequestHedger> requestHedger;
+  private final Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter;
 
   ApolloClient(HttpUrl serverUrl,
       Call.Factory httpCallFactory,
@@ -103,7 +119,15 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
       ApolloLogger logger,
       List<ApolloInterceptor> applicationInterceptors,
       boolean sendOperationIdentifiers,
-      SubscriptionManager subscriptionManager) {
+      SubscriptionManager subscriptionManager,
+      Optional<ApolloAutoPersistedQueryInterceptor.Registry> persistedQueryRegistry,
+      boolean useHttpGetMethodForPersistedQueries,
+      Optional<QueryBatcher> queryBatcher,
+      Optional<ApolloDeduplicationInterceptor.Registry> deduplicationRegistry,
+      ApolloEventListener.Factory eventListenerFactory,
+      boolean sameThreadDispatching,
+      Optional<RequestHedger> requestHedger,
+      Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter) {
     this.serverUrl = serverUrl;
     this.httpCallFactory = httpCallFactory;
     this.httpCache = httpCache;
@@ -117,6 +141,14 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
     this.applicationInterceptors = applicationInterceptors;
     this.sendOperationIdentifiers = sendOperationIdentifiers;
     this.subscriptionManager = subscriptionManager;
+    this.persistedQueryRegistry = persistedQueryRegistry;
+    this.useHttpGetMethodForPersistedQueries = useHttpGetMethodForPersistedQueries;
+    this.queryBatcher = queryBatcher;
+    this.deduplicationRegistry = deduplicationRegistry;
+    this.eventListenerFactory = eventListenerFactory;
+    this.sameThreadDispatching = sameThreadDispatching;
+    this.requestHedger = requestHedger;
+    this.concurrencyLimiter = concurrencyLimiter;
   }
 
   @Override
@@ -142,7 +174,18 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
   public <D extends Operation.Data, T, V extends Operation.Variables> ApolloPrefetch prefetch(
       @Nonnull Operation<D, T, V> operation) {
     return new RealApolloPrefetch(operation, serverUrl, httpCallFactory, scalarTypeAdapters, dispatcher, logger,
-        tracker, sendOperationIdentifiers);
+        tracker, sendOperationIdentifiers, ApolloDispatcher.Priority.PREFETCH);
+  }
+
+  @Override public ApolloBulkPrefetch bulkPrefetch(@Nonnull List<? extends Query> queries) {
+    checkNotNull(queries, "queries == null");
+    List<RealApolloCall> calls = new ArrayList<>(queries.size());
+    for (Query query : queries) {
+      //noinspection unchecked
+      calls.add(newCall(checkNotNull(query, "query == null")));
+    }
+    return new RealApolloBulkPrefetch(calls, scalarTypeAdapters, logger, ApolloDispatcher.Priority.PREFETCH,
+        ApolloBulkPrefetch.DEFAULT_MAX_CONCURRENT_CALLS);
   }
 
   @Override
@@ -198,6 +241,14 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
     return tracker.activeCallsCount();
   }
 
+  /**
+   * @return metrics of the adaptive limit of the concurrent network requests, {@code null} if the limit is not enabled
+   * with {@link Builder#enableAdaptiveConcurrencyLimit(ConcurrencyLimitPolicy)}
+   */
+  @Nullable public ConcurrencyLimitMetrics concurrencyLimitMetrics() {
+    return concurrencyLimiter.orNull();
+  }
+
   Response cachedHttpResponse(String cacheKey) throws IOException {
     if (httpCache != null) {
       return httpCache.read(cacheKey);
@@ -226,6 +277,14 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
         .refetchQueries(Collections.<Query>emptyList())
         .refetchQueryNames(Collections.<OperationName>emptyList())
         .sendOperationIdentifiers(sendOperationIdentifiers)
+        .persistedQueryRegistry(persistedQueryRegistry)
+        .useHttpGetMethodForQueries(useHttpGetMethodForPersistedQueries)
+        .queryBatcher(queryBatcher)
+        .deduplicationRegistry(deduplicationRegistry)
+        .eventListenerFactory(eventListenerFactory)
+        .sameThreadDispatching(sameThreadDispatching)
+        .requestHedger(requestHedger)
+        .concurrencyLimiter(concurrencyLimiter)
         .build();
   }
 
@@ -245,6 +304,20 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
     final List<ApolloInterceptor> applicationInterceptors = new ArrayList<>();
     boolean sendOperationIdentifiers;
     Optional<SubscriptionTransport.Factory> subscriptionTransportFactory = Optional.absent();
+    boolean enableAutoPersistedQueries;
+    boolean useHttpGetMethodForPersistedQueries;
+    long batchIntervalMs;
+    int maxBatchSize;
+    boolean enableQueryDeduplication;
+    boolean enableSameThreadDispatching;
+    boolean enableSubscriptionCacheWrites;
+    SubscriptionConnectionPolicy subscriptionConnectionPolicy = SubscriptionConnectionPolicy.DEFAULT;
+    int subscriptionConnectionCount = 1;
+    SubscriptionShardingPolicy subscriptionShardingPolicy = SubscriptionShardingPolicies.HASHING;
+    SubscriptionEventListener subscriptionEventListener = SubscriptionEventListener.NONE;
+    Optional<HedgingPolicy> hedgingPolicy = Optional.absent();
+    Optional<ConcurrencyLimitPolicy> concurrencyLimitPolicy = Optional.absent();
+    ApolloEventListener.Factory eventListenerFactory;
 
     Builder() {
     }
@@ -340,7 +413,9 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
     }
 
     /**
-     * The #{@link Executor} to use for dispatching the requests.
+     * The #{@link Executor} to use for dispatching the requests. By default {@link ApolloDispatcher} is used, which
+     * limits the number of the concurrent calls and runs them according to their {@link ApolloDispatcher.Priority}.
+     * The priorities are ignored by any other {@link Executor}.
      *
      * @return The {@link Builder} object to be used for chaining method calls
      */
@@ -418,6 +493,151 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
       return this;
     }
 
+    /**
+     * <p>Enables automatic persisted queries. Instead of the operation definition ApolloClient will first send only the
+     * SHA-256 hash of the operation definition along with the variables. If the server doesn't recognize the hash, the
+     * request is retried with the full operation definition so the server can persist it for the subsequent requests.
+     * </p>
+     *
+     * @param enableAutoPersistedQueries True if ApolloClient should use automatic persisted queries. Default: false.
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableAutoPersistedQueries(boolean enableAutoPersistedQueries) {
+      this.enableAutoPersistedQueries = enableAutoPersistedQueries;
+      return this;
+    }
+
+    /**
+     * <p>Sets whether {@link Query} operations should be sent with HTTP GET method when automatic persisted queries are
+     * enabled, so the responses can be served by CDN or http caches. Only operations already persisted by the server
+     * are sent with HTTP GET method, the registration of the new operation definitions is always done with HTTP POST
+     * method.</p>
+     *
+     * @param useHttpGetMethodForPersistedQueries True if ApolloClient should use HTTP GET method for persisted queries.
+     *                                            Default: false.
+     * @return The {@link Builder} object to be used for chaining method calls
+     * @see #enableAutoPersistedQueries(boolean)
+     */
+    public Builder useHttpGetMethodForPersistedQueries(boolean useHttpGetMethodForPersistedQueries) {
+      this.useHttpGetMethodForPersistedQueries = useHttpGetMethodForPersistedQueries;
+      return this;
+    }
+
+    /**
+     * <p>Enables query batching. {@link Query} operations enqueued within the provided batch interval are sent to the
+     * server as a single http request with JSON array of operations. The batch is sent earlier as soon as it reaches
+     * the max batch size.</p>
+     *
+     * <p>Note: queries that use http cache policy other than {@link HttpCachePolicy#NETWORK_ONLY} or are sent as
+     * automatic persisted queries are not batched.</p>
+     *
+     * @param batchInterval the time window to collect queries into the batch
+     * @param timeUnit      time unit of the batch interval
+     * @param maxBatchSize  the max number of queries in a single batch
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableQueryBatching(long batchInterval, @Nonnull TimeUnit timeUnit, int maxBatchSize) {
+      checkNotNull(timeUnit, "timeUnit == null");
+      if (batchInterval <= 0) throw new IllegalArgumentException("batchInterval <= 0");
+      if (maxBatchSize <= 0) throw new IllegalArgumentException("maxBatchSize <= 0");
+      this.batchIntervalMs = timeUnit.toMillis(batchInterval);
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * <p>Enables deduplication of the concurrent identical {@link Query} operations. When the same query with the same
+     * variables is already being fetched from the network, any subsequent call subscribes to that network fetch
+     * instead of making its own http call. Every call still can be canceled independently.</p>
+     *
+     * @param enableQueryDeduplication True if ApolloClient should deduplicate in-flight queries. Default: false.
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableQueryDeduplication(boolean enableQueryDeduplication) {
+      this.enableQueryDeduplication = enableQueryDeduplication;
+      return this;
+    }
+
+    /**
+     * <p>Enables same-thread dispatching. The work of each call is handed off to the {@link #dispatcher} only once,
+     * after that the interceptors continue on the same dispatcher thread instead of dispatching each step again, and
+     * the http request is executed on that thread as well instead of the OkHttp one. This cuts down the time calls
+     * spend waiting in the queues, especially for the responses served from the cache.</p>
+     *
+     * <p>Note: with a custom {@link #dispatcher}, the dispatcher thread is blocked for the whole http request, so the
+     * number of the concurrent network calls is limited by the number of the dispatcher threads. The default
+     * {@link ApolloDispatcher} keeps its threads for the cache and dispatch work, the http request is made with
+     * OkHttp's asynchronous API then and the rest of the call continues on the OkHttp thread.</p>
+     *
+     * @param enableSameThreadDispatching True if ApolloClient should dispatch each call only once. Default: false.
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableSameThreadDispatching(boolean enableSameThreadDispatching) {
+      this.enableSameThreadDispatching = enableSameThreadDispatching;
+      return this;
+    }
+
+    /**
+     * <p>Enables hedging of the http requests of the {@link Query} operations. If no response headers are received
+     * within the hedge delay derived from the observed response latencies, an identical http request is sent, the
+     * first successful response wins and the other request is canceled. The hedged requests are reported to the
+     * {@link ApolloEventListener}.</p>
+     *
+     * <p>Note: requests are not hedged when same-thread dispatching is enabled, for {@link ApolloCall#execute()} and
+     * for the queries sent in a batch.</p>
+     *
+     * @param hedgingPolicy the {@link HedgingPolicy} to hedge the requests with
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableRequestHedging(@Nonnull HedgingPolicy hedgingPolicy) {
+      this.hedgingPolicy = Optional.of(checkNotNull(hedgingPolicy, "hedgingPolicy == null"));
+      return this;
+    }
+
+    /**
+     * <p>Enables the adaptive limit of the concurrent network requests of the {@link ApolloCall}s. The limit is
+     * adjusted to the observed round trip times and failures of the requests, the requests over the limit wait in the
+     * queue. Requests that can be served from the normalized cache, such as the ones of the
+     * {@link ApolloResponseFetchers#NETWORK_FIRST} fetcher, are not queued but fall back to the cache right away.</p>
+     *
+     * <p>The current limit and the number of the rejected requests are available via
+     * {@link ApolloClient#concurrencyLimitMetrics()}.</p>
+     *
+     * @param concurrencyLimitPolicy the {@link ConcurrencyLimitPolicy} to limit the requests with
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableAdaptiveConcurrencyLimit(@Nonnull ConcurrencyLimitPolicy concurrencyLimitPolicy) {
+      this.concurrencyLimitPolicy = Optional.of(checkNotNull(concurrencyLimitPolicy,
+          "concurrencyLimitPolicy == null"));
+      return this;
+    }
+
+    /**
+     * Configures a single listener to receive the lifecycle events of all the calls created by this client.
+     *
+     * @param eventListener listener of the call events
+     * @return The {@link Builder} object to be used for chaining method calls
+     * @see #eventListenerFactory(ApolloEventListener.Factory)
+     */
+    public Builder eventListener(@Nonnull ApolloEventListener eventListener) {
+      return eventListenerFactory(ApolloEventListener.factory(checkNotNull(eventListener, "eventListener is null")));
+    }
+
+    /**
+     * <p>Configures a factory to create the {@link ApolloEventListener} for each call created by this client. Listeners
+     * receive the events of each stage of the call: cache read, http request, parse, cache write, publish and response
+     * dispatch, that can be used to track down where the call latency comes from.</p>
+     *
+     * <p>By default no listener is set and the events are not collected at all.</p>
+     *
+     * @param eventListenerFactory factory of the call event listeners
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder eventListenerFactory(@Nonnull ApolloEventListener.Factory eventListenerFactory) {
+      this.eventListenerFactory = checkNotNull(eventListenerFactory, "eventListenerFactory is null");
+      return this;
+    }
+
     /**
      * <p>Sets up subscription transport factory to be used for subscription server communication.<p/> See also: {@link
      * com.apollographql.apollo.subscription.WebSocketSubscriptionTransport}
@@ -431,6 +651,70 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
       return this;
     }
 
+    /**
+     * Sets the policy of the connection to the subscription server: the keep-alive tracking of the connection and the
+     * reconnects with the jittered exponential backoff, see {@link SubscriptionConnectionPolicy}. By default the
+     * keep-alive messages of the server are ignored and the subscriptions fail when the connection fails.
+     *
+     * @param subscriptionConnectionPolicy the policy of the subscription server connection
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder subscriptionConnectionPolicy(@Nonnull SubscriptionConnectionPolicy subscriptionConnectionPolicy) {
+      this.subscriptionConnectionPolicy = checkNotNull(subscriptionConnectionPolicy,
+          "subscriptionConnectionPolicy is null");
+      return this;
+    }
+
+    /**
+     * <p>Sets up a pool of connections to the subscription server. Each subscription is assigned to one connection of
+     * the pool by the sharding policy, and each connection is opened, kept alive, reconnected and released on
+     * inactivity on its own, so a high number of subscriptions or a few high-volume ones don't have to share a single
+     * socket. See {@link SubscriptionShardingPolicies} for the provided policies.</p>
+     *
+     * <p>By default all the subscriptions share one connection.</p>
+     *
+     * @param connectionCount the max number of the connections to the subscription server
+     * @param shardingPolicy  the policy assigning the subscriptions to the connections
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder subscriptionConnectionPool(int connectionCount, @Nonnull SubscriptionShardingPolicy shardingPolicy) {
+      if (connectionCount < 1) throw new IllegalArgumentException("connectionCount < 1");
+      this.subscriptionConnectionCount = connectionCount;
+      this.subscriptionShardingPolicy = checkNotNull(shardingPolicy, "shardingPolicy is null");
+      return this;
+    }
+
+    /**
+     * Sets the listener for the subscription events: the messages received, parsed, delivered and dropped by each
+     * subscription and the lifecycle of each subscription server connection. See {@link SubscriptionEventListener}.
+     *
+     * @param subscriptionEventListener the listener of the subscription events
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder subscriptionEventListener(@Nonnull SubscriptionEventListener subscriptionEventListener) {
+      this.subscriptionEventListener = checkNotNull(subscriptionEventListener, "subscriptionEventListener is null");
+      return this;
+    }
+
+    /**
+     * <p>Enables writing of the subscription responses to the normalized cache. The responses are normalized the same
+     * way as the query responses, merged into the cache and published, so the {@link ApolloQueryWatcher}s of the
+     * updated entities are notified without any network call. The updates of one subscription delivered together are
+     * merged in one transaction, see {@link com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy}, and
+     * delivered to the subscribers after the merge. Only the entities with a cache key are written, the objects keyed by
+     * their path from the subscription root are not.</p>
+     *
+     * <p>Has no effect unless the normalized cache is configured.</p>
+     *
+     * @param enableSubscriptionCacheWrites True if the subscription responses should be written to the normalized
+     *                                      cache. Default: false.
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder enableSubscriptionCacheWrites(boolean enableSubscriptionCacheWrites) {
+      this.enableSubscriptionCacheWrites = enableSubscriptionCacheWrites;
+      return this;
+    }
+
     /**
      * Builds the {@link ApolloClient} instance using the configured values.
      *
@@ -472,8 +756,42 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
       SubscriptionManager subscriptionManager = new NoOpSubscriptionManager();
       Optional<SubscriptionTransport.Factory> subscriptionTransportFactory = this.subscriptionTransportFactory;
       if (subscriptionTransportFactory.isPresent()) {
-        subscriptionManager = new RealSubscriptionManager(scalarTypeAdapters, subscriptionTransportFactory.get(),
-            dispatcher);
+        Optional<ApolloStore> subscriptionCacheStore = enableSubscriptionCacheWrites
+            && apolloStore != ApolloStore.NO_APOLLO_STORE ? Optional.of(apolloStore) : Optional.<ApolloStore>absent();
+        List<RealSubscriptionManager> subscriptionManagers = new ArrayList<>(subscriptionConnectionCount);
+        for (int i = 0; i < subscriptionConnectionCount; i++) {
+          subscriptionManagers.add(new RealSubscriptionManager(scalarTypeAdapters, subscriptionTransportFactory.get(),
+              dispatcher, subscriptionConnectionPolicy, subscriptionCacheStore, apolloLogger, subscriptionEventListener,
+              i));
+        }
+        subscriptionManager = subscriptionManagers.size() == 1 ? subscriptionManagers.get(0)
+            : new ShardedSubscriptionManager(subscriptionManagers, subscriptionShardingPolicy);
+      }
+
+      Optional<ApolloAutoPersistedQueryInterceptor.Registry> persistedQueryRegistry = Optional.absent();
+      if (enableAutoPersistedQueries) {
+        persistedQueryRegistry = Optional.of(new ApolloAutoPersistedQueryInterceptor.Registry());
+      }
+
+      Optional<QueryBatcher> queryBatcher = Optional.absent();
+      if (batchIntervalMs > 0) {
+        queryBatcher = Optional.of(new QueryBatcher(serverUrl, callFactory, scalarTypeAdapters, apolloLogger,
+            batchIntervalMs, maxBatchSize, sendOperationIdentifiers));
+      }
+
+      Optional<ApolloDeduplicationInterceptor.Registry> deduplicationRegistry = Optional.absent();
+      if (enableQueryDeduplication) {
+        deduplicationRegistry = Optional.of(new ApolloDeduplicationInterceptor.Registry());
+      }
+
+      Optional<RequestHedger> requestHedger = Optional.absent();
+      if (hedgingPolicy.isPresent()) {
+        requestHedger = Optional.of(new RequestHedger(hedgingPolicy.get()));
+      }
+
+      Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter = Optional.absent();
+      if (concurrencyLimitPolicy.isPresent()) {
+        concurrencyLimiter = Optional.of(new ApolloConcurrencyLimitInterceptor.Limiter(concurrencyLimitPolicy.get()));
       }
 
       return new ApolloClient(serverUrl,
@@ -488,16 +806,19 @@ public final class ApolloClient implements ApolloQueryCall.Factory, ApolloMutati
           apolloLogger,
           applicationInterceptors,
           sendOperationIdentifiers,
-          subscriptionManager);
+          subscriptionManager,
+          persistedQueryRegistry,
+          useHttpGetMethodForPersistedQueries,
+          queryBatcher,
+          deduplicationRegistry,
+          eventListenerFactory,
+          enableSameThreadDispatching,
+          requestHedger,
+          concurrencyLimiter);
     }
 
     private Executor defaultDispatcher() {
-      return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
-          new SynchronousQueue<Runnable>(), new ThreadFactory() {
-        @Override public Thread newThread(@Nonnull Runnable runnable) {
-          return new Thread(runnable, "Apollo Dispatcher");
-        }
-      });
+      return new ApolloDispatcher();
     }
 
     private static okhttp3.Call.Factory addHttpCacheInterceptorIfNeeded(Call.Factory callFactory,
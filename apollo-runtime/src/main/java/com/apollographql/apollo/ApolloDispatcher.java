@@ -0,0 +1,429 @@
+package com.apollographql.apollo;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Bounded {@link Executor} that runs the work of {@link ApolloCall} and {@link ApolloPrefetch} according to their
+ * {@link Priority}. At most {@code maxConcurrentTasks} tasks are run at the same time, the rest of them are queued and
+ * picked up by the priority of the call they were submitted for, tasks of the same priority are run in the order they
+ * were submitted.
+ *
+ * <p>To prevent the lower priority tasks from waiting forever under constant load, every task is aged while it waits
+ * in the queue: a task of the lower priority is picked up before a task of the higher one if it has been waiting
+ * longer by at least {@code agingInterval} for each priority level between them.</p>
+ *
+ * <p>The cache work of the calls, such as the normalized cache reads, the optimistic updates and the publishes of the
+ * cache changes, is submitted with {@link #cacheExecutor(Priority)}. At most {@code maxConcurrentCacheTasks} of these
+ * tasks are queued or run at the same time, the rest of them wait for a free slot, so a burst of the cache work can't
+ * take all the dispatcher threads.</p>
+ *
+ * <p>New calls are admitted only while fewer than {@code maxQueuedTasks} tasks wait in the queue, see
+ * {@link #tryAdmitCall()}. The calls started when the queue is full are failed right away, the tasks of the calls
+ * already in flight are always queued, so the queue grows past the limit only by the work of these calls. The number
+ * of the failed calls can be observed with {@link #rejectedCallCount()}.</p>
+ *
+ * <p>Queue depth and the time tasks spend waiting in the queue are tracked per priority and can be observed with
+ * {@link #queuedTaskCount(Priority)}, {@link #totalWaitTimeNanos(Priority)} and {@link #maxWaitTimeNanos(Priority)}.
+ * </p>
+ *
+ * <p>The dispatcher threads run the cache and dispatch work of the calls only. The http requests are made with
+ * OkHttp's asynchronous API, so the network concurrency is limited separately by OkHttp's own dispatcher, even with
+ * {@link ApolloClient.Builder#enableSameThreadDispatching(boolean)}, and optionally by
+ * {@link ApolloClient.Builder#enableAdaptiveConcurrencyLimit}.</p>
+ */
+@SuppressWarnings("WeakerAccess") public final class ApolloDispatcher implements Executor {
+  public static final int DEFAULT_MAX_CONCURRENT_TASKS =
+      Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  public static final long DEFAULT_AGING_INTERVAL_MS = 500;
+  public static final int DEFAULT_MAX_QUEUED_TASKS = 256;
+  public static final int DEFAULT_MAX_CONCURRENT_CACHE_TASKS = Math.max(1, DEFAULT_MAX_CONCURRENT_TASKS / 2);
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final ThreadPoolExecutor executor;
+  private final long agingIntervalNanos;
+  private final int maxQueuedTasks;
+  private final int maxConcurrentCacheTasks;
+  private final AtomicInteger totalQueuedTaskCount = new AtomicInteger();
+  private final AtomicLong rejectedCallCount = new AtomicLong();
+  // cache tasks waiting for a free slot and the number of the slots taken, guarded by pendingCacheTasks
+  private final Queue<Task> pendingCacheTasks = new PriorityQueue<>();
+  private int activeCacheTaskCount;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicIntegerArray queuedTaskCount = new AtomicIntegerArray(Priority.values().length);
+  private final AtomicLongArray dispatchedTaskCount = new AtomicLongArray(Priority.values().length);
+  private final AtomicLongArray totalWaitTimeNanos = new AtomicLongArray(Priority.values().length);
+  private final AtomicLongArray maxWaitTimeNanos = new AtomicLongArray(Priority.values().length);
+
+  /**
+   * Creates the dispatcher with {@link #DEFAULT_MAX_CONCURRENT_TASKS} threads, {@link #DEFAULT_AGING_INTERVAL_MS} aging
+   * interval, {@link #DEFAULT_MAX_QUEUED_TASKS} max queued tasks and {@link #DEFAULT_MAX_CONCURRENT_CACHE_TASKS} max
+   * concurrent cache tasks.
+   */
+  public ApolloDispatcher() {
+    this(DEFAULT_MAX_CONCURRENT_TASKS, DEFAULT_AGING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @param maxConcurrentTasks max number of tasks run at the same time, which is the max number of the threads created
+   *                           by this dispatcher
+   * @param agingInterval      time a queued task has to wait to get ahead of the tasks of the next higher priority
+   * @param timeUnit           time unit of the {@code agingInterval}
+   */
+  public ApolloDispatcher(int maxConcurrentTasks, long agingInterval, @Nonnull TimeUnit timeUnit) {
+    this(maxConcurrentTasks, agingInterval, timeUnit, DEFAULT_MAX_QUEUED_TASKS);
+  }
+
+  /**
+   * @param maxConcurrentTasks max number of tasks run at the same time, which is the max number of the threads created
+   *                           by this dispatcher
+   * @param agingInterval      time a queued task has to wait to get ahead of the tasks of the next higher priority
+   * @param timeUnit           time unit of the {@code agingInterval}
+   * @param maxQueuedTasks     max number of tasks waiting in the queue for the new calls to be admitted
+   */
+  public ApolloDispatcher(int maxConcurrentTasks, long agingInterval, @Nonnull TimeUnit timeUnit,
+      int maxQueuedTasks) {
+    this(maxConcurrentTasks, agingInterval, timeUnit, maxQueuedTasks,
+        Math.min(maxConcurrentTasks, DEFAULT_MAX_CONCURRENT_CACHE_TASKS));
+  }
+
+  /**
+   * @param maxConcurrentTasks      max number of tasks run at the same time, which is the max number of the threads
+   *                                created by this dispatcher
+   * @param agingInterval           time a queued task has to wait to get ahead of the tasks of the next higher priority
+   * @param timeUnit                time unit of the {@code agingInterval}
+   * @param maxQueuedTasks          max number of tasks waiting in the queue for the new calls to be admitted
+   * @param maxConcurrentCacheTasks max number of the cache tasks queued or run at the same time
+   */
+  public ApolloDispatcher(int maxConcurrentTasks, long agingInterval, @Nonnull TimeUnit timeUnit,
+      int maxQueuedTasks, int maxConcurrentCacheTasks) {
+    if (maxConcurrentTasks <= 0) {
+      throw new IllegalArgumentException("maxConcurrentTasks <= 0");
+    }
+    if (agingInterval < 0) {
+      throw new IllegalArgumentException("agingInterval < 0");
+    }
+    if (maxQueuedTasks <= 0) {
+      throw new IllegalArgumentException("maxQueuedTasks <= 0");
+    }
+    if (maxConcurrentCacheTasks <= 0) {
+      throw new IllegalArgumentException("maxConcurrentCacheTasks <= 0");
+    }
+    this.maxQueuedTasks = maxQueuedTasks;
+    this.maxConcurrentCacheTasks = maxConcurrentCacheTasks;
+    this.agingIntervalNanos = checkNotNull(timeUnit, "timeUnit == null").toNanos(agingInterval);
+    this.executor = new ThreadPoolExecutor(maxConcurrentTasks, maxConcurrentTasks, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+          @Override public Thread newThread(@Nonnull Runnable runnable) {
+            return new Thread(runnable, "Apollo Dispatcher");
+          }
+        });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Runs the task with the {@link Priority#USER_VISIBLE} priority.
+   */
+  @Override public void execute(@Nonnull Runnable runnable) {
+    execute(runnable, Priority.USER_VISIBLE);
+  }
+
+  /**
+   * Runs the task with the provided priority.
+   *
+   * @param runnable task to run
+   * @param priority priority of the task
+   */
+  public void execute(@Nonnull Runnable runnable, @Nonnull Priority priority) {
+    checkNotNull(runnable, "runnable == null");
+    checkNotNull(priority, "priority == null");
+    Task task = new Task(runnable, priority, false);
+    onQueued(task);
+    submit(task);
+  }
+
+  /**
+   * Runs the cache task with the provided priority once fewer than {@code maxConcurrentCacheTasks} cache tasks are
+   * queued or running.
+   *
+   * @param runnable cache task to run
+   * @param priority priority of the task
+   */
+  public void executeCacheTask(@Nonnull Runnable runnable, @Nonnull Priority priority) {
+    checkNotNull(runnable, "runnable == null");
+    checkNotNull(priority, "priority == null");
+    Task task = new Task(runnable, priority, true);
+    onQueued(task);
+    synchronized (pendingCacheTasks) {
+      if (activeCacheTaskCount >= maxConcurrentCacheTasks) {
+        pendingCacheTasks.add(task);
+        return;
+      }
+      activeCacheTaskCount++;
+    }
+    submit(task);
+  }
+
+  /**
+   * Checks if a new call can be started, which is the case while fewer than {@code maxQueuedTasks} tasks wait in the
+   * queue. The call that isn't admitted should be failed and is counted by {@link #rejectedCallCount()}.
+   *
+   * @return {@code true} if the call can be started
+   */
+  public boolean tryAdmitCall() {
+    if (totalQueuedTaskCount.get() < maxQueuedTasks && !executor.isShutdown()) {
+      return true;
+    }
+    rejectedCallCount.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Returns the view of this dispatcher that runs all the tasks with the provided priority.
+   *
+   * @param priority priority of the tasks
+   * @return {@link Executor} that submits the tasks to this dispatcher
+   */
+  @Nonnull public Executor executor(@Nonnull final Priority priority) {
+    checkNotNull(priority, "priority == null");
+    return new PriorityExecutor(priority);
+  }
+
+  /**
+   * Returns the view of this dispatcher that runs all the tasks with the provided priority as the cache tasks, see
+   * {@link #executeCacheTask(Runnable, Priority)}.
+   *
+   * @param priority priority of the tasks
+   * @return {@link Executor} that submits the cache tasks to this dispatcher
+   */
+  @Nonnull public Executor cacheExecutor(@Nonnull final Priority priority) {
+    checkNotNull(priority, "priority == null");
+    return new Executor() {
+      @Override public void execute(@Nonnull Runnable runnable) {
+        executeCacheTask(runnable, priority);
+      }
+    };
+  }
+
+  /**
+   * Returns the executor of the cache work of the call dispatched with the provided executor: the
+   * {@link #cacheExecutor(Priority)} of the same priority if the executor is a view returned by
+   * {@link #executor(Priority)}, the executor itself otherwise.
+   */
+  @Nonnull public static Executor cacheExecutorOf(@Nonnull Executor dispatcher) {
+    checkNotNull(dispatcher, "dispatcher == null");
+    if (dispatcher instanceof PriorityExecutor) {
+      PriorityExecutor priorityExecutor = (PriorityExecutor) dispatcher;
+      return priorityExecutor.dispatcher().cacheExecutor(priorityExecutor.priority);
+    }
+    return dispatcher;
+  }
+
+  /**
+   * @return number of the tasks waiting in the queue
+   */
+  public int queuedTaskCount() {
+    int count = 0;
+    for (Priority priority : Priority.values()) {
+      count += queuedTaskCount(priority);
+    }
+    return count;
+  }
+
+  /**
+   * @return number of the tasks of the provided priority waiting in the queue
+   */
+  public int queuedTaskCount(@Nonnull Priority priority) {
+    return queuedTaskCount.get(priority.ordinal());
+  }
+
+  /**
+   * @return approximate number of the tasks being run right now
+   */
+  public int runningTaskCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * @return number of the cache tasks waiting for a free slot, they're included in {@link #queuedTaskCount()}
+   */
+  public int pendingCacheTaskCount() {
+    synchronized (pendingCacheTasks) {
+      return pendingCacheTasks.size();
+    }
+  }
+
+  /**
+   * @return number of the calls failed because the queue was full
+   */
+  public long rejectedCallCount() {
+    return rejectedCallCount.get();
+  }
+
+  /**
+   * @return number of the tasks of the provided priority taken from the queue to run
+   */
+  public long dispatchedTaskCount(@Nonnull Priority priority) {
+    return dispatchedTaskCount.get(priority.ordinal());
+  }
+
+  /**
+   * @return total time in nanoseconds the dispatched tasks of the provided priority have spent waiting in the queue
+   */
+  public long totalWaitTimeNanos(@Nonnull Priority priority) {
+    return totalWaitTimeNanos.get(priority.ordinal());
+  }
+
+  /**
+   * @return the longest time in nanoseconds a dispatched task of the provided priority has spent waiting in the queue
+   */
+  public long maxWaitTimeNanos(@Nonnull Priority priority) {
+    return maxWaitTimeNanos.get(priority.ordinal());
+  }
+
+  /**
+   * Stops accepting new tasks, the tasks already submitted are still run.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private void onQueued(Task task) {
+    totalQueuedTaskCount.incrementAndGet();
+    queuedTaskCount.incrementAndGet(task.priority.ordinal());
+  }
+
+  private void submit(Task task) {
+    try {
+      executor.execute(task);
+    } catch (RuntimeException e) {
+      queuedTaskCount.decrementAndGet(task.priority.ordinal());
+      totalQueuedTaskCount.decrementAndGet();
+      if (task.cacheTask) {
+        onCacheTaskFinished();
+      }
+      throw e;
+    }
+  }
+
+  private void onCacheTaskFinished() {
+    while (true) {
+      Task next;
+      synchronized (pendingCacheTasks) {
+        next = pendingCacheTasks.poll();
+        if (next == null) {
+          activeCacheTaskCount--;
+          return;
+        }
+      }
+      // the slot is handed over to the next cache task, unless the dispatcher has been shut down
+      try {
+        executor.execute(next);
+        return;
+      } catch (RuntimeException e) {
+        queuedTaskCount.decrementAndGet(next.priority.ordinal());
+        totalQueuedTaskCount.decrementAndGet();
+      }
+    }
+  }
+
+  private void onDispatched(Priority priority, long waitTimeNanos) {
+    int index = priority.ordinal();
+    totalQueuedTaskCount.decrementAndGet();
+    queuedTaskCount.decrementAndGet(index);
+    dispatchedTaskCount.incrementAndGet(index);
+    totalWaitTimeNanos.addAndGet(index, waitTimeNanos);
+    long max;
+    do {
+      max = maxWaitTimeNanos.get(index);
+    } while (waitTimeNanos > max && !maxWaitTimeNanos.compareAndSet(index, max, waitTimeNanos));
+  }
+
+  /**
+   * Priority of the call work submitted to the {@link ApolloDispatcher}, from the highest to the lowest.
+   */
+  public enum Priority {
+    /**
+     * Work the user is waiting for, the default priority of {@link ApolloCall}.
+     */
+    USER_VISIBLE,
+    /**
+     * Work the user is not waiting for, such as the refetches of the watched queries.
+     */
+    BACKGROUND,
+    /**
+     * Work that fetches the data ahead of its use, the default priority of {@link ApolloPrefetch}.
+     */
+    PREFETCH
+  }
+
+  private final class PriorityExecutor implements Executor {
+    final Priority priority;
+
+    PriorityExecutor(Priority priority) {
+      this.priority = priority;
+    }
+
+    ApolloDispatcher dispatcher() {
+      return ApolloDispatcher.this;
+    }
+
+    @Override public void execute(@Nonnull Runnable runnable) {
+      ApolloDispatcher.this.execute(runnable, priority);
+    }
+  }
+
+  private final class Task implements Runnable, Comparable<Task> {
+    final Runnable runnable;
+    final Priority priority;
+    final boolean cacheTask;
+    final long sequence;
+    final long enqueuedAtNanos;
+    final long deadlineNanos;
+
+    Task(Runnable runnable, Priority priority, boolean cacheTask) {
+      this.runnable = runnable;
+      this.priority = priority;
+      this.cacheTask = cacheTask;
+      this.sequence = ApolloDispatcher.this.sequence.getAndIncrement();
+      this.enqueuedAtNanos = System.nanoTime();
+      this.deadlineNanos = enqueuedAtNanos + priority.ordinal() * agingIntervalNanos;
+    }
+
+    @Override public void run() {
+      onDispatched(priority, System.nanoTime() - enqueuedAtNanos);
+      try {
+        runnable.run();
+      } finally {
+        if (cacheTask) {
+          onCacheTaskFinished();
+        }
+      }
+    }
+
+    @Override public int compareTo(@Nonnull Task other) {
+      long diff = deadlineNanos - other.deadlineNanos;
+      if (diff != 0) {
+        return diff < 0 ? -1 : 1;
+      }
+      if (priority != other.priority) {
+        return priority.compareTo(other.priority);
+      }
+      return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.apollographql.apollo;
+
+import com.apollographql.apollo.exception.ApolloException;
+
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Listener for the lifecycle events of {@link ApolloCall}. Extend this class to monitor the quantity, size and duration
+ * of the calls, each stage of the call is reported with the start and end events that can be timed with
+ * {@link System#nanoTime()}.
+ *
+ * <p>All event methods are called synchronously on the thread that executes the corresponding stage of the call, so
+ * they must execute quickly and should not block. Listener instances are created per call by
+ * {@link ApolloEventListener.Factory} and can hold the state of the call they are created for.</p>
+ *
+ * <p>Http request events are not reported for queries sent as part of the batch, and network stages are not reported
+ * at all for calls served by an in-flight identical call when query deduplication is enabled.</p>
+ */
+@SuppressWarnings("WeakerAccess") public abstract class ApolloEventListener {
+  public static final ApolloEventListener NONE = new ApolloEventListener() {
+  };
+
+  /**
+   * Creates the factory that returns the same listener instance for every call.
+   *
+   * @param listener listener to be returned by the factory
+   * @return {@link Factory} that returns provided listener
+   */
+  @Nonnull public static Factory factory(@Nonnull final ApolloEventListener listener) {
+    checkNotNull(listener, "listener == null");
+    return new Factory() {
+      @Nonnull @Override public ApolloEventListener create(@Nonnull ApolloCall call) {
+        return listener;
+      }
+    };
+  }
+
+  /**
+   * Invoked as soon as the call is enqueued.
+   */
+  public void callStart(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked prior to reading the operation response from the normalized cache.
+   */
+  public void cacheReadStart(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked after reading the operation response from the normalized cache.
+   *
+   * @param hit         {@code true} if the response has been resolved from the cache
+   * @param recordCount number of the records read from the cache
+   */
+  public void cacheReadEnd(@Nonnull ApolloCall call, boolean hit, int recordCount) {
+  }
+
+  /**
+   * Invoked prior to sending the http request to the server.
+   */
+  public void httpRequestStart(@Nonnull ApolloCall call, @Nonnull Request request) {
+  }
+
+  /**
+   * Invoked prior to sending the hedge http request, when the response headers of the original request haven't been
+   * received within the hedge delay.
+   *
+   * @see HedgingPolicy
+   */
+  public void httpRequestHedged(@Nonnull ApolloCall call, @Nonnull Request request) {
+  }
+
+  /**
+   * Invoked when the response of the hedge http request has been received before the response of the original one.
+   *
+   * @see HedgingPolicy
+   */
+  public void httpHedgeWon(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked after receiving the http response headers.
+   */
+  public void httpResponseHeadersEnd(@Nonnull ApolloCall call, @Nonnull Response response) {
+  }
+
+  /**
+   * Invoked prior to parsing the http response body.
+   */
+  public void parseStart(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked after parsing and normalizing the http response body.
+   *
+   * @param byteCount   number of the response body bytes consumed by the parser
+   * @param recordCount number of the normalized records produced from the response
+   */
+  public void parseEnd(@Nonnull ApolloCall call, long byteCount, int recordCount) {
+  }
+
+  /**
+   * Invoked prior to writing the normalized records of the network response to the cache.
+   */
+  public void cacheWriteStart(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked after writing the normalized records of the network response to the cache.
+   *
+   * @param recordCount      number of the records written to the cache
+   * @param changedCacheKeys keys of the records that have been changed by this write
+   */
+  public void cacheWriteEnd(@Nonnull ApolloCall call, int recordCount, @Nonnull Set<String> changedCacheKeys) {
+  }
+
+  /**
+   * Invoked prior to notifying the cache watchers about the changed records.
+   */
+  public void publishStart(@Nonnull ApolloCall call, @Nonnull Set<String> changedCacheKeys) {
+  }
+
+  /**
+   * Invoked after notifying the cache watchers about the changed records.
+   */
+  public void publishEnd(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked prior to dispatching the response to the {@link ApolloCall.Callback}.
+   */
+  public void responseDispatchStart(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked after the {@link ApolloCall.Callback} returns from handling the response.
+   */
+  public void responseDispatchEnd(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked when the call has been completed successfully.
+   */
+  public void callEnd(@Nonnull ApolloCall call) {
+  }
+
+  /**
+   * Invoked when the call has failed.
+   */
+  public void callFailed(@Nonnull ApolloCall call, @Nonnull ApolloException e) {
+  }
+
+  /**
+   * Factory for creating the {@link ApolloEventListener} for each {@link ApolloCall}.
+   */
+  public interface Factory {
+    /**
+     * Creates an instance of the {@link ApolloEventListener} for the provided call.
+     *
+     * @param call call the listener is created for
+     * @return listener of the call events
+     */
+    @Nonnull ApolloEventListener create(@Nonnull ApolloCall call);
+  }
+}
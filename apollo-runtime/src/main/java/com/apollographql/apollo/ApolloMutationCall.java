@@ -30,6 +30,8 @@ public interface ApolloMutationCall<T> extends ApolloCall<T> {
 
   @Nonnull @Override ApolloMutationCall<T> cacheHeaders(@Nonnull CacheHeaders cacheHeaders);
 
+  @Nonnull @Override ApolloMutationCall<T> priority(@Nonnull ApolloDispatcher.Priority priority);
+
   @Nonnull @Override ApolloMutationCall<T> clone();
 
   /**
@@ -43,6 +43,16 @@ public interface ApolloPrefetch extends Cancelable {
    */
   ApolloPrefetch clone();
 
+  /**
+   * Sets the {@link ApolloDispatcher.Priority} of this prefetch, {@link ApolloDispatcher.Priority#PREFETCH} by default.
+   * The priority is a hint for the {@link ApolloDispatcher} about the order to run the queued calls in, and is ignored
+   * when {@link ApolloClient} is configured with any other dispatcher.
+   *
+   * @param priority the {@link ApolloDispatcher.Priority} to run this prefetch with
+   * @return The ApolloPrefetch object with the provided {@link ApolloDispatcher.Priority}
+   */
+  @Nonnull ApolloPrefetch priority(@Nonnull ApolloDispatcher.Priority priority);
+
   /**
    * Returns GraphQL operation this call executes
    *
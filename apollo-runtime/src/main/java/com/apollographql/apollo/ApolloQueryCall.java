@@ -39,6 +39,8 @@ public interface ApolloQueryCall<T> extends ApolloCall<T> {
    */
   @Nonnull @Override ApolloQueryCall<T> cacheHeaders(@Nonnull CacheHeaders cacheHeaders);
 
+  @Nonnull @Override ApolloQueryCall<T> priority(@Nonnull ApolloDispatcher.Priority priority);
+
   /**
    * Sets the {@link ResponseFetcher} strategy for an ApolloCall object.
    *
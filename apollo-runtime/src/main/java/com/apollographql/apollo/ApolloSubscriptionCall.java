@@ -5,6 +5,7 @@ import com.apollographql.apollo.api.Subscription;
 import com.apollographql.apollo.exception.ApolloCanceledException;
 import com.apollographql.apollo.exception.ApolloException;
 import com.apollographql.apollo.internal.util.Cancelable;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
 
 import javax.annotation.Nonnull;
 
@@ -35,6 +36,17 @@ public interface ApolloSubscriptionCall<T> extends Cancelable {
    */
   ApolloSubscriptionCall<T> clone();
 
+  /**
+   * Sets the {@link SubscriptionDeliveryPolicy} of the updates, {@link SubscriptionDeliveryPolicy#DEFAULT} by default.
+   * The updates of the subscription are always delivered in order, the policy controls which of them are dropped when
+   * the callback can't keep up with the server.
+   *
+   * @param deliveryPolicy the {@link SubscriptionDeliveryPolicy} to deliver the updates with
+   * @return The ApolloSubscriptionCall object with the provided {@link SubscriptionDeliveryPolicy}
+   * @throws IllegalStateException when the call has already been executed
+   */
+  @Nonnull ApolloSubscriptionCall<T> deliveryPolicy(@Nonnull SubscriptionDeliveryPolicy deliveryPolicy);
+
   /**
    * Factory for creating {@link ApolloSubscriptionCall} calls.
    */
@@ -0,0 +1,27 @@
+package com.apollographql.apollo;
+
+/**
+ * Snapshot access to the state of the adaptive limit of the concurrent network requests, see
+ * {@link ConcurrencyLimitPolicy}.
+ */
+public interface ConcurrencyLimitMetrics {
+  /**
+   * @return current limit of the concurrent network requests
+   */
+  int limit();
+
+  /**
+   * @return number of the network requests currently in flight
+   */
+  int inFlightCount();
+
+  /**
+   * @return number of the network requests currently waiting for the limit
+   */
+  int queuedCount();
+
+  /**
+   * @return total number of the network requests rejected because of the limit
+   */
+  long rejectedCount();
+}
@@ -0,0 +1,154 @@
+package com.apollographql.apollo;
+
+/**
+ * <p>Policy of the adaptive limit of the concurrent network requests. The limit follows the AIMD scheme: it grows by
+ * one after a limit worth of the successful requests and shrinks by the backoff ratio when a request fails, the server
+ * responds with 429 or 5xx status, or the round trip time exceeds the min observed one by the RTT tolerance.</p>
+ *
+ * <p>Requests over the limit wait in the queue. Requests that can be served from the normalized cache, such as the
+ * ones of the {@link com.apollographql.apollo.fetcher.ApolloResponseFetchers#NETWORK_FIRST} fetcher, and the ones that
+ * don't fit into the queue are rejected right away.</p>
+ */
+public final class ConcurrencyLimitPolicy {
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxQueueSize;
+  private final double backoffRatio;
+  private final double rttTolerance;
+
+  ConcurrencyLimitPolicy(Builder builder) {
+    this.initialLimit = builder.initialLimit;
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.maxQueueSize = builder.maxQueueSize;
+    this.backoffRatio = builder.backoffRatio;
+    this.rttTolerance = builder.rttTolerance;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return limit of the concurrent requests used until the round trip times are observed
+   */
+  public int initialLimit() {
+    return initialLimit;
+  }
+
+  /**
+   * @return lower bound of the limit
+   */
+  public int minLimit() {
+    return minLimit;
+  }
+
+  /**
+   * @return upper bound of the limit
+   */
+  public int maxLimit() {
+    return maxLimit;
+  }
+
+  /**
+   * @return max number of the requests waiting for the limit
+   */
+  public int maxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * @return ratio the limit is multiplied by on the congestion
+   */
+  public double backoffRatio() {
+    return backoffRatio;
+  }
+
+  /**
+   * @return ratio of the round trip time to the min observed one that is considered as the congestion
+   */
+  public double rttTolerance() {
+    return rttTolerance;
+  }
+
+  public static final class Builder {
+    int initialLimit = 20;
+    int minLimit = 1;
+    int maxLimit = 200;
+    int maxQueueSize = 100;
+    double backoffRatio = 0.9;
+    double rttTolerance = 2.0;
+
+    Builder() {
+    }
+
+    /**
+     * Sets the limit of the concurrent requests used until the round trip times are observed. Default: 20.
+     *
+     * @param initialLimit initial limit, bounded by the min and max limit
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder initialLimit(int initialLimit) {
+      if (initialLimit < 1) throw new IllegalArgumentException("initialLimit < 1");
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    /**
+     * Sets the bounds of the limit. Default: 1 to 200.
+     *
+     * @param minLimit lower bound of the limit
+     * @param maxLimit upper bound of the limit
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder limit(int minLimit, int maxLimit) {
+      if (minLimit < 1) throw new IllegalArgumentException("minLimit < 1");
+      if (maxLimit < minLimit) throw new IllegalArgumentException("maxLimit < minLimit");
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    /**
+     * Sets the max number of the requests waiting for the limit, the requests that don't fit are rejected. Default:
+     * 100.
+     *
+     * @param maxQueueSize max number of the waiting requests, 0 to reject all the requests over the limit
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder maxQueueSize(int maxQueueSize) {
+      if (maxQueueSize < 0) throw new IllegalArgumentException("maxQueueSize < 0");
+      this.maxQueueSize = maxQueueSize;
+      return this;
+    }
+
+    /**
+     * Sets the ratio the limit is multiplied by on the congestion. Default: 0.9.
+     *
+     * @param backoffRatio ratio in the range (0, 1)
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder backoffRatio(double backoffRatio) {
+      if (backoffRatio <= 0 || backoffRatio >= 1) throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+      this.backoffRatio = backoffRatio;
+      return this;
+    }
+
+    /**
+     * Sets the ratio of the round trip time to the min observed one that is considered as the congestion. Default: 2.
+     *
+     * @param rttTolerance ratio greater than or equal to 1
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder rttTolerance(double rttTolerance) {
+      if (rttTolerance < 1) throw new IllegalArgumentException("rttTolerance < 1");
+      this.rttTolerance = rttTolerance;
+      return this;
+    }
+
+    public ConcurrencyLimitPolicy build() {
+      return new ConcurrencyLimitPolicy(this);
+    }
+  }
+}
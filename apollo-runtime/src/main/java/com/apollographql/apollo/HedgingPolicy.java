@@ -0,0 +1,119 @@
+package com.apollographql.apollo;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * <p>Policy of hedging the http requests of the {@link com.apollographql.apollo.api.Query} operations. When no response
+ * headers are received within the hedge delay, a second identical http request is sent, the first successful response
+ * wins and the other request is canceled.</p>
+ *
+ * <p>The hedge delay follows the provided percentile of the observed response latencies, bounded by the min and max
+ * delay. The max delay is used until enough latencies are observed. To keep the extra load on the server under control,
+ * the number of hedged requests is capped as a fraction of all the requests.</p>
+ */
+public final class HedgingPolicy {
+  private final double percentile;
+  private final long minDelayMs;
+  private final long maxDelayMs;
+  private final double maxHedgeRatio;
+
+  HedgingPolicy(Builder builder) {
+    this.percentile = builder.percentile;
+    this.minDelayMs = builder.minDelayMs;
+    this.maxDelayMs = builder.maxDelayMs;
+    this.maxHedgeRatio = builder.maxHedgeRatio;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return percentile of the observed response latencies used as the hedge delay
+   */
+  public double percentile() {
+    return percentile;
+  }
+
+  /**
+   * @return lower bound of the hedge delay in milliseconds
+   */
+  public long minDelayMs() {
+    return minDelayMs;
+  }
+
+  /**
+   * @return upper bound of the hedge delay in milliseconds
+   */
+  public long maxDelayMs() {
+    return maxDelayMs;
+  }
+
+  /**
+   * @return max fraction of the requests that can be hedged
+   */
+  public double maxHedgeRatio() {
+    return maxHedgeRatio;
+  }
+
+  public static final class Builder {
+    double percentile = 0.95;
+    long minDelayMs = 10;
+    long maxDelayMs = 1000;
+    double maxHedgeRatio = 0.1;
+
+    Builder() {
+    }
+
+    /**
+     * Sets the percentile of the observed response latencies to use as the hedge delay. Default: 0.95.
+     *
+     * @param percentile percentile in the range (0, 1]
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder percentile(double percentile) {
+      if (percentile <= 0 || percentile > 1) throw new IllegalArgumentException("percentile must be in (0, 1]");
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Sets the bounds of the hedge delay. Default: 10 ms to 1 s.
+     *
+     * @param minDelay lower bound of the hedge delay
+     * @param maxDelay upper bound of the hedge delay, used until enough response latencies are observed
+     * @param timeUnit time unit of the delays
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder delay(long minDelay, long maxDelay, @Nonnull TimeUnit timeUnit) {
+      checkNotNull(timeUnit, "timeUnit == null");
+      if (minDelay < 0) throw new IllegalArgumentException("minDelay < 0");
+      if (maxDelay < minDelay) throw new IllegalArgumentException("maxDelay < minDelay");
+      this.minDelayMs = timeUnit.toMillis(minDelay);
+      this.maxDelayMs = timeUnit.toMillis(maxDelay);
+      return this;
+    }
+
+    /**
+     * Sets the max fraction of the requests that can be hedged. Default: 0.1.
+     *
+     * @param maxHedgeRatio fraction in the range [0, 1]
+     * @return The {@link Builder} object to be used for chaining method calls
+     */
+    public Builder maxHedgeRatio(double maxHedgeRatio) {
+      if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+        throw new IllegalArgumentException("maxHedgeRatio must be in [0, 1]");
+      }
+      this.maxHedgeRatio = maxHedgeRatio;
+      return this;
+    }
+
+    public HedgingPolicy build() {
+      return new HedgingPolicy(this);
+    }
+  }
+}
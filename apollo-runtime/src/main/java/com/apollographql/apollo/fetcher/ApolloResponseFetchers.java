@@ -4,8 +4,15 @@ import com.apollographql.apollo.internal.fetcher.CacheFirstFetcher;
 import com.apollographql.apollo.internal.fetcher.CacheOnlyFetcher;
 import com.apollographql.apollo.internal.fetcher.CacheAndNetworkFetcher;
 import com.apollographql.apollo.internal.fetcher.NetworkFirstFetcher;
+import com.apollographql.apollo.internal.fetcher.NetworkFirstWithDeadlineFetcher;
 import com.apollographql.apollo.internal.fetcher.NetworkOnlyFetcher;
 
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
 public final class ApolloResponseFetchers {
 
   /**
@@ -44,4 +51,24 @@ public final class ApolloResponseFetchers {
    * Cache data is guaranteed to be returned first.
    */
   public static final ResponseFetcher CACHE_AND_NETWORK = new CacheAndNetworkFetcher();
+
+  /**
+   * Signals the apollo client to first fetch the data from the network, but to fall back to the normalized cache if
+   * the network hasn't responded by the deadline. The network request keeps going then, and its response is written to
+   * the normalized cache when it arrives. If the network request fails or the data is not present in the normalized
+   * cache, it behaves as {@link #NETWORK_FIRST}.
+   *
+   * @param deadline                   max time to wait for the network response before falling back to the cache
+   * @param timeUnit                   time unit of the deadline
+   * @param deliverLateNetworkResponse whether the network response that has missed the deadline is delivered after
+   *                                   the cached one
+   */
+  public static ResponseFetcher networkFirstWithDeadline(long deadline, @Nonnull TimeUnit timeUnit,
+      boolean deliverLateNetworkResponse) {
+    checkNotNull(timeUnit, "timeUnit == null");
+    return new NetworkFirstWithDeadlineFetcher(timeUnit.toMillis(deadline), deliverLateNetworkResponse);
+  }
+
+  private ApolloResponseFetchers() {
+  }
 }
@@ -116,20 +116,33 @@ public interface ApolloInterceptor {
     public final CacheHeaders cacheHeaders;
     public final boolean fetchFromCache;
     public final Optional<Operation.Data> optimisticUpdates;
+    public final boolean sendQueryDocument;
+    public final boolean autoPersistQueries;
+    public final boolean useHttpGetMethod;
+    public final boolean fallbackToCache;
 
     InterceptorRequest(Operation operation, CacheHeaders cacheHeaders, Optional<Operation.Data> optimisticUpdates,
-        boolean fetchFromCache) {
+        boolean fetchFromCache, boolean sendQueryDocument, boolean autoPersistQueries, boolean useHttpGetMethod,
+        boolean fallbackToCache) {
       this.operation = operation;
       this.cacheHeaders = cacheHeaders;
       this.optimisticUpdates = optimisticUpdates;
       this.fetchFromCache = fetchFromCache;
+      this.sendQueryDocument = sendQueryDocument;
+      this.autoPersistQueries = autoPersistQueries;
+      this.useHttpGetMethod = useHttpGetMethod;
+      this.fallbackToCache = fallbackToCache;
     }
 
     public Builder toBuilder() {
       return new Builder(operation)
           .cacheHeaders(cacheHeaders)
           .fetchFromCache(fetchFromCache)
-          .optimisticUpdates(optimisticUpdates.orNull());
+          .optimisticUpdates(optimisticUpdates.orNull())
+          .sendQueryDocument(sendQueryDocument)
+          .autoPersistQueries(autoPersistQueries)
+          .useHttpGetMethod(useHttpGetMethod)
+          .fallbackToCache(fallbackToCache);
     }
 
     public static Builder builder(@Nonnull Operation operation) {
@@ -141,6 +154,10 @@ public interface ApolloInterceptor {
       private CacheHeaders cacheHeaders = CacheHeaders.NONE;
       private boolean fetchFromCache;
       private Optional<Operation.Data> optimisticUpdates = Optional.absent();
+      private boolean sendQueryDocument = true;
+      private boolean autoPersistQueries;
+      private boolean useHttpGetMethod;
+      private boolean fallbackToCache;
 
       Builder(@Nonnull Operation operation) {
         this.operation = checkNotNull(operation, "operation == null");
@@ -166,8 +183,44 @@ public interface ApolloInterceptor {
         return this;
       }
 
+      /**
+       * Sets whether the full query document should be sent to the server. When {@code false} only the hash of the
+       * query document is sent, see {@link #autoPersistQueries(boolean)}.
+       */
+      public Builder sendQueryDocument(boolean sendQueryDocument) {
+        this.sendQueryDocument = sendQueryDocument;
+        return this;
+      }
+
+      /**
+       * Sets whether the SHA-256 hash of the query document should be sent to the server as the automatic persisted
+       * query extension.
+       */
+      public Builder autoPersistQueries(boolean autoPersistQueries) {
+        this.autoPersistQueries = autoPersistQueries;
+        return this;
+      }
+
+      /**
+       * Sets whether the query operation should be sent with HTTP GET method instead of POST.
+       */
+      public Builder useHttpGetMethod(boolean useHttpGetMethod) {
+        this.useHttpGetMethod = useHttpGetMethod;
+        return this;
+      }
+
+      /**
+       * Sets whether the response can be read from the cache if the network request fails, so the network request can
+       * be rejected right away when the network is congested.
+       */
+      public Builder fallbackToCache(boolean fallbackToCache) {
+        this.fallbackToCache = fallbackToCache;
+        return this;
+      }
+
       public InterceptorRequest build() {
-        return new InterceptorRequest(operation, cacheHeaders, optimisticUpdates, fetchFromCache);
+        return new InterceptorRequest(operation, cacheHeaders, optimisticUpdates, fetchFromCache, sendQueryDocument,
+            autoPersistQueries, useHttpGetMethod, fallbackToCache);
       }
     }
   }
@@ -12,10 +12,10 @@ import com.apollographql.apollo.api.OperationName;
 import com.apollographql.apollo.api.Query;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
@@ -25,15 +25,22 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 /**
  * ApolloCallTracker is responsible for keeping track of running {@link ApolloPrefetch} & {@link ApolloQueryCall}
  * & {@link ApolloMutationCall} & {@link ApolloQueryWatcher} calls.
+ *
+ * <p>The calls are kept in the concurrent sets grouped by the operation name, so registering and unregistering a call
+ * never blocks. The set of an operation name is kept after its last call is unregistered, as removing it could race
+ * with the concurrent registration of the next call, the number of the sets is bounded by the number of the operations
+ * anyway.</p>
  */
 @SuppressWarnings("WeakerAccess") public final class ApolloCallTracker {
-  private final Map<OperationName, Set<ApolloPrefetch>> activePrefetchCalls = new HashMap<>();
-  private final Map<OperationName, Set<ApolloQueryCall>> activeQueryCalls = new HashMap<>();
-  private final Map<OperationName, Set<ApolloMutationCall>> activeMutationCalls = new HashMap<>();
-  private final Map<OperationName, Set<ApolloQueryWatcher>> activeQueryWatchers = new HashMap<>();
+  private final ConcurrentMap<OperationName, Set<ApolloPrefetch>> activePrefetchCalls = new ConcurrentHashMap<>();
+  private final ConcurrentMap<OperationName, Set<ApolloQueryCall>> activeQueryCalls = new ConcurrentHashMap<>();
+  private final ConcurrentMap<OperationName, Set<ApolloMutationCall>> activeMutationCalls =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<OperationName, Set<ApolloQueryWatcher>> activeQueryWatchers =
+      new ConcurrentHashMap<>();
   private final AtomicInteger activeCallCount = new AtomicInteger();
 
-  private IdleResourceCallback idleResourceCallback;
+  private volatile IdleResourceCallback idleResourceCallback;
 
   public ApolloCallTracker() {
   }
@@ -229,7 +236,7 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
   /**
    * Registers idleResourceCallback which is invoked when the apolloClient becomes idle.
    */
-  public synchronized void setIdleResourceCallback(IdleResourceCallback idleResourceCallback) {
+  public void setIdleResourceCallback(IdleResourceCallback idleResourceCallback) {
     this.idleResourceCallback = idleResourceCallback;
   }
 
@@ -240,30 +247,26 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
     return activeCallCount.get();
   }
 
-  private <CALL> void registerCall(Map<OperationName, Set<CALL>> registry, OperationName operationName, CALL call) {
-    //noinspection SynchronizationOnLocalVariableOrMethodParameter
-    synchronized (registry) {
-      Set<CALL> calls = registry.get(operationName);
+  private <CALL> void registerCall(ConcurrentMap<OperationName, Set<CALL>> registry, OperationName operationName,
+      CALL call) {
+    // count the call first, so the tracker can't become idle while the call is being registered
+    activeCallCount.incrementAndGet();
+    Set<CALL> calls = registry.get(operationName);
+    if (calls == null) {
+      Set<CALL> newCalls = Collections.newSetFromMap(new ConcurrentHashMap<CALL, Boolean>());
+      calls = registry.putIfAbsent(operationName, newCalls);
       if (calls == null) {
-        calls = new HashSet<>();
-        registry.put(operationName, calls);
+        calls = newCalls;
       }
-      calls.add(call);
     }
-    activeCallCount.incrementAndGet();
+    calls.add(call);
   }
 
-  private <CALL> void unregisterCall(Map<OperationName, Set<CALL>> registry, OperationName operationName, CALL call) {
-    //noinspection SynchronizationOnLocalVariableOrMethodParameter
-    synchronized (registry) {
-      Set<CALL> calls = registry.get(operationName);
-      if (calls == null || !calls.remove(call)) {
-        throw new AssertionError("Call wasn't registered before");
-      }
-
-      if (calls.isEmpty()) {
-        registry.remove(operationName);
-      }
+  private <CALL> void unregisterCall(ConcurrentMap<OperationName, Set<CALL>> registry, OperationName operationName,
+      CALL call) {
+    Set<CALL> calls = registry.get(operationName);
+    if (calls == null || !calls.remove(call)) {
+      throw new AssertionError("Call wasn't registered before");
     }
 
     if (activeCallCount.decrementAndGet() == 0) {
@@ -271,14 +274,12 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
     }
   }
 
-  private <CALL> Set<CALL> activeCalls(Map<OperationName, Set<CALL>> registry, @Nonnull OperationName operationName) {
+  private <CALL> Set<CALL> activeCalls(ConcurrentMap<OperationName, Set<CALL>> registry,
+      @Nonnull OperationName operationName) {
     checkNotNull(operationName, "operationName == null");
 
-    //noinspection SynchronizationOnLocalVariableOrMethodParameter
-    synchronized (registry) {
-      Set<CALL> calls = registry.get(operationName);
-      return calls != null ? new HashSet<>(calls) : Collections.<CALL>emptySet();
-    }
+    Set<CALL> calls = registry.get(operationName);
+    return calls != null && !calls.isEmpty() ? new HashSet<>(calls) : Collections.<CALL>emptySet();
   }
 
   private void notifyIdleResource() {
@@ -0,0 +1,106 @@
+package com.apollographql.apollo.internal;
+
+import com.apollographql.apollo.ApolloCall;
+import com.apollographql.apollo.ApolloEventListener;
+import com.apollographql.apollo.exception.ApolloException;
+
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Binds {@link ApolloEventListener} to the {@link ApolloCall} it reports the events of, so the interceptors don't need
+ * to know about the call. When no listener is set all the events are dropped right away.
+ */
+public final class CallEventListener {
+  public static final CallEventListener NONE = new CallEventListener(null, ApolloEventListener.NONE);
+
+  private final ApolloCall call;
+  private final ApolloEventListener listener;
+
+  public CallEventListener(@Nullable ApolloCall call, @Nonnull ApolloEventListener listener) {
+    this.call = call;
+    this.listener = checkNotNull(listener, "listener == null");
+  }
+
+  /**
+   * @return {@code true} if there is a listener to report the events to, can be used to skip collecting event details
+   */
+  public boolean isEnabled() {
+    return listener != ApolloEventListener.NONE && call != null;
+  }
+
+  public void callStart() {
+    if (isEnabled()) listener.callStart(call);
+  }
+
+  public void cacheReadStart() {
+    if (isEnabled()) listener.cacheReadStart(call);
+  }
+
+  public void cacheReadEnd(boolean hit, int recordCount) {
+    if (isEnabled()) listener.cacheReadEnd(call, hit, recordCount);
+  }
+
+  public void httpRequestStart(@Nonnull Request request) {
+    if (isEnabled()) listener.httpRequestStart(call, request);
+  }
+
+  public void httpRequestHedged(@Nonnull Request request) {
+    if (isEnabled()) listener.httpRequestHedged(call, request);
+  }
+
+  public void httpHedgeWon() {
+    if (isEnabled()) listener.httpHedgeWon(call);
+  }
+
+  public void httpResponseHeadersEnd(@Nonnull Response response) {
+    if (isEnabled()) listener.httpResponseHeadersEnd(call, response);
+  }
+
+  public void parseStart() {
+    if (isEnabled()) listener.parseStart(call);
+  }
+
+  public void parseEnd(long byteCount, int recordCount) {
+    if (isEnabled()) listener.parseEnd(call, byteCount, recordCount);
+  }
+
+  public void cacheWriteStart() {
+    if (isEnabled()) listener.cacheWriteStart(call);
+  }
+
+  public void cacheWriteEnd(int recordCount, @Nonnull Set<String> changedCacheKeys) {
+    if (isEnabled()) listener.cacheWriteEnd(call, recordCount, changedCacheKeys);
+  }
+
+  public void publishStart(@Nonnull Set<String> changedCacheKeys) {
+    if (isEnabled()) listener.publishStart(call, changedCacheKeys);
+  }
+
+  public void publishEnd() {
+    if (isEnabled()) listener.publishEnd(call);
+  }
+
+  public void responseDispatchStart() {
+    if (isEnabled()) listener.responseDispatchStart(call);
+  }
+
+  public void responseDispatchEnd() {
+    if (isEnabled()) listener.responseDispatchEnd(call);
+  }
+
+  public void callEnd() {
+    if (isEnabled()) listener.callEnd(call);
+  }
+
+  public void callFailed(@Nonnull ApolloException e) {
+    if (isEnabled()) listener.callFailed(call, e);
+  }
+}
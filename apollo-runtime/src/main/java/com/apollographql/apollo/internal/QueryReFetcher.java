@@ -1,36 +1,70 @@
 package com.apollographql.apollo.internal;
 
 import com.apollographql.apollo.ApolloCall;
+import com.apollographql.apollo.ApolloDispatcher;
+import com.apollographql.apollo.ApolloEventListener;
 import com.apollographql.apollo.ApolloQueryWatcher;
+import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.OperationName;
 import com.apollographql.apollo.api.Query;
 import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
+import com.apollographql.apollo.api.internal.Optional;
+import com.apollographql.apollo.cache.ApolloCacheHeaders;
 import com.apollographql.apollo.cache.CacheHeaders;
 import com.apollographql.apollo.cache.normalized.ApolloStore;
+import com.apollographql.apollo.cache.normalized.Record;
 import com.apollographql.apollo.exception.ApolloException;
 import com.apollographql.apollo.fetcher.ApolloResponseFetchers;
 import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.cache.normalized.Transaction;
+import com.apollographql.apollo.internal.cache.normalized.WriteableStore;
+import com.apollographql.apollo.internal.interceptor.ApolloConcurrencyLimitInterceptor;
+import com.apollographql.apollo.internal.util.OperationKeys;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import okhttp3.Call;
 import okhttp3.HttpUrl;
 
+/**
+ * Re-fetches the queries and the query watchers requested by a mutation. Queries with the same operation and variables
+ * are fetched once, at most {@link #MAX_CONCURRENT_CALLS} at a time. The responses are written to the normalized cache
+ * in one transaction and published once all the queries complete. The query watchers not covered by the fetched
+ * queries are re-fetched right away, without waiting for the queries. Nothing is written or published after
+ * {@link #cancel()}.
+ */
 final class QueryReFetcher {
+  static final int MAX_CONCURRENT_CALLS = 4;
+  private static final CacheHeaders DO_NOT_STORE = CacheHeaders.builder()
+      .addHeader(ApolloCacheHeaders.DO_NOT_STORE, "true")
+      .build();
+
   final ApolloLogger logger;
   private final List<RealApolloCall> calls;
+  private final Set<String> queryKeys = new HashSet<>();
+  private final List<Record> records = new ArrayList<>();
+  private final ApolloStore apolloStore;
+  private final ScalarTypeAdapters scalarTypeAdapters;
   private List<OperationName> queryWatchers;
   private ApolloCallTracker callTracker;
   private final AtomicBoolean executed = new AtomicBoolean();
+  private final AtomicBoolean canceled = new AtomicBoolean();
   OnCompleteCallback onCompleteCallback;
 
   static Builder builder() {
@@ -39,8 +73,14 @@ final class QueryReFetcher {
 
   QueryReFetcher(Builder builder) {
     logger = builder.logger;
+    apolloStore = builder.apolloStore;
+    scalarTypeAdapters = builder.scalarTypeAdapters;
+    List<ApolloInterceptor> applicationInterceptors = new ArrayList<>(builder.applicationInterceptors);
+    applicationInterceptors.add(new RecordsCollector());
     calls = new ArrayList<>(builder.queries.size());
     for (Query query : builder.queries) {
+      String key = operationKey(query);
+      if (key != null && !queryKeys.add(key)) continue;
       calls.add(RealApolloCall.builder()
           .operation(query)
           .serverUrl(builder.serverUrl)
@@ -50,11 +90,15 @@ final class QueryReFetcher {
           .apolloStore(builder.apolloStore)
           .httpCachePolicy(HttpCachePolicy.NETWORK_ONLY)
           .responseFetcher(ApolloResponseFetchers.NETWORK_ONLY)
-          .cacheHeaders(CacheHeaders.NONE)
+          .cacheHeaders(DO_NOT_STORE)
+          .priority(ApolloDispatcher.Priority.BACKGROUND)
           .logger(builder.logger)
-          .applicationInterceptors(builder.applicationInterceptors)
+          .applicationInterceptors(applicationInterceptors)
           .tracker(builder.callTracker)
           .dispatcher(builder.dispatcher)
+          .eventListenerFactory(builder.eventListenerFactory)
+          .sameThreadDispatching(builder.sameThreadDispatching)
+          .concurrencyLimiter(builder.concurrencyLimiter)
           .build());
     }
     queryWatchers = builder.queryWatchers;
@@ -71,46 +115,137 @@ final class QueryReFetcher {
   }
 
   void cancel() {
+    canceled.set(true);
     for (RealApolloCall call : calls) {
       call.cancel();
     }
   }
 
   private void refetchQueryWatchers() {
-    try {
-      for (OperationName operationName : queryWatchers) {
-        for (ApolloQueryWatcher queryWatcher : callTracker.activeQueryWatchers(operationName)) {
+    Set<String> refetchedKeys = new HashSet<>(queryKeys);
+    for (OperationName operationName : queryWatchers) {
+      for (ApolloQueryWatcher queryWatcher : callTracker.activeQueryWatchers(operationName)) {
+        // watchers of the already re-fetched operation are notified with the cache changes
+        String key = operationKey(queryWatcher.operation());
+        if (key != null && !refetchedKeys.add(key)) continue;
+        try {
           queryWatcher.refetch();
+        } catch (Exception e) {
+          logger.e(e, "Failed to re-fetch query watcher");
         }
       }
-    } catch (Exception e) {
-      logger.e(e, "Failed to re-fetch query watcher");
     }
   }
 
   private void refetchQueries() {
-    final OnCompleteCallback completeCallback = onCompleteCallback;
+    final Queue<RealApolloCall> pendingCalls = new ConcurrentLinkedQueue<>(calls);
     final AtomicInteger callsLeft = new AtomicInteger(calls.size());
-    for (final RealApolloCall call : calls) {
-      //noinspection unchecked
-      call.enqueue(new ApolloCall.Callback() {
-        @Override public void onResponse(@Nonnull Response response) {
-          if (callsLeft.decrementAndGet() == 0 && completeCallback != null) {
-            completeCallback.onFetchComplete();
+    if (calls.isEmpty()) {
+      onQueriesComplete();
+      return;
+    }
+    for (int i = 0; i < MAX_CONCURRENT_CALLS; i++) {
+      enqueueNext(pendingCalls, callsLeft);
+    }
+  }
+
+  private void enqueueNext(final Queue<RealApolloCall> pendingCalls, final AtomicInteger callsLeft) {
+    if (canceled.get()) return;
+    final RealApolloCall call = pendingCalls.poll();
+    if (call == null) return;
+    //noinspection unchecked
+    call.enqueue(new ApolloCall.Callback() {
+      @Override public void onResponse(@Nonnull Response response) {
+        onCallComplete();
+      }
+
+      @Override public void onFailure(@Nonnull ApolloException e) {
+        if (logger != null) {
+          logger.e(e, "Failed to fetch query: %s", call.operation);
+        }
+        onCallComplete();
+      }
+
+      private void onCallComplete() {
+        if (callsLeft.decrementAndGet() == 0) {
+          onQueriesComplete();
+        } else {
+          enqueueNext(pendingCalls, callsLeft);
+        }
+      }
+    });
+  }
+
+  private void onQueriesComplete() {
+    if (canceled.get()) return;
+    writeAndPublishRecords();
+    OnCompleteCallback completeCallback = onCompleteCallback;
+    if (completeCallback != null) {
+      completeCallback.onFetchComplete();
+    }
+  }
+
+  private void writeAndPublishRecords() {
+    final List<Record> records;
+    synchronized (this.records) {
+      records = new ArrayList<>(this.records);
+    }
+    if (records.isEmpty()) return;
+    try {
+      Set<String> changedCacheKeys = apolloStore.writeTransaction(new Transaction<WriteableStore, Set<String>>() {
+        @Nullable @Override public Set<String> execute(WriteableStore cache) {
+          return cache.merge(records, CacheHeaders.NONE);
+        }
+      });
+      if (changedCacheKeys != null) {
+        apolloStore.publish(changedCacheKeys);
+      }
+    } catch (Exception e) {
+      logger.e(e, "Failed to cache re-fetched queries responses");
+    }
+  }
+
+  @Nullable private String operationKey(Operation operation) {
+    try {
+      return OperationKeys.operationKey(operation, scalarTypeAdapters);
+    } catch (IOException e) {
+      logger.w(e, "Failed to serialize variables for operation %s, skip deduplication", operation.name().name());
+      return null;
+    }
+  }
+
+  /**
+   * Collects the normalized records of the re-fetched queries responses to write them to the cache at once.
+   */
+  private final class RecordsCollector implements ApolloInterceptor {
+    @Override public void interceptAsync(@Nonnull InterceptorRequest request, @Nonnull ApolloInterceptorChain chain,
+        @Nonnull Executor dispatcher, @Nonnull final CallBack callBack) {
+      chain.proceedAsync(request, dispatcher, new CallBack() {
+        @Override public void onResponse(@Nonnull InterceptorResponse response) {
+          if (response.cacheRecords.isPresent()) {
+            synchronized (records) {
+              records.addAll(response.cacheRecords.get());
+            }
           }
+          callBack.onResponse(response);
+        }
+
+        @Override public void onFetch(FetchSourceType sourceType) {
+          callBack.onFetch(sourceType);
         }
 
         @Override public void onFailure(@Nonnull ApolloException e) {
-          if (logger != null) {
-            logger.e(e, "Failed to fetch query: %s", call.operation);
-          }
+          callBack.onFailure(e);
+        }
 
-          if (callsLeft.decrementAndGet() == 0 && completeCallback != null) {
-            completeCallback.onFetchComplete();
-          }
+        @Override public void onCompleted() {
+          callBack.onCompleted();
         }
       });
     }
+
+    @Override public void dispose() {
+    }
   }
 
   static final class Builder {
@@ -125,6 +260,9 @@ final class QueryReFetcher {
     ApolloLogger logger;
     List<ApolloInterceptor> applicationInterceptors;
     ApolloCallTracker callTracker;
+    ApolloEventListener.Factory eventListenerFactory;
+    boolean sameThreadDispatching;
+    Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter = Optional.absent();
 
     Builder queries(List<Query> queries) {
       this.queries = queries != null ? queries : Collections.<Query>emptyList();
@@ -181,6 +319,21 @@ final class QueryReFetcher {
       return this;
     }
 
+    Builder eventListenerFactory(ApolloEventListener.Factory eventListenerFactory) {
+      this.eventListenerFactory = eventListenerFactory;
+      return this;
+    }
+
+    Builder sameThreadDispatching(boolean sameThreadDispatching) {
+      this.sameThreadDispatching = sameThreadDispatching;
+      return this;
+    }
+
+    Builder concurrencyLimiter(Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter) {
+      this.concurrencyLimiter = concurrencyLimiter;
+      return this;
+    }
+
     QueryReFetcher build() {
       return new QueryReFetcher(this);
     }
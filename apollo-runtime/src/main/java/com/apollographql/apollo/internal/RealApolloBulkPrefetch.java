@@ -0,0 +1,181 @@
+package com.apollographql.apollo.internal;
+
+import com.apollographql.apollo.ApolloBulkPrefetch;
+import com.apollographql.apollo.ApolloCall;
+import com.apollographql.apollo.ApolloDispatcher;
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.fetcher.ApolloResponseFetchers;
+import com.apollographql.apollo.internal.util.OperationKeys;
+import com.apollographql.apollo.response.ScalarTypeAdapters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+@SuppressWarnings("WeakerAccess") public final class RealApolloBulkPrefetch implements ApolloBulkPrefetch {
+  final List<RealApolloCall> prototypeCalls;
+  final ScalarTypeAdapters scalarTypeAdapters;
+  final ApolloLogger logger;
+  final ApolloDispatcher.Priority priority;
+  final int maxConcurrentCalls;
+  final List<RealApolloCall> calls;
+  final Queue<RealApolloCall> pendingCalls = new ConcurrentLinkedQueue<>();
+  final AtomicInteger callsLeft = new AtomicInteger();
+  final AtomicInteger successCount = new AtomicInteger();
+  final Map<Query, ApolloException> failures = new LinkedHashMap<>();
+  final AtomicBoolean executed = new AtomicBoolean();
+  final AtomicReference<Callback> originalCallback = new AtomicReference<>();
+  volatile boolean canceled;
+
+  /**
+   * @param prototypeCalls     calls configured by the client for each query, used as prototypes of the actual calls
+   * @param scalarTypeAdapters adapters to serialize the custom scalar variables with to find identical queries
+   * @param logger             logger to report the query failures to
+   * @param priority           priority to fetch the queries with
+   * @param maxConcurrentCalls max number of the queries fetched at a time
+   */
+  public RealApolloBulkPrefetch(@Nonnull List<RealApolloCall> prototypeCalls,
+      @Nonnull ScalarTypeAdapters scalarTypeAdapters, @Nonnull ApolloLogger logger,
+      @Nonnull ApolloDispatcher.Priority priority, int maxConcurrentCalls) {
+    if (maxConcurrentCalls < 1) throw new IllegalArgumentException("maxConcurrentCalls < 1");
+    this.prototypeCalls = checkNotNull(prototypeCalls, "prototypeCalls == null");
+    this.scalarTypeAdapters = checkNotNull(scalarTypeAdapters, "scalarTypeAdapters == null");
+    this.logger = checkNotNull(logger, "logger == null");
+    this.priority = checkNotNull(priority, "priority == null");
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.calls = prepareCalls();
+  }
+
+  @Override public void enqueue(@Nullable Callback callback) {
+    if (!executed.compareAndSet(false, true)) {
+      throw new IllegalStateException("Already Executed");
+    }
+    if (canceled) return;
+    originalCallback.set(callback);
+    pendingCalls.addAll(calls);
+    callsLeft.set(calls.size());
+    if (calls.isEmpty()) {
+      complete();
+      return;
+    }
+    for (int i = 0; i < maxConcurrentCalls; i++) {
+      enqueueNext();
+    }
+  }
+
+  @Override public RealApolloBulkPrefetch clone() {
+    return new RealApolloBulkPrefetch(prototypeCalls, scalarTypeAdapters, logger, priority, maxConcurrentCalls);
+  }
+
+  @Nonnull @Override public RealApolloBulkPrefetch priority(@Nonnull ApolloDispatcher.Priority priority) {
+    if (executed.get()) throw new IllegalStateException("Already Executed");
+    return new RealApolloBulkPrefetch(prototypeCalls, scalarTypeAdapters, logger, priority, maxConcurrentCalls);
+  }
+
+  @Nonnull @Override public RealApolloBulkPrefetch maxConcurrentCalls(int maxConcurrentCalls) {
+    if (executed.get()) throw new IllegalStateException("Already Executed");
+    return new RealApolloBulkPrefetch(prototypeCalls, scalarTypeAdapters, logger, priority, maxConcurrentCalls);
+  }
+
+  @Nonnull @Override public List<Query> queries() {
+    List<Query> queries = new ArrayList<>(prototypeCalls.size());
+    for (RealApolloCall call : prototypeCalls) {
+      queries.add((Query) call.operation());
+    }
+    return Collections.unmodifiableList(queries);
+  }
+
+  @Override public void cancel() {
+    canceled = true;
+    originalCallback.set(null);
+    pendingCalls.clear();
+    for (RealApolloCall call : calls) {
+      call.cancel();
+    }
+  }
+
+  @Override public boolean isCanceled() {
+    return canceled;
+  }
+
+  private List<RealApolloCall> prepareCalls() {
+    List<RealApolloCall> calls = new ArrayList<>(prototypeCalls.size());
+    Set<String> queryKeys = new HashSet<>();
+    for (RealApolloCall call : prototypeCalls) {
+      try {
+        if (!queryKeys.add(OperationKeys.operationKey(call.operation(), scalarTypeAdapters))) continue;
+      } catch (IOException e) {
+        logger.w(e, "Failed to serialize variables for operation %s, skip deduplication", call.operation().name());
+      }
+      calls.add(call.toBuilder()
+          .responseFetcher(ApolloResponseFetchers.NETWORK_ONLY)
+          .priority(priority)
+          .build());
+    }
+    return calls;
+  }
+
+  void enqueueNext() {
+    final RealApolloCall call = pendingCalls.poll();
+    if (call == null) return;
+    //noinspection unchecked
+    call.enqueue(new ApolloCall.Callback() {
+      @Override public void onResponse(@Nonnull Response response) {
+        successCount.incrementAndGet();
+      }
+
+      @Override public void onFailure(@Nonnull ApolloException e) {
+        logger.e(e, "Failed to prefetch query: %s", call.operation());
+        synchronized (failures) {
+          failures.put((Query) call.operation(), e);
+        }
+        onCallComplete();
+      }
+
+      @Override public void onStatusEvent(@Nonnull ApolloCall.StatusEvent event) {
+        if (event == ApolloCall.StatusEvent.COMPLETED) {
+          onCallComplete();
+        }
+      }
+    });
+  }
+
+  void onCallComplete() {
+    if (callsLeft.decrementAndGet() == 0) {
+      complete();
+    } else {
+      enqueueNext();
+    }
+  }
+
+  private void complete() {
+    Callback callback = originalCallback.getAndSet(null);
+    if (callback == null) return;
+    Map<Query, ApolloException> failures;
+    synchronized (this.failures) {
+      failures = new LinkedHashMap<>(this.failures);
+    }
+    if (failures.isEmpty()) {
+      callback.onSuccess();
+    } else {
+      callback.onFailure(Collections.unmodifiableMap(failures), successCount.get());
+    }
+  }
+}
@@ -1,10 +1,13 @@
 package com.apollographql.apollo.internal;
 
+import com.apollographql.apollo.ApolloDispatcher;
+import com.apollographql.apollo.ApolloEventListener;
 import com.apollographql.apollo.ApolloMutationCall;
 import com.apollographql.apollo.ApolloQueryCall;
 import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.OperationName;
 import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.api.ResponseFieldMapper;
 import com.apollographql.apollo.api.internal.Action;
 import com.apollographql.apollo.api.internal.Optional;
@@ -20,16 +23,24 @@ import com.apollographql.apollo.exception.ApolloParseException;
 import com.apollographql.apollo.fetcher.ResponseFetcher;
 import com.apollographql.apollo.interceptor.ApolloInterceptor;
 import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.batch.QueryBatcher;
+import com.apollographql.apollo.internal.interceptor.ApolloAutoPersistedQueryInterceptor;
+import com.apollographql.apollo.internal.interceptor.ApolloBatchingInterceptor;
 import com.apollographql.apollo.internal.interceptor.ApolloCacheInterceptor;
+import com.apollographql.apollo.internal.interceptor.ApolloConcurrencyLimitInterceptor;
+import com.apollographql.apollo.internal.interceptor.ApolloDeduplicationInterceptor;
 import com.apollographql.apollo.internal.interceptor.ApolloParseInterceptor;
 import com.apollographql.apollo.internal.interceptor.ApolloServerInterceptor;
 import com.apollographql.apollo.internal.interceptor.RealApolloInterceptorChain;
+import com.apollographql.apollo.internal.interceptor.RequestHedger;
+import com.apollographql.apollo.internal.util.SameThreadDispatcher;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -60,6 +71,8 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
   final ResponseFetcher responseFetcher;
   final ApolloInterceptorChain interceptorChain;
   final Executor dispatcher;
+  final ApolloDispatcher.Priority priority;
+  final Executor callDispatcher;
   final ApolloLogger logger;
   final ApolloCallTracker tracker;
   final List<ApolloInterceptor> applicationInterceptors;
@@ -67,10 +80,25 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
   final List<Query> refetchQueries;
   final Optional<QueryReFetcher> queryReFetcher;
   final boolean sendOperationdIdentifiers;
+  final Optional<ApolloAutoPersistedQueryInterceptor.Registry> persistedQueryRegistry;
+  final boolean useHttpGetMethodForQueries;
+  final Optional<QueryBatcher> queryBatcher;
+  final Optional<ApolloDeduplicationInterceptor.Registry> deduplicationRegistry;
+  final ApolloEventListener.Factory eventListenerFactory;
+  final CallEventListener eventListener;
+  final boolean sameThreadDispatching;
+  final Optional<RequestHedger> requestHedger;
+  final Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter;
   final AtomicReference<CallState> state = new AtomicReference<>(IDLE);
   final AtomicReference<Callback<T>> originalCallback = new AtomicReference<>();
   final Optional<Operation.Data> optimisticUpdates;
 
+  private static final Executor CALLING_THREAD_EXECUTOR = new Executor() {
+    @Override public void execute(@Nonnull Runnable runnable) {
+      runnable.run();
+    }
+  };
+
   public static <T> Builder<T> builder() {
     return new Builder<>();
   }
@@ -87,6 +115,14 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
     responseFetcher = builder.responseFetcher;
     cacheHeaders = builder.cacheHeaders;
     dispatcher = builder.dispatcher;
+    priority = builder.priority;
+    sameThreadDispatching = builder.sameThreadDispatching;
+    requestHedger = builder.requestHedger;
+    concurrencyLimiter = builder.concurrencyLimiter;
+    Executor priorityDispatcher = dispatcher instanceof ApolloDispatcher
+        ? ((ApolloDispatcher) dispatcher).executor(priority) : dispatcher;
+    callDispatcher = sameThreadDispatching
+        ? new SameThreadDispatcher(priorityDispatcher, !(dispatcher instanceof ApolloDispatcher)) : priorityDispatcher;
     logger = builder.logger;
     applicationInterceptors = builder.applicationInterceptors;
     refetchQueryNames = builder.refetchQueryNames;
@@ -108,9 +144,19 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
           .logger(builder.logger)
           .applicationInterceptors(builder.applicationInterceptors)
           .callTracker(builder.tracker)
+          .eventListenerFactory(builder.eventListenerFactory)
+          .sameThreadDispatching(builder.sameThreadDispatching)
+          .concurrencyLimiter(builder.concurrencyLimiter)
           .build());
     }
     sendOperationdIdentifiers = builder.sendOperationIdentifiers;
+    persistedQueryRegistry = builder.persistedQueryRegistry;
+    useHttpGetMethodForQueries = builder.useHttpGetMethodForQueries;
+    queryBatcher = builder.queryBatcher;
+    deduplicationRegistry = builder.deduplicationRegistry;
+    eventListenerFactory = builder.eventListenerFactory;
+    eventListener = eventListenerFactory != null ? new CallEventListener(this, eventListenerFactory.create(this))
+        : CallEventListener.NONE;
     interceptorChain = prepareInterceptorChain(operation);
     optimisticUpdates = builder.optimisticUpdates;
   }
@@ -127,12 +173,28 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
       return;
     }
 
-    ApolloInterceptor.InterceptorRequest request = ApolloInterceptor.InterceptorRequest.builder(operation)
-        .cacheHeaders(cacheHeaders)
-        .fetchFromCache(false)
-        .optimisticUpdates(optimisticUpdates)
-        .build();
-    interceptorChain.proceedAsync(request, dispatcher, interceptorCallbackProxy());
+    eventListener.callStart();
+    if (dispatcher instanceof ApolloDispatcher && !((ApolloDispatcher) dispatcher).tryAdmitCall()) {
+      interceptorCallbackProxy().onFailure(new ApolloException("Dispatcher queue is full"));
+      return;
+    }
+    interceptorChain.proceedAsync(interceptorRequest(), callDispatcher, interceptorCallbackProxy());
+  }
+
+  @Nonnull @Override public Response<T> execute() throws ApolloException {
+    ExecuteCallback<T> callback = new ExecuteCallback<>();
+    activate(Optional.<Callback<T>>of(callback));
+
+    eventListener.callStart();
+    interceptorChain.proceedAsync(interceptorRequest(), new SameThreadDispatcher(CALLING_THREAD_EXECUTOR, true),
+        interceptorCallbackProxy());
+    try {
+      return callback.await();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new ApolloCanceledException("Call is interrupted.", e);
+    }
   }
 
   @Nonnull @Override public RealApolloQueryWatcher<T> watcher() {
@@ -160,6 +222,13 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
         .build();
   }
 
+  @Nonnull @Override public RealApolloCall<T> priority(@Nonnull ApolloDispatcher.Priority priority) {
+    if (state.get() != IDLE) throw new IllegalStateException("Already Executed");
+    return toBuilder()
+        .priority(checkNotNull(priority, "priority == null"))
+        .build();
+  }
+
   @Override public synchronized void cancel() {
     switch (state.get()) {
       case ACTIVE:
@@ -171,7 +240,11 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
           }
         } finally {
           tracker.unregisterCall(this);
-          originalCallback.set(null);
+          Callback<T> callback = originalCallback.getAndSet(null);
+          if (callback instanceof ExecuteCallback) {
+            // unblock the thread waiting for the response in execute()
+            callback.onCanceledError(new ApolloCanceledException("Call is cancelled."));
+          }
         }
         break;
       case IDLE:
@@ -220,12 +293,15 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
           logger.d("onResponse for operation: %s. No callback present.", operation().name().name());
           return;
         }
+        eventListener.responseDispatchStart();
         //noinspection unchecked
         callback.get().onResponse(response.parsedResponse.get());
+        eventListener.responseDispatchEnd();
       }
 
       @Override public void onFailure(@Nonnull ApolloException e) {
         Optional<Callback<T>> callback = terminate();
+        eventListener.callFailed(e);
         if (!callback.isPresent()) {
           logger.d(e, "onFailure for operation: %s. No callback present.", operation().name().name());
           return;
@@ -243,6 +319,7 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
 
       @Override public void onCompleted() {
         Optional<Callback<T>> callback = terminate();
+        eventListener.callEnd();
         if (queryReFetcher.isPresent()) {
           queryReFetcher.get().refetch();
         }
@@ -275,6 +352,14 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
     };
   }
 
+  private ApolloInterceptor.InterceptorRequest interceptorRequest() {
+    return ApolloInterceptor.InterceptorRequest.builder(operation)
+        .cacheHeaders(cacheHeaders)
+        .fetchFromCache(false)
+        .optimisticUpdates(optimisticUpdates)
+        .build();
+  }
+
   public Builder<T> toBuilder() {
     return RealApolloCall.<T>builder()
         .operation(operation)
@@ -288,12 +373,21 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
         .cacheHeaders(cacheHeaders)
         .responseFetcher(responseFetcher)
         .dispatcher(dispatcher)
+        .priority(priority)
         .logger(logger)
         .applicationInterceptors(applicationInterceptors)
         .tracker(tracker)
         .refetchQueryNames(refetchQueryNames)
         .refetchQueries(refetchQueries)
         .sendOperationIdentifiers(sendOperationdIdentifiers)
+        .persistedQueryRegistry(persistedQueryRegistry)
+        .useHttpGetMethodForQueries(useHttpGetMethodForQueries)
+        .queryBatcher(queryBatcher)
+        .deduplicationRegistry(deduplicationRegistry)
+        .eventListenerFactory(eventListenerFactory)
+        .sameThreadDispatching(sameThreadDispatching)
+        .requestHedger(requestHedger)
+        .concurrencyLimiter(concurrencyLimiter)
         .optimisticUpdates(optimisticUpdates);
   }
 
@@ -358,15 +452,73 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
 
     interceptors.addAll(applicationInterceptors);
     interceptors.add(responseFetcher.provideInterceptor(logger));
-    interceptors.add(new ApolloCacheInterceptor(apolloStore, responseFieldMapper, dispatcher, logger));
-    interceptors.add(new ApolloParseInterceptor(httpCache, apolloStore.networkResponseNormalizer(), responseFieldMapper,
-        scalarTypeAdapters, logger));
-    interceptors.add(new ApolloServerInterceptor(serverUrl, httpCallFactory, httpCachePolicy, false,
-        scalarTypeAdapters, logger, sendOperationdIdentifiers));
+    interceptors.add(new ApolloCacheInterceptor(apolloStore, responseFieldMapper, logger, eventListener));
+    if (persistedQueryRegistry.isPresent()) {
+      interceptors.add(new ApolloAutoPersistedQueryInterceptor(persistedQueryRegistry.get(),
+          useHttpGetMethodForQueries, logger));
+    }
+
+    List<ApolloInterceptor> networkInterceptors = new ArrayList<>();
+    networkInterceptors.add(new ApolloParseInterceptor(httpCache, apolloStore.networkResponseNormalizer(),
+        responseFieldMapper, scalarTypeAdapters, logger, eventListener));
+    if (concurrencyLimiter.isPresent()) {
+      networkInterceptors.add(new ApolloConcurrencyLimitInterceptor(concurrencyLimiter.get(), logger));
+    }
+    ApolloServerInterceptor serverInterceptor = new ApolloServerInterceptor(serverUrl, httpCallFactory,
+        httpCachePolicy, false, scalarTypeAdapters, logger, sendOperationdIdentifiers, eventListener,
+        requestHedger.orNull());
+    if (queryBatcher.isPresent() && operation instanceof Query) {
+      networkInterceptors.add(new ApolloBatchingInterceptor(queryBatcher.get(), serverInterceptor));
+    } else {
+      networkInterceptors.add(serverInterceptor);
+    }
+
+    if (deduplicationRegistry.isPresent() && operation instanceof Query) {
+      interceptors.add(new ApolloDeduplicationInterceptor(deduplicationRegistry.get(), networkInterceptors,
+          httpCachePolicy, scalarTypeAdapters, logger));
+    } else {
+      interceptors.addAll(networkInterceptors);
+    }
 
     return new RealApolloInterceptorChain(interceptors);
   }
 
+  /**
+   * Callback of {@link #execute()} that holds the last response of the call until the call completes.
+   */
+  private static final class ExecuteCallback<T> extends Callback<T> {
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile Response<T> response;
+    private volatile ApolloException error;
+
+    @Override public void onResponse(@Nonnull Response<T> response) {
+      this.response = response;
+    }
+
+    @Override public void onFailure(@Nonnull ApolloException e) {
+      if (completed.getCount() == 0) return;
+      error = e;
+      completed.countDown();
+    }
+
+    @Override public void onStatusEvent(@Nonnull StatusEvent event) {
+      if (event == StatusEvent.COMPLETED) {
+        completed.countDown();
+      }
+    }
+
+    Response<T> await() throws ApolloException, InterruptedException {
+      completed.await();
+      if (error != null) {
+        throw error;
+      }
+      if (response == null) {
+        throw new ApolloException("Call completed without response");
+      }
+      return response;
+    }
+  }
+
   public static final class Builder<T> {
     Operation operation;
     HttpUrl serverUrl;
@@ -380,6 +532,7 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
     CacheHeaders cacheHeaders;
     ApolloInterceptorChain interceptorChain;
     Executor dispatcher;
+    ApolloDispatcher.Priority priority = ApolloDispatcher.Priority.USER_VISIBLE;
     ApolloLogger logger;
     List<ApolloInterceptor> applicationInterceptors;
     List<OperationName> refetchQueryNames = emptyList();
@@ -387,6 +540,14 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
     ApolloCallTracker tracker;
     boolean sendOperationIdentifiers;
     Optional<Operation.Data> optimisticUpdates = Optional.absent();
+    Optional<ApolloAutoPersistedQueryInterceptor.Registry> persistedQueryRegistry = Optional.absent();
+    boolean useHttpGetMethodForQueries;
+    Optional<QueryBatcher> queryBatcher = Optional.absent();
+    Optional<ApolloDeduplicationInterceptor.Registry> deduplicationRegistry = Optional.absent();
+    ApolloEventListener.Factory eventListenerFactory;
+    boolean sameThreadDispatching;
+    Optional<RequestHedger> requestHedger = Optional.absent();
+    Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter = Optional.absent();
 
     public Builder<T> operation(Operation operation) {
       this.operation = operation;
@@ -443,6 +604,11 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
       return this;
     }
 
+    public Builder<T> priority(ApolloDispatcher.Priority priority) {
+      this.priority = priority;
+      return this;
+    }
+
     public Builder<T> logger(ApolloLogger logger) {
       this.logger = logger;
       return this;
@@ -474,6 +640,48 @@ public final class RealApolloCall<T> implements ApolloQueryCall<T>, ApolloMutati
       return this;
     }
 
+    public Builder<T> persistedQueryRegistry(
+        Optional<ApolloAutoPersistedQueryInterceptor.Registry> persistedQueryRegistry) {
+      this.persistedQueryRegistry = persistedQueryRegistry;
+      return this;
+    }
+
+    public Builder<T> useHttpGetMethodForQueries(boolean useHttpGetMethodForQueries) {
+      this.useHttpGetMethodForQueries = useHttpGetMethodForQueries;
+      return this;
+    }
+
+    public Builder<T> queryBatcher(Optional<QueryBatcher> queryBatcher) {
+      this.queryBatcher = queryBatcher;
+      return this;
+    }
+
+    public Builder<T> deduplicationRegistry(
+        Optional<ApolloDeduplicationInterceptor.Registry> deduplicationRegistry) {
+      this.deduplicationRegistry = deduplicationRegistry;
+      return this;
+    }
+
+    public Builder<T> eventListenerFactory(ApolloEventListener.Factory eventListenerFactory) {
+      this.eventListenerFactory = eventListenerFactory;
+      return this;
+    }
+
+    public Builder<T> sameThreadDispatching(boolean sameThreadDispatching) {
+      this.sameThreadDispatching = sameThreadDispatching;
+      return this;
+    }
+
+    public Builder<T> requestHedger(Optional<RequestHedger> requestHedger) {
+      this.requestHedger = requestHedger;
+      return this;
+    }
+
+    public Builder<T> concurrencyLimiter(Optional<ApolloConcurrencyLimitInterceptor.Limiter> concurrencyLimiter) {
+      this.concurrencyLimiter = concurrencyLimiter;
+      return this;
+    }
+
     public Builder<T> optimisticUpdates(Optional<Operation.Data> optimisticUpdates) {
       this.optimisticUpdates = optimisticUpdates;
       return this;
@@ -1,5 +1,6 @@
 package com.apollographql.apollo.internal;
 
+import com.apollographql.apollo.ApolloDispatcher;
 import com.apollographql.apollo.ApolloPrefetch;
 import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
@@ -25,6 +26,7 @@ import okhttp3.Call;
 import okhttp3.HttpUrl;
 import okhttp3.Response;
 
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 import static com.apollographql.apollo.internal.CallState.ACTIVE;
 import static com.apollographql.apollo.internal.CallState.CANCELED;
 import static com.apollographql.apollo.internal.CallState.IDLE;
@@ -40,12 +42,13 @@ import static com.apollographql.apollo.internal.CallState.TERMINATED;
   final ApolloCallTracker tracker;
   final ApolloInterceptorChain interceptorChain;
   final boolean sendOperationIds;
+  final ApolloDispatcher.Priority priority;
   final AtomicReference<CallState> state = new AtomicReference<>(IDLE);
   final AtomicReference<ApolloPrefetch.Callback> originalCallback = new AtomicReference<>();
 
   public RealApolloPrefetch(Operation operation, HttpUrl serverUrl, Call.Factory httpCallFactory,
       ScalarTypeAdapters scalarTypeAdapters, Executor dispatcher, ApolloLogger logger, ApolloCallTracker callTracker,
-      boolean sendOperationIds) {
+      boolean sendOperationIds, ApolloDispatcher.Priority priority) {
     this.operation = operation;
     this.serverUrl = serverUrl;
     this.httpCallFactory = httpCallFactory;
@@ -54,9 +57,10 @@ import static com.apollographql.apollo.internal.CallState.TERMINATED;
     this.logger = logger;
     this.tracker = callTracker;
     this.sendOperationIds = sendOperationIds;
+    this.priority = priority;
     interceptorChain = new RealApolloInterceptorChain(Collections.<ApolloInterceptor>singletonList(
         new ApolloServerInterceptor(serverUrl, httpCallFactory, HttpCachePolicy.NETWORK_ONLY, true,
-            scalarTypeAdapters, logger, sendOperationIds)
+            scalarTypeAdapters, logger, sendOperationIds, CallEventListener.NONE, null)
     ));
   }
 
@@ -73,7 +77,13 @@ import static com.apollographql.apollo.internal.CallState.TERMINATED;
     }
 
     ApolloInterceptor.InterceptorRequest request = ApolloInterceptor.InterceptorRequest.builder(operation).build();
-    interceptorChain.proceedAsync(request, dispatcher, interceptorCallbackProxy());
+    Executor callDispatcher = dispatcher instanceof ApolloDispatcher
+        ? ((ApolloDispatcher) dispatcher).executor(priority) : dispatcher;
+    if (dispatcher instanceof ApolloDispatcher && !((ApolloDispatcher) dispatcher).tryAdmitCall()) {
+      interceptorCallbackProxy().onFailure(new ApolloException("Dispatcher queue is full"));
+      return;
+    }
+    interceptorChain.proceedAsync(request, callDispatcher, interceptorCallbackProxy());
   }
 
   @Nonnull @Override public Operation operation() {
@@ -128,7 +138,13 @@ import static com.apollographql.apollo.internal.CallState.TERMINATED;
 
   @Override public ApolloPrefetch clone() {
     return new RealApolloPrefetch(operation, serverUrl, httpCallFactory, scalarTypeAdapters, dispatcher,
-        logger, tracker, sendOperationIds);
+        logger, tracker, sendOperationIds, priority);
+  }
+
+  @Nonnull @Override public ApolloPrefetch priority(@Nonnull ApolloDispatcher.Priority priority) {
+    if (state.get() != IDLE) throw new IllegalStateException("Already Executed");
+    return new RealApolloPrefetch(operation, serverUrl, httpCallFactory, scalarTypeAdapters, dispatcher,
+        logger, tracker, sendOperationIds, checkNotNull(priority, "priority == null"));
   }
 
   @Override public synchronized void cancel() {
@@ -1,6 +1,7 @@
 package com.apollographql.apollo.internal;
 
 import com.apollographql.apollo.ApolloCall;
+import com.apollographql.apollo.ApolloDispatcher;
 import com.apollographql.apollo.ApolloQueryWatcher;
 import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.Response;
@@ -35,10 +36,12 @@ final class RealApolloQueryWatcher<T> implements ApolloQueryWatcher<T> {
   Set<String> dependentKeys = Collections.emptySet();
   final ApolloLogger logger;
   private final ApolloCallTracker tracker;
+  private final ApolloDispatcher.Priority priority;
   final ApolloStore.RecordChangeSubscriber recordChangeSubscriber = new ApolloStore.RecordChangeSubscriber() {
     @Override public void onCacheRecordsChanged(Set<String> changedRecordKeys) {
       if (!Utils.areDisjoint(dependentKeys, changedRecordKeys)) {
-        refetch();
+        // refetches triggered by the cache changes should not compete with the calls the user is waiting for
+        refetch(ApolloDispatcher.Priority.BACKGROUND);
       }
     }
   };
@@ -51,6 +54,7 @@ final class RealApolloQueryWatcher<T> implements ApolloQueryWatcher<T> {
     this.apolloStore = apolloStore;
     this.logger = logger;
     this.tracker = tracker;
+    this.priority = originalCall.priority;
   }
 
   @Override public ApolloQueryWatcher<T> enqueueAndWatch(@Nullable final ApolloCall.Callback<T> callback) {
@@ -108,12 +112,16 @@ final class RealApolloQueryWatcher<T> implements ApolloQueryWatcher<T> {
     return activeCall.operation();
   }
 
-  @Override public synchronized void refetch() {
+  @Override public void refetch() {
+    refetch(priority);
+  }
+
+  synchronized void refetch(ApolloDispatcher.Priority priority) {
     switch (state.get()) {
       case ACTIVE:
         apolloStore.unsubscribe(recordChangeSubscriber);
         activeCall.cancel();
-        activeCall = activeCall.clone().responseFetcher(refetchResponseFetcher);
+        activeCall = activeCall.clone().responseFetcher(refetchResponseFetcher).priority(priority);
         activeCall.enqueue(callbackProxy());
         break;
       case IDLE:
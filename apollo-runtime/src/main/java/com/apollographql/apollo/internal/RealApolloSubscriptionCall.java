@@ -7,6 +7,7 @@ import com.apollographql.apollo.exception.ApolloCanceledException;
 import com.apollographql.apollo.exception.ApolloNetworkException;
 import com.apollographql.apollo.internal.subscription.ApolloSubscriptionException;
 import com.apollographql.apollo.internal.subscription.SubscriptionManager;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
 
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -21,12 +22,19 @@ import static com.apollographql.apollo.internal.CallState.TERMINATED;
 public class RealApolloSubscriptionCall<T> implements ApolloSubscriptionCall<T> {
   private final Subscription<?, T, ?> subscription;
   private final SubscriptionManager subscriptionManager;
+  private final SubscriptionDeliveryPolicy deliveryPolicy;
   private final AtomicReference<CallState> state = new AtomicReference<>(IDLE);
   private SubscriptionManagerCallback<T> subscriptionCallback;
 
   public RealApolloSubscriptionCall(Subscription<?, T, ?> subscription, SubscriptionManager subscriptionManager) {
+    this(subscription, subscriptionManager, SubscriptionDeliveryPolicy.DEFAULT);
+  }
+
+  public RealApolloSubscriptionCall(Subscription<?, T, ?> subscription, SubscriptionManager subscriptionManager,
+      SubscriptionDeliveryPolicy deliveryPolicy) {
     this.subscription = subscription;
     this.subscriptionManager = subscriptionManager;
+    this.deliveryPolicy = deliveryPolicy;
   }
 
   @Override
@@ -37,7 +45,7 @@ public class RealApolloSubscriptionCall<T> implements ApolloSubscriptionCall<T>
         case IDLE: {
           state.set(ACTIVE);
           subscriptionCallback = new SubscriptionManagerCallback<>(callback, this);
-          subscriptionManager.subscribe(subscription, subscriptionCallback);
+          subscriptionManager.subscribe(subscription, deliveryPolicy, subscriptionCallback);
           break;
         }
 
@@ -65,7 +73,7 @@ public class RealApolloSubscriptionCall<T> implements ApolloSubscriptionCall<T>
 
         case ACTIVE: {
           try {
-            subscriptionManager.unsubscribe(subscription);
+            subscriptionManager.unsubscribe(subscription, subscriptionCallback);
           } finally {
             state.set(CANCELED);
             subscriptionCallback.release();
@@ -87,7 +95,14 @@ public class RealApolloSubscriptionCall<T> implements ApolloSubscriptionCall<T>
   @SuppressWarnings("MethodDoesntCallSuperMethod")
   @Override
   public ApolloSubscriptionCall<T> clone() {
-    return new RealApolloSubscriptionCall<>(subscription, subscriptionManager);
+    return new RealApolloSubscriptionCall<>(subscription, subscriptionManager, deliveryPolicy);
+  }
+
+  @Nonnull @Override
+  public ApolloSubscriptionCall<T> deliveryPolicy(@Nonnull SubscriptionDeliveryPolicy deliveryPolicy) {
+    checkNotNull(deliveryPolicy, "deliveryPolicy == null");
+    if (state.get() != IDLE) throw new IllegalStateException("Already Executed");
+    return new RealApolloSubscriptionCall<>(subscription, subscriptionManager, deliveryPolicy);
   }
 
   @Override public boolean isCanceled() {
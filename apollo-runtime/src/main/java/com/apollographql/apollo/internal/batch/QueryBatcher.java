@@ -0,0 +1,311 @@
+package com.apollographql.apollo.internal.batch;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.exception.ApolloNetworkException;
+import com.apollographql.apollo.exception.ApolloParseException;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.interceptor.ApolloServerInterceptor;
+import com.apollographql.apollo.internal.json.BufferedSourceJsonReader;
+import com.apollographql.apollo.internal.json.JsonReader;
+import com.apollographql.apollo.internal.json.JsonWriter;
+import com.apollographql.apollo.internal.util.Cancelable;
+import com.apollographql.apollo.json.JsonDataException;
+import com.apollographql.apollo.response.ScalarTypeAdapters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ByteString;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * QueryBatcher collects query operations enqueued within the configured batch interval (or until max batch size is
+ * reached) and sends them to the server as a single http request with JSON array body. The JSON array response is
+ * split back into the http responses for each batched query, so they can be parsed independently.
+ *
+ * <p>One instance of QueryBatcher is shared between all calls created by the same
+ * {@link com.apollographql.apollo.ApolloClient}.</p>
+ */
+@SuppressWarnings("WeakerAccess") public final class QueryBatcher {
+  final HttpUrl serverUrl;
+  final Call.Factory httpCallFactory;
+  final ScalarTypeAdapters scalarTypeAdapters;
+  final ApolloLogger logger;
+  final long batchIntervalMs;
+  final int maxBatchSize;
+  final boolean sendOperationIdentifiers;
+  final List<BatchedQuery> pendingQueries = new ArrayList<>();
+  private final Runnable flushTask = new Runnable() {
+    @Override public void run() {
+      flush();
+    }
+  };
+  private ScheduledExecutorService scheduler;
+
+  public QueryBatcher(@Nonnull HttpUrl serverUrl, @Nonnull Call.Factory httpCallFactory,
+      @Nonnull ScalarTypeAdapters scalarTypeAdapters, @Nonnull ApolloLogger logger, long batchIntervalMs,
+      int maxBatchSize, boolean sendOperationIdentifiers) {
+    if (batchIntervalMs <= 0) throw new IllegalArgumentException("batchIntervalMs <= 0");
+    if (maxBatchSize <= 0) throw new IllegalArgumentException("maxBatchSize <= 0");
+    this.serverUrl = checkNotNull(serverUrl, "serverUrl == null");
+    this.httpCallFactory = checkNotNull(httpCallFactory, "httpCallFactory == null");
+    this.scalarTypeAdapters = checkNotNull(scalarTypeAdapters, "scalarTypeAdapters == null");
+    this.logger = checkNotNull(logger, "logger == null");
+    this.batchIntervalMs = batchIntervalMs;
+    this.maxBatchSize = maxBatchSize;
+    this.sendOperationIdentifiers = sendOperationIdentifiers;
+  }
+
+  /**
+   * Adds provided query operation to the pending batch.
+   *
+   * @param operation query operation to be batched
+   * @param callBack  callback to deliver the http response of this query operation to
+   * @return {@link Cancelable} to cancel batched query
+   */
+  public Cancelable enqueue(@Nonnull Operation operation, @Nonnull ApolloInterceptor.CallBack callBack) {
+    BatchedQuery query = new BatchedQuery(checkNotNull(operation, "operation == null"),
+        checkNotNull(callBack, "callBack == null"));
+    List<BatchedQuery> batch = null;
+    synchronized (this) {
+      pendingQueries.add(query);
+      if (pendingQueries.size() >= maxBatchSize) {
+        batch = drainPendingQueries();
+      } else if (pendingQueries.size() == 1) {
+        scheduler().schedule(flushTask, batchIntervalMs, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    if (batch != null) {
+      execute(batch);
+    }
+    return query;
+  }
+
+  void flush() {
+    List<BatchedQuery> batch;
+    synchronized (this) {
+      batch = drainPendingQueries();
+    }
+    if (!batch.isEmpty()) {
+      execute(batch);
+    }
+  }
+
+  private List<BatchedQuery> drainPendingQueries() {
+    List<BatchedQuery> batch = new ArrayList<>(pendingQueries);
+    pendingQueries.clear();
+    return batch;
+  }
+
+  private synchronized ScheduledExecutorService scheduler() {
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override public Thread newThread(@Nonnull Runnable runnable) {
+          Thread thread = new Thread(runnable, "Apollo Query Batcher");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.setRemoveOnCancelPolicy(true);
+      scheduler = executor;
+    }
+    return scheduler;
+  }
+
+  synchronized boolean cancel(BatchedQuery query) {
+    return pendingQueries.remove(query);
+  }
+
+  void execute(final List<BatchedQuery> queries) {
+    final Batch batch = new Batch(queries);
+    try {
+      batch.httpCall = httpCall(queries);
+    } catch (IOException e) {
+      logger.e(e, "Failed to prepare http call for batch of %d operations", queries.size());
+      batch.notifyOnFailure(new ApolloNetworkException("Failed to prepare http call", e));
+      return;
+    }
+
+    logger.d("Sending batch of %d operations", queries.size());
+    batch.httpCall.enqueue(new Callback() {
+      @Override public void onFailure(@Nonnull Call call, @Nonnull IOException e) {
+        logger.e(e, "Failed to execute http call for batch of %d operations", queries.size());
+        batch.notifyOnFailure(new ApolloNetworkException("Failed to execute http call", e));
+      }
+
+      @Override public void onResponse(@Nonnull Call call, @Nonnull Response response) throws IOException {
+        try {
+          batch.notifyOnResponse(response);
+        } finally {
+          response.close();
+        }
+      }
+    });
+  }
+
+  Call httpCall(List<BatchedQuery> queries) throws IOException {
+    Buffer buffer = new Buffer();
+    JsonWriter jsonWriter = JsonWriter.of(buffer);
+    jsonWriter.setSerializeNulls(true);
+    jsonWriter.beginArray();
+    for (BatchedQuery query : queries) {
+      ApolloServerInterceptor.writeOperation(jsonWriter, query.operation, scalarTypeAdapters, sendOperationIdentifiers,
+          true, false, true);
+    }
+    jsonWriter.endArray();
+    jsonWriter.close();
+
+    Request request = new Request.Builder()
+        .url(serverUrl)
+        .post(RequestBody.create(ApolloServerInterceptor.MEDIA_TYPE, buffer.readByteString()))
+        .header(ApolloServerInterceptor.HEADER_ACCEPT_TYPE, ApolloServerInterceptor.ACCEPT_TYPE)
+        .header(ApolloServerInterceptor.HEADER_CONTENT_TYPE, ApolloServerInterceptor.CONTENT_TYPE)
+        .build();
+    return httpCallFactory.newCall(request);
+  }
+
+  /**
+   * Splits the JSON array of the batch response into the raw JSON of its entries. The entries are only skipped over,
+   * not parsed, and their bytes are copied as is.
+   */
+  static List<ByteString> splitBatchResponse(ResponseBody responseBody) throws IOException {
+    ByteString body = responseBody.source().readByteString();
+    BufferedSourceJsonReader jsonReader = new BufferedSourceJsonReader(new Buffer().write(body));
+    try {
+      List<ByteString> entries = new ArrayList<>();
+      jsonReader.beginArray();
+      while (jsonReader.hasNext()) {
+        if (jsonReader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+          throw new JsonDataException("Expected BEGIN_OBJECT but was " + jsonReader.peek() + " at path "
+              + jsonReader.getPath());
+        }
+        long start = jsonReader.nextValueOffset();
+        jsonReader.skipValue();
+        entries.add(body.substring((int) start, (int) jsonReader.consumedByteCount()));
+      }
+      jsonReader.endArray();
+      return entries;
+    } finally {
+      jsonReader.close();
+    }
+  }
+
+  final class Batch {
+    final List<BatchedQuery> queries;
+    volatile Call httpCall;
+
+    Batch(List<BatchedQuery> queries) {
+      this.queries = queries;
+      for (BatchedQuery query : queries) {
+        query.batch = this;
+      }
+    }
+
+    void notifyOnResponse(Response response) throws IOException {
+      MediaType contentType = response.body().contentType();
+      if (!response.isSuccessful()) {
+        byte[] body = response.body().bytes();
+        for (BatchedQuery query : queries) {
+          query.notifyOnResponse(response.newBuilder()
+              .body(ResponseBody.create(contentType, body))
+              .build());
+        }
+        return;
+      }
+
+      List<ByteString> results;
+      try {
+        results = splitBatchResponse(response.body());
+      } catch (Exception e) {
+        logger.e(e, "Failed to parse batch response");
+        notifyOnFailure(new ApolloParseException("Failed to parse batch http response", e));
+        return;
+      }
+
+      if (results.size() != queries.size()) {
+        notifyOnFailure(new ApolloParseException(String.format("Batch http response size mismatch, expected: %d, "
+            + "actual: %d", queries.size(), results.size())));
+        return;
+      }
+
+      for (int i = 0; i < queries.size(); i++) {
+        queries.get(i).notifyOnResponse(response.newBuilder()
+            .body(ResponseBody.create(contentType, results.get(i)))
+            .build());
+      }
+    }
+
+    void notifyOnFailure(ApolloException e) {
+      for (BatchedQuery query : queries) {
+        query.notifyOnFailure(e);
+      }
+    }
+
+    void onQueryCanceled() {
+      for (BatchedQuery query : queries) {
+        if (!query.isCanceled()) return;
+      }
+      Call httpCall = this.httpCall;
+      if (httpCall != null) {
+        httpCall.cancel();
+      }
+    }
+  }
+
+  final class BatchedQuery implements Cancelable {
+    final Operation operation;
+    final ApolloInterceptor.CallBack callBack;
+    volatile Batch batch;
+    volatile boolean canceled;
+
+    BatchedQuery(Operation operation, ApolloInterceptor.CallBack callBack) {
+      this.operation = operation;
+      this.callBack = callBack;
+    }
+
+    void notifyOnResponse(Response response) {
+      if (canceled) return;
+      callBack.onResponse(new ApolloInterceptor.InterceptorResponse(response));
+      callBack.onCompleted();
+    }
+
+    void notifyOnFailure(ApolloException e) {
+      if (canceled) return;
+      callBack.onFailure(e);
+    }
+
+    @Override public void cancel() {
+      canceled = true;
+      if (!QueryBatcher.this.cancel(this)) {
+        Batch batch = this.batch;
+        if (batch != null) {
+          batch.onQueryCanceled();
+        }
+      }
+    }
+
+    @Override public boolean isCanceled() {
+      return canceled;
+    }
+  }
+}
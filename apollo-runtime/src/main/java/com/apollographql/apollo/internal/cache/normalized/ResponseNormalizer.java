@@ -43,6 +43,15 @@ public abstract class ResponseNormalizer<R> implements ResolveDelegate<R> {
     willResolveRecord(CacheKeyResolver.rootKeyForOperation(operation));
   }
 
+  /**
+   * Starts resolving the operation root into the record with the provided key. Unlike the query root, the objects
+   * without a cache key are keyed by their path prefixed with this key.
+   */
+  public void willResolveRootRecord(CacheKey rootKey) {
+    willResolveRecord(rootKey);
+    path.add(rootKey.key());
+  }
+
   @Override public void willResolve(ResponseField field, Operation.Variables variables) {
     String key = field.cacheKey(variables);
     path.add(key);
@@ -32,7 +32,7 @@ public final class NetworkFirstFetcher implements ResponseFetcher {
     @Override
     public void interceptAsync(@Nonnull final InterceptorRequest request, @Nonnull final ApolloInterceptorChain chain,
         @Nonnull final Executor dispatcher, @Nonnull final CallBack callBack) {
-      InterceptorRequest networkRequest = request.toBuilder().fetchFromCache(false).build();
+      InterceptorRequest networkRequest = request.toBuilder().fetchFromCache(false).fallbackToCache(true).build();
       chain.proceedAsync(networkRequest, dispatcher, new CallBack() {
         @Override public void onResponse(@Nonnull InterceptorResponse response) {
           callBack.onResponse(response);
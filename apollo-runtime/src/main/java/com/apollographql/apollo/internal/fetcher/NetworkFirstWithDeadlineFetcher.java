@@ -0,0 +1,289 @@
+package com.apollographql.apollo.internal.fetcher;
+
+import com.apollographql.apollo.api.internal.Optional;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.fetcher.ResponseFetcher;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.ApolloLogger;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Signals the apollo client to first fetch the data from the network, but to fall back to the normalized cache if the
+ * network hasn't responded by the deadline. The network request keeps going then, its response is still written to
+ * the normalized cache and, if {@code deliverLateNetworkResponse} is set, delivered after the cached one. If the
+ * network request fails or the data is not present in the normalized cache, it behaves as {@link NetworkFirstFetcher}.
+ *
+ * <p>The deadlines of all the fetchers run on one shared scheduler thread, which is started lazily with the first
+ * deadline and stops when there are no deadlines left.</p>
+ */
+public final class NetworkFirstWithDeadlineFetcher implements ResponseFetcher {
+  private static final long SCHEDULER_KEEP_ALIVE_SECONDS = 10;
+  private static ScheduledExecutorService scheduler;
+
+  private final long deadlineMs;
+  private final boolean deliverLateNetworkResponse;
+
+  public NetworkFirstWithDeadlineFetcher(long deadlineMs, boolean deliverLateNetworkResponse) {
+    if (deadlineMs <= 0) throw new IllegalArgumentException("deadlineMs <= 0");
+    this.deadlineMs = deadlineMs;
+    this.deliverLateNetworkResponse = deliverLateNetworkResponse;
+  }
+
+  @Override public ApolloInterceptor provideInterceptor(ApolloLogger logger) {
+    return new NetworkFirstWithDeadlineInterceptor(logger);
+  }
+
+  private static synchronized ScheduledExecutorService scheduler() {
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override public Thread newThread(@Nonnull Runnable runnable) {
+          Thread thread = new Thread(runnable, "Apollo Network Deadline");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.setKeepAliveTime(SCHEDULER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+      executor.allowCoreThreadTimeOut(true);
+      executor.setRemoveOnCancelPolicy(true);
+      scheduler = executor;
+    }
+    return scheduler;
+  }
+
+  private final class NetworkFirstWithDeadlineInterceptor implements ApolloInterceptor {
+    final ApolloLogger logger;
+    volatile boolean disposed;
+    // guarded by this
+    private ScheduledFuture<?> deadline;
+    private Optional<ApolloException> networkException = Optional.absent();
+    private boolean networkResponded;
+    private boolean cacheRequested;
+    private boolean cacheFailed;
+    private boolean cacheDelivered;
+    private boolean terminated;
+    // callbacks are decided under the lock but delivered outside of it, one at a time and in order
+    private final Queue<Runnable> pendingCallbacks = new ArrayDeque<>();
+    private boolean deliveringCallbacks;
+
+    NetworkFirstWithDeadlineInterceptor(ApolloLogger logger) {
+      this.logger = logger;
+    }
+
+    @Override
+    public void interceptAsync(@Nonnull final InterceptorRequest request, @Nonnull final ApolloInterceptorChain chain,
+        @Nonnull final Executor dispatcher, @Nonnull final CallBack callBack) {
+      if (disposed) return;
+      synchronized (this) {
+        deadline = scheduler().schedule(new Runnable() {
+          @Override public void run() {
+            if (startCacheRequest()) {
+              logger.d("Network deadline exceeded for operation %s, trying to return cached response",
+                  request.operation);
+              proceedWithCache(request, chain, dispatcher, callBack);
+            }
+          }
+        }, deadlineMs, TimeUnit.MILLISECONDS);
+      }
+
+      InterceptorRequest networkRequest = request.toBuilder().fetchFromCache(false).fallbackToCache(true).build();
+      chain.proceedAsync(networkRequest, dispatcher, new CallBack() {
+        @Override public void onResponse(@Nonnull InterceptorResponse response) {
+          handleNetworkResponse(response, callBack);
+        }
+
+        @Override public void onFailure(@Nonnull ApolloException e) {
+          logger.d(e, "Failed to fetch network response for operation %s, trying to return cached one",
+              request.operation);
+          if (handleNetworkFailure(e, callBack)) {
+            proceedWithCache(request, chain, dispatcher, callBack);
+          }
+        }
+
+        @Override public void onCompleted() {
+          handleNetworkCompleted(callBack);
+        }
+
+        @Override public void onFetch(FetchSourceType sourceType) {
+          callBack.onFetch(sourceType);
+        }
+      });
+    }
+
+    @Override public void dispose() {
+      disposed = true;
+      synchronized (this) {
+        if (deadline != null) {
+          deadline.cancel(false);
+        }
+      }
+    }
+
+    void proceedWithCache(InterceptorRequest request, ApolloInterceptorChain chain, Executor dispatcher,
+        final CallBack callBack) {
+      if (disposed) return;
+      InterceptorRequest cacheRequest = request.toBuilder().fetchFromCache(true).build();
+      chain.proceedAsync(cacheRequest, dispatcher, new CallBack() {
+        @Override public void onResponse(@Nonnull InterceptorResponse response) {
+          handleCacheResponse(response, callBack);
+        }
+
+        @Override public void onFailure(@Nonnull ApolloException e) {
+          handleCacheFailure(callBack);
+        }
+
+        @Override public void onCompleted() {
+        }
+
+        @Override public void onFetch(FetchSourceType sourceType) {
+          callBack.onFetch(sourceType);
+        }
+      });
+    }
+
+    /**
+     * @return {@code true} if the cache has to be requested because the network hasn't responded in time
+     */
+    synchronized boolean startCacheRequest() {
+      if (disposed || terminated || networkResponded || cacheRequested) {
+        return false;
+      }
+      cacheRequested = true;
+      return true;
+    }
+
+    void handleNetworkResponse(final InterceptorResponse response, final CallBack callBack) {
+      synchronized (this) {
+        if (disposed || terminated) return;
+        deadline.cancel(false);
+        // either the late network response delivered after the cached one, or the network response that wins over the
+        // cached one that may still be being read
+        networkResponded = true;
+        pendingCallbacks.add(new Runnable() {
+          @Override public void run() {
+            callBack.onResponse(response);
+          }
+        });
+      }
+      deliverPendingCallbacks();
+    }
+
+    void handleNetworkCompleted(CallBack callBack) {
+      synchronized (this) {
+        if (disposed || terminated) return;
+        if (!networkResponded && !cacheDelivered) return;
+        terminated = true;
+        pendingCallbacks.add(completed(callBack));
+      }
+      deliverPendingCallbacks();
+    }
+
+    /**
+     * @return {@code true} if the cache has to be requested to fall back to
+     */
+    boolean handleNetworkFailure(ApolloException e, CallBack callBack) {
+      synchronized (this) {
+        if (disposed || terminated) return false;
+        deadline.cancel(false);
+        networkException = Optional.of(e);
+        if (cacheDelivered) {
+          terminated = true;
+          pendingCallbacks.add(completed(callBack));
+        } else if (cacheFailed) {
+          terminated = true;
+          pendingCallbacks.add(failed(callBack, e));
+        } else if (cacheRequested) {
+          // the cache requested at the deadline is going to be delivered instead
+          return false;
+        } else {
+          cacheRequested = true;
+          return true;
+        }
+      }
+      deliverPendingCallbacks();
+      return false;
+    }
+
+    void handleCacheResponse(final InterceptorResponse response, final CallBack callBack) {
+      synchronized (this) {
+        if (disposed || terminated || networkResponded) return;
+        cacheDelivered = true;
+        pendingCallbacks.add(new Runnable() {
+          @Override public void run() {
+            callBack.onResponse(response);
+          }
+        });
+        if (networkException.isPresent() || !deliverLateNetworkResponse) {
+          terminated = true;
+          pendingCallbacks.add(completed(callBack));
+        }
+      }
+      deliverPendingCallbacks();
+    }
+
+    void handleCacheFailure(CallBack callBack) {
+      synchronized (this) {
+        if (disposed || terminated || networkResponded) return;
+        cacheFailed = true;
+        if (!networkException.isPresent()) {
+          // the network response is awaited without the deadline
+          return;
+        }
+        terminated = true;
+        pendingCallbacks.add(failed(callBack, networkException.get()));
+      }
+      deliverPendingCallbacks();
+    }
+
+    private void deliverPendingCallbacks() {
+      synchronized (this) {
+        if (deliveringCallbacks) return;
+        deliveringCallbacks = true;
+      }
+      while (true) {
+        Runnable callback;
+        synchronized (this) {
+          callback = pendingCallbacks.poll();
+          if (callback == null) {
+            deliveringCallbacks = false;
+            return;
+          }
+        }
+        try {
+          callback.run();
+        } catch (RuntimeException e) {
+          synchronized (this) {
+            deliveringCallbacks = false;
+          }
+          throw e;
+        }
+      }
+    }
+
+    private Runnable completed(final CallBack callBack) {
+      return new Runnable() {
+        @Override public void run() {
+          callBack.onCompleted();
+        }
+      };
+    }
+
+    private Runnable failed(final CallBack callBack, final ApolloException e) {
+      return new Runnable() {
+        @Override public void run() {
+          callBack.onFailure(e);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.apollographql.apollo.internal.interceptor;
+
+import com.apollographql.apollo.api.Error;
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.ApolloLogger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * ApolloAutoPersistedQueryInterceptor is a concrete {@link ApolloInterceptor} responsible for the automatic persisted
+ * query negotiation with the server. It first sends only the SHA-256 hash of the query document, and if the server
+ * responds with {@code PersistedQueryNotFound} error it retries the request with the full query document to register
+ * it on the server.
+ *
+ * <p>Query documents the server is known to have are tracked by shared {@link Registry}, only these queries are sent
+ * with HTTP GET method (if enabled) to make sure that the error responses are never cached by any intermediate http
+ * cache.</p>
+ */
+public final class ApolloAutoPersistedQueryInterceptor implements ApolloInterceptor {
+  static final String PERSISTED_QUERY_NOT_FOUND_ERROR = "PersistedQueryNotFound";
+  static final String PERSISTED_QUERY_NOT_SUPPORTED_ERROR = "PersistedQueryNotSupported";
+  static final String PERSISTED_QUERY_NOT_FOUND_CODE = "PERSISTED_QUERY_NOT_FOUND";
+  static final String PERSISTED_QUERY_NOT_SUPPORTED_CODE = "PERSISTED_QUERY_NOT_SUPPORTED";
+
+  private final Registry registry;
+  private final boolean useHttpGetMethodForQueries;
+  private final ApolloLogger logger;
+  volatile boolean disposed;
+
+  public ApolloAutoPersistedQueryInterceptor(@Nonnull Registry registry, boolean useHttpGetMethodForQueries,
+      @Nonnull ApolloLogger logger) {
+    this.registry = checkNotNull(registry, "registry == null");
+    this.useHttpGetMethodForQueries = useHttpGetMethodForQueries;
+    this.logger = checkNotNull(logger, "logger == null");
+  }
+
+  @Override
+  public void interceptAsync(@Nonnull InterceptorRequest request, @Nonnull ApolloInterceptorChain chain,
+      @Nonnull Executor dispatcher, @Nonnull CallBack callBack) {
+    if (disposed) return;
+    if (request.fetchFromCache || registry.isDisabled()) {
+      chain.proceedAsync(request, dispatcher, callBack);
+      return;
+    }
+
+    String operationId = request.operation.operationId();
+    boolean persisted = registry.isPersisted(operationId);
+    InterceptorRequest hashRequest = request.toBuilder()
+        .sendQueryDocument(false)
+        .autoPersistQueries(true)
+        .useHttpGetMethod(useHttpGetMethodForQueries && persisted && request.operation instanceof Query)
+        .build();
+    proceed(hashRequest, chain, dispatcher, callBack, false);
+  }
+
+  @Override public void dispose() {
+    disposed = true;
+  }
+
+  private void proceed(@Nonnull final InterceptorRequest request, @Nonnull final ApolloInterceptorChain chain,
+      @Nonnull final Executor dispatcher, @Nonnull final CallBack callBack, final boolean retry) {
+    chain.proceedAsync(request, dispatcher, new CallBack() {
+      boolean retried;
+
+      @Override public void onResponse(@Nonnull InterceptorResponse response) {
+        if (disposed) return;
+
+        String operationId = request.operation.operationId();
+        Response parsedResponse = response.parsedResponse.orNull();
+        if (!retry && parsedResponse != null) {
+          if (hasError(parsedResponse, PERSISTED_QUERY_NOT_FOUND_ERROR, PERSISTED_QUERY_NOT_FOUND_CODE)) {
+            logger.d("Persisted query not found for operation %s, retrying with query document",
+                request.operation.name().name());
+            registry.remove(operationId);
+            retried = true;
+            proceed(request.toBuilder()
+                .sendQueryDocument(true)
+                .autoPersistQueries(true)
+                .useHttpGetMethod(false)
+                .build(), chain, dispatcher, callBack, true);
+            return;
+          }
+
+          if (hasError(parsedResponse, PERSISTED_QUERY_NOT_SUPPORTED_ERROR, PERSISTED_QUERY_NOT_SUPPORTED_CODE)) {
+            logger.w("Persisted queries are not supported by the server, disabling");
+            registry.disable();
+            retried = true;
+            proceed(request.toBuilder()
+                .sendQueryDocument(true)
+                .autoPersistQueries(false)
+                .useHttpGetMethod(false)
+                .build(), chain, dispatcher, callBack, true);
+            return;
+          }
+        }
+
+        if (parsedResponse != null && request.autoPersistQueries) {
+          registry.add(operationId);
+        }
+        callBack.onResponse(response);
+      }
+
+      @Override public void onFetch(FetchSourceType sourceType) {
+        if (disposed || retried) return;
+        callBack.onFetch(sourceType);
+      }
+
+      @Override public void onFailure(@Nonnull ApolloException e) {
+        if (disposed || retried) return;
+        callBack.onFailure(e);
+      }
+
+      @Override public void onCompleted() {
+        if (disposed || retried) return;
+        callBack.onCompleted();
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  static boolean hasError(Response response, String message, String code) {
+    List<Error> errors = response.errors();
+    for (Error error : errors) {
+      if (message.equalsIgnoreCase(error.message())) {
+        return true;
+      }
+      Object extensions = error.customAttributes().get("extensions");
+      if (extensions instanceof Map && code.equals(((Map<String, Object>) extensions).get("code"))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Keeps track of the query documents the server is known to have persisted. Shared between all calls created by the
+   * same {@link com.apollographql.apollo.ApolloClient}.
+   */
+  public static final class Registry {
+    private final Set<String> persistedOperationIds = Collections.newSetFromMap(
+        new ConcurrentHashMap<String, Boolean>());
+    private volatile boolean disabled;
+
+    boolean isPersisted(String operationId) {
+      return persistedOperationIds.contains(operationId);
+    }
+
+    void add(String operationId) {
+      persistedOperationIds.add(operationId);
+    }
+
+    void remove(String operationId) {
+      persistedOperationIds.remove(operationId);
+    }
+
+    boolean isDisabled() {
+      return disabled;
+    }
+
+    void disable() {
+      disabled = true;
+      persistedOperationIds.clear();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.apollographql.apollo.internal.interceptor;
+
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.batch.QueryBatcher;
+import com.apollographql.apollo.internal.util.Cancelable;
+
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * ApolloBatchingInterceptor is a concrete {@link ApolloInterceptor} responsible for sending {@link Query} operations to
+ * the server as part of the batch via {@link QueryBatcher}. It is the last interceptor in the chain of interceptors.
+ *
+ * <p>Requests that rely on the per request http caching, automatic persisted queries or HTTP GET method can't be
+ * batched and are delegated to the {@link ApolloServerInterceptor}.</p>
+ */
+public final class ApolloBatchingInterceptor implements ApolloInterceptor {
+  private final QueryBatcher queryBatcher;
+  private final ApolloServerInterceptor serverInterceptor;
+  private final boolean httpCacheEnabled;
+  volatile Cancelable batchedQuery;
+  volatile boolean disposed;
+
+  public ApolloBatchingInterceptor(@Nonnull QueryBatcher queryBatcher,
+      @Nonnull ApolloServerInterceptor serverInterceptor) {
+    this.queryBatcher = checkNotNull(queryBatcher, "queryBatcher == null");
+    this.serverInterceptor = checkNotNull(serverInterceptor, "serverInterceptor == null");
+    this.httpCacheEnabled = serverInterceptor.cachePolicy.isPresent()
+        && serverInterceptor.cachePolicy.get().fetchStrategy != HttpCachePolicy.FetchStrategy.NETWORK_ONLY;
+  }
+
+  @Override
+  public void interceptAsync(@Nonnull InterceptorRequest request, @Nonnull ApolloInterceptorChain chain,
+      @Nonnull Executor dispatcher, @Nonnull CallBack callBack) {
+    if (disposed) return;
+    if (!canBeBatched(request)) {
+      serverInterceptor.interceptAsync(request, chain, dispatcher, callBack);
+      return;
+    }
+
+    callBack.onFetch(FetchSourceType.NETWORK);
+    batchedQuery = queryBatcher.enqueue(request.operation, callBack);
+  }
+
+  @Override public void dispose() {
+    disposed = true;
+    Cancelable batchedQuery = this.batchedQuery;
+    if (batchedQuery != null) {
+      batchedQuery.cancel();
+    }
+    this.batchedQuery = null;
+    serverInterceptor.dispose();
+  }
+
+  private boolean canBeBatched(InterceptorRequest request) {
+    return request.operation instanceof Query
+        && !httpCacheEnabled
+        && request.sendQueryDocument
+        && !request.autoPersistQueries
+        && !request.useHttpGetMethod;
+  }
+}
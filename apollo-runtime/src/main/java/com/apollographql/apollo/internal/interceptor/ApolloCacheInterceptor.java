@@ -1,5 +1,6 @@
 package com.apollographql.apollo.internal.interceptor;
 
+import com.apollographql.apollo.ApolloDispatcher;
 import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.api.ResponseFieldMapper;
@@ -15,6 +16,7 @@ import com.apollographql.apollo.internal.cache.normalized.ResponseNormalizer;
 import com.apollographql.apollo.internal.cache.normalized.Transaction;
 import com.apollographql.apollo.internal.cache.normalized.WriteableStore;
 import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.CallEventListener;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,22 +38,23 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 public final class ApolloCacheInterceptor implements ApolloInterceptor {
   final ApolloStore apolloStore;
   private final ResponseFieldMapper responseFieldMapper;
-  private final Executor dispatcher;
   final ApolloLogger logger;
+  final CallEventListener eventListener;
   volatile boolean disposed;
 
   public ApolloCacheInterceptor(@Nonnull ApolloStore apolloStore, @Nonnull ResponseFieldMapper responseFieldMapper,
-      @Nonnull Executor dispatcher, @Nonnull ApolloLogger logger) {
+      @Nonnull ApolloLogger logger, @Nonnull CallEventListener eventListener) {
     this.apolloStore = checkNotNull(apolloStore, "cache == null");
     this.responseFieldMapper = checkNotNull(responseFieldMapper, "responseFieldMapper == null");
-    this.dispatcher = checkNotNull(dispatcher, "dispatcher == null");
     this.logger = checkNotNull(logger, "logger == null");
+    this.eventListener = checkNotNull(eventListener, "eventListener == null");
   }
 
   @Override
   public void interceptAsync(@Nonnull final InterceptorRequest request, @Nonnull final ApolloInterceptorChain chain,
       @Nonnull final Executor dispatcher, @Nonnull final CallBack callBack) {
-    dispatcher.execute(new Runnable() {
+    final Executor cacheDispatcher = ApolloDispatcher.cacheExecutorOf(dispatcher);
+    (request.fetchFromCache ? cacheDispatcher : dispatcher).execute(new Runnable() {
       @Override public void run() {
         if (disposed) return;
         if (request.fetchFromCache) {
@@ -65,7 +68,7 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
             callBack.onFailure(e);
           }
         } else {
-          writeOptimisticUpdatesAndPublish(request);
+          writeOptimisticUpdatesAndPublish(request, cacheDispatcher);
           chain.proceedAsync(request, dispatcher, new CallBack() {
             @Override public void onResponse(@Nonnull InterceptorResponse networkResponse) {
               if (disposed) return;
@@ -76,9 +79,9 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
                 Set<String> changedCacheKeys = new HashSet<>();
                 changedCacheKeys.addAll(rolledBackCacheKeys);
                 changedCacheKeys.addAll(networkResponseCacheKeys);
-                publishCacheKeys(changedCacheKeys);
+                publishCacheKeys(changedCacheKeys, cacheDispatcher);
               } catch (Exception rethrow) {
-                rollbackOptimisticUpdatesAndPublish(request);
+                rollbackOptimisticUpdatesAndPublish(request, cacheDispatcher);
                 throw rethrow;
               }
 
@@ -87,7 +90,7 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
             }
 
             @Override public void onFailure(@Nonnull ApolloException t) {
-              rollbackOptimisticUpdatesAndPublish(request);
+              rollbackOptimisticUpdatesAndPublish(request, cacheDispatcher);
               callBack.onFailure(t);
             }
 
@@ -112,12 +115,22 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
     //noinspection unchecked
     ApolloStoreOperation<Response> apolloStoreOperation = apolloStore.read(request.operation, responseFieldMapper,
         responseNormalizer, request.cacheHeaders);
-    Response cachedResponse = apolloStoreOperation.execute();
+    eventListener.cacheReadStart();
+    Response cachedResponse;
+    try {
+      cachedResponse = apolloStoreOperation.execute();
+    } catch (ApolloException e) {
+      eventListener.cacheReadEnd(false, 0);
+      throw e;
+    }
+    Collection<Record> records = responseNormalizer.records();
     if (cachedResponse.data() != null) {
       logger.d("Cache HIT for operation %s", request.operation);
-      return new InterceptorResponse(null, cachedResponse, responseNormalizer.records());
+      eventListener.cacheReadEnd(true, records.size());
+      return new InterceptorResponse(null, cachedResponse, records);
     }
     logger.d("Cache MISS for operation %s", request.operation);
+    eventListener.cacheReadEnd(false, records.size());
     throw new ApolloException(String.format("Cache miss for operation %s", request.operation));
   }
 
@@ -139,19 +152,23 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
       return Collections.emptySet();
     }
 
+    eventListener.cacheWriteStart();
+    Set<String> changedCacheKeys;
     try {
-      return apolloStore.writeTransaction(new Transaction<WriteableStore, Set<String>>() {
+      changedCacheKeys = apolloStore.writeTransaction(new Transaction<WriteableStore, Set<String>>() {
         @Nullable @Override public Set<String> execute(WriteableStore cache) {
           return cache.merge(records.get(), request.cacheHeaders);
         }
       });
     } catch (Exception e) {
       logger.e("Failed to cache operation response", e);
-      return Collections.emptySet();
+      changedCacheKeys = Collections.emptySet();
     }
+    eventListener.cacheWriteEnd(records.get().size(), changedCacheKeys);
+    return changedCacheKeys;
   }
 
-  void writeOptimisticUpdatesAndPublish(final InterceptorRequest request) {
+  void writeOptimisticUpdatesAndPublish(final InterceptorRequest request, Executor dispatcher) {
     dispatcher.execute(new Runnable() {
       @Override public void run() {
         try {
@@ -167,7 +184,7 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
     });
   }
 
-  void rollbackOptimisticUpdatesAndPublish(final InterceptorRequest request) {
+  void rollbackOptimisticUpdatesAndPublish(final InterceptorRequest request, Executor dispatcher) {
     dispatcher.execute(new Runnable() {
       @Override public void run() {
         try {
@@ -188,14 +205,16 @@ public final class ApolloCacheInterceptor implements ApolloInterceptor {
     }
   }
 
-  void publishCacheKeys(final Set<String> cacheKeys) {
+  void publishCacheKeys(final Set<String> cacheKeys, Executor dispatcher) {
     dispatcher.execute(new Runnable() {
       @Override public void run() {
+        eventListener.publishStart(cacheKeys);
         try {
           apolloStore.publish(cacheKeys);
         } catch (Exception e) {
           logger.e(e, "Failed to publish cache changes");
         }
+        eventListener.publishEnd();
       }
     });
   }
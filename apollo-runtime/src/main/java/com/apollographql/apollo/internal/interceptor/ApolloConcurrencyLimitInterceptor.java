@@ -0,0 +1,243 @@
+package com.apollographql.apollo.internal.interceptor;
+
+import com.apollographql.apollo.ConcurrencyLimitMetrics;
+import com.apollographql.apollo.ConcurrencyLimitPolicy;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.exception.ApolloNetworkException;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.ApolloLogger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * ApolloConcurrencyLimitInterceptor is a concrete {@link ApolloInterceptor} responsible for keeping the number of the
+ * concurrent network requests within the adaptive limit of the shared {@link Limiter}, see
+ * {@link ConcurrencyLimitPolicy}.
+ *
+ * <p>Requests over the limit wait in the queue until one of the in-flight requests completes. Requests that can fall
+ * back to the cache and the ones that don't fit into the queue are failed right away with the
+ * {@link ApolloNetworkException}.</p>
+ */
+public final class ApolloConcurrencyLimitInterceptor implements ApolloInterceptor {
+  private final Limiter limiter;
+  private final ApolloLogger logger;
+  volatile PendingRequest pendingRequest;
+  volatile boolean disposed;
+
+  public ApolloConcurrencyLimitInterceptor(@Nonnull Limiter limiter, @Nonnull ApolloLogger logger) {
+    this.limiter = checkNotNull(limiter, "limiter == null");
+    this.logger = checkNotNull(logger, "logger == null");
+  }
+
+  @Override
+  public void interceptAsync(@Nonnull InterceptorRequest request, @Nonnull ApolloInterceptorChain chain,
+      @Nonnull Executor dispatcher, @Nonnull CallBack callBack) {
+    if (disposed) return;
+    PendingRequest pendingRequest = new PendingRequest(request, chain, dispatcher, callBack);
+    this.pendingRequest = pendingRequest;
+    if (!limiter.acquire(pendingRequest, request.fallbackToCache)) {
+      logger.d("Concurrency limit exceeded, rejecting network request for operation %s", request.operation);
+      callBack.onFailure(new ApolloNetworkException("Concurrency limit exceeded"));
+    }
+  }
+
+  @Override public void dispose() {
+    disposed = true;
+    PendingRequest pendingRequest = this.pendingRequest;
+    if (pendingRequest != null) {
+      limiter.release(pendingRequest);
+    }
+  }
+
+  static boolean isCongestion(InterceptorResponse response) {
+    if (!response.httpResponse.isPresent()) return false;
+    int code = response.httpResponse.get().code();
+    return code == 429 || code >= 500;
+  }
+
+  final class PendingRequest {
+    final InterceptorRequest request;
+    final ApolloInterceptorChain chain;
+    final Executor dispatcher;
+    final CallBack callBack;
+    // guarded by limiter
+    boolean running;
+    boolean sampled;
+    boolean released;
+    long startNanos;
+
+    PendingRequest(InterceptorRequest request, ApolloInterceptorChain chain, Executor dispatcher, CallBack callBack) {
+      this.request = request;
+      this.chain = chain;
+      this.dispatcher = dispatcher;
+      this.callBack = callBack;
+    }
+
+    void start() {
+      if (disposed) {
+        limiter.release(this);
+        return;
+      }
+      chain.proceedAsync(request, dispatcher, new CallBack() {
+        @Override public void onResponse(@Nonnull InterceptorResponse response) {
+          limiter.onSample(PendingRequest.this, isCongestion(response));
+          callBack.onResponse(response);
+        }
+
+        @Override public void onFetch(FetchSourceType sourceType) {
+          callBack.onFetch(sourceType);
+        }
+
+        @Override public void onFailure(@Nonnull ApolloException e) {
+          if (e instanceof ApolloNetworkException) {
+            limiter.onSample(PendingRequest.this, true);
+          }
+          limiter.release(PendingRequest.this);
+          callBack.onFailure(e);
+        }
+
+        @Override public void onCompleted() {
+          limiter.release(PendingRequest.this);
+          callBack.onCompleted();
+        }
+      });
+    }
+  }
+
+  /**
+   * Adaptive limit of the concurrent network requests shared by all the calls of the client. The limit is adjusted
+   * with the AIMD scheme driven by the round trip times and failures of the requests, see
+   * {@link ConcurrencyLimitPolicy}.
+   */
+  public static final class Limiter implements ConcurrencyLimitMetrics {
+    static final int MIN_RTT_RESET_INTERVAL = 100;
+
+    private final ConcurrencyLimitPolicy policy;
+    private final Deque<PendingRequest> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long rejected;
+    private long minRttNanos;
+    private long sampleCount;
+    private long lastDecreaseNanos;
+
+    public Limiter(@Nonnull ConcurrencyLimitPolicy policy) {
+      this.policy = checkNotNull(policy, "policy == null");
+      this.limit = Math.max(policy.minLimit(), Math.min(policy.maxLimit(), policy.initialLimit()));
+    }
+
+    @Override public synchronized int limit() {
+      return (int) limit;
+    }
+
+    @Override public synchronized int inFlightCount() {
+      return inFlight;
+    }
+
+    @Override public synchronized int queuedCount() {
+      return queue.size();
+    }
+
+    @Override public synchronized long rejectedCount() {
+      return rejected;
+    }
+
+    boolean acquire(PendingRequest pendingRequest, boolean rejectOverLimit) {
+      synchronized (this) {
+        if (inFlight >= (int) limit) {
+          if (rejectOverLimit || queue.size() >= policy.maxQueueSize()) {
+            rejected++;
+            return false;
+          }
+          queue.add(pendingRequest);
+          return true;
+        }
+        inFlight++;
+        pendingRequest.running = true;
+        pendingRequest.startNanos = System.nanoTime();
+      }
+      pendingRequest.start();
+      return true;
+    }
+
+    void release(PendingRequest pendingRequest) {
+      List<PendingRequest> toStart;
+      synchronized (this) {
+        if (pendingRequest.released) return;
+        pendingRequest.released = true;
+        if (!pendingRequest.running) {
+          queue.remove(pendingRequest);
+          return;
+        }
+        inFlight--;
+        toStart = drainQueue();
+      }
+      startAll(toStart);
+    }
+
+    void onSample(PendingRequest pendingRequest, boolean congestion) {
+      List<PendingRequest> toStart;
+      synchronized (this) {
+        if (pendingRequest.released || pendingRequest.sampled) return;
+        pendingRequest.sampled = true;
+        long nowNanos = System.nanoTime();
+        long rttNanos = nowNanos - pendingRequest.startNanos;
+        if (congestion) {
+          decreaseLimit(nowNanos);
+          return;
+        }
+        // reset the min round trip time periodically to follow the changes of the server baseline latency
+        sampleCount++;
+        if (minRttNanos == 0 || rttNanos < minRttNanos || sampleCount % MIN_RTT_RESET_INTERVAL == 0) {
+          minRttNanos = Math.max(1, rttNanos);
+        }
+        if (rttNanos > minRttNanos * policy.rttTolerance()) {
+          decreaseLimit(nowNanos);
+          return;
+        }
+        if (inFlight * 2 >= limit) {
+          // grow only when the limit is actually in use
+          limit = Math.min(policy.maxLimit(), limit + 1 / limit);
+        }
+        toStart = drainQueue();
+      }
+      startAll(toStart);
+    }
+
+    private void decreaseLimit(long nowNanos) {
+      // back off at most once per min round trip time, requests of one congested period shouldn't stack up
+      if (lastDecreaseNanos != 0 && nowNanos - lastDecreaseNanos < minRttNanos) return;
+      lastDecreaseNanos = nowNanos;
+      limit = Math.max(policy.minLimit(), limit * policy.backoffRatio());
+    }
+
+    private List<PendingRequest> drainQueue() {
+      if (queue.isEmpty() || inFlight >= (int) limit) return Collections.emptyList();
+      List<PendingRequest> toStart = new ArrayList<>();
+      while (!queue.isEmpty() && inFlight < (int) limit) {
+        PendingRequest pendingRequest = queue.poll();
+        inFlight++;
+        pendingRequest.running = true;
+        pendingRequest.startNanos = System.nanoTime();
+        toStart.add(pendingRequest);
+      }
+      return toStart;
+    }
+
+    private static void startAll(List<PendingRequest> pendingRequests) {
+      for (PendingRequest pendingRequest : pendingRequests) {
+        pendingRequest.start();
+      }
+    }
+  }
+}
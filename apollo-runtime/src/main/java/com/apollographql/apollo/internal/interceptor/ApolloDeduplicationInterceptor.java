@@ -0,0 +1,226 @@
+package com.apollographql.apollo.internal.interceptor;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
+import com.apollographql.apollo.exception.ApolloException;
+import com.apollographql.apollo.interceptor.ApolloInterceptor;
+import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
+import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.util.OperationKeys;
+import com.apollographql.apollo.response.ScalarTypeAdapters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * ApolloDeduplicationInterceptor is a concrete {@link ApolloInterceptor} responsible for sharing one network fetch
+ * between concurrent identical {@link Query} operations. Operations are considered identical when they have the same
+ * operation id and the same variables.
+ *
+ * <p>The first call becomes the owner of the network fetch and proceeds with the provided network interceptors, any
+ * identical call enqueued before the fetch completes subscribes to it and receives the same parsed response. Each call
+ * can be canceled independently, the network fetch is canceled only when every subscribed call has been canceled.</p>
+ *
+ * <p>Only the first subscribed call gets the normalized records of the response, so the response is written to the
+ * cache and the changes are published once. The other calls get the same parsed response without the records.</p>
+ */
+public final class ApolloDeduplicationInterceptor implements ApolloInterceptor {
+  private final Registry registry;
+  private final List<ApolloInterceptor> networkInterceptors;
+  private final boolean httpCacheEnabled;
+  private final ScalarTypeAdapters scalarTypeAdapters;
+  private final ApolloLogger logger;
+  volatile SharedFetch sharedFetch;
+  volatile CallBack subscriber;
+  volatile boolean disposed;
+
+  public ApolloDeduplicationInterceptor(@Nonnull Registry registry,
+      @Nonnull List<ApolloInterceptor> networkInterceptors, @Nullable HttpCachePolicy.Policy httpCachePolicy,
+      @Nonnull ScalarTypeAdapters scalarTypeAdapters, @Nonnull ApolloLogger logger) {
+    this.registry = checkNotNull(registry, "registry == null");
+    this.networkInterceptors = new ArrayList<>(checkNotNull(networkInterceptors, "networkInterceptors == null"));
+    this.httpCacheEnabled = httpCachePolicy != null
+        && httpCachePolicy.fetchStrategy != HttpCachePolicy.FetchStrategy.NETWORK_ONLY;
+    this.scalarTypeAdapters = checkNotNull(scalarTypeAdapters, "scalarTypeAdapters == null");
+    this.logger = checkNotNull(logger, "logger == null");
+  }
+
+  @Override
+  public void interceptAsync(@Nonnull InterceptorRequest request, @Nonnull ApolloInterceptorChain chain,
+      @Nonnull Executor dispatcher, @Nonnull CallBack callBack) {
+    if (disposed) return;
+
+    String key = request.operation instanceof Query && !request.fetchFromCache && !httpCacheEnabled
+        ? deduplicationKey(request) : null;
+    if (key == null) {
+      proceed(request, dispatcher, callBack);
+      return;
+    }
+
+    SharedFetch sharedFetch;
+    boolean owner = false;
+    FetchSourceType startedFetch;
+    synchronized (registry) {
+      sharedFetch = registry.inFlightFetches.get(key);
+      if (sharedFetch == null) {
+        sharedFetch = new SharedFetch(registry, key, new RealApolloInterceptorChain(networkInterceptors));
+        registry.inFlightFetches.put(key, sharedFetch);
+        owner = true;
+      }
+      startedFetch = sharedFetch.subscribe(callBack);
+    }
+    this.sharedFetch = sharedFetch;
+    this.subscriber = callBack;
+
+    if (owner) {
+      sharedFetch.chain.proceedAsync(request, dispatcher, sharedFetch);
+    } else {
+      logger.d("Joining in-flight network fetch for operation %s", request.operation.name().name());
+      if (startedFetch != null) {
+        // the fetch has already been reported to the subscribed calls, report it to the joined call too
+        callBack.onFetch(startedFetch);
+      }
+    }
+  }
+
+  @Override public void dispose() {
+    disposed = true;
+    SharedFetch sharedFetch = this.sharedFetch;
+    CallBack subscriber = this.subscriber;
+    if (sharedFetch != null && subscriber != null) {
+      sharedFetch.unsubscribe(subscriber);
+    } else {
+      for (ApolloInterceptor interceptor : networkInterceptors) {
+        interceptor.dispose();
+      }
+    }
+    this.sharedFetch = null;
+    this.subscriber = null;
+  }
+
+  private void proceed(InterceptorRequest request, Executor dispatcher, CallBack callBack) {
+    new RealApolloInterceptorChain(networkInterceptors).proceedAsync(request, dispatcher, callBack);
+  }
+
+  @Nullable private String deduplicationKey(InterceptorRequest request) {
+    Operation operation = request.operation;
+    try {
+      return OperationKeys.operationKey(operation, scalarTypeAdapters) + ":" + request.sendQueryDocument + ":"
+          + request.autoPersistQueries + ":" + request.useHttpGetMethod;
+    } catch (IOException e) {
+      logger.w(e, "Failed to serialize variables for operation %s, skip deduplication", operation.name().name());
+      return null;
+    }
+  }
+
+  static final class SharedFetch implements CallBack {
+    final Registry registry;
+    final String key;
+    final ApolloInterceptorChain chain;
+    final List<CallBack> subscribers = new ArrayList<>();
+    FetchSourceType fetchSourceType;
+    boolean terminated;
+
+    SharedFetch(Registry registry, String key, ApolloInterceptorChain chain) {
+      this.registry = registry;
+      this.key = key;
+      this.chain = chain;
+    }
+
+    /**
+     * @return source type of the fetch if it has already been reported to the subscribed calls, {@code null} otherwise
+     */
+    @Nullable synchronized FetchSourceType subscribe(CallBack callBack) {
+      subscribers.add(callBack);
+      return fetchSourceType;
+    }
+
+    void unsubscribe(CallBack callBack) {
+      boolean cancel;
+      synchronized (registry) {
+        synchronized (this) {
+          subscribers.remove(callBack);
+          cancel = subscribers.isEmpty() && !terminated;
+          if (cancel) {
+            terminated = true;
+            registry.remove(key, this);
+          }
+        }
+      }
+      if (cancel) {
+        chain.dispose();
+      }
+    }
+
+    @Override public void onResponse(@Nonnull InterceptorResponse response) {
+      List<CallBack> callBacks = terminate();
+      InterceptorResponse sharedResponse = response.cacheRecords.isPresent()
+          ? new InterceptorResponse(response.httpResponse.orNull(), response.parsedResponse.orNull(), null)
+          : response;
+      for (int i = 0; i < callBacks.size(); i++) {
+        callBacks.get(i).onResponse(i == 0 ? response : sharedResponse);
+      }
+    }
+
+    @Override public void onFetch(FetchSourceType sourceType) {
+      List<CallBack> callBacks;
+      synchronized (this) {
+        fetchSourceType = sourceType;
+        callBacks = new ArrayList<>(subscribers);
+      }
+      for (CallBack callBack : callBacks) {
+        callBack.onFetch(sourceType);
+      }
+    }
+
+    @Override public void onFailure(@Nonnull ApolloException e) {
+      for (CallBack callBack : terminate()) {
+        callBack.onFailure(e);
+      }
+    }
+
+    @Override public void onCompleted() {
+      for (CallBack callBack : subscribers()) {
+        callBack.onCompleted();
+      }
+    }
+
+    private List<CallBack> terminate() {
+      synchronized (registry) {
+        synchronized (this) {
+          terminated = true;
+          registry.remove(key, this);
+          return new ArrayList<>(subscribers);
+        }
+      }
+    }
+
+    private synchronized List<CallBack> subscribers() {
+      return new ArrayList<>(subscribers);
+    }
+  }
+
+  /**
+   * Keeps track of the network fetches that are currently in flight. Shared between all calls created by the same
+   * {@link com.apollographql.apollo.ApolloClient}.
+   */
+  public static final class Registry {
+    final Map<String, SharedFetch> inFlightFetches = new HashMap<>();
+
+    void remove(String key, SharedFetch sharedFetch) {
+      if (inFlightFetches.get(key) == sharedFetch) {
+        inFlightFetches.remove(key);
+      }
+    }
+  }
+}
@@ -13,13 +13,20 @@ import com.apollographql.apollo.internal.cache.normalized.ResponseNormalizer;
 import com.apollographql.apollo.response.OperationResponseParser;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.CallEventListener;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
 /**
  * ApolloParseInterceptor is a concrete {@link ApolloInterceptor} responsible for inflating the http responses into
  * models. To get the http responses, it hands over the control to the next interceptor in the chain and proceeds to
@@ -31,15 +38,18 @@ public final class ApolloParseInterceptor implements ApolloInterceptor {
   private final ResponseFieldMapper responseFieldMapper;
   private final ScalarTypeAdapters scalarTypeAdapters;
   private final ApolloLogger logger;
+  private final CallEventListener eventListener;
   volatile boolean disposed;
 
   public ApolloParseInterceptor(HttpCache httpCache, ResponseNormalizer<Map<String, Object>> normalizer,
-      ResponseFieldMapper responseFieldMapper, ScalarTypeAdapters scalarTypeAdapters, ApolloLogger logger) {
+      ResponseFieldMapper responseFieldMapper, ScalarTypeAdapters scalarTypeAdapters, ApolloLogger logger,
+      CallEventListener eventListener) {
     this.httpCache = httpCache;
     this.normalizer = normalizer;
     this.responseFieldMapper = responseFieldMapper;
     this.scalarTypeAdapters = scalarTypeAdapters;
     this.logger = logger;
+    this.eventListener = eventListener;
   }
 
   @Override
@@ -84,14 +94,24 @@ public final class ApolloParseInterceptor implements ApolloInterceptor {
       try {
         OperationResponseParser parser = new OperationResponseParser(operation, responseFieldMapper, scalarTypeAdapters,
             normalizer);
-        Response parsedResponse = parser.parse(httpResponse.body().source())
+        eventListener.parseStart();
+        CountingSource countingSource = null;
+        BufferedSource source = httpResponse.body().source();
+        if (eventListener.isEnabled()) {
+          countingSource = new CountingSource(source);
+          source = Okio.buffer(countingSource);
+        }
+        Response parsedResponse = parser.parse(source)
             .toBuilder()
             .fromCache(httpResponse.cacheResponse() != null)
             .build();
         if (parsedResponse.hasErrors() && httpCache != null) {
           httpCache.removeQuietly(cacheKey);
         }
-        return new InterceptorResponse(httpResponse, parsedResponse, normalizer.records());
+        InterceptorResponse result = new InterceptorResponse(httpResponse, parsedResponse, normalizer.records());
+        eventListener.parseEnd(countingSource != null ? countingSource.byteCount : 0,
+            result.cacheRecords.isPresent() ? result.cacheRecords.get().size() : 0);
+        return result;
       } catch (Exception rethrown) {
         logger.e(rethrown, "Failed to parse network response for operation: %s", operation);
         closeQuietly(httpResponse);
@@ -106,6 +126,25 @@ public final class ApolloParseInterceptor implements ApolloInterceptor {
     }
   }
 
+  /**
+   * Counts the bytes of the http response body consumed by the parser, used only when event listener is set.
+   */
+  private static final class CountingSource extends ForwardingSource {
+    long byteCount;
+
+    CountingSource(BufferedSource delegate) {
+      super(delegate);
+    }
+
+    @Override public long read(@Nonnull Buffer sink, long byteCount) throws IOException {
+      long read = super.read(sink, byteCount);
+      if (read != -1) {
+        this.byteCount += read;
+      }
+      return read;
+    }
+  }
+
   private static void closeQuietly(Closeable closeable) {
     if (closeable != null) {
       try {
@@ -1,6 +1,7 @@
 package com.apollographql.apollo.internal.interceptor;
 
 import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.api.Query;
 import com.apollographql.apollo.api.internal.Optional;
 import com.apollographql.apollo.api.cache.http.HttpCache;
 import com.apollographql.apollo.api.cache.http.HttpCachePolicy;
@@ -11,6 +12,8 @@ import com.apollographql.apollo.internal.json.InputFieldJsonWriter;
 import com.apollographql.apollo.internal.json.JsonWriter;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.CallEventListener;
+import com.apollographql.apollo.internal.util.SameThreadDispatcher;
 
 import java.io.IOException;
 import java.util.concurrent.Executor;
@@ -26,6 +29,7 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okio.Buffer;
+import okio.ByteString;
 
 import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 
@@ -35,13 +39,14 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
  * ApolloInterceptorChain#proceed(FetchOptions)} on the interceptor chain.
  */
 @SuppressWarnings("WeakerAccess") public final class ApolloServerInterceptor implements ApolloInterceptor {
-  static final String HEADER_ACCEPT_TYPE = "Accept";
-  static final String HEADER_CONTENT_TYPE = "CONTENT_TYPE";
+  public static final String HEADER_ACCEPT_TYPE = "Accept";
+  public static final String HEADER_CONTENT_TYPE = "CONTENT_TYPE";
   static final String HEADER_APOLLO_OPERATION_ID = "X-APOLLO-OPERATION-ID";
   static final String HEADER_APOLLO_OPERATION_NAME = "X-APOLLO-OPERATION-NAME";
-  static final String ACCEPT_TYPE = "application/json";
-  static final String CONTENT_TYPE = "application/json";
-  static final MediaType MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+  public static final String ACCEPT_TYPE = "application/json";
+  public static final String CONTENT_TYPE = "application/json";
+  public static final MediaType MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+  static final long PERSISTED_QUERY_VERSION = 1;
 
   final HttpUrl serverUrl;
   final okhttp3.Call.Factory httpCallFactory;
@@ -50,13 +55,17 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
   final ApolloLogger logger;
   final ScalarTypeAdapters scalarTypeAdapters;
   final boolean sendOperationIdentifiers;
+  final CallEventListener eventListener;
+  final RequestHedger requestHedger;
   volatile Call httpCall;
+  volatile RequestHedger.HedgedCall hedgedCall;
   volatile boolean disposed;
 
   public ApolloServerInterceptor(@Nonnull HttpUrl serverUrl, @Nonnull Call.Factory httpCallFactory,
       @Nullable HttpCachePolicy.Policy cachePolicy, boolean prefetch,
       @Nonnull ScalarTypeAdapters scalarTypeAdapters, @Nonnull ApolloLogger logger,
-      boolean sendOperationIdentifiers) {
+      boolean sendOperationIdentifiers, @Nonnull CallEventListener eventListener,
+      @Nullable RequestHedger requestHedger) {
     this.serverUrl = checkNotNull(serverUrl, "serverUrl == null");
     this.httpCallFactory = checkNotNull(httpCallFactory, "httpCallFactory == null");
     this.cachePolicy = Optional.fromNullable(cachePolicy);
@@ -64,41 +73,78 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
     this.scalarTypeAdapters = checkNotNull(scalarTypeAdapters, "scalarTypeAdapters == null");
     this.logger = checkNotNull(logger, "logger == null");
     this.sendOperationIdentifiers = sendOperationIdentifiers;
+    this.eventListener = checkNotNull(eventListener, "eventListener == null");
+    this.requestHedger = requestHedger;
   }
 
   @Override
   public void interceptAsync(@Nonnull final InterceptorRequest request, @Nonnull final ApolloInterceptorChain chain,
       @Nonnull Executor dispatcher, @Nonnull final CallBack callBack) {
     if (disposed) return;
+    final boolean sameThread = dispatcher instanceof SameThreadDispatcher
+        && ((SameThreadDispatcher) dispatcher).allowsBlockingNetwork();
     dispatcher.execute(new Runnable() {
       @Override public void run() {
         callBack.onFetch(FetchSourceType.NETWORK);
 
         try {
-          httpCall = httpCall(request.operation);
+          if (request.useHttpGetMethod && request.operation instanceof Query) {
+            httpCall = httpGetCall(request.operation, request.sendQueryDocument, request.autoPersistQueries);
+          } else {
+            httpCall = httpPostCall(request.operation, request.sendQueryDocument, request.autoPersistQueries);
+          }
         } catch (IOException e) {
           logger.e(e, "Failed to prepare http call for operation %s", request.operation.name().name());
           callBack.onFailure(new ApolloNetworkException("Failed to prepare http call", e));
           return;
         }
 
-        httpCall.enqueue(new Callback() {
+        eventListener.httpRequestStart(httpCall.request());
+        Callback httpCallback = new Callback() {
           @Override public void onFailure(@Nonnull Call call, @Nonnull IOException e) {
             if (disposed) return;
             logger.e(e, "Failed to execute http call for operation %s", request.operation.name().name());
             callBack.onFailure(new ApolloNetworkException("Failed to execute http call", e));
           }
 
-          @Override public void onResponse(@Nonnull Call call, @Nonnull Response response) throws IOException {
+          @Override public void onResponse(@Nonnull Call call, @Nonnull Response response) {
             if (disposed) return;
+            eventListener.httpResponseHeadersEnd(response);
             callBack.onResponse(new ApolloInterceptor.InterceptorResponse(response));
             callBack.onCompleted();
           }
-        });
+        };
+        if (sameThread) {
+          execute(httpCall, httpCallback);
+        } else if (requestHedger != null && request.operation instanceof Query) {
+          hedgedCall = requestHedger.newCall(httpCall, eventListener);
+          hedgedCall.enqueue(httpCallback);
+        } else {
+          httpCall.enqueue(httpCallback);
+        }
       }
     });
   }
 
+  /**
+   * Executes the http call on the current thread, so the rest of the chain continues on the dispatcher thread instead
+   * of the OkHttp one.
+   */
+  private static void execute(Call httpCall, Callback httpCallback) {
+    Response response;
+    try {
+      response = httpCall.execute();
+    } catch (IOException e) {
+      httpCallback.onFailure(httpCall, e);
+      return;
+    }
+    try {
+      httpCallback.onResponse(httpCall, response);
+    } catch (IOException e) {
+      httpCallback.onFailure(httpCall, e);
+    }
+  }
+
   @Override public void dispose() {
     disposed = true;
     Call httpCall = this.httpCall;
@@ -106,49 +152,130 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
       httpCall.cancel();
     }
     this.httpCall = null;
+    RequestHedger.HedgedCall hedgedCall = this.hedgedCall;
+    if (hedgedCall != null) {
+      hedgedCall.cancel();
+    }
+    this.hedgedCall = null;
   }
 
-  Call httpCall(Operation operation) throws IOException {
-    RequestBody requestBody = httpRequestBody(operation);
+  Call httpPostCall(Operation operation, boolean writeQueryDocument, boolean autoPersistQueries) throws IOException {
+    RequestBody requestBody = RequestBody.create(MEDIA_TYPE, httpRequestBody(operation, writeQueryDocument,
+        autoPersistQueries));
     Request.Builder requestBuilder = new Request.Builder()
         .url(serverUrl)
         .post(requestBody)
+        .header(HEADER_CONTENT_TYPE, CONTENT_TYPE);
+    prepareRequestHeaders(requestBuilder, operation, cacheKey(requestBody));
+    return httpCallFactory.newCall(requestBuilder.build());
+  }
+
+  Call httpGetCall(Operation operation, boolean writeQueryDocument, boolean autoPersistQueries) throws IOException {
+    HttpUrl.Builder urlBuilder = serverUrl.newBuilder();
+    String queryDocument = operation.queryDocument().replaceAll("\\n", "");
+    if (writeQueryDocument || !autoPersistQueries) {
+      urlBuilder.addQueryParameter("query", queryDocument);
+    }
+    urlBuilder.addQueryParameter("operationName", operation.name().name());
+    urlBuilder.addQueryParameter("variables", httpRequestVariables(operation));
+    if (autoPersistQueries) {
+      urlBuilder.addQueryParameter("extensions", httpRequestExtensions(queryDocument));
+    }
+
+    Request.Builder requestBuilder = new Request.Builder()
+        .url(urlBuilder.build())
+        .get();
+    prepareRequestHeaders(requestBuilder, operation, httpRequestBody(operation, writeQueryDocument,
+        autoPersistQueries).md5().hex());
+    return httpCallFactory.newCall(requestBuilder.build());
+  }
+
+  private void prepareRequestHeaders(Request.Builder requestBuilder, Operation operation, String cacheKey) {
+    requestBuilder
         .header(HEADER_ACCEPT_TYPE, ACCEPT_TYPE)
-        .header(HEADER_CONTENT_TYPE, CONTENT_TYPE)
         .header(HEADER_APOLLO_OPERATION_ID, operation.operationId())
         .header(HEADER_APOLLO_OPERATION_NAME, operation.name().name())
         .tag(operation.operationId());
 
     if (cachePolicy.isPresent()) {
       HttpCachePolicy.Policy cachePolicy = this.cachePolicy.get();
-      String cacheKey = cacheKey(requestBody);
-      requestBuilder = requestBuilder
+      requestBuilder
           .header(HttpCache.CACHE_KEY_HEADER, cacheKey)
           .header(HttpCache.CACHE_FETCH_STRATEGY_HEADER, cachePolicy.fetchStrategy.name())
           .header(HttpCache.CACHE_EXPIRE_TIMEOUT_HEADER, String.valueOf(cachePolicy.expireTimeoutMs()))
           .header(HttpCache.CACHE_EXPIRE_AFTER_READ_HEADER, Boolean.toString(cachePolicy.expireAfterRead))
+          .header(HttpCache.CACHE_MAX_STALE_HEADER, String.valueOf(cachePolicy.maxStaleMs()))
+          .header(HttpCache.CACHE_NETWORK_DEADLINE_HEADER, String.valueOf(cachePolicy.networkDeadlineMs()))
           .header(HttpCache.CACHE_PREFETCH_HEADER, Boolean.toString(prefetch));
     }
-
-    return httpCallFactory.newCall(requestBuilder.build());
   }
 
-  private RequestBody httpRequestBody(Operation operation) throws IOException {
+  private ByteString httpRequestBody(Operation operation, boolean writeQueryDocument, boolean autoPersistQueries)
+      throws IOException {
     Buffer buffer = new Buffer();
     JsonWriter jsonWriter = JsonWriter.of(buffer);
     jsonWriter.setSerializeNulls(true);
+    writeOperation(jsonWriter, operation, scalarTypeAdapters, sendOperationIdentifiers, writeQueryDocument,
+        autoPersistQueries, false);
+    jsonWriter.close();
+    return buffer.readByteString();
+  }
+
+  /**
+   * Writes the JSON object of the operation sent in the http request body. Shared with the batched requests, so both
+   * send the operations in the same form.
+   *
+   * @param writeOperationName whether to write the operation name, it's always written with the persisted query
+   */
+  public static void writeOperation(JsonWriter jsonWriter, Operation operation, ScalarTypeAdapters scalarTypeAdapters,
+      boolean sendOperationIdentifiers, boolean writeQueryDocument, boolean autoPersistQueries,
+      boolean writeOperationName) throws IOException {
+    String queryDocument = operation.queryDocument().replaceAll("\\n", "");
     jsonWriter.beginObject();
     if (sendOperationIdentifiers) {
       jsonWriter.name("id").value(operation.operationId());
-    } else {
-      jsonWriter.name("query").value(operation.queryDocument().replaceAll("\\n", ""));
+    } else if (writeQueryDocument || !autoPersistQueries) {
+      jsonWriter.name("query").value(queryDocument);
     }
     jsonWriter.name("variables").beginObject();
     operation.variables().marshaller().marshal(new InputFieldJsonWriter(jsonWriter, scalarTypeAdapters));
     jsonWriter.endObject();
+    if (writeOperationName || autoPersistQueries) {
+      jsonWriter.name("operationName").value(operation.name().name());
+    }
+    if (autoPersistQueries) {
+      jsonWriter.name("extensions");
+      writePersistedQueryExtension(jsonWriter, queryDocument);
+    }
     jsonWriter.endObject();
+  }
+
+  private String httpRequestVariables(Operation operation) throws IOException {
+    Buffer buffer = new Buffer();
+    JsonWriter jsonWriter = JsonWriter.of(buffer);
+    jsonWriter.setSerializeNulls(true);
+    jsonWriter.beginObject();
+    operation.variables().marshaller().marshal(new InputFieldJsonWriter(jsonWriter, scalarTypeAdapters));
+    jsonWriter.endObject();
+    jsonWriter.close();
+    return buffer.readUtf8();
+  }
+
+  private static String httpRequestExtensions(String queryDocument) throws IOException {
+    Buffer buffer = new Buffer();
+    JsonWriter jsonWriter = JsonWriter.of(buffer);
+    writePersistedQueryExtension(jsonWriter, queryDocument);
     jsonWriter.close();
-    return RequestBody.create(MEDIA_TYPE, buffer.readByteString());
+    return buffer.readUtf8();
+  }
+
+  private static void writePersistedQueryExtension(JsonWriter jsonWriter, String queryDocument) throws IOException {
+    jsonWriter.beginObject();
+    jsonWriter.name("persistedQuery").beginObject();
+    jsonWriter.name("version").value(PERSISTED_QUERY_VERSION);
+    jsonWriter.name("sha256Hash").value(ByteString.encodeUtf8(queryDocument).sha256().hex());
+    jsonWriter.endObject();
+    jsonWriter.endObject();
   }
 
   public static String cacheKey(RequestBody requestBody) {
@@ -4,6 +4,7 @@ import com.apollographql.apollo.interceptor.ApolloInterceptor;
 import com.apollographql.apollo.interceptor.ApolloInterceptorChain;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
 
@@ -21,12 +22,16 @@ public final class RealApolloInterceptorChain implements ApolloInterceptorChain
   private final int interceptorIndex;
 
   public RealApolloInterceptorChain(@Nonnull List<ApolloInterceptor> interceptors) {
-    this(interceptors, 0);
+    this(Collections.unmodifiableList(new ArrayList<>(checkNotNull(interceptors, "interceptors == null"))), 0);
   }
 
+  /**
+   * Creates the chain that continues with the interceptor at the provided index, the list of interceptors is shared
+   * between all the chain steps instead of being copied for each of them.
+   */
   private RealApolloInterceptorChain(List<ApolloInterceptor> interceptors, int interceptorIndex) {
     if (interceptorIndex > interceptors.size()) throw new IllegalArgumentException();
-    this.interceptors = new ArrayList<>(checkNotNull(interceptors, "interceptors == null"));
+    this.interceptors = interceptors;
     this.interceptorIndex = interceptorIndex;
   }
 
@@ -0,0 +1,247 @@
+package com.apollographql.apollo.internal.interceptor;
+
+import com.apollographql.apollo.HedgingPolicy;
+import com.apollographql.apollo.internal.CallEventListener;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Hedges the http calls according to the {@link HedgingPolicy}, keeps track of the response latencies to derive the
+ * hedge delay from and of the number of the hedged calls to cap them. Shared by all the calls of the client.
+ */
+@SuppressWarnings("WeakerAccess") public final class RequestHedger {
+  static final int MAX_SAMPLES = 256;
+  static final int MIN_SAMPLES = 20;
+  static final int DELAY_UPDATE_INTERVAL = 16;
+
+  private final HedgingPolicy policy;
+  private final long[] latencySamples = new long[MAX_SAMPLES];
+  private int sampleCount;
+  private volatile long hedgeDelayMs;
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong hedgeCount = new AtomicLong();
+  private ScheduledExecutorService scheduler;
+
+  public RequestHedger(@Nonnull HedgingPolicy policy) {
+    this.policy = checkNotNull(policy, "policy == null");
+    this.hedgeDelayMs = policy.maxDelayMs();
+  }
+
+  /**
+   * Wraps the http call into the one that is hedged if no response headers are received within the hedge delay.
+   *
+   * @param call          http call to hedge
+   * @param eventListener listener to report the hedges to
+   * @return hedged call
+   */
+  @Nonnull public HedgedCall newCall(@Nonnull Call call, @Nonnull CallEventListener eventListener) {
+    return new HedgedCall(call, eventListener);
+  }
+
+  long hedgeDelayMs() {
+    return hedgeDelayMs;
+  }
+
+  boolean tryAcquireHedge() {
+    long hedges;
+    do {
+      hedges = hedgeCount.get();
+      if (hedges + 1 > policy.maxHedgeRatio() * requestCount.get()) {
+        return false;
+      }
+    } while (!hedgeCount.compareAndSet(hedges, hedges + 1));
+    return true;
+  }
+
+  synchronized void recordLatency(long latencyMs) {
+    latencySamples[sampleCount % MAX_SAMPLES] = latencyMs;
+    sampleCount++;
+    if (sampleCount >= MIN_SAMPLES && sampleCount % DELAY_UPDATE_INTERVAL == 0) {
+      long[] samples = Arrays.copyOf(latencySamples, Math.min(sampleCount, MAX_SAMPLES));
+      Arrays.sort(samples);
+      int index = (int) Math.ceil(policy.percentile() * samples.length) - 1;
+      long delay = samples[Math.max(0, index)];
+      hedgeDelayMs = Math.max(policy.minDelayMs(), Math.min(policy.maxDelayMs(), delay));
+    }
+  }
+
+  private synchronized ScheduledExecutorService scheduler() {
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override public Thread newThread(@Nonnull Runnable runnable) {
+          Thread thread = new Thread(runnable, "Apollo Request Hedger");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.setRemoveOnCancelPolicy(true);
+      scheduler = executor;
+    }
+    return scheduler;
+  }
+
+  /**
+   * Http call that sends the identical hedge call if the original one doesn't receive the response headers within the
+   * hedge delay. The first successful response is delivered to the callback and the other call is canceled. If no call
+   * succeeds, the unsuccessful http response is delivered in preference to the failure, and the failure is delivered
+   * only when both calls have failed.
+   */
+  public final class HedgedCall {
+    final Call call;
+    final CallEventListener eventListener;
+    final AtomicBoolean settled = new AtomicBoolean();
+    final AtomicInteger inFlight = new AtomicInteger();
+    volatile Call hedgeCall;
+    volatile ScheduledFuture<?> hedgeTimer;
+    volatile boolean canceled;
+    // the unsuccessful response kept until the other call settles
+    final AtomicReference<UnsuccessfulResponse> unsuccessfulResponse = new AtomicReference<>();
+
+    HedgedCall(Call call, CallEventListener eventListener) {
+      this.call = call;
+      this.eventListener = eventListener;
+    }
+
+    public void enqueue(@Nonnull final Callback callback) {
+      requestCount.incrementAndGet();
+      inFlight.incrementAndGet();
+      call.enqueue(new HedgeCallback(false, callback));
+      hedgeTimer = scheduler().schedule(new Runnable() {
+        @Override public void run() {
+          hedge(callback);
+        }
+      }, hedgeDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void cancel() {
+      canceled = true;
+      cancelHedgeTimer();
+      call.cancel();
+      Call hedgeCall = this.hedgeCall;
+      if (hedgeCall != null) {
+        hedgeCall.cancel();
+      }
+    }
+
+    void hedge(Callback callback) {
+      if (settled.get() || canceled || !tryAcquireHedge()) return;
+      Call hedgeCall = call.clone();
+      this.hedgeCall = hedgeCall;
+      inFlight.incrementAndGet();
+      eventListener.httpRequestHedged(hedgeCall.request());
+      hedgeCall.enqueue(new HedgeCallback(true, callback));
+      if (settled.get() || canceled) {
+        hedgeCall.cancel();
+      }
+    }
+
+    void cancelHedgeTimer() {
+      ScheduledFuture<?> hedgeTimer = this.hedgeTimer;
+      if (hedgeTimer != null) {
+        hedgeTimer.cancel(false);
+      }
+    }
+
+    void closeUnsuccessfulResponse() {
+      UnsuccessfulResponse unsuccessfulResponse = this.unsuccessfulResponse.getAndSet(null);
+      if (unsuccessfulResponse != null) {
+        unsuccessfulResponse.response.close();
+      }
+    }
+
+    private final class HedgeCallback implements Callback {
+      final boolean hedge;
+      final Callback callback;
+      final long startNanos = System.nanoTime();
+
+      HedgeCallback(boolean hedge, Callback callback) {
+        this.hedge = hedge;
+        this.callback = callback;
+      }
+
+      @Override public void onFailure(@Nonnull Call failedCall, @Nonnull IOException e) {
+        if (inFlight.decrementAndGet() > 0) return;
+        if (settled.compareAndSet(false, true)) {
+          cancelHedgeTimer();
+          UnsuccessfulResponse unsuccessfulResponse = HedgedCall.this.unsuccessfulResponse.getAndSet(null);
+          if (unsuccessfulResponse == null) {
+            callback.onFailure(failedCall, e);
+            return;
+          }
+          try {
+            callback.onResponse(unsuccessfulResponse.call, unsuccessfulResponse.response);
+          } catch (IOException ignore) {
+            unsuccessfulResponse.response.close();
+          }
+        }
+      }
+
+      @Override public void onResponse(@Nonnull Call respondedCall, @Nonnull Response response) throws IOException {
+        if (!response.isSuccessful() && !settled.get()) {
+          // give the other call a chance to succeed, the response is delivered if it doesn't
+          UnsuccessfulResponse previous = unsuccessfulResponse.getAndSet(
+              new UnsuccessfulResponse(respondedCall, response));
+          if (previous != null) {
+            previous.response.close();
+          }
+          if (inFlight.decrementAndGet() > 0) {
+            if (settled.get()) {
+              closeUnsuccessfulResponse();
+            }
+            return;
+          }
+          UnsuccessfulResponse unsuccessfulResponse = HedgedCall.this.unsuccessfulResponse.getAndSet(null);
+          if (unsuccessfulResponse == null) return;
+          respondedCall = unsuccessfulResponse.call;
+          response = unsuccessfulResponse.response;
+        }
+        if (!settled.compareAndSet(false, true)) {
+          response.close();
+          return;
+        }
+        closeUnsuccessfulResponse();
+        cancelHedgeTimer();
+        // the latency of each call is measured from its own start, the hedge starts later than the original call
+        recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        if (hedge) {
+          eventListener.httpHedgeWon();
+          call.cancel();
+        } else {
+          Call hedgeCall = HedgedCall.this.hedgeCall;
+          if (hedgeCall != null) {
+            hedgeCall.cancel();
+          }
+        }
+        callback.onResponse(respondedCall, response);
+      }
+    }
+  }
+
+  private static final class UnsuccessfulResponse {
+    final Call call;
+    final Response response;
+
+    UnsuccessfulResponse(Call call, Response response) {
+      this.call = call;
+      this.response = response;
+    }
+  }
+}
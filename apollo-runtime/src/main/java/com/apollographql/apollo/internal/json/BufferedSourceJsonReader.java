@@ -76,6 +76,9 @@ public final class BufferedSourceJsonReader extends JsonReader {
   private final BufferedSource source;
   private final Buffer buffer;
 
+  /** Size of the input JSON if it is read straight from a {@link Buffer}, -1 otherwise. */
+  private final long bufferedSourceSize;
+
   private int peeked = PEEKED_NONE;
 
   /**
@@ -115,6 +118,7 @@ public final class BufferedSourceJsonReader extends JsonReader {
     }
     this.source = source;
     this.buffer = source.buffer();
+    this.bufferedSourceSize = source instanceof Buffer ? buffer.size() : -1;
   }
 
   @Override public void setLenient(boolean lenient) {
@@ -501,6 +505,7 @@ public final class BufferedSourceJsonReader extends JsonReader {
     // We've read a complete number. Decide if it's a PEEKED_LONG or a PEEKED_NUMBER.
     if (last == NUMBER_CHAR_DIGIT && fitsInLong && (value != Long.MIN_VALUE || negative)) {
       peekedLong = negative ? value : -value;
+      peekedNumberLength = i;
       buffer.skip(i);
       return peeked = PEEKED_LONG;
     } else if (last == NUMBER_CHAR_DIGIT || last == NUMBER_CHAR_FRACTION_DIGIT
@@ -982,6 +987,59 @@ public final class BufferedSourceJsonReader extends JsonReader {
     return false;
   }
 
+  /**
+   * Returns the offset in bytes of the next value from the start of the input JSON. The value can then be read or
+   * skipped, and its raw JSON is the input between this offset and {@link #consumedByteCount()}.
+   *
+   * <p>Offsets are only tracked for the reader created with a {@link Buffer} that holds the whole input JSON.</p>
+   *
+   * @throws IllegalStateException if the next token is not a value or the reader doesn't read from a {@link Buffer}
+   */
+  public long nextValueOffset() throws IOException {
+    checkOffsetsTracked();
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    // the peek consumes the opening token of the value, the keywords and the integers
+    switch (p) {
+      case PEEKED_BEGIN_OBJECT:
+      case PEEKED_BEGIN_ARRAY:
+      case PEEKED_SINGLE_QUOTED:
+      case PEEKED_DOUBLE_QUOTED:
+        return consumedByteCount() - 1;
+      case PEEKED_TRUE:
+      case PEEKED_NULL:
+        return consumedByteCount() - 4;
+      case PEEKED_FALSE:
+        return consumedByteCount() - 5;
+      case PEEKED_LONG:
+        return consumedByteCount() - peekedNumberLength;
+      case PEEKED_NUMBER:
+      case PEEKED_UNQUOTED:
+        return consumedByteCount();
+      default:
+        throw new IllegalStateException("Expected a value but was " + peek() + " at path " + getPath());
+    }
+  }
+
+  /**
+   * Returns the number of bytes of the input JSON consumed by this reader. Right after a value is read or skipped, this
+   * is the offset of the end of that value.
+   *
+   * @throws IllegalStateException if the reader doesn't read from a {@link Buffer}
+   */
+  public long consumedByteCount() {
+    checkOffsetsTracked();
+    return bufferedSourceSize - buffer.size();
+  }
+
+  private void checkOffsetsTracked() {
+    if (bufferedSourceSize == -1) {
+      throw new IllegalStateException("Offsets are only tracked for the reader of a Buffer");
+    }
+  }
+
   @Override public String toString() {
     return "JsonReader(" + source + ")";
   }
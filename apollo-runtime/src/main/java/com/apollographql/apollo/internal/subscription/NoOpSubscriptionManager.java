@@ -1,6 +1,7 @@
 package com.apollographql.apollo.internal.subscription;
 
 import com.apollographql.apollo.api.Subscription;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
 
 import javax.annotation.Nonnull;
 
@@ -11,7 +12,17 @@ public final class NoOpSubscriptionManager implements SubscriptionManager {
     throw new IllegalStateException("Subscription manager is not configured");
   }
 
+  @Override
+  public <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription,
+      @Nonnull SubscriptionDeliveryPolicy deliveryPolicy, @Nonnull Callback<T> callback) {
+    throw new IllegalStateException("Subscription manager is not configured");
+  }
+
   @Override public void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription) {
     throw new IllegalStateException("Subscription manager is not configured");
   }
+
+  @Override public void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription, @Nonnull Callback<?> callback) {
+    throw new IllegalStateException("Subscription manager is not configured");
+  }
 }
@@ -1,24 +1,50 @@
 package com.apollographql.apollo.internal.subscription;
 
+import com.apollographql.apollo.Logger;
+import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.api.ResponseField;
 import com.apollographql.apollo.api.ResponseFieldMapper;
 import com.apollographql.apollo.api.Subscription;
+import com.apollographql.apollo.api.internal.Optional;
+import com.apollographql.apollo.cache.CacheHeaders;
+import com.apollographql.apollo.cache.normalized.ApolloStore;
+import com.apollographql.apollo.cache.normalized.CacheKey;
+import com.apollographql.apollo.cache.normalized.Record;
 import com.apollographql.apollo.exception.ApolloNetworkException;
+import com.apollographql.apollo.internal.ApolloLogger;
 import com.apollographql.apollo.internal.ResponseFieldMapperFactory;
+import com.apollographql.apollo.internal.cache.normalized.ResponseNormalizer;
+import com.apollographql.apollo.internal.cache.normalized.Transaction;
+import com.apollographql.apollo.internal.cache.normalized.WriteableStore;
 import com.apollographql.apollo.response.OperationResponseParser;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 import com.apollographql.apollo.subscription.OperationClientMessage;
 import com.apollographql.apollo.subscription.OperationServerMessage;
+import com.apollographql.apollo.subscription.SubscriptionConnectionPolicy;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
+import com.apollographql.apollo.subscription.SubscriptionEventListener;
 import com.apollographql.apollo.subscription.SubscriptionTransport;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okio.ByteString;
 
 import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 
@@ -26,16 +52,30 @@ import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 public final class RealSubscriptionManager implements SubscriptionManager {
   static final int CONNECTION_ACKNOWLEDGE_TIMEOUT_TIMER_TASK_ID = 1;
   static final int INACTIVITY_TIMEOUT_TIMER_TASK_ID = 2;
+  static final int KEEP_ALIVE_TIMEOUT_TIMER_TASK_ID = 3;
+  static final int RECONNECT_TIMER_TASK_ID = 4;
   static final long CONNECTION_ACKNOWLEDGE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
   static final long INACTIVITY_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+  static final CacheKey SUBSCRIPTION_ROOT_CACHE_KEY = CacheKey.from("SUBSCRIPTION_ROOT");
 
   Map<String, SubscriptionRecord> subscriptions = new LinkedHashMap<>();
   State state = State.DISCONNECTED;
+  int reconnectAttempts;
   final AutoReleaseTimer timer = new AutoReleaseTimer();
+  // event times of the connection, guarded by this
+  private long connectStartNanos;
+  private long initSentNanos;
 
   private final ScalarTypeAdapters scalarTypeAdapters;
   private final SubscriptionTransport transport;
   private final Executor dispatcher;
+  private final Optional<ApolloStore> cacheStore;
+  private final SubscriptionConnectionPolicy connectionPolicy;
+  private final Random random = new Random();
+  private final ApolloLogger logger;
+  private final SubscriptionEventListener eventListener;
+  private final boolean eventsEnabled;
+  private final int connectionIndex;
   private final ResponseFieldMapperFactory responseFieldMapperFactory = new ResponseFieldMapperFactory();
   private final Runnable connectionAcknowledgeTimeoutTimerTask = new Runnable() {
     @Override public void run() {
@@ -47,14 +87,59 @@ public final class RealSubscriptionManager implements SubscriptionManager {
       onInactivityTimeout();
     }
   };
+  private final Runnable keepAliveTimeoutTimerTask = new Runnable() {
+    @Override public void run() {
+      onKeepAliveTimeout();
+    }
+  };
+  private final Runnable reconnectTimerTask = new Runnable() {
+    @Override public void run() {
+      dispatcher.execute(new Runnable() {
+        @Override public void run() {
+          reconnect();
+        }
+      });
+    }
+  };
 
   public RealSubscriptionManager(@Nonnull ScalarTypeAdapters scalarTypeAdapters,
       @Nonnull final SubscriptionTransport.Factory transportFactory, @Nonnull final Executor dispatcher) {
+    this(scalarTypeAdapters, transportFactory, dispatcher, SubscriptionConnectionPolicy.DEFAULT,
+        Optional.<ApolloStore>absent(), new ApolloLogger(Optional.<Logger>absent()));
+  }
+
+  /**
+   * @param connectionPolicy policy of the keep-alive tracking and the reconnects of the subscription server connection
+   * @param cacheStore       store to write the subscription responses to, absent if the responses are not cached
+   * @param logger           logger to report the failed cache writes to
+   */
+  public RealSubscriptionManager(@Nonnull ScalarTypeAdapters scalarTypeAdapters,
+      @Nonnull final SubscriptionTransport.Factory transportFactory, @Nonnull final Executor dispatcher,
+      @Nonnull SubscriptionConnectionPolicy connectionPolicy, @Nonnull Optional<ApolloStore> cacheStore,
+      @Nonnull ApolloLogger logger) {
+    this(scalarTypeAdapters, transportFactory, dispatcher, connectionPolicy, cacheStore, logger,
+        SubscriptionEventListener.NONE, 0);
+  }
+
+  /**
+   * @param eventListener   listener to report the subscription and connection events to
+   * @param connectionIndex index of the connection of this manager in the connection pool, reported with the events
+   */
+  public RealSubscriptionManager(@Nonnull ScalarTypeAdapters scalarTypeAdapters,
+      @Nonnull final SubscriptionTransport.Factory transportFactory, @Nonnull final Executor dispatcher,
+      @Nonnull SubscriptionConnectionPolicy connectionPolicy, @Nonnull Optional<ApolloStore> cacheStore,
+      @Nonnull ApolloLogger logger, @Nonnull SubscriptionEventListener eventListener, int connectionIndex) {
     checkNotNull(scalarTypeAdapters, "scalarTypeAdapters == null");
     checkNotNull(transportFactory, "transportFactory == null");
     checkNotNull(dispatcher, "dispatcher == null");
 
     this.scalarTypeAdapters = checkNotNull(scalarTypeAdapters, "scalarTypeAdapters == null");
+    this.connectionPolicy = checkNotNull(connectionPolicy, "connectionPolicy == null");
+    this.cacheStore = checkNotNull(cacheStore, "cacheStore == null");
+    this.logger = checkNotNull(logger, "logger == null");
+    this.eventListener = checkNotNull(eventListener, "eventListener == null");
+    this.eventsEnabled = eventListener != SubscriptionEventListener.NONE;
+    this.connectionIndex = connectionIndex;
     this.transport = transportFactory.create(new SubscriptionTransportCallback(this, dispatcher));
     this.dispatcher = dispatcher;
   }
@@ -62,12 +147,20 @@ public final class RealSubscriptionManager implements SubscriptionManager {
   @Override
   public <T> void subscribe(@Nonnull final Subscription<?, T, ?> subscription,
       @Nonnull final SubscriptionManager.Callback<T> callback) {
+    subscribe(subscription, SubscriptionDeliveryPolicy.DEFAULT, callback);
+  }
+
+  @Override
+  public <T> void subscribe(@Nonnull final Subscription<?, T, ?> subscription,
+      @Nonnull final SubscriptionDeliveryPolicy deliveryPolicy,
+      @Nonnull final SubscriptionManager.Callback<T> callback) {
     checkNotNull(subscription, "subscription == null");
+    checkNotNull(deliveryPolicy, "deliveryPolicy == null");
     checkNotNull(callback, "callback == null");
     dispatcher.execute(new Runnable() {
       @Override
       public void run() {
-        doSubscribe(subscription, callback);
+        doSubscribe(subscription, deliveryPolicy, callback);
       }
     });
   }
@@ -78,39 +171,66 @@ public final class RealSubscriptionManager implements SubscriptionManager {
     dispatcher.execute(new Runnable() {
       @Override
       public void run() {
-        doUnsubscribe(subscription);
+        doUnsubscribe(subscription, null);
       }
     });
   }
 
-  void doSubscribe(Subscription subscription, SubscriptionManager.Callback callback) {
+  @Override
+  public void unsubscribe(@Nonnull final Subscription<?, ?, ?> subscription,
+      @Nonnull final SubscriptionManager.Callback<?> callback) {
+    checkNotNull(subscription, "subscription == null");
+    checkNotNull(callback, "callback == null");
+    dispatcher.execute(new Runnable() {
+      @Override
+      public void run() {
+        doUnsubscribe(subscription, callback);
+      }
+    });
+  }
+
+  void doSubscribe(Subscription subscription, SubscriptionDeliveryPolicy deliveryPolicy,
+      SubscriptionManager.Callback callback) {
     timer.cancelTask(INACTIVITY_TIMEOUT_TIMER_TASK_ID);
 
-    String subscriptionId = idForSubscription(subscription);
+    String subscriptionId = idForSubscription(subscription, deliveryPolicy);
     synchronized (this) {
-      if (subscriptions.containsKey(subscriptionId)) {
-        callback.onError(new ApolloSubscriptionException("Already subscribed"));
+      SubscriptionRecord subscriptionRecord = subscriptions.get(subscriptionId);
+      if (subscriptionRecord != null) {
+        // share the already started server stream, the responses are fanned out to all the callbacks
+        subscriptionRecord.callbacks.add(callback);
         return;
       }
 
-      subscriptions.put(subscriptionId, new SubscriptionRecord(subscription, callback));
+      subscriptions.put(subscriptionId, new SubscriptionRecord(subscriptionId, subscription, deliveryPolicy,
+          callback));
       if (state == State.DISCONNECTED) {
-        state = State.CONNECTING;
-        transport.connect();
+        timer.cancelTask(RECONNECT_TIMER_TASK_ID);
+        connect();
       } else if (state == State.ACTIVE) {
         transport.send(new OperationClientMessage.Start(subscriptionId, subscription, scalarTypeAdapters));
       }
     }
   }
 
-  void doUnsubscribe(Subscription subscription) {
+  void doUnsubscribe(Subscription subscription, SubscriptionManager.Callback callback) {
     String subscriptionId = idForSubscription(subscription);
 
-    SubscriptionRecord subscriptionRecord;
     synchronized (this) {
-      subscriptionRecord = subscriptions.remove(subscriptionId);
-      if (subscriptionRecord != null && state == State.ACTIVE) {
-        transport.send(new OperationClientMessage.Stop(subscriptionId));
+      // the same subscription may be started with several delivery policies, each one has its own record
+      Iterator<SubscriptionRecord> iterator = subscriptions.values().iterator();
+      while (iterator.hasNext()) {
+        SubscriptionRecord subscriptionRecord = iterator.next();
+        if (!subscriptionId.equals(idForSubscription(subscriptionRecord.subscription))) continue;
+        if (callback != null) {
+          // the server stream is stopped only when the last subscriber leaves
+          if (!subscriptionRecord.callbacks.remove(callback) || !subscriptionRecord.callbacks.isEmpty()) continue;
+        }
+
+        iterator.remove();
+        if (state == State.ACTIVE) {
+          transport.send(new OperationClientMessage.Stop(subscriptionRecord.id));
+        }
       }
 
       if (subscriptions.isEmpty()) {
@@ -119,9 +239,22 @@ public final class RealSubscriptionManager implements SubscriptionManager {
     }
   }
 
+  private void connect() {
+    state = State.CONNECTING;
+    if (eventsEnabled) {
+      connectStartNanos = System.nanoTime();
+      eventListener.connectStart(connectionIndex);
+    }
+    transport.connect();
+  }
+
   void onTransportConnected() {
     synchronized (this) {
       state = State.CONNECTED;
+      if (eventsEnabled) {
+        initSentNanos = System.nanoTime();
+        eventListener.connectEnd(connectionIndex, initSentNanos - connectStartNanos);
+      }
       transport.send(new OperationClientMessage.Init());
     }
 
@@ -147,10 +280,31 @@ public final class RealSubscriptionManager implements SubscriptionManager {
     });
   }
 
+  void onKeepAliveTimeout() {
+    timer.cancelTask(KEEP_ALIVE_TIMEOUT_TIMER_TASK_ID);
+    dispatcher.execute(new Runnable() {
+      @Override public void run() {
+        onTransportFailure(new ApolloNetworkException("Subscription server keep-alive timeout"));
+      }
+    });
+  }
+
   void onTransportFailure(Throwable t) {
     Map<String, SubscriptionRecord> subscriptions;
     synchronized (this) {
       subscriptions = this.subscriptions;
+      boolean willReconnect = !subscriptions.isEmpty() && reconnectAttempts < connectionPolicy.maxReconnectAttempts();
+      eventListener.connectionFailed(connectionIndex, t, willReconnect);
+      if (willReconnect) {
+        // keep the subscriptions, they are restarted once the new connection is acknowledged
+        disconnectTransport();
+        timer.cancelTask(CONNECTION_ACKNOWLEDGE_TIMEOUT_TIMER_TASK_ID);
+        timer.cancelTask(KEEP_ALIVE_TIMEOUT_TIMER_TASK_ID);
+        long delay = nextReconnectDelay(reconnectAttempts++);
+        eventListener.reconnectScheduled(connectionIndex, reconnectAttempts, delay);
+        timer.schedule(RECONNECT_TIMER_TASK_ID, reconnectTimerTask, delay);
+        return;
+      }
       disconnect(true);
     }
 
@@ -159,66 +313,229 @@ public final class RealSubscriptionManager implements SubscriptionManager {
     }
   }
 
+  void reconnect() {
+    synchronized (this) {
+      if (state != State.DISCONNECTED || subscriptions.isEmpty()) return;
+      connect();
+    }
+  }
+
+  /**
+   * Returns the delay of the reconnect attempt, exponential backoff with the full jitter.
+   */
+  long nextReconnectDelay(int attempt) {
+    long maxDelay = connectionPolicy.maxReconnectDelayMs();
+    long delayBound = connectionPolicy.baseReconnectDelayMs() << Math.min(attempt, 30);
+    if (delayBound <= 0 || delayBound > maxDelay) {
+      delayBound = maxDelay;
+    }
+    return (long) (random.nextDouble() * delayBound);
+  }
+
   void onOperationServerMessage(OperationServerMessage message) {
     if (message instanceof OperationServerMessage.ConnectionAcknowledge) {
       onConnectionAcknowledgeServerMessage();
-    } else if (message instanceof OperationServerMessage.Data) {
-      onOperationDataServerMessage((OperationServerMessage.Data) message);
-    } else if (message instanceof OperationServerMessage.Error) {
-      onErrorServerMessage((OperationServerMessage.Error) message);
-    } else if (message instanceof OperationServerMessage.Complete) {
-      onCompleteServerMessage((OperationServerMessage.Complete) message);
+    } else if (message instanceof OperationServerMessage.ConnectionKeepAlive) {
+      onConnectionKeepAliveServerMessage();
     } else if (message instanceof OperationServerMessage.ConnectionError) {
       disconnect(true);
     }
   }
 
+  /**
+   * Queues the message of a subscription to be delivered after the previous messages of the same subscription.
+   */
+  void onSubscriptionServerMessage(String subscriptionId, OperationServerMessage message) {
+    SubscriptionRecord subscriptionRecord;
+    synchronized (this) {
+      subscriptionRecord = subscriptions.get(subscriptionId != null ? subscriptionId : "");
+    }
+    if (subscriptionRecord == null) return;
+
+    long receivedAtNanos = 0;
+    if (eventsEnabled && message instanceof OperationServerMessage.Data) {
+      receivedAtNanos = System.nanoTime();
+      ByteString rawMessage = ((OperationServerMessage.Data) message).rawMessage;
+      eventListener.messageReceived(connectionIndex, subscriptionRecord.subscription,
+          rawMessage != null ? rawMessage.size() : -1);
+    }
+    subscriptionRecord.deliveryQueue.enqueue(message, receivedAtNanos);
+  }
+
+  void onSubscriptionRecordMessage(SubscriptionRecord subscriptionRecord, OperationServerMessage message,
+      long receivedAtNanos) {
+    if (!(message instanceof OperationServerMessage.Data)) {
+      // the responses held for the cache write are delivered before the messages that follow them
+      flushPendingResponses(subscriptionRecord);
+    }
+    synchronized (this) {
+      // the messages queued before the subscription has been stopped are not delivered
+      if (subscriptions.get(subscriptionRecord.id) != subscriptionRecord) return;
+    }
+
+    if (message instanceof OperationServerMessage.Data) {
+      onOperationDataServerMessage(subscriptionRecord, (OperationServerMessage.Data) message, receivedAtNanos);
+    } else if (message instanceof OperationServerMessage.Error) {
+      onErrorServerMessage(subscriptionRecord, (OperationServerMessage.Error) message);
+    } else if (message instanceof OperationServerMessage.Complete) {
+      onCompleteServerMessage(subscriptionRecord);
+    }
+  }
+
+  void onSubscriptionRecordOverflow(SubscriptionRecord subscriptionRecord) {
+    synchronized (this) {
+      if (!removeSubscriptionRecord(subscriptionRecord)) return;
+      if (state == State.ACTIVE) {
+        transport.send(new OperationClientMessage.Stop(subscriptionRecord.id));
+      }
+    }
+    subscriptionRecord.notifyOnError(new ApolloSubscriptionException("Subscription buffer overflow"));
+  }
+
   void disconnect(boolean force) {
     synchronized (this) {
       if (force || subscriptions.isEmpty()) {
-        transport.disconnect(new OperationClientMessage.Terminate());
-        state = State.DISCONNECTED;
+        timer.cancelTask(KEEP_ALIVE_TIMEOUT_TIMER_TASK_ID);
+        timer.cancelTask(RECONNECT_TIMER_TASK_ID);
+        reconnectAttempts = 0;
+        disconnectTransport();
         subscriptions = new LinkedHashMap<>();
       }
     }
   }
 
+  private void disconnectTransport() {
+    State previousState = state;
+    // the state is updated first so it's already visible once the transport reports the disconnect
+    state = State.DISCONNECTED;
+    transport.disconnect(new OperationClientMessage.Terminate());
+    if (previousState != State.DISCONNECTED) {
+      eventListener.disconnected(connectionIndex);
+    }
+  }
+
   private void startInactivityTimer() {
     timer.schedule(INACTIVITY_TIMEOUT_TIMER_TASK_ID, inactivityTimeoutTimerTask, INACTIVITY_TIMEOUT);
   }
 
   @SuppressWarnings("unchecked")
-  private void onOperationDataServerMessage(OperationServerMessage.Data message) {
-    String subscriptionId = message.id != null ? message.id : "";
-    SubscriptionRecord subscriptionRecord;
-    synchronized (this) {
-      subscriptionRecord = subscriptions.get(subscriptionId);
+  private void onOperationDataServerMessage(SubscriptionRecord subscriptionRecord,
+      OperationServerMessage.Data message, long receivedAtNanos) {
+    ResponseFieldMapper responseFieldMapper = responseFieldMapperFactory.create(subscriptionRecord.subscription);
+    ResponseNormalizer<Map<String, Object>> normalizer = cacheStore.isPresent()
+        ? subscriptionResponseNormalizer(cacheStore.get()) : ResponseNormalizer.NO_OP_NORMALIZER;
+    OperationResponseParser parser = new OperationResponseParser(subscriptionRecord.subscription, responseFieldMapper,
+        scalarTypeAdapters, normalizer);
+
+    long parseStartNanos = eventsEnabled ? System.nanoTime() : 0;
+    Response response;
+    try {
+      response = message.parsePayload(parser);
+    } catch (Exception e) {
+      if (removeSubscriptionRecord(subscriptionRecord)) {
+        subscriptionRecord.notifyOnError(new ApolloSubscriptionException("Failed to parse server message", e));
+      }
+      return;
     }
 
-    if (subscriptionRecord != null) {
-      ResponseFieldMapper responseFieldMapper = responseFieldMapperFactory.create(subscriptionRecord.subscription);
-      OperationResponseParser parser = new OperationResponseParser(subscriptionRecord.subscription, responseFieldMapper,
-          scalarTypeAdapters);
+    if (eventsEnabled) {
+      long parseEndNanos = System.nanoTime();
+      eventListener.messageDelivered(connectionIndex, subscriptionRecord.subscription,
+          parseEndNanos - parseStartNanos, parseEndNanos - receivedAtNanos);
+    }
+    if (!cacheStore.isPresent()) {
+      subscriptionRecord.notifyOnResponse(response);
+      return;
+    }
+
+    String rootKey = SUBSCRIPTION_ROOT_CACHE_KEY.key();
+    String rootPathPrefix = rootKey + ".";
+    for (Record record : normalizer.records()) {
+      // the subscription root and the objects keyed by their path from it are not cached, only the entities and
+      // their children are
+      if (!record.key().equals(rootKey) && !record.key().startsWith(rootPathPrefix)) {
+        subscriptionRecord.pendingCacheRecords.add(record);
+      }
+    }
+    // the response is delivered once its records are written, so the subscribers read the updated cache
+    subscriptionRecord.pendingResponses.add(response);
+  }
+
+  /**
+   * Normalizer of the subscription responses that resolves the objects without a cache key under
+   * {@link #SUBSCRIPTION_ROOT_CACHE_KEY}, so they can't overwrite the records of the queries with the same path.
+   */
+  private static ResponseNormalizer<Map<String, Object>> subscriptionResponseNormalizer(ApolloStore apolloStore) {
+    final ResponseNormalizer<Map<String, Object>> storeNormalizer = apolloStore.networkResponseNormalizer();
+    return new ResponseNormalizer<Map<String, Object>>() {
+      @Override public void willResolveRootQuery(Operation operation) {
+        willResolveRootRecord(SUBSCRIPTION_ROOT_CACHE_KEY);
+      }
+
+      @Nonnull @Override public CacheKey resolveCacheKey(@Nonnull ResponseField field,
+          @Nonnull Map<String, Object> record) {
+        return storeNormalizer.resolveCacheKey(field, record);
+      }
+    };
+  }
+
+  void onSubscriptionRecordBatchDelivered(SubscriptionRecord subscriptionRecord) {
+    flushPendingResponses(subscriptionRecord);
+  }
 
-      Response response;
+  /**
+   * Writes the records of the responses held by the subscription in one transaction, publishes them and then delivers
+   * the responses.
+   */
+  private void flushPendingResponses(SubscriptionRecord subscriptionRecord) {
+    if (subscriptionRecord.pendingResponses.isEmpty()) return;
+    final List<Record> records = new ArrayList<>(subscriptionRecord.pendingCacheRecords);
+    List<Response> responses = new ArrayList<>(subscriptionRecord.pendingResponses);
+    subscriptionRecord.pendingCacheRecords.clear();
+    subscriptionRecord.pendingResponses.clear();
+    if (!records.isEmpty()) {
       try {
-        response = parser.parse(message.payload);
-      } catch (Exception e) {
-        subscriptionRecord = removeSubscriptionById(subscriptionId);
-        if (subscriptionRecord != null) {
-          subscriptionRecord.notifyOnError(new ApolloSubscriptionException("Failed to parse server message", e));
+        ApolloStore apolloStore = cacheStore.get();
+        Set<String> changedCacheKeys = apolloStore.writeTransaction(new Transaction<WriteableStore, Set<String>>() {
+          @Nullable @Override public Set<String> execute(WriteableStore cache) {
+            return cache.merge(records, CacheHeaders.NONE);
+          }
+        });
+        if (changedCacheKeys != null) {
+          apolloStore.publish(changedCacheKeys);
         }
-        return;
+      } catch (Exception e) {
+        logger.e(e, "Failed to cache subscription responses for operation %s",
+            subscriptionRecord.subscription.name());
       }
+    }
 
+    synchronized (this) {
+      if (subscriptions.get(subscriptionRecord.id) != subscriptionRecord) return;
+    }
+    for (Response response : responses) {
       subscriptionRecord.notifyOnResponse(response);
     }
   }
 
+  private void onConnectionKeepAliveServerMessage() {
+    if (connectionPolicy.keepAliveTimeoutMs() <= 0) return;
+    synchronized (this) {
+      if (state == State.DISCONNECTED) return;
+      // the server is alive as long as the next keep-alive message arrives before the timeout
+      timer.schedule(KEEP_ALIVE_TIMEOUT_TIMER_TASK_ID, keepAliveTimeoutTimerTask,
+          connectionPolicy.keepAliveTimeoutMs());
+    }
+  }
+
   private void onConnectionAcknowledgeServerMessage() {
     timer.cancelTask(CONNECTION_ACKNOWLEDGE_TIMEOUT_TIMER_TASK_ID);
     synchronized (this) {
       state = State.ACTIVE;
+      reconnectAttempts = 0;
+      if (eventsEnabled) {
+        eventListener.connectionAcknowledged(connectionIndex, System.nanoTime() - initSentNanos);
+      }
       for (Map.Entry<String, SubscriptionRecord> entry : subscriptions.entrySet()) {
         String subscriptionId = entry.getKey();
         Subscription<?, ?, ?> subscription = entry.getValue().subscription;
@@ -227,37 +544,43 @@ public final class RealSubscriptionManager implements SubscriptionManager {
     }
   }
 
-  private void onErrorServerMessage(OperationServerMessage.Error message) {
-    String subscriptionId = message.id != null ? message.id : "";
-    SubscriptionRecord subscriptionRecord = removeSubscriptionById(subscriptionId);
-    if (subscriptionRecord != null) {
+  private void onErrorServerMessage(SubscriptionRecord subscriptionRecord, OperationServerMessage.Error message) {
+    if (removeSubscriptionRecord(subscriptionRecord)) {
       subscriptionRecord.notifyOnError(new ApolloSubscriptionServerException(message.payload));
     }
   }
 
-  private void onCompleteServerMessage(OperationServerMessage.Complete message) {
-    String subscriptionId = message.id != null ? message.id : "";
-    SubscriptionRecord subscriptionRecord = removeSubscriptionById(subscriptionId);
-    if (subscriptionRecord != null) {
+  private void onCompleteServerMessage(SubscriptionRecord subscriptionRecord) {
+    if (removeSubscriptionRecord(subscriptionRecord)) {
       subscriptionRecord.notifyOnCompleted();
     }
   }
 
-  private SubscriptionRecord removeSubscriptionById(String subscriptionId) {
-    SubscriptionRecord subscriptionRecord;
+  private boolean removeSubscriptionRecord(SubscriptionRecord subscriptionRecord) {
     synchronized (this) {
-      subscriptionRecord = subscriptions.remove(subscriptionId);
+      if (subscriptions.get(subscriptionRecord.id) != subscriptionRecord) return false;
+      subscriptions.remove(subscriptionRecord.id);
       if (subscriptions.isEmpty()) {
         startInactivityTimer();
       }
+      return true;
     }
-    return subscriptionRecord;
   }
 
   static String idForSubscription(Subscription<?, ?, ?> subscription) {
     return subscription.operationId() + "$" + subscription.variables().valueMap().hashCode();
   }
 
+  static String idForSubscription(Subscription<?, ?, ?> subscription, SubscriptionDeliveryPolicy deliveryPolicy) {
+    String subscriptionId = idForSubscription(subscription);
+    if (deliveryPolicy.equals(SubscriptionDeliveryPolicy.DEFAULT)) {
+      return subscriptionId;
+    }
+    // subscriptions delivered with different policies can't share the server stream
+    return subscriptionId + "$" + deliveryPolicy.conflation().ordinal() + "." + deliveryPolicy.bufferSize() + "."
+        + deliveryPolicy.overflowStrategy().ordinal();
+  }
+
   enum State {
     DISCONNECTED,
     CONNECTING,
@@ -265,30 +588,63 @@ public final class RealSubscriptionManager implements SubscriptionManager {
     ACTIVE
   }
 
-  private static class SubscriptionRecord {
+  private class SubscriptionRecord {
+    final String id;
     final Subscription<?, ?, ?> subscription;
-    final SubscriptionManager.Callback<?> callback;
-
-    SubscriptionRecord(Subscription<?, ?, ?> subscription, SubscriptionManager.Callback<?> callback) {
+    final List<SubscriptionManager.Callback> callbacks = new CopyOnWriteArrayList<>();
+    final SerialDeliveryQueue deliveryQueue;
+    // responses of the current batch and their records waiting to be written to the cache, accessed by the delivery
+    // queue only
+    final List<Record> pendingCacheRecords = new ArrayList<>();
+    final List<Response> pendingResponses = new ArrayList<>();
+
+    SubscriptionRecord(String id, Subscription<?, ?, ?> subscription, SubscriptionDeliveryPolicy deliveryPolicy,
+        SubscriptionManager.Callback<?> callback) {
+      this.id = id;
       this.subscription = subscription;
-      this.callback = callback;
+      this.callbacks.add(callback);
+      this.deliveryQueue = new SerialDeliveryQueue(dispatcher, deliveryPolicy, new SerialDeliveryQueue.Handler() {
+        @Override public void onMessage(OperationServerMessage message, long receivedAtNanos) {
+          onSubscriptionRecordMessage(SubscriptionRecord.this, message, receivedAtNanos);
+        }
+
+        @Override public void onBatchDelivered() {
+          onSubscriptionRecordBatchDelivered(SubscriptionRecord.this);
+        }
+
+        @Override public void onOverflow() {
+          onSubscriptionRecordOverflow(SubscriptionRecord.this);
+        }
+
+        @Override public void onDropped(int count, boolean conflated) {
+          eventListener.messagesDropped(connectionIndex, SubscriptionRecord.this.subscription, count, conflated);
+        }
+      });
     }
 
     @SuppressWarnings("unchecked")
     void notifyOnResponse(Response response) {
-      callback.onResponse(response);
+      for (SubscriptionManager.Callback callback : callbacks) {
+        callback.onResponse(response);
+      }
     }
 
     void notifyOnError(ApolloSubscriptionException error) {
-      callback.onError(error);
+      for (SubscriptionManager.Callback callback : callbacks) {
+        callback.onError(error);
+      }
     }
 
     void notifyOnNetworkError(Throwable t) {
-      callback.onNetworkError(t);
+      for (SubscriptionManager.Callback callback : callbacks) {
+        callback.onNetworkError(t);
+      }
     }
 
     void notifyOnCompleted() {
-      callback.onCompleted();
+      for (SubscriptionManager.Callback callback : callbacks) {
+        callback.onCompleted();
+      }
     }
   }
 
@@ -321,53 +677,89 @@ public final class RealSubscriptionManager implements SubscriptionManager {
 
     @Override
     public void onMessage(final OperationServerMessage message) {
-      dispatcher.execute(new Runnable() {
-        @Override public void run() {
-          delegate.onOperationServerMessage(message);
-        }
-      });
+      // the messages of the subscriptions go to their serial queues to keep the order of the updates
+      if (message instanceof OperationServerMessage.Data) {
+        delegate.onSubscriptionServerMessage(((OperationServerMessage.Data) message).id, message);
+      } else if (message instanceof OperationServerMessage.Error) {
+        delegate.onSubscriptionServerMessage(((OperationServerMessage.Error) message).id, message);
+      } else if (message instanceof OperationServerMessage.Complete) {
+        delegate.onSubscriptionServerMessage(((OperationServerMessage.Complete) message).id, message);
+      } else {
+        dispatcher.execute(new Runnable() {
+          @Override public void run() {
+            delegate.onOperationServerMessage(message);
+          }
+        });
+      }
     }
   }
 
+  /**
+   * Timer of the subscription manager. The tasks of all the managers run on one shared scheduler thread, which is
+   * started lazily with the first task and stops when there are no tasks left.
+   */
   static final class AutoReleaseTimer {
-    final Map<Integer, TimerTask> tasks = new LinkedHashMap<>();
-    Timer timer;
+    private static final long SCHEDULER_KEEP_ALIVE_SECONDS = 10;
+    private static ScheduledExecutorService scheduler;
 
-    void schedule(final int taskId, final Runnable task, long delay) {
-      TimerTask timerTask = new TimerTask() {
-        @Override public void run() {
-          try {
-            task.run();
-          } finally {
-            cancelTask(taskId);
-          }
-        }
-      };
+    final Map<Integer, ScheduledTask> tasks = new LinkedHashMap<>();
 
+    void schedule(final int taskId, final Runnable task, long delay) {
       synchronized (this) {
-        TimerTask previousTimerTask = tasks.put(taskId, timerTask);
-        if (previousTimerTask != null) {
-          previousTimerTask.cancel();
-        }
-
-        if (timer == null) {
-          timer = new Timer("Subscription SmartTimer", true);
+        ScheduledTask scheduledTask = new ScheduledTask(taskId, task);
+        ScheduledTask previousTask = tasks.put(taskId, scheduledTask);
+        if (previousTask != null) {
+          previousTask.future.cancel(false);
         }
+        scheduledTask.future = scheduler().schedule(scheduledTask, delay, TimeUnit.MILLISECONDS);
       }
-
-      timer.schedule(timerTask, delay);
     }
 
     void cancelTask(int taskId) {
       synchronized (this) {
-        TimerTask timerTask = tasks.remove(taskId);
-        if (timerTask != null) {
-          timerTask.cancel();
+        ScheduledTask scheduledTask = tasks.remove(taskId);
+        if (scheduledTask != null) {
+          scheduledTask.future.cancel(false);
         }
+      }
+    }
 
-        if (tasks.isEmpty() && timer != null) {
-          timer.cancel();
-          timer = null;
+    private static synchronized ScheduledExecutorService scheduler() {
+      if (scheduler == null) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+          @Override public Thread newThread(@Nonnull Runnable runnable) {
+            Thread thread = new Thread(runnable, "Apollo Subscription Timer");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+        executor.setKeepAliveTime(SCHEDULER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        scheduler = executor;
+      }
+      return scheduler;
+    }
+
+    final class ScheduledTask implements Runnable {
+      final int taskId;
+      final Runnable task;
+      ScheduledFuture<?> future;
+
+      ScheduledTask(int taskId, Runnable task) {
+        this.taskId = taskId;
+        this.task = task;
+      }
+
+      @Override public void run() {
+        try {
+          task.run();
+        } finally {
+          synchronized (AutoReleaseTimer.this) {
+            if (tasks.get(taskId) == this) {
+              tasks.remove(taskId);
+            }
+          }
         }
       }
     }
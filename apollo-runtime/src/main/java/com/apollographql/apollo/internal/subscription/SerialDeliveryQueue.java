@@ -0,0 +1,176 @@
+package com.apollographql.apollo.internal.subscription;
+
+import com.apollographql.apollo.subscription.OperationServerMessage;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Queue of the server messages of one subscription. The messages are handled in order on the dispatcher, with at
+ * most one drain task of the queue running at a time, and each drain task handles the queued messages in batches of
+ * up to {@link #MAX_BATCH_SIZE} before yielding the dispatcher to the other subscriptions.
+ */
+final class SerialDeliveryQueue {
+  static final int MAX_BATCH_SIZE = 64;
+
+  private final Executor dispatcher;
+  private final SubscriptionDeliveryPolicy policy;
+  private final Handler handler;
+  private final Runnable drainTask = new Runnable() {
+    @Override public void run() {
+      drain();
+    }
+  };
+  // guarded by this
+  private final Deque<QueuedMessage> queue = new ArrayDeque<>();
+  private boolean draining;
+  private boolean overflowed;
+
+  SerialDeliveryQueue(Executor dispatcher, SubscriptionDeliveryPolicy policy, Handler handler) {
+    this.dispatcher = dispatcher;
+    this.policy = policy;
+    this.handler = handler;
+  }
+
+  void enqueue(OperationServerMessage message) {
+    enqueue(message, 0);
+  }
+
+  /**
+   * @param receivedAtNanos {@link System#nanoTime()} of the message arrival, handed back to the handler with the
+   *                        message
+   */
+  void enqueue(OperationServerMessage message, long receivedAtNanos) {
+    int droppedCount = 0;
+    boolean conflated = false;
+    boolean startDrain = false;
+    synchronized (this) {
+      if (overflowed) {
+        // the subscription is going to fail, nothing is delivered anymore
+        droppedCount = 1;
+      } else {
+        boolean enqueue = true;
+        if (message instanceof OperationServerMessage.Data) {
+          if (policy.conflation() == SubscriptionDeliveryPolicy.Conflation.LATEST) {
+            droppedCount = removeQueuedData(Integer.MAX_VALUE);
+            conflated = true;
+          } else if (queue.size() >= policy.bufferSize()) {
+            switch (policy.overflowStrategy()) {
+              case DROP_OLDEST:
+                droppedCount = removeQueuedData(1);
+                break;
+              case DROP_NEWEST:
+                droppedCount = 1;
+                enqueue = false;
+                break;
+              default:
+                // the queued updates are of no use anymore, the subscription is going to fail
+                overflowed = true;
+                droppedCount = queue.size() + 1;
+                enqueue = false;
+                queue.clear();
+                break;
+            }
+          }
+        }
+        if (enqueue) {
+          queue.add(new QueuedMessage(message, receivedAtNanos));
+        }
+        if (!draining) {
+          draining = true;
+          startDrain = true;
+        }
+      }
+    }
+    if (droppedCount > 0) {
+      handler.onDropped(droppedCount, conflated);
+    }
+    if (startDrain) {
+      dispatcher.execute(drainTask);
+    }
+  }
+
+  void drain() {
+    boolean reportOverflow;
+    List<QueuedMessage> batch;
+    synchronized (this) {
+      reportOverflow = overflowed;
+      batch = new ArrayList<>(Math.min(queue.size(), MAX_BATCH_SIZE));
+      while (!queue.isEmpty() && batch.size() < MAX_BATCH_SIZE) {
+        batch.add(queue.poll());
+      }
+    }
+
+    boolean hasMore;
+    try {
+      if (reportOverflow) {
+        handler.onOverflow();
+        return;
+      }
+      for (QueuedMessage queuedMessage : batch) {
+        handler.onMessage(queuedMessage.message, queuedMessage.receivedAtNanos);
+      }
+      if (!batch.isEmpty()) {
+        handler.onBatchDelivered();
+      }
+    } finally {
+      synchronized (this) {
+        // the overflow raised while this batch was being handled is reported by the next drain task
+        hasMore = overflowed ? !reportOverflow : !queue.isEmpty();
+        draining = hasMore;
+      }
+    }
+    if (hasMore) {
+      dispatcher.execute(drainTask);
+    }
+  }
+
+  private int removeQueuedData(int count) {
+    int removed = 0;
+    for (Iterator<QueuedMessage> iterator = queue.iterator(); iterator.hasNext() && removed < count; ) {
+      if (iterator.next().message instanceof OperationServerMessage.Data) {
+        iterator.remove();
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  interface Handler {
+    /**
+     * @param receivedAtNanos arrival time of the message passed to {@link #enqueue(OperationServerMessage, long)}
+     */
+    void onMessage(OperationServerMessage message, long receivedAtNanos);
+
+    /**
+     * Gets called after the messages of one drain task have been handled.
+     */
+    void onBatchDelivered();
+
+    void onOverflow();
+
+    /**
+     * Gets called on the enqueueing thread when the messages are dropped by the delivery policy.
+     *
+     * @param count     number of the dropped messages
+     * @param conflated {@code true} if the messages were superseded by a newer one, {@code false} if they were dropped
+     *                  because the buffer was full
+     */
+    void onDropped(int count, boolean conflated);
+  }
+
+  private static final class QueuedMessage {
+    final OperationServerMessage message;
+    final long receivedAtNanos;
+
+    QueuedMessage(OperationServerMessage message, long receivedAtNanos) {
+      this.message = message;
+      this.receivedAtNanos = receivedAtNanos;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.apollographql.apollo.internal.subscription;
+
+import com.apollographql.apollo.api.Subscription;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
+import com.apollographql.apollo.subscription.SubscriptionShardingPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Subscription manager backed by a pool of subscription managers, each of them with its own connection to the
+ * subscription server. Every subscription is routed to one connection of the pool chosen by the
+ * {@link SubscriptionShardingPolicy}, the connections are opened, acknowledged, kept alive, reconnected and released on
+ * inactivity independently of each other.
+ */
+public final class ShardedSubscriptionManager implements SubscriptionManager {
+  final List<SubscriptionManager> shards;
+  private final SubscriptionShardingPolicy shardingPolicy;
+
+  public ShardedSubscriptionManager(@Nonnull List<? extends SubscriptionManager> shards,
+      @Nonnull SubscriptionShardingPolicy shardingPolicy) {
+    checkNotNull(shards, "shards == null");
+    if (shards.isEmpty()) throw new IllegalArgumentException("shards is empty");
+    this.shards = Collections.unmodifiableList(new ArrayList<SubscriptionManager>(shards));
+    this.shardingPolicy = checkNotNull(shardingPolicy, "shardingPolicy == null");
+  }
+
+  @Override
+  public <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription, @Nonnull Callback<T> callback) {
+    shardFor(subscription).subscribe(subscription, callback);
+  }
+
+  @Override
+  public <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription,
+      @Nonnull SubscriptionDeliveryPolicy deliveryPolicy, @Nonnull Callback<T> callback) {
+    shardFor(subscription).subscribe(subscription, deliveryPolicy, callback);
+  }
+
+  @Override public void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription) {
+    shardFor(subscription).unsubscribe(subscription);
+  }
+
+  @Override public void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription, @Nonnull Callback<?> callback) {
+    shardFor(subscription).unsubscribe(subscription, callback);
+  }
+
+  SubscriptionManager shardFor(Subscription<?, ?, ?> subscription) {
+    checkNotNull(subscription, "subscription == null");
+    int index = shardingPolicy.connectionIndex(subscription, shards.size());
+    if (index < 0 || index >= shards.size()) {
+      throw new IllegalStateException("Sharding policy returned connection index " + index + " out of range [0, "
+          + shards.size() + ")");
+    }
+    return shards.get(index);
+  }
+}
@@ -2,6 +2,7 @@ package com.apollographql.apollo.internal.subscription;
 
 import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.api.Subscription;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
 
 import javax.annotation.Nonnull;
 
@@ -9,8 +10,21 @@ public interface SubscriptionManager {
   <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription,
       @Nonnull RealSubscriptionManager.Callback<T> callback);
 
+  /**
+   * Subscribes the callback to the subscription, the updates are delivered according to the provided policy. Only the
+   * subscriptions with the same operation, variables and delivery policy share the server stream.
+   */
+  <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription, @Nonnull SubscriptionDeliveryPolicy deliveryPolicy,
+      @Nonnull Callback<T> callback);
+
   void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription);
 
+  /**
+   * Unsubscribes the callback from the subscription. The subscription is stopped only when the last callback
+   * subscribed to it with the same operation and variables is unsubscribed.
+   */
+  void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription, @Nonnull Callback<?> callback);
+
   interface Callback<T> {
     void onResponse(@Nonnull Response<T> response);
 
@@ -0,0 +1,39 @@
+package com.apollographql.apollo.internal.util;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.internal.json.InputFieldJsonWriter;
+import com.apollographql.apollo.internal.json.JsonWriter;
+import com.apollographql.apollo.response.ScalarTypeAdapters;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import okio.Buffer;
+
+/**
+ * Builds the keys identifying the operations by their id and variables, so identical operations can be fetched once.
+ */
+public final class OperationKeys {
+
+  private OperationKeys() {
+  }
+
+  /**
+   * @param operation          operation to build the key for
+   * @param scalarTypeAdapters adapters to serialize the custom scalar variables with
+   * @return key of the operation, equal for the operations with the same id and variables
+   * @throws IOException if the variables can't be serialized
+   */
+  @Nonnull public static String operationKey(@Nonnull Operation operation,
+      @Nonnull ScalarTypeAdapters scalarTypeAdapters) throws IOException {
+    Buffer buffer = new Buffer();
+    JsonWriter jsonWriter = JsonWriter.of(buffer);
+    jsonWriter.setSerializeNulls(true);
+    jsonWriter.beginObject();
+    operation.variables().marshaller().marshal(new InputFieldJsonWriter(jsonWriter, scalarTypeAdapters));
+    jsonWriter.endObject();
+    jsonWriter.close();
+    return operation.operationId() + ":" + buffer.readUtf8();
+  }
+}
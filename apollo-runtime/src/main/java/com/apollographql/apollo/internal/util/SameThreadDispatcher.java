@@ -0,0 +1,55 @@
+package com.apollographql.apollo.internal.util;
+
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Dispatcher of a single call that hands the work of the call off to the underlying {@link Executor} only once. Any
+ * work submitted from the thread that already runs the work of the same call is run right away on that thread instead
+ * of being queued again.
+ *
+ * <p>If {@link #allowsBlockingNetwork()}, the http request of the call is made synchronously on the current thread as
+ * well. It's not allowed on the {@link com.apollographql.apollo.ApolloDispatcher} threads, so the blocking network work
+ * doesn't take the threads meant for the cache and dispatch work; the http request is made with OkHttp's asynchronous
+ * API then, limited by OkHttp's own dispatcher.</p>
+ */
+public final class SameThreadDispatcher implements Executor {
+  private static final ThreadLocal<SameThreadDispatcher> CURRENT = new ThreadLocal<>();
+
+  private final Executor dispatcher;
+  private final boolean allowsBlockingNetwork;
+
+  public SameThreadDispatcher(@Nonnull Executor dispatcher, boolean allowsBlockingNetwork) {
+    this.dispatcher = checkNotNull(dispatcher, "dispatcher == null");
+    this.allowsBlockingNetwork = allowsBlockingNetwork;
+  }
+
+  public boolean allowsBlockingNetwork() {
+    return allowsBlockingNetwork;
+  }
+
+  @Override public void execute(@Nonnull final Runnable runnable) {
+    if (CURRENT.get() == this) {
+      runnable.run();
+      return;
+    }
+    dispatcher.execute(new Runnable() {
+      @Override public void run() {
+        SameThreadDispatcher previous = CURRENT.get();
+        CURRENT.set(SameThreadDispatcher.this);
+        try {
+          runnable.run();
+        } finally {
+          if (previous != null) {
+            CURRENT.set(previous);
+          } else {
+            CURRENT.remove();
+          }
+        }
+      }
+    });
+  }
+}
@@ -7,6 +7,7 @@ import com.apollographql.apollo.api.ResponseFieldMapper;
 import com.apollographql.apollo.internal.cache.normalized.ResponseNormalizer;
 import com.apollographql.apollo.internal.field.MapFieldValueResolver;
 import com.apollographql.apollo.internal.json.BufferedSourceJsonReader;
+import com.apollographql.apollo.internal.json.JsonReader;
 import com.apollographql.apollo.internal.json.ResponseJsonStreamReader;
 import com.apollographql.apollo.internal.response.RealResponseReader;
 
@@ -22,7 +23,6 @@ import javax.annotation.Nonnull;
 import okio.BufferedSource;
 
 import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
-import static com.apollographql.apollo.internal.json.ApolloJsonReader.responseJsonStreamReader;
 
 @SuppressWarnings("WeakerAccess")
 public final class OperationResponseParser<D extends Operation.Data, W> {
@@ -47,6 +47,7 @@ public final class OperationResponseParser<D extends Operation.Data, W> {
   @SuppressWarnings("unchecked")
   public Response<W> parse(@Nonnull Map<String, Object> payload) {
     checkNotNull(payload, "payload == null");
+    responseNormalizer.willResolveRootQuery(operation);
 
     D data = null;
     if (payload.containsKey("data")) {
@@ -75,39 +76,10 @@ public final class OperationResponseParser<D extends Operation.Data, W> {
   }
 
   public Response<W> parse(BufferedSource source) throws IOException {
-    responseNormalizer.willResolveRootQuery(operation);
     BufferedSourceJsonReader jsonReader = null;
     try {
       jsonReader = new BufferedSourceJsonReader(source);
-      jsonReader.beginObject();
-
-      D data = null;
-      List<Error> errors = null;
-      ResponseJsonStreamReader responseStreamReader = responseJsonStreamReader(jsonReader);
-      while (responseStreamReader.hasNext()) {
-        String name = responseStreamReader.nextName();
-        if ("data".equals(name)) {
-          //noinspection unchecked
-          data = (D) responseStreamReader.nextObject(true, new ResponseJsonStreamReader.ObjectReader<Object>() {
-            @Override public Object read(ResponseJsonStreamReader reader) throws IOException {
-              Map<String, Object> buffer = reader.toMap();
-              RealResponseReader<Map<String, Object>> realResponseReader = new RealResponseReader<>(
-                  operation.variables(), buffer, new MapFieldValueResolver(), scalarTypeAdapters, responseNormalizer);
-              return responseFieldMapper.map(realResponseReader);
-            }
-          });
-        } else if ("errors".equals(name)) {
-          errors = readResponseErrors(responseStreamReader);
-        } else {
-          responseStreamReader.skipNext();
-        }
-      }
-      jsonReader.endObject();
-      return Response.<W>builder(operation)
-          .data(operation.wrapData(data))
-          .errors(errors)
-          .dependentKeys(responseNormalizer.dependentKeys())
-          .build();
+      return parse(jsonReader);
     } finally {
       if (jsonReader != null) {
         jsonReader.close();
@@ -115,6 +87,44 @@ public final class OperationResponseParser<D extends Operation.Data, W> {
     }
   }
 
+  /**
+   * Parses the response object the provided reader is positioned at, leaving the reader right after the object. Lets
+   * the response embedded into another JSON document be parsed without reading it into a separate buffer first.
+   */
+  public Response<W> parse(@Nonnull JsonReader jsonReader) throws IOException {
+    checkNotNull(jsonReader, "jsonReader == null");
+    responseNormalizer.willResolveRootQuery(operation);
+    jsonReader.beginObject();
+
+    D data = null;
+    List<Error> errors = null;
+    ResponseJsonStreamReader responseStreamReader = new ResponseJsonStreamReader(jsonReader);
+    while (responseStreamReader.hasNext()) {
+      String name = responseStreamReader.nextName();
+      if ("data".equals(name)) {
+        //noinspection unchecked
+        data = (D) responseStreamReader.nextObject(true, new ResponseJsonStreamReader.ObjectReader<Object>() {
+          @Override public Object read(ResponseJsonStreamReader reader) throws IOException {
+            Map<String, Object> buffer = reader.toMap();
+            RealResponseReader<Map<String, Object>> realResponseReader = new RealResponseReader<>(
+                operation.variables(), buffer, new MapFieldValueResolver(), scalarTypeAdapters, responseNormalizer);
+            return responseFieldMapper.map(realResponseReader);
+          }
+        });
+      } else if ("errors".equals(name)) {
+        errors = readResponseErrors(responseStreamReader);
+      } else {
+        responseStreamReader.skipNext();
+      }
+    }
+    jsonReader.endObject();
+    return Response.<W>builder(operation)
+        .data(operation.wrapData(data))
+        .errors(errors)
+        .dependentKeys(responseNormalizer.dependentKeys())
+        .build();
+  }
+
   private List<Error> readResponseErrors(ResponseJsonStreamReader reader) throws IOException {
     return reader.nextList(true, new ResponseJsonStreamReader.ListReader<Error>() {
       @Override public Error read(ResponseJsonStreamReader reader) throws IOException {
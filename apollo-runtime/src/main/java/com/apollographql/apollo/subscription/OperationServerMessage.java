@@ -1,16 +1,22 @@
 package com.apollographql.apollo.subscription;
 
+import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.internal.json.BufferedSourceJsonReader;
 import com.apollographql.apollo.internal.json.JsonReader;
 import com.apollographql.apollo.internal.json.ResponseJsonStreamReader;
+import com.apollographql.apollo.response.OperationResponseParser;
 
 import java.io.IOException;
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import okio.Buffer;
+import okio.ByteString;
 
 import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 import static java.util.Collections.unmodifiableMap;
@@ -20,6 +26,7 @@ public abstract class OperationServerMessage {
   static final String JSON_KEY_ID = "id";
   static final String JSON_KEY_TYPE = "type";
   static final String JSON_KEY_PAYLOAD = "payload";
+  static final long NO_PAYLOAD = -1;
 
   OperationServerMessage() {
   }
@@ -27,33 +34,78 @@ public abstract class OperationServerMessage {
   @Nonnull public static OperationServerMessage fromJsonString(@Nonnull String json) {
     checkNotNull(json, "json == null");
     try {
-      Buffer buffer = new Buffer();
-      buffer.writeUtf8(json);
-      return OperationServerMessage.readFromJson(new BufferedSourceJsonReader(buffer));
+      return OperationServerMessage.readFromJson(ByteString.encodeUtf8(json));
     } catch (Exception e) {
       return new Unsupported(json);
     }
   }
 
-  private static OperationServerMessage readFromJson(@Nonnull JsonReader reader) throws IOException {
-    checkNotNull(reader, "reader == null");
+  /**
+   * Reads the message from the raw JSON of a text or binary frame. Only the envelope of the message is read here, the
+   * payload of the {@link Data} message is parsed later right from the frame by the subscription it belongs to.
+   */
+  @Nonnull public static OperationServerMessage fromJsonBytes(@Nonnull ByteString json) {
+    checkNotNull(json, "json == null");
+    try {
+      return OperationServerMessage.readFromJson(json);
+    } catch (Exception e) {
+      return new Unsupported(json.utf8());
+    }
+  }
 
-    ResponseJsonStreamReader responseJsonStreamReader = new ResponseJsonStreamReader(reader);
-    Map<String, Object> messageData = responseJsonStreamReader.toMap();
-    String id = (String) messageData.get(JSON_KEY_ID);
-    String type = (String) messageData.get(JSON_KEY_TYPE);
+  private static OperationServerMessage readFromJson(@Nonnull ByteString json) throws IOException {
+    String id = null;
+    String type = null;
+    long payloadOffset = NO_PAYLOAD;
+    boolean dataPayloadFound = false;
+    BufferedSourceJsonReader reader = new BufferedSourceJsonReader(new Buffer().write(json));
+    try {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if (JSON_KEY_ID.equals(name)) {
+          id = nextStringOrNull(reader);
+        } else if (JSON_KEY_TYPE.equals(name)) {
+          type = nextStringOrNull(reader);
+        } else if (JSON_KEY_PAYLOAD.equals(name)) {
+          if (reader.peek() != JsonReader.Token.NULL) {
+            payloadOffset = reader.nextValueOffset();
+          }
+          if (Data.TYPE.equals(type) && id != null) {
+            // the payload of the data message is parsed once, later and right from the frame, so it isn't skipped here
+            dataPayloadFound = true;
+            break;
+          }
+          reader.skipValue();
+        } else {
+          reader.skipValue();
+        }
+      }
+      if (!dataPayloadFound) {
+        reader.endObject();
+      }
+    } finally {
+      reader.close();
+    }
+
+    if (type == null) {
+      throw new IOException("Unsupported message");
+    }
     switch (type) {
       case ConnectionError.TYPE:
-        return new ConnectionError(messagePayload(messageData));
+        return new ConnectionError(readPayload(json, payloadOffset));
 
       case ConnectionAcknowledge.TYPE:
         return new ConnectionAcknowledge();
 
+      case ConnectionKeepAlive.TYPE:
+        return new ConnectionKeepAlive();
+
       case Data.TYPE:
-        return new Data(id, messagePayload(messageData));
+        return new Data(id, json, payloadOffset);
 
       case Error.TYPE:
-        return new Error(id, messagePayload(messageData));
+        return new Error(id, readPayload(json, payloadOffset));
 
       case Complete.TYPE:
         return new Complete(id);
@@ -63,10 +115,35 @@ public abstract class OperationServerMessage {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static Map<String, Object> messagePayload(Map<String, Object> messageData) {
-    Map<String, Object> messagePayload = (Map<String, Object>) messageData.get(JSON_KEY_PAYLOAD);
-    return messagePayload == null ? Collections.<String, Object>emptyMap() : unmodifiableMap(messagePayload);
+  private static String nextStringOrNull(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    return reader.nextString();
+  }
+
+  /**
+   * Opens the reader at the payload of the message, the offset of the payload is recorded when the message is read.
+   */
+  static JsonReader payloadReader(ByteString json, long payloadOffset) throws IOException {
+    Buffer source = new Buffer().write(json);
+    source.skip(payloadOffset);
+    return new BufferedSourceJsonReader(source);
+  }
+
+  static Map<String, Object> readPayload(ByteString json, long payloadOffset) throws IOException {
+    if (payloadOffset == NO_PAYLOAD) {
+      return Collections.emptyMap();
+    }
+    JsonReader reader = payloadReader(json, payloadOffset);
+    try {
+      reader.beginObject();
+      Map<String, Object> payload = new ResponseJsonStreamReader(reader).toMap();
+      reader.endObject();
+      return unmodifiableMap(payload);
+    } finally {
+      reader.close();
+    }
   }
 
   public static final class ConnectionError extends OperationServerMessage {
@@ -85,14 +162,94 @@ public abstract class OperationServerMessage {
     }
   }
 
+  public static final class ConnectionKeepAlive extends OperationServerMessage {
+    public static final String TYPE = "ka";
+
+    public ConnectionKeepAlive() {
+    }
+  }
+
   public static final class Data extends OperationServerMessage {
     public static final String TYPE = "data";
     public final String id;
-    public final Map<String, Object> payload;
+    /**
+     * Payload of the message as a map, the payload of the message read from a frame is read into the map lazily on the
+     * first access.
+     *
+     * @deprecated use {@link #parsePayload(OperationResponseParser)} to parse the payload into the response without the
+     * intermediate map
+     */
+    @Deprecated public final Map<String, Object> payload;
+    /**
+     * Raw JSON of the whole message if it was read from a frame, {@code null} otherwise
+     */
+    @Nullable public final ByteString rawMessage;
+    private final long payloadOffset;
 
     public Data(String id, Map<String, Object> payload) {
       this.id = id;
       this.payload = payload;
+      this.rawMessage = null;
+      this.payloadOffset = NO_PAYLOAD;
+    }
+
+    Data(String id, @Nonnull ByteString rawMessage, long payloadOffset) {
+      this.id = id;
+      this.rawMessage = checkNotNull(rawMessage, "rawMessage == null");
+      this.payloadOffset = payloadOffset;
+      this.payload = new LazyPayload();
+    }
+
+    /**
+     * Parses the payload of the message into the operation response with the provided parser. The payload of the
+     * message read from a frame is parsed in one pass straight from the raw JSON.
+     */
+    @SuppressWarnings("deprecation")
+    public <W> Response<W> parsePayload(@Nonnull OperationResponseParser<?, W> parser) throws IOException {
+      checkNotNull(parser, "parser == null");
+      if (rawMessage == null) {
+        return parser.parse(payload);
+      }
+      if (payloadOffset == NO_PAYLOAD) {
+        return parser.parse(Collections.<String, Object>emptyMap());
+      }
+      JsonReader reader = payloadReader(rawMessage, payloadOffset);
+      try {
+        return parser.parse(reader);
+      } finally {
+        reader.close();
+      }
+    }
+
+    private final class LazyPayload extends AbstractMap<String, Object> {
+      private Map<String, Object> map;
+
+      @Override public Set<Entry<String, Object>> entrySet() {
+        return map().entrySet();
+      }
+
+      @Override public Object get(Object key) {
+        return map().get(key);
+      }
+
+      @Override public boolean containsKey(Object key) {
+        return map().containsKey(key);
+      }
+
+      @Override public int size() {
+        return map().size();
+      }
+
+      private synchronized Map<String, Object> map() {
+        if (map == null) {
+          try {
+            map = readPayload(rawMessage, payloadOffset);
+          } catch (IOException e) {
+            throw new IllegalStateException("Failed to read message payload", e);
+          }
+        }
+        return map;
+      }
     }
   }
 
@@ -0,0 +1,111 @@
+package com.apollographql.apollo.subscription;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Policy of the connection to the subscription server. Controls how a dead connection is detected with the keep-alive
+ * messages of the server and how the connection is re-established when it fails.
+ *
+ * <p>The reconnect attempts are delayed with the exponential backoff and the full jitter: the delay of the attempt
+ * {@code n} is a random value between zero and {@code min(maxReconnectDelay, baseReconnectDelay * 2^n)}, so the
+ * clients that have lost the connection at the same time don't reconnect all at once. The subscriptions are restarted
+ * once the new connection is acknowledged by the server, and fail only when all the attempts have failed.</p>
+ */
+public final class SubscriptionConnectionPolicy {
+  /**
+   * Default policy, the keep-alive messages are ignored and the subscriptions fail with the connection.
+   */
+  public static final SubscriptionConnectionPolicy DEFAULT = builder().build();
+
+  private final long keepAliveTimeoutMs;
+  private final int maxReconnectAttempts;
+  private final long baseReconnectDelayMs;
+  private final long maxReconnectDelayMs;
+
+  SubscriptionConnectionPolicy(Builder builder) {
+    this.keepAliveTimeoutMs = builder.keepAliveTimeoutMs;
+    this.maxReconnectAttempts = builder.maxReconnectAttempts;
+    this.baseReconnectDelayMs = builder.baseReconnectDelayMs;
+    this.maxReconnectDelayMs = builder.maxReconnectDelayMs;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public long keepAliveTimeoutMs() {
+    return keepAliveTimeoutMs;
+  }
+
+  public int maxReconnectAttempts() {
+    return maxReconnectAttempts;
+  }
+
+  public long baseReconnectDelayMs() {
+    return baseReconnectDelayMs;
+  }
+
+  public long maxReconnectDelayMs() {
+    return maxReconnectDelayMs;
+  }
+
+  public static final class Builder {
+    long keepAliveTimeoutMs;
+    int maxReconnectAttempts;
+    long baseReconnectDelayMs = TimeUnit.SECONDS.toMillis(1);
+    long maxReconnectDelayMs = TimeUnit.SECONDS.toMillis(30);
+
+    Builder() {
+    }
+
+    /**
+     * Sets the max time between two keep-alive messages of the server, the connection is considered dead when no
+     * keep-alive message arrives in time. The timeout starts with the first keep-alive message, so servers that don't
+     * send them are not affected. Disabled by default.
+     *
+     * @param timeout the keep-alive timeout, 0 to disable the keep-alive tracking
+     * @param timeUnit the time unit of the timeout
+     */
+    public Builder keepAliveTimeout(long timeout, @Nonnull TimeUnit timeUnit) {
+      checkNotNull(timeUnit, "timeUnit == null");
+      if (timeout < 0) throw new IllegalArgumentException("timeout < 0");
+      this.keepAliveTimeoutMs = timeUnit.toMillis(timeout);
+      return this;
+    }
+
+    /**
+     * Sets the max number of the consecutive reconnect attempts after the connection has failed, 0 by default.
+     *
+     * @param maxReconnectAttempts max number of the reconnect attempts, 0 to fail the subscriptions right away
+     */
+    public Builder maxReconnectAttempts(int maxReconnectAttempts) {
+      if (maxReconnectAttempts < 0) throw new IllegalArgumentException("maxReconnectAttempts < 0");
+      this.maxReconnectAttempts = maxReconnectAttempts;
+      return this;
+    }
+
+    /**
+     * Sets the bounds of the reconnect backoff, 1 second and 30 seconds by default.
+     *
+     * @param baseDelay the delay bound of the first reconnect attempt, doubled with each next attempt
+     * @param maxDelay  the max delay bound of the reconnect attempt
+     * @param timeUnit  the time unit of the delays
+     */
+    public Builder reconnectBackoff(long baseDelay, long maxDelay, @Nonnull TimeUnit timeUnit) {
+      checkNotNull(timeUnit, "timeUnit == null");
+      if (baseDelay <= 0) throw new IllegalArgumentException("baseDelay <= 0");
+      if (maxDelay < baseDelay) throw new IllegalArgumentException("maxDelay < baseDelay");
+      this.baseReconnectDelayMs = timeUnit.toMillis(baseDelay);
+      this.maxReconnectDelayMs = timeUnit.toMillis(maxDelay);
+      return this;
+    }
+
+    public SubscriptionConnectionPolicy build() {
+      return new SubscriptionConnectionPolicy(this);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.apollographql.apollo.subscription;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+/**
+ * Policy of delivering the subscription updates pushed by the server. Updates of one subscription are delivered in
+ * order, one batch at a time, and the updates waiting for the delivery are kept in the bounded buffer of the
+ * subscription. The policy controls what happens to the updates when the buffer overflows or when newer updates make
+ * the waiting ones obsolete.
+ */
+public final class SubscriptionDeliveryPolicy {
+  /**
+   * Default policy, every update is delivered and the buffer is unbounded.
+   */
+  public static final SubscriptionDeliveryPolicy DEFAULT = builder().build();
+
+  private final Conflation conflation;
+  private final int bufferSize;
+  private final OverflowStrategy overflowStrategy;
+
+  SubscriptionDeliveryPolicy(Builder builder) {
+    this.conflation = builder.conflation;
+    this.bufferSize = builder.bufferSize;
+    this.overflowStrategy = builder.overflowStrategy;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public Conflation conflation() {
+    return conflation;
+  }
+
+  public int bufferSize() {
+    return bufferSize;
+  }
+
+  public OverflowStrategy overflowStrategy() {
+    return overflowStrategy;
+  }
+
+  public Builder toBuilder() {
+    return new Builder()
+        .conflation(conflation)
+        .bufferSize(bufferSize)
+        .overflowStrategy(overflowStrategy);
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof SubscriptionDeliveryPolicy)) return false;
+    SubscriptionDeliveryPolicy that = (SubscriptionDeliveryPolicy) o;
+    return bufferSize == that.bufferSize
+        && conflation == that.conflation
+        && overflowStrategy == that.overflowStrategy;
+  }
+
+  @Override public int hashCode() {
+    int result = conflation.hashCode();
+    result = 31 * result + bufferSize;
+    result = 31 * result + overflowStrategy.hashCode();
+    return result;
+  }
+
+  /**
+   * Defines which of the updates waiting for the delivery are kept when a new update arrives.
+   */
+  public enum Conflation {
+    /**
+     * Every update is kept
+     */
+    NONE,
+    /**
+     * Only the latest update is kept, for the subscriptions where each update supersedes the previous ones
+     */
+    LATEST
+  }
+
+  /**
+   * Defines what happens when a new update arrives and the buffer is full.
+   */
+  public enum OverflowStrategy {
+    /**
+     * The oldest update waiting for the delivery is dropped
+     */
+    DROP_OLDEST,
+    /**
+     * The new update is dropped
+     */
+    DROP_NEWEST,
+    /**
+     * The subscription is stopped and fails with the error
+     */
+    FAIL
+  }
+
+  public static final class Builder {
+    Conflation conflation = Conflation.NONE;
+    int bufferSize = Integer.MAX_VALUE;
+    OverflowStrategy overflowStrategy = OverflowStrategy.FAIL;
+
+    Builder() {
+    }
+
+    /**
+     * Sets the conflation of the updates waiting for the delivery, {@link Conflation#NONE} by default.
+     */
+    public Builder conflation(@Nonnull Conflation conflation) {
+      this.conflation = checkNotNull(conflation, "conflation == null");
+      return this;
+    }
+
+    /**
+     * Sets the max number of the updates waiting for the delivery, unbounded by default.
+     */
+    public Builder bufferSize(int bufferSize) {
+      if (bufferSize < 1) throw new IllegalArgumentException("bufferSize < 1");
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /**
+     * Sets the strategy to apply when the buffer is full, {@link OverflowStrategy#FAIL} by default.
+     */
+    public Builder overflowStrategy(@Nonnull OverflowStrategy overflowStrategy) {
+      this.overflowStrategy = checkNotNull(overflowStrategy, "overflowStrategy == null");
+      return this;
+    }
+
+    public SubscriptionDeliveryPolicy build() {
+      return new SubscriptionDeliveryPolicy(this);
+    }
+  }
+}
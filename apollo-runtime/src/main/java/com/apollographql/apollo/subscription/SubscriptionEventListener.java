@@ -0,0 +1,101 @@
+package com.apollographql.apollo.subscription;
+
+import com.apollographql.apollo.api.Subscription;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Listener for the events of the subscriptions and of their connections to the subscription server. Extend this class
+ * to monitor the throughput and the latency of the live updates: the events carry the sizes and the durations measured
+ * with {@link System#nanoTime()}, and the per subscription and per connection metrics are aggregated by the listener
+ * with the subscription and the connection index the events are reported for.
+ *
+ * <p>Connections are identified by their index in the connection pool, see
+ * {@link com.apollographql.apollo.ApolloClient.Builder#subscriptionConnectionPool(int, SubscriptionShardingPolicy)},
+ * which is always {@code 0} when the subscriptions share one connection.</p>
+ *
+ * <p>All event methods are called synchronously on the thread the event happens on, either the transport thread or
+ * the dispatcher, so they must be thread-safe, execute quickly and should not block. No time is measured and no event
+ * is reported when the listener is not set.</p>
+ */
+@SuppressWarnings("WeakerAccess") public abstract class SubscriptionEventListener {
+  public static final SubscriptionEventListener NONE = new SubscriptionEventListener() {
+  };
+
+  /**
+   * Invoked prior to opening the connection, including the reconnects.
+   */
+  public void connectStart(int connectionIndex) {
+  }
+
+  /**
+   * Invoked once the connection has been opened, prior to sending the connection init message.
+   *
+   * @param connectNanos time elapsed since {@link #connectStart(int)}
+   */
+  public void connectEnd(int connectionIndex, long connectNanos) {
+  }
+
+  /**
+   * Invoked when the server has acknowledged the connection and the subscriptions are started.
+   *
+   * @param ackLatencyNanos time elapsed since the connection init message has been sent
+   */
+  public void connectionAcknowledged(int connectionIndex, long ackLatencyNanos) {
+  }
+
+  /**
+   * Invoked when the connection has failed: the transport failure, the acknowledge timeout or the keep-alive timeout.
+   *
+   * @param willReconnect {@code true} if the reconnect is scheduled, {@code false} if the subscriptions of the
+   *                      connection fail
+   */
+  public void connectionFailed(int connectionIndex, @Nonnull Throwable error, boolean willReconnect) {
+  }
+
+  /**
+   * Invoked when the reconnect attempt is scheduled after the connection failure, see
+   * {@link SubscriptionConnectionPolicy}.
+   *
+   * @param attempt number of the reconnect attempt, starting with {@code 1}
+   * @param delayMs delay of the reconnect attempt
+   */
+  public void reconnectScheduled(int connectionIndex, int attempt, long delayMs) {
+  }
+
+  /**
+   * Invoked when the connection is closed, either because it has no subscriptions left or because it has failed.
+   */
+  public void disconnected(int connectionIndex) {
+  }
+
+  /**
+   * Invoked when the data message of the subscription has arrived, prior to queueing it for the delivery.
+   *
+   * @param byteCount size of the message frame, {@code -1} if unknown
+   */
+  public void messageReceived(int connectionIndex, @Nonnull Subscription<?, ?, ?> subscription, long byteCount) {
+  }
+
+  /**
+   * Invoked when the data message of the subscription has been parsed, prior to delivering the response to the
+   * subscribers.
+   *
+   * @param parseNanos         time spent parsing the message
+   * @param queueingDelayNanos time elapsed since the message has arrived, including the parsing
+   */
+  public void messageDelivered(int connectionIndex, @Nonnull Subscription<?, ?, ?> subscription, long parseNanos,
+      long queueingDelayNanos) {
+  }
+
+  /**
+   * Invoked when the messages of the subscription are dropped by its {@link SubscriptionDeliveryPolicy}.
+   *
+   * @param count     number of the dropped messages
+   * @param conflated {@code true} if the messages were superseded by a newer one, {@code false} if they were dropped
+   *                  because the buffer of the subscription was full
+   */
+  public void messagesDropped(int connectionIndex, @Nonnull Subscription<?, ?, ?> subscription, int count,
+      boolean conflated) {
+  }
+}
@@ -0,0 +1,53 @@
+package com.apollographql.apollo.subscription;
+
+import com.apollographql.apollo.api.Subscription;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
+
+public final class SubscriptionShardingPolicies {
+
+  /**
+   * Spreads the subscriptions over all the connections of the pool by the hash of the operation and variables.
+   */
+  public static final SubscriptionShardingPolicy HASHING = new SubscriptionShardingPolicy() {
+    @Override public int connectionIndex(@Nonnull Subscription<?, ?, ?> subscription, int connectionCount) {
+      return indexOf(subscription, connectionCount);
+    }
+  };
+
+  private SubscriptionShardingPolicies() {
+  }
+
+  /**
+   * Keeps the high-volume subscriptions away from the others: the subscriptions of the flagged operations are spread
+   * by hash over the dedicated connections {@code [1, connectionCount)}, and all the other subscriptions share the
+   * connection {@code 0}. With a pool of one connection all the subscriptions share it.
+   *
+   * @param highVolumeOperationNames names of the subscription operations to move to the dedicated connections
+   */
+  public static SubscriptionShardingPolicy dedicated(@Nonnull Collection<String> highVolumeOperationNames) {
+    checkNotNull(highVolumeOperationNames, "highVolumeOperationNames == null");
+    final Set<String> operationNames = Collections.unmodifiableSet(new LinkedHashSet<>(highVolumeOperationNames));
+    return new SubscriptionShardingPolicy() {
+      @Override public int connectionIndex(@Nonnull Subscription<?, ?, ?> subscription, int connectionCount) {
+        if (connectionCount < 2 || !operationNames.contains(subscription.name().name())) {
+          return 0;
+        }
+        return 1 + indexOf(subscription, connectionCount - 1);
+      }
+    };
+  }
+
+  static int indexOf(Subscription<?, ?, ?> subscription, int connectionCount) {
+    int hash = 31 * subscription.operationId().hashCode() + subscription.variables().valueMap().hashCode();
+    int index = hash % connectionCount;
+    return index < 0 ? index + connectionCount : index;
+  }
+}
@@ -0,0 +1,23 @@
+package com.apollographql.apollo.subscription;
+
+import com.apollographql.apollo.api.Subscription;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Policy of assigning the subscriptions to the connections of the subscription server pool, see
+ * {@link SubscriptionShardingPolicies} for the provided implementations.
+ *
+ * <p>The policy must be deterministic: the same subscription (operation and variables) must always be assigned to the
+ * same connection, as the subscriptions sharing the server stream and the unsubscribe calls are routed with it.</p>
+ */
+public interface SubscriptionShardingPolicy {
+  /**
+   * Returns the index of the connection the subscription is assigned to.
+   *
+   * @param subscription    the subscription to assign
+   * @param connectionCount the number of the connections in the pool
+   * @return the index of the connection, in range {@code [0, connectionCount)}
+   */
+  int connectionIndex(@Nonnull Subscription<?, ?, ?> subscription, int connectionCount);
+}
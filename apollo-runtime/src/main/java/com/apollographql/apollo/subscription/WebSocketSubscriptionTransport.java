@@ -8,6 +8,7 @@ import javax.annotation.Nonnull;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.WebSocket;
+import okio.ByteString;
 
 import static com.apollographql.apollo.api.internal.Utils.checkNotNull;
 
@@ -105,6 +106,15 @@ public final class WebSocketSubscriptionTransport implements SubscriptionTranspo
       }
     }
 
+    @Override
+    public void onMessage(WebSocket webSocket, ByteString bytes) {
+      WebSocketSubscriptionTransport delegate = delegateRef.get();
+      if (delegate != null) {
+        OperationServerMessage message = OperationServerMessage.fromJsonBytes(bytes);
+        delegate.onMessage(message);
+      }
+    }
+
     @Override
     public void onFailure(WebSocket webSocket, Throwable t, Response response) {
       WebSocketSubscriptionTransport delegate = delegateRef.get();
@@ -0,0 +1,177 @@
+package com.apollographql.apollo.internal;
+
+import com.apollographql.apollo.ApolloClient;
+import com.apollographql.apollo.ApolloPrefetch;
+import com.apollographql.apollo.IdleResourceCallback;
+import com.apollographql.apollo.api.OperationName;
+import com.apollographql.apollo.api.Query;
+import com.apollographql.apollo.api.ResponseFieldMapper;
+import com.apollographql.apollo.api.ResponseReader;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ApolloCallTrackerConcurrencyTest {
+  private static final int TIMEOUT_SECONDS = 10;
+  private static final int THREAD_COUNT = 8;
+  private static final int CALLS_PER_THREAD = 500;
+  private static final OperationName OPERATION_NAME = new OperationName() {
+    @Override public String name() {
+      return "EmptyQuery";
+    }
+  };
+  private static final Query EMPTY_QUERY = new Query() {
+    @Override public String queryDocument() {
+      return "";
+    }
+
+    @Override public Variables variables() {
+      return EMPTY_VARIABLES;
+    }
+
+    @Override public ResponseFieldMapper<Data> responseFieldMapper() {
+      return new ResponseFieldMapper<Data>() {
+        @Override public Data map(ResponseReader responseReader) {
+          return null;
+        }
+      };
+    }
+
+    @Override public Object wrapData(Data data) {
+      return data;
+    }
+
+    @Nonnull @Override public OperationName name() {
+      return OPERATION_NAME;
+    }
+
+    @Nonnull @Override public String operationId() {
+      return "";
+    }
+  };
+
+  private final ApolloClient apolloClient = ApolloClient.builder()
+      .serverUrl("http://localhost:1234")
+      .build();
+  private final ApolloCallTracker tracker = new ApolloCallTracker();
+
+  @Test public void concurrentRegisterAndUnregister() throws Exception {
+    final AtomicInteger idleCount = new AtomicInteger();
+    tracker.setIdleResourceCallback(new IdleResourceCallback() {
+      @Override public void onIdle() {
+        idleCount.incrementAndGet();
+      }
+    });
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(THREAD_COUNT);
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      final List<ApolloPrefetch> calls = newPrefetchCalls(CALLS_PER_THREAD);
+      startThread(start, done, failure, new Runnable() {
+        @Override public void run() {
+          for (ApolloPrefetch call : calls) {
+            tracker.registerPrefetchCall(call);
+            assertThat(tracker.activeCallsCount()).isGreaterThan(0);
+            assertThat(tracker.activePrefetchCalls(OPERATION_NAME)).contains(call);
+          }
+          for (ApolloPrefetch call : calls) {
+            tracker.unregisterPrefetchCall(call);
+            assertThat(tracker.activePrefetchCalls(OPERATION_NAME)).doesNotContain(call);
+          }
+        }
+      });
+    }
+
+    start.countDown();
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(failure.get()).isNull();
+    assertThat(tracker.activeCallsCount()).isEqualTo(0);
+    assertThat(tracker.activePrefetchCalls(OPERATION_NAME)).isEmpty();
+    assertThat(idleCount.get()).isAtLeast(1);
+  }
+
+  @Test public void idleCallbackIsNotInvokedWhileCallIsActive() throws Exception {
+    final AtomicInteger idleCount = new AtomicInteger();
+    tracker.setIdleResourceCallback(new IdleResourceCallback() {
+      @Override public void onIdle() {
+        idleCount.incrementAndGet();
+      }
+    });
+    ApolloPrefetch longRunningCall = apolloClient.prefetch(EMPTY_QUERY);
+    tracker.registerPrefetchCall(longRunningCall);
+
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(THREAD_COUNT);
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      final List<ApolloPrefetch> calls = newPrefetchCalls(CALLS_PER_THREAD);
+      startThread(start, done, failure, new Runnable() {
+        @Override public void run() {
+          for (ApolloPrefetch call : calls) {
+            tracker.registerPrefetchCall(call);
+            tracker.unregisterPrefetchCall(call);
+          }
+        }
+      });
+    }
+
+    start.countDown();
+    assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(failure.get()).isNull();
+    assertThat(idleCount.get()).isEqualTo(0);
+    assertThat(tracker.activeCallsCount()).isEqualTo(1);
+
+    tracker.unregisterPrefetchCall(longRunningCall);
+    assertThat(idleCount.get()).isEqualTo(1);
+    assertThat(tracker.activeCallsCount()).isEqualTo(0);
+  }
+
+  @Test public void activeCallsSnapshotIsDetachedFromTracker() throws Exception {
+    List<ApolloPrefetch> calls = newPrefetchCalls(3);
+    for (ApolloPrefetch call : calls) {
+      tracker.registerPrefetchCall(call);
+    }
+
+    Set<ApolloPrefetch> snapshot = tracker.activePrefetchCalls(OPERATION_NAME);
+    assertThat(snapshot).containsExactlyElementsIn(calls);
+
+    tracker.unregisterPrefetchCall(calls.get(0));
+    assertThat(snapshot).containsExactlyElementsIn(calls);
+    assertThat(tracker.activePrefetchCalls(OPERATION_NAME)).containsExactly(calls.get(1), calls.get(2));
+  }
+
+  private List<ApolloPrefetch> newPrefetchCalls(int count) {
+    List<ApolloPrefetch> calls = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      calls.add(apolloClient.prefetch(EMPTY_QUERY));
+    }
+    return calls;
+  }
+
+  private static void startThread(final CountDownLatch start, final CountDownLatch done,
+      final AtomicReference<Throwable> failure, final Runnable task) {
+    new Thread(new Runnable() {
+      @Override public void run() {
+        try {
+          start.await();
+          task.run();
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          done.countDown();
+        }
+      }
+    }).start();
+  }
+}
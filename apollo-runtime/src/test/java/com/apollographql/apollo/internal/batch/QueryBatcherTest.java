@@ -0,0 +1,34 @@
+package com.apollographql.apollo.internal.batch;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import okio.ByteString;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class QueryBatcherTest {
+
+  @Test public void splitBatchResponseCopiesEntriesAsIs() throws Exception {
+    String first = "{\"data\":{\"hero\":{\"name\":\"R2-D2\",\"friends\":null}},\"errors\":null}";
+    String second = "{\"data\":{\"numbers\":[1, -2, 3.5e2, true, false, null, \"\\\"x\\\"\"]}}";
+    List<ByteString> entries = QueryBatcher.splitBatchResponse(ResponseBody.create(null,
+        "[ " + first + " ,\n" + second + "]"));
+
+    assertThat(entries).hasSize(2);
+    assertThat(entries.get(0).utf8()).isEqualTo(first);
+    assertThat(entries.get(1).utf8()).isEqualTo(second);
+  }
+
+  @Test public void splitBatchResponseRejectsNonObjectEntries() throws Exception {
+    try {
+      QueryBatcher.splitBatchResponse(ResponseBody.create(null, "[{\"data\":null}, null]"));
+      fail("expected entry type to be checked");
+    } catch (RuntimeException expected) {
+      assertThat(expected.getMessage()).contains("BEGIN_OBJECT");
+    }
+  }
+}
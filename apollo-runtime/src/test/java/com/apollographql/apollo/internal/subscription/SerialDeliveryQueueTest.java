@@ -0,0 +1,154 @@
+package com.apollographql.apollo.internal.subscription;
+
+import com.apollographql.apollo.subscription.OperationServerMessage;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class SerialDeliveryQueueTest {
+  private final QueuedExecutor executor = new QueuedExecutor();
+  private final RecordingHandler handler = new RecordingHandler();
+
+  @Test public void deliversInOrderInBatches() {
+    SerialDeliveryQueue queue = new SerialDeliveryQueue(executor, SubscriptionDeliveryPolicy.DEFAULT, handler);
+    for (int i = 0; i < SerialDeliveryQueue.MAX_BATCH_SIZE + 1; i++) {
+      queue.enqueue(data(i));
+    }
+    queue.enqueue(new OperationServerMessage.Complete("complete"));
+    assertThat(executor.tasks).hasSize(1);
+
+    executor.runNext();
+    assertThat(handler.messages).hasSize(SerialDeliveryQueue.MAX_BATCH_SIZE);
+    assertThat(handler.batchCount).isEqualTo(1);
+    assertThat(executor.tasks).hasSize(1);
+
+    executor.runNext();
+    assertThat(handler.messages).hasSize(SerialDeliveryQueue.MAX_BATCH_SIZE + 2);
+    for (int i = 0; i < SerialDeliveryQueue.MAX_BATCH_SIZE + 1; i++) {
+      assertThat(((OperationServerMessage.Data) handler.messages.get(i)).id).isEqualTo(String.valueOf(i));
+    }
+    assertThat(handler.messages.get(SerialDeliveryQueue.MAX_BATCH_SIZE + 1))
+        .isInstanceOf(OperationServerMessage.Complete.class);
+    assertThat(handler.batchCount).isEqualTo(2);
+    assertThat(executor.tasks).isEmpty();
+  }
+
+  @Test public void conflatesToLatest() {
+    SerialDeliveryQueue queue = new SerialDeliveryQueue(executor, SubscriptionDeliveryPolicy.builder()
+        .conflation(SubscriptionDeliveryPolicy.Conflation.LATEST)
+        .build(), handler);
+    queue.enqueue(data(1));
+    queue.enqueue(data(2));
+    queue.enqueue(data(3));
+    executor.runNext();
+
+    assertThat(handler.messages).hasSize(1);
+    assertThat(((OperationServerMessage.Data) handler.messages.get(0)).id).isEqualTo("3");
+    assertThat(handler.conflatedCount).isEqualTo(2);
+  }
+
+  @Test public void dropsOldestOnOverflow() {
+    SerialDeliveryQueue queue = new SerialDeliveryQueue(executor, SubscriptionDeliveryPolicy.builder()
+        .bufferSize(2)
+        .overflowStrategy(SubscriptionDeliveryPolicy.OverflowStrategy.DROP_OLDEST)
+        .build(), handler);
+    queue.enqueue(data(1));
+    queue.enqueue(data(2));
+    queue.enqueue(data(3));
+    executor.runNext();
+
+    assertThat(handler.messages).hasSize(2);
+    assertThat(((OperationServerMessage.Data) handler.messages.get(0)).id).isEqualTo("2");
+    assertThat(((OperationServerMessage.Data) handler.messages.get(1)).id).isEqualTo("3");
+    assertThat(handler.droppedCount).isEqualTo(1);
+  }
+
+  @Test public void dropsNewestOnOverflow() {
+    SerialDeliveryQueue queue = new SerialDeliveryQueue(executor, SubscriptionDeliveryPolicy.builder()
+        .bufferSize(2)
+        .overflowStrategy(SubscriptionDeliveryPolicy.OverflowStrategy.DROP_NEWEST)
+        .build(), handler);
+    queue.enqueue(data(1));
+    queue.enqueue(data(2));
+    queue.enqueue(data(3));
+    executor.runNext();
+
+    assertThat(handler.messages).hasSize(2);
+    assertThat(((OperationServerMessage.Data) handler.messages.get(0)).id).isEqualTo("1");
+    assertThat(((OperationServerMessage.Data) handler.messages.get(1)).id).isEqualTo("2");
+    assertThat(handler.droppedCount).isEqualTo(1);
+  }
+
+  @Test public void failsOnOverflow() {
+    SerialDeliveryQueue queue = new SerialDeliveryQueue(executor, SubscriptionDeliveryPolicy.builder()
+        .bufferSize(2)
+        .overflowStrategy(SubscriptionDeliveryPolicy.OverflowStrategy.FAIL)
+        .build(), handler);
+    queue.enqueue(data(1));
+    queue.enqueue(data(2));
+    queue.enqueue(data(3));
+    queue.enqueue(data(4));
+    executor.runNext();
+
+    assertThat(handler.messages).isEmpty();
+    assertThat(handler.batchCount).isEqualTo(0);
+    assertThat(handler.overflowCount).isEqualTo(1);
+    assertThat(handler.droppedCount).isEqualTo(4);
+    assertThat(executor.tasks).isEmpty();
+  }
+
+  private static OperationServerMessage.Data data(int id) {
+    return new OperationServerMessage.Data(String.valueOf(id), Collections.<String, Object>emptyMap());
+  }
+
+  private static final class QueuedExecutor implements Executor {
+    final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @Override public void execute(@Nonnull Runnable command) {
+      tasks.add(command);
+    }
+
+    void runNext() {
+      tasks.poll().run();
+    }
+  }
+
+  private static final class RecordingHandler implements SerialDeliveryQueue.Handler {
+    final List<OperationServerMessage> messages = new ArrayList<>();
+    int batchCount;
+    int overflowCount;
+    int droppedCount;
+    int conflatedCount;
+
+    @Override public void onMessage(OperationServerMessage message, long receivedAtNanos) {
+      messages.add(message);
+    }
+
+    @Override public void onBatchDelivered() {
+      batchCount++;
+    }
+
+    @Override public void onOverflow() {
+      overflowCount++;
+    }
+
+    @Override public void onDropped(int count, boolean conflated) {
+      if (conflated) {
+        conflatedCount += count;
+      } else {
+        droppedCount += count;
+      }
+    }
+  }
+}
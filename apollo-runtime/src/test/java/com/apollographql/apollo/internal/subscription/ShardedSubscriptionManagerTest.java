@@ -0,0 +1,137 @@
+package com.apollographql.apollo.internal.subscription;
+
+import com.apollographql.apollo.api.Operation;
+import com.apollographql.apollo.api.OperationName;
+import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.api.ResponseFieldMapper;
+import com.apollographql.apollo.api.Subscription;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
+import com.apollographql.apollo.subscription.SubscriptionShardingPolicies;
+import com.apollographql.apollo.subscription.SubscriptionShardingPolicy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ShardedSubscriptionManagerTest {
+  private final List<RecordingSubscriptionManager> shards = Arrays.asList(new RecordingSubscriptionManager(),
+      new RecordingSubscriptionManager(), new RecordingSubscriptionManager());
+
+  @Test public void hashingRoutesSameSubscriptionToSameShard() {
+    ShardedSubscriptionManager manager = new ShardedSubscriptionManager(shards, SubscriptionShardingPolicies.HASHING);
+    MockSubscription subscription = new MockSubscription("MockSubscription1", "SomeSubscription");
+    manager.subscribe(subscription, new NoOpCallback());
+    manager.subscribe(subscription, SubscriptionDeliveryPolicy.DEFAULT, new NoOpCallback());
+    manager.unsubscribe(subscription);
+
+    RecordingSubscriptionManager shard = (RecordingSubscriptionManager) manager.shardFor(subscription);
+    assertThat(shard.calls).containsExactly("subscribe", "subscribe", "unsubscribe").inOrder();
+    int calls = 0;
+    for (RecordingSubscriptionManager each : shards) {
+      calls += each.calls.size();
+    }
+    assertThat(calls).isEqualTo(3);
+  }
+
+  @Test public void dedicatedRoutesHighVolumeSubscriptionsAway() {
+    ShardedSubscriptionManager manager = new ShardedSubscriptionManager(shards,
+        SubscriptionShardingPolicies.dedicated(Collections.singleton("TickerSubscription")));
+    for (int i = 0; i < 10; i++) {
+      assertThat(manager.shardFor(new MockSubscription("MockSubscription" + i, "SomeSubscription")))
+          .isSameAs(shards.get(0));
+      assertThat(manager.shardFor(new MockSubscription("MockSubscription" + i, "TickerSubscription")))
+          .isNotSameAs(shards.get(0));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class) public void failsOnIndexOutOfRange() {
+    ShardedSubscriptionManager manager = new ShardedSubscriptionManager(shards, new SubscriptionShardingPolicy() {
+      @Override public int connectionIndex(@Nonnull Subscription<?, ?, ?> subscription, int connectionCount) {
+        return connectionCount;
+      }
+    });
+    manager.unsubscribe(new MockSubscription("MockSubscription1", "SomeSubscription"));
+  }
+
+  private static final class RecordingSubscriptionManager implements SubscriptionManager {
+    final List<String> calls = new ArrayList<>();
+
+    @Override
+    public <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription, @Nonnull Callback<T> callback) {
+      calls.add("subscribe");
+    }
+
+    @Override public <T> void subscribe(@Nonnull Subscription<?, T, ?> subscription,
+        @Nonnull SubscriptionDeliveryPolicy deliveryPolicy, @Nonnull Callback<T> callback) {
+      calls.add("subscribe");
+    }
+
+    @Override public void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription) {
+      calls.add("unsubscribe");
+    }
+
+    @Override public void unsubscribe(@Nonnull Subscription<?, ?, ?> subscription, @Nonnull Callback<?> callback) {
+      calls.add("unsubscribe");
+    }
+  }
+
+  private static final class NoOpCallback implements SubscriptionManager.Callback<Operation.Data> {
+    @Override public void onResponse(@Nonnull Response<Operation.Data> response) {
+    }
+
+    @Override public void onError(@Nonnull ApolloSubscriptionException error) {
+    }
+
+    @Override public void onNetworkError(@Nonnull Throwable t) {
+    }
+
+    @Override public void onCompleted() {
+    }
+  }
+
+  private static final class MockSubscription
+      implements Subscription<Operation.Data, Operation.Data, Operation.Variables> {
+    final String operationId;
+    final String operationName;
+
+    MockSubscription(String operationId, String operationName) {
+      this.operationId = operationId;
+      this.operationName = operationName;
+    }
+
+    @Override public String queryDocument() {
+      return "subscription { ticker }";
+    }
+
+    @Override public Variables variables() {
+      return EMPTY_VARIABLES;
+    }
+
+    @Override public ResponseFieldMapper<Data> responseFieldMapper() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public Operation.Data wrapData(Data data) {
+      return data;
+    }
+
+    @Nonnull @Override public OperationName name() {
+      return new OperationName() {
+        @Override public String name() {
+          return operationName;
+        }
+      };
+    }
+
+    @Nonnull @Override public String operationId() {
+      return operationId;
+    }
+  }
+}
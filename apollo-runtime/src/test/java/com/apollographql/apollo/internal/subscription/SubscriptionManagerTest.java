@@ -1,24 +1,44 @@
 package com.apollographql.apollo.internal.subscription;
 
 import com.apollographql.apollo.CustomTypeAdapter;
+import com.apollographql.apollo.Logger;
 import com.apollographql.apollo.api.Operation;
 import com.apollographql.apollo.api.OperationName;
 import com.apollographql.apollo.api.Response;
+import com.apollographql.apollo.api.ResponseField;
 import com.apollographql.apollo.api.ResponseFieldMapper;
 import com.apollographql.apollo.api.ResponseFieldMarshaller;
 import com.apollographql.apollo.api.ResponseReader;
 import com.apollographql.apollo.api.ScalarType;
 import com.apollographql.apollo.api.Subscription;
+import com.apollographql.apollo.api.internal.Optional;
 import com.apollographql.apollo.api.internal.UnmodifiableMapBuilder;
+import com.apollographql.apollo.cache.CacheHeaders;
+import com.apollographql.apollo.cache.normalized.ApolloStore;
+import com.apollographql.apollo.cache.normalized.CacheKey;
+import com.apollographql.apollo.cache.normalized.CacheKeyResolver;
+import com.apollographql.apollo.cache.normalized.Record;
+import com.apollographql.apollo.cache.normalized.RecordFieldJsonAdapter;
+import com.apollographql.apollo.cache.normalized.lru.EvictionPolicy;
+import com.apollographql.apollo.cache.normalized.lru.LruNormalizedCacheFactory;
+import com.apollographql.apollo.exception.ApolloNetworkException;
+import com.apollographql.apollo.internal.ApolloLogger;
+import com.apollographql.apollo.internal.cache.normalized.RealApolloStore;
 import com.apollographql.apollo.response.ScalarTypeAdapters;
 import com.apollographql.apollo.subscription.OperationClientMessage;
 import com.apollographql.apollo.subscription.OperationServerMessage;
+import com.apollographql.apollo.subscription.SubscriptionConnectionPolicy;
+import com.apollographql.apollo.subscription.SubscriptionEventListener;
 import com.apollographql.apollo.subscription.SubscriptionTransport;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -196,13 +216,182 @@ public class SubscriptionManagerTest {
     assertThat(subscriptionManagerCallback1.response).isNotNull();
   }
 
+  @Test public void notifyOnDataReadFromFrame() throws Exception {
+    SubscriptionManagerCallbackAdapter<Operation.Data> subscriptionManagerCallback1 = new SubscriptionManagerCallbackAdapter<>();
+    subscriptionManager.subscribe(subscription1, subscriptionManagerCallback1);
+
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+    subscriptionTransportFactory.callback.onMessage(OperationServerMessage.fromJsonString("{\"type\":\"data\",\"id\":\""
+        + idForSubscription(subscription1) + "\",\"payload\":{\"data\":{},\"errors\":[{\"message\":\"Error\"}]}}"));
+
+    assertThat(subscriptionManagerCallback1.response).isNotNull();
+    assertThat(subscriptionManagerCallback1.response.data()).isNotNull();
+    assertThat(subscriptionManagerCallback1.response.errors()).hasSize(1);
+    assertThat(subscriptionManagerCallback1.response.errors().get(0).message()).isEqualTo("Error");
+  }
+
   @Test public void duplicateSubscriptions() throws Exception {
     SubscriptionManagerCallbackAdapter<Operation.Data> subscriptionManagerCallback1 = new SubscriptionManagerCallbackAdapter<>();
     subscriptionManager.subscribe(subscription1, subscriptionManagerCallback1);
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+    OperationClientMessage startMessage = subscriptionTransportFactory.subscriptionTransport.lastSentMessage;
+    assertThat(startMessage).isInstanceOf(OperationClientMessage.Start.class);
+
     SubscriptionManagerCallbackAdapter<Operation.Data> subscriptionManagerCallback2 = new SubscriptionManagerCallbackAdapter<>();
     subscriptionManager.subscribe(subscription1, subscriptionManagerCallback2);
+    assertThat(subscriptionManagerCallback2.error).isNull();
+    assertThat(subscriptionTransportFactory.subscriptionTransport.lastSentMessage).isSameAs(startMessage);
+    assertThat(subscriptionManager.subscriptions).hasSize(1);
+
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.Data(idForSubscription(subscription1),
+        Collections.<String, Object>emptyMap()));
+    assertThat(subscriptionManagerCallback1.response).isNotNull();
+    assertThat(subscriptionManagerCallback2.response).isSameAs(subscriptionManagerCallback1.response);
 
-    assertThat(subscriptionManagerCallback2.error).hasMessage("Already subscribed");
+    subscriptionManager.unsubscribe(subscription1, subscriptionManagerCallback1);
+    assertThat(subscriptionTransportFactory.subscriptionTransport.lastSentMessage).isSameAs(startMessage);
+    assertThat(subscriptionManager.subscriptions).hasSize(1);
+
+    subscriptionManager.unsubscribe(subscription1, subscriptionManagerCallback2);
+    assertThat(subscriptionTransportFactory.subscriptionTransport.lastSentMessage).isInstanceOf(OperationClientMessage.Stop.class);
+    assertThat(subscriptionManager.subscriptions).isEmpty();
+  }
+
+  @Test public void disconnectedOnKeepAliveTimeout() throws Exception {
+    subscriptionManager = newSubscriptionManager(SubscriptionConnectionPolicy.builder()
+        .keepAliveTimeout(100, TimeUnit.MILLISECONDS)
+        .build());
+    SubscriptionManagerCallbackAdapter<Operation.Data> subscriptionManagerCallback1 = new SubscriptionManagerCallbackAdapter<>();
+    subscriptionManager.subscribe(subscription1, subscriptionManagerCallback1);
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionKeepAlive());
+    assertThat(subscriptionManager.timer.tasks).containsKey(RealSubscriptionManager.KEEP_ALIVE_TIMEOUT_TIMER_TASK_ID);
+
+    subscriptionTransportFactory.subscriptionTransport.disconnectCountDownLatch.awaitOrThrowWithTimeout(900,
+        TimeUnit.MILLISECONDS);
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(1);
+    while (subscriptionManagerCallback1.networkError == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(subscriptionManagerCallback1.networkError).isInstanceOf(ApolloNetworkException.class);
+    assertThat(subscriptionManager.state).isEqualTo(RealSubscriptionManager.State.DISCONNECTED);
+    assertThat(subscriptionManager.subscriptions).isEmpty();
+  }
+
+  @Test public void reconnectOnTransportFailure() throws Exception {
+    subscriptionManager = newSubscriptionManager(SubscriptionConnectionPolicy.builder()
+        .maxReconnectAttempts(1)
+        .reconnectBackoff(1, 1, TimeUnit.MILLISECONDS)
+        .build());
+    SubscriptionManagerCallbackAdapter<Operation.Data> subscriptionManagerCallback1 = new SubscriptionManagerCallbackAdapter<>();
+    subscriptionManager.subscribe(subscription1, subscriptionManagerCallback1);
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+
+    subscriptionTransportFactory.callback.onFailure(new UnsupportedOperationException());
+    assertThat(subscriptionManagerCallback1.networkError).isNull();
+    assertThat(subscriptionManager.subscriptions).hasSize(1);
+    awaitConnected();
+
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+    assertThat(subscriptionTransportFactory.subscriptionTransport.lastSentMessage).isInstanceOf(OperationClientMessage.Start.class);
+    assertThat(subscriptionManager.reconnectAttempts).isEqualTo(0);
+
+    subscriptionTransportFactory.callback.onFailure(new UnsupportedOperationException());
+    awaitConnected();
+    subscriptionTransportFactory.callback.onFailure(new UnsupportedOperationException());
+    assertThat(subscriptionManagerCallback1.networkError).isInstanceOf(UnsupportedOperationException.class);
+    assertThat(subscriptionManager.state).isEqualTo(RealSubscriptionManager.State.DISCONNECTED);
+    assertThat(subscriptionManager.subscriptions).isEmpty();
+  }
+
+  @Test public void reconnectDelayIsJitteredExponentialBackoff() {
+    subscriptionManager = newSubscriptionManager(SubscriptionConnectionPolicy.builder()
+        .reconnectBackoff(100, 1000, TimeUnit.MILLISECONDS)
+        .build());
+    for (int attempt = 0; attempt < 40; attempt++) {
+      long delay = subscriptionManager.nextReconnectDelay(attempt);
+      assertThat(delay).isAtLeast(0L);
+      assertThat(delay).isLessThan(Math.min(1000L, 100L << Math.min(attempt, 30)));
+    }
+  }
+
+  @Test public void reportEvents() throws Exception {
+    RecordingEventListener eventListener = new RecordingEventListener();
+    subscriptionManager = new RealSubscriptionManager(
+        new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap()), subscriptionTransportFactory,
+        new MockExecutor(), SubscriptionConnectionPolicy.DEFAULT, Optional.<ApolloStore>absent(),
+        new ApolloLogger(Optional.<Logger>absent()), eventListener, 2);
+    subscriptionManager.subscribe(subscription1, new SubscriptionManagerCallbackAdapter<Operation.Data>());
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+    String frame = "{\"type\":\"data\",\"id\":\"" + idForSubscription(subscription1)
+        + "\",\"payload\":{\"data\":{}}}";
+    subscriptionTransportFactory.callback.onMessage(OperationServerMessage.fromJsonString(frame));
+    subscriptionTransportFactory.callback.onFailure(new UnsupportedOperationException());
+
+    assertThat(eventListener.events).containsExactly("connectStart 2", "connectEnd 2", "connectionAcknowledged 2",
+        "messageReceived 2 MockSubscription1 " + frame.length(), "messageDelivered 2 MockSubscription1",
+        "connectionFailed 2 false", "disconnected 2").inOrder();
+  }
+
+  @Test public void writeResponsesToCacheBeforeDelivery() throws Exception {
+    ScalarTypeAdapters scalarTypeAdapters = new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap());
+    final ApolloStore apolloStore = new RealApolloStore(new LruNormalizedCacheFactory(EvictionPolicy.NO_EVICTION)
+        .createChain(RecordFieldJsonAdapter.create()), new IdCacheKeyResolver(), scalarTypeAdapters, new MockExecutor(),
+        new ApolloLogger(Optional.<Logger>absent()));
+    apolloStore.normalizedCache().merge(Record.builder("10").addField("id", "10").addField("content", "test9").build(),
+        CacheHeaders.NONE);
+    final List<Set<String>> publishedKeys = new ArrayList<>();
+    apolloStore.subscribe(new ApolloStore.RecordChangeSubscriber() {
+      @Override public void onCacheRecordsChanged(Set<String> changedRecordKeys) {
+        publishedKeys.add(changedRecordKeys);
+      }
+    });
+    subscriptionManager = new RealSubscriptionManager(scalarTypeAdapters, subscriptionTransportFactory,
+        new MockExecutor(), SubscriptionConnectionPolicy.DEFAULT, Optional.of(apolloStore),
+        new ApolloLogger(Optional.<Logger>absent()));
+    MockSubscription subscription = new CommentAddedSubscription();
+    final List<Record> deliveredRecords = new ArrayList<>();
+    subscriptionManager.subscribe(subscription, new SubscriptionManagerCallbackAdapter<Operation.Data>() {
+      @Override public void onResponse(@Nonnull Response<Operation.Data> response) {
+        super.onResponse(response);
+        deliveredRecords.add(apolloStore.normalizedCache().loadRecord("10", CacheHeaders.NONE));
+      }
+    });
+    subscriptionTransportFactory.callback.onConnected();
+    subscriptionTransportFactory.callback.onMessage(new OperationServerMessage.ConnectionAcknowledge());
+    subscriptionTransportFactory.callback.onMessage(OperationServerMessage.fromJsonString("{\"type\":\"data\",\"id\":\""
+        + idForSubscription(subscription) + "\",\"payload\":{\"data\":{\"commentAdded\":{\"id\":\"10\","
+        + "\"content\":\"test10\"},\"repository\":{\"name\":\"repo\"}}}}"));
+
+    assertThat(deliveredRecords).hasSize(1);
+    assertThat(deliveredRecords.get(0)).isNotNull();
+    assertThat(deliveredRecords.get(0).field("content")).isEqualTo("test10");
+    assertThat(publishedKeys).hasSize(1);
+    assertThat(publishedKeys.get(0)).containsExactly("10.content");
+    assertThat(apolloStore.normalizedCache().loadRecord("QUERY_ROOT", CacheHeaders.NONE)).isNull();
+    assertThat(apolloStore.normalizedCache().loadRecord("repository", CacheHeaders.NONE)).isNull();
+    assertThat(apolloStore.normalizedCache().loadRecord(RealSubscriptionManager.SUBSCRIPTION_ROOT_CACHE_KEY.key()
+        + ".repository", CacheHeaders.NONE)).isNull();
+  }
+
+  private RealSubscriptionManager newSubscriptionManager(SubscriptionConnectionPolicy connectionPolicy) {
+    return new RealSubscriptionManager(new ScalarTypeAdapters(Collections.<ScalarType, CustomTypeAdapter>emptyMap()),
+        subscriptionTransportFactory, new MockExecutor(), connectionPolicy, Optional.<ApolloStore>absent(),
+        new ApolloLogger(Optional.<Logger>absent()));
+  }
+
+  private void awaitConnected() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(1);
+    while (!subscriptionTransportFactory.subscriptionTransport.connected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(subscriptionTransportFactory.subscriptionTransport.connected).isTrue();
   }
 
   private static final class MockSubscriptionTransportFactory implements SubscriptionTransport.Factory {
@@ -243,7 +432,7 @@ public class SubscriptionManagerTest {
     }
   }
 
-  private static final class MockSubscription implements Subscription<Operation.Data, Operation.Data, Operation.Variables> {
+  private static class MockSubscription implements Subscription<Operation.Data, Operation.Data, Operation.Variables> {
     final String operationId;
 
     MockSubscription(String operationId) {
@@ -287,6 +476,58 @@ public class SubscriptionManagerTest {
     }
   }
 
+  private static final class CommentAddedSubscription extends MockSubscription {
+    static final ResponseField COMMENT_ADDED_FIELD = ResponseField.forObject("commentAdded", "commentAdded", null,
+        true, Collections.<ResponseField.Condition>emptyList());
+    static final ResponseField REPOSITORY_FIELD = ResponseField.forObject("repository", "repository", null, true,
+        Collections.<ResponseField.Condition>emptyList());
+    static final ResponseField ID_FIELD = ResponseField.forString("id", "id", null, false,
+        Collections.<ResponseField.Condition>emptyList());
+    static final ResponseField CONTENT_FIELD = ResponseField.forString("content", "content", null, false,
+        Collections.<ResponseField.Condition>emptyList());
+    static final ResponseField NAME_FIELD = ResponseField.forString("name", "name", null, false,
+        Collections.<ResponseField.Condition>emptyList());
+
+    CommentAddedSubscription() {
+      super("CommentAddedSubscription");
+    }
+
+    @Override public ResponseFieldMapper<Data> responseFieldMapper() {
+      return new ResponseFieldMapper<Data>() {
+        @Override public Data map(ResponseReader responseReader) {
+          responseReader.readObject(COMMENT_ADDED_FIELD, new ResponseReader.ObjectReader<Object>() {
+            @Override public Object read(ResponseReader reader) {
+              return reader.readString(ID_FIELD) + reader.readString(CONTENT_FIELD);
+            }
+          });
+          responseReader.readObject(REPOSITORY_FIELD, new ResponseReader.ObjectReader<Object>() {
+            @Override public Object read(ResponseReader reader) {
+              return reader.readString(NAME_FIELD);
+            }
+          });
+          return new Operation.Data() {
+            @Override public ResponseFieldMarshaller marshaller() {
+              throw new UnsupportedOperationException();
+            }
+          };
+        }
+      };
+    }
+  }
+
+  private static final class IdCacheKeyResolver extends CacheKeyResolver {
+    @Nonnull @Override public CacheKey fromFieldRecordSet(@Nonnull ResponseField field,
+        @Nonnull Map<String, Object> recordSet) {
+      Object id = recordSet.get("id");
+      return id != null ? CacheKey.from(id.toString()) : CacheKey.NO_KEY;
+    }
+
+    @Nonnull @Override public CacheKey fromFieldArguments(@Nonnull ResponseField field,
+        @Nonnull Operation.Variables variables) {
+      return CacheKey.NO_KEY;
+    }
+  }
+
   private static class SubscriptionManagerCallbackAdapter<T> implements SubscriptionManager.Callback<T> {
     volatile Response<T> response;
     volatile ApolloSubscriptionException error;
@@ -310,6 +551,41 @@ public class SubscriptionManagerTest {
     }
   }
 
+  private static final class RecordingEventListener extends SubscriptionEventListener {
+    final List<String> events = new ArrayList<>();
+
+    @Override public void connectStart(int connectionIndex) {
+      events.add("connectStart " + connectionIndex);
+    }
+
+    @Override public void connectEnd(int connectionIndex, long connectNanos) {
+      events.add("connectEnd " + connectionIndex);
+    }
+
+    @Override public void connectionAcknowledged(int connectionIndex, long ackLatencyNanos) {
+      events.add("connectionAcknowledged " + connectionIndex);
+    }
+
+    @Override public void connectionFailed(int connectionIndex, @Nonnull Throwable error, boolean willReconnect) {
+      events.add("connectionFailed " + connectionIndex + " " + willReconnect);
+    }
+
+    @Override public void disconnected(int connectionIndex) {
+      events.add("disconnected " + connectionIndex);
+    }
+
+    @Override public void messageReceived(int connectionIndex, @Nonnull Subscription<?, ?, ?> subscription,
+        long byteCount) {
+      events.add("messageReceived " + connectionIndex + " " + subscription.operationId() + " " + byteCount);
+    }
+
+    @Override public void messageDelivered(int connectionIndex, @Nonnull Subscription<?, ?, ?> subscription,
+        long parseNanos, long queueingDelayNanos) {
+      assertThat(queueingDelayNanos).isAtLeast(parseNanos);
+      events.add("messageDelivered " + connectionIndex + " " + subscription.operationId());
+    }
+  }
+
   private static class NamedCountDownLatch extends CountDownLatch {
     private String name;
 
@@ -84,6 +84,34 @@ public class WebSocketSubscriptionTransportMessageTest {
         );
   }
 
+  @SuppressWarnings("unchecked")
+  @Test public void dataWithWhitespace() {
+    webSocketFactory.webSocket.listener.onMessage(webSocketFactory.webSocket, "{ \"type\" : \"data\" , \"id\" : \"subscriptionId\" , \"payload\" :\n {\"data\":{\"commentAdded\":{\"__typename\":\"Comment\",\"id\":10,\"content\":\"test10\"}}} , \"extensions\" : {} }");
+    assertThat(transportCallback.lastMessage).isInstanceOf(OperationServerMessage.Data.class);
+    assertThat(((OperationServerMessage.Data) transportCallback.lastMessage).id).isEqualTo("subscriptionId");
+    assertThat((Map<String, Object>) ((Map<String, Object>) ((OperationServerMessage.Data) transportCallback.lastMessage).payload.get("data")).get("commentAdded"))
+        .containsExactlyEntriesIn(new UnmodifiableMapBuilder<String, Object>()
+            .put("__typename", "Comment")
+            .put("id", BigDecimal.valueOf(10))
+            .put("content", "test10")
+            .build()
+        );
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test public void dataBinaryFrame() {
+    webSocketFactory.webSocket.listener.onMessage(webSocketFactory.webSocket, ByteString.encodeUtf8("{\"payload\":{\"data\":{\"commentAdded\":{\"__typename\":\"Comment\",\"id\":10,\"content\":\"test10\"}}},\"id\":\"subscriptionId\",\"type\":\"data\"}"));
+    assertThat(transportCallback.lastMessage).isInstanceOf(OperationServerMessage.Data.class);
+    assertThat(((OperationServerMessage.Data) transportCallback.lastMessage).id).isEqualTo("subscriptionId");
+    assertThat((Map<String, Object>) ((Map<String, Object>) ((OperationServerMessage.Data) transportCallback.lastMessage).payload.get("data")).get("commentAdded"))
+        .containsExactlyEntriesIn(new UnmodifiableMapBuilder<String, Object>()
+            .put("__typename", "Comment")
+            .put("id", BigDecimal.valueOf(10))
+            .put("content", "test10")
+            .build()
+        );
+  }
+
   @Test public void connectionError() {
     webSocketFactory.webSocket.listener.onMessage(webSocketFactory.webSocket, "{\"type\":\"connection_error\",\"payload\":{\"message\":\"Connection Error\"}}");
     assertThat(transportCallback.lastMessage).isInstanceOf(OperationServerMessage.ConnectionError.class);
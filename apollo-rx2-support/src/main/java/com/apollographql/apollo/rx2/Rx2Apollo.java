@@ -7,6 +7,7 @@ import com.apollographql.apollo.ApolloSubscriptionCall;
 import com.apollographql.apollo.api.Response;
 import com.apollographql.apollo.exception.ApolloException;
 import com.apollographql.apollo.internal.util.Cancelable;
+import com.apollographql.apollo.subscription.SubscriptionDeliveryPolicy;
 
 import javax.annotation.Nonnull;
 
@@ -137,14 +138,48 @@ public class Rx2Apollo {
     });
   }
 
+  /**
+   * Converts an {@link ApolloSubscriptionCall} to a Flowable with {@link BackpressureStrategy#LATEST}. The call is
+   * executed with its own {@link SubscriptionDeliveryPolicy}, the backpressure is applied by the Flowable only.
+   *
+   * @param call the ApolloSubscriptionCall to convert
+   * @param <T>  the value type
+   * @return the converted Flowable
+   * @throws NullPointerException if call == null
+   */
   @Nonnull public static <T> Flowable<Response<T>> from(@Nonnull ApolloSubscriptionCall<T> call) {
-    return from(call, BackpressureStrategy.LATEST);
+    checkNotNull(call, "call == null");
+    return toFlowable(call, BackpressureStrategy.LATEST);
   }
 
-  @Nonnull public static <T> Flowable<Response<T>> from(@Nonnull final ApolloSubscriptionCall<T> call,
+  /**
+   * Converts an {@link ApolloSubscriptionCall} to a Flowable. The backpressure strategy is also mapped onto the
+   * {@link SubscriptionDeliveryPolicy} of the call, so the updates the subscriber can't keep up with are dropped before
+   * they are parsed: {@link BackpressureStrategy#LATEST} conflates the pending updates to the latest one,
+   * {@link BackpressureStrategy#DROP} and {@link BackpressureStrategy#ERROR} bound the pending updates to
+   * {@link Flowable#bufferSize()} and drop the new ones or fail respectively. The other strategies keep the delivery
+   * policy of the call.
+   *
+   * <p>Note: for the strategies mapped onto the delivery policy, the Flowable executes a copy of the original call
+   * made with {@link ApolloSubscriptionCall#deliveryPolicy(SubscriptionDeliveryPolicy)}, so canceling the original
+   * call doesn't stop it. Dispose the subscription to the Flowable instead.</p>
+   *
+   * @param originalCall         the ApolloSubscriptionCall to convert
+   * @param backpressureStrategy the backpressure strategy of the Flowable and the delivery of the updates
+   * @param <T>                  the value type
+   * @return the converted Flowable
+   * @throws NullPointerException  if originalCall == null
+   * @throws IllegalStateException if originalCall has already been executed
+   */
+  @Nonnull public static <T> Flowable<Response<T>> from(@Nonnull ApolloSubscriptionCall<T> originalCall,
       @Nonnull BackpressureStrategy backpressureStrategy) {
-    checkNotNull(call, "originalCall == null");
+    checkNotNull(originalCall, "originalCall == null");
     checkNotNull(backpressureStrategy, "backpressureStrategy == null");
+    return toFlowable(withDeliveryPolicy(originalCall, backpressureStrategy), backpressureStrategy);
+  }
+
+  private static <T> Flowable<Response<T>> toFlowable(final ApolloSubscriptionCall<T> call,
+      BackpressureStrategy backpressureStrategy) {
     return Flowable.create(new FlowableOnSubscribe<Response<T>>() {
       @Override public void subscribe(final FlowableEmitter<Response<T>> emitter) throws Exception {
         cancelOnFlowableDisposed(emitter, call);
@@ -174,6 +209,28 @@ public class Rx2Apollo {
     }, backpressureStrategy);
   }
 
+  private static <T> ApolloSubscriptionCall<T> withDeliveryPolicy(ApolloSubscriptionCall<T> call,
+      BackpressureStrategy backpressureStrategy) {
+    switch (backpressureStrategy) {
+      case LATEST:
+        return call.deliveryPolicy(SubscriptionDeliveryPolicy.builder()
+            .conflation(SubscriptionDeliveryPolicy.Conflation.LATEST)
+            .build());
+      case DROP:
+        return call.deliveryPolicy(SubscriptionDeliveryPolicy.builder()
+            .bufferSize(Flowable.bufferSize())
+            .overflowStrategy(SubscriptionDeliveryPolicy.OverflowStrategy.DROP_NEWEST)
+            .build());
+      case ERROR:
+        return call.deliveryPolicy(SubscriptionDeliveryPolicy.builder()
+            .bufferSize(Flowable.bufferSize())
+            .overflowStrategy(SubscriptionDeliveryPolicy.OverflowStrategy.FAIL)
+            .build());
+      default:
+        return call;
+    }
+  }
+
   private static void cancelOnCompletableDisposed(CompletableEmitter emitter, final Cancelable cancelable) {
     emitter.setDisposable(getRx2Disposable(cancelable));
   }